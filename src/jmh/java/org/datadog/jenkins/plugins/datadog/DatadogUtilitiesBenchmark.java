@@ -0,0 +1,79 @@
+package org.datadog.jenkins.plugins.datadog;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import hudson.ExtensionList;
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job filtering done at the beginning of every listener callback, with many
+ * excluded and included patterns. The global configuration is looked up through
+ * a static mock, which must be created and used by the same thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DatadogUtilitiesBenchmark {
+
+    @Param({"10", "100"})
+    public int patterns;
+
+    private MockedStatic<ExtensionList> extensionList;
+    private String trackedJob;
+    private String excludedJob;
+
+    @Setup
+    public void setup() {
+        final List<String> excluded = new ArrayList<>();
+        final List<String> included = new ArrayList<>();
+        for(int i = 0; i < patterns; i++) {
+            excluded.add("team-" + i + "/experimental-.*");
+            included.add("team-" + i + "/.*");
+        }
+        trackedJob = "team-" + (patterns - 1) + "/service/main";
+        excludedJob = "team-" + (patterns - 1) + "/experimental-feature";
+
+        final DatadogGlobalConfiguration cfg = mock(DatadogGlobalConfiguration.class, withSettings().stubOnly());
+        when(cfg.getExcluded()).thenReturn(String.join(",", excluded));
+        when(cfg.getIncluded()).thenReturn(String.join(",", included));
+        extensionList = mockStatic(ExtensionList.class);
+        extensionList.when(() -> ExtensionList.lookupSingleton(DatadogGlobalConfiguration.class)).thenReturn(cfg);
+    }
+
+    @TearDown
+    public void tearDown() {
+        extensionList.close();
+    }
+
+    @Benchmark
+    public boolean isJobTrackedMatchingLastPattern() {
+        return DatadogUtilities.isJobTracked(trackedJob);
+    }
+
+    @Benchmark
+    public boolean isJobTrackedExcluded() {
+        return DatadogUtilities.isJobTracked(excludedJob);
+    }
+}
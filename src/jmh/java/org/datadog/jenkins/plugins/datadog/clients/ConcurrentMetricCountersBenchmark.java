@@ -0,0 +1,75 @@
+package org.datadog.jenkins.plugins.datadog.clients;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counter increments (jenkins.job.started, jenkins.job.completed...) from the build listeners,
+ * with one thread and with 8 threads contending for the counters.
+ * The counters are never flushed, so the map keeps a constant number of entries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentMetricCountersBenchmark {
+
+    private static final int JOBS = 16;
+
+    @State(Scope.Benchmark)
+    public static class Counters {
+        final ConcurrentMetricCounters counters = ConcurrentMetricCounters.getInstance();
+        final List<Map<String, Set<String>>> tagsByJob = new ArrayList<>();
+
+        @Setup
+        public void setup() {
+            for(int i = 0; i < JOBS; i++) {
+                final Map<String, Set<String>> tags = new HashMap<>();
+                tags.put("job", Collections.singleton("job-" + i));
+                tags.put("jenkins_url", Collections.singleton("https://jenkins.example.com/"));
+                tags.put("result", Collections.singleton("SUCCESS"));
+                tagsByJob.add(tags);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Job {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void increment(final Counters counters, final Job job) {
+        doIncrement(counters, job);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void incrementContended(final Counters counters, final Job job) {
+        doIncrement(counters, job);
+    }
+
+    private static void doIncrement(final Counters counters, final Job job) {
+        job.next = (job.next + 1) % JOBS;
+        counters.counters.increment("jenkins.job.completed", "controller-host", counters.tagsByJob.get(job.next));
+    }
+}
@@ -0,0 +1,82 @@
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import net.sf.json.JSONObject;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of shipping a single build log line: building the JSON payload and the tags.
+ * The BuildData and the client are stub-only mocks, so the numbers include a small
+ * constant overhead from Mockito and exclude the network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatadogWriterBenchmark {
+
+    private static final String LINE = "[Pipeline] sh\n+ mvn -B -ntp clean verify -Dmaven.test.failure.ignore=true";
+
+    private DatadogWriter writer;
+
+    @Setup
+    public void setup() {
+        final Map<String, Set<String>> tags = new HashMap<>();
+        for(int i = 0; i < 10; i++) {
+            final Set<String> values = new HashSet<>();
+            values.add("value-" + i);
+            tags.put("tag" + i, values);
+        }
+
+        final BuildData buildData = mock(BuildData.class, withSettings().stubOnly());
+        when(buildData.addLogAttributes()).thenAnswer(invocation -> {
+            final JSONObject attributes = new JSONObject();
+            attributes.put("_dd.hostname", "controller-host");
+            attributes.put("ci.pipeline.url", "https://jenkins.example.com/job/folder/job/project/42/");
+            return attributes;
+        });
+        when(buildData.getTags()).thenAnswer(invocation -> new HashMap<>(tags));
+        when(buildData.getBaseJobName("")).thenReturn("folder/project");
+
+        final DatadogClient client = mock(DatadogClient.class, withSettings().stubOnly());
+        when(client.sendLogs(anyString())).thenReturn(true);
+        ClientFactory.setTestClient(client);
+
+        writer = new DatadogWriter(buildData, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ClientFactory.setTestClient(null);
+    }
+
+    @Benchmark
+    public void write() {
+        writer.write(LINE);
+    }
+}
@@ -0,0 +1,119 @@
+package org.datadog.jenkins.plugins.datadog.model;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.jenkinsci.plugins.workflow.actions.TimingAction;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graph.FlowStartNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the pipeline tree of synthetic flow graphs, adding the nodes in creation order
+ * as the DatadogGraphListener does. Every stage contains a node block with
+ * {@link #STEPS_PER_BLOCK} steps. The FlowNodes are stub-only mocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BuildPipelineBenchmark {
+
+    private static final int STEPS_PER_BLOCK = 46;
+    private static final long START_TIME = 1_600_000_000_000L;
+
+    @Param({"1000", "10000", "50000"})
+    public int nodes;
+
+    private List<FlowNode> flowNodes;
+
+    @Setup
+    public void setup() {
+        final TimingAction timing = mock(TimingAction.class, withSettings().stubOnly());
+        when(timing.getStartTime()).thenReturn(START_TIME);
+
+        flowNodes = new ArrayList<>(nodes);
+        int nextId = 2;
+        final FlowStartNode flowStart = mock(FlowStartNode.class, withSettings().stubOnly());
+        stub(flowStart, nextId++, "Start of Pipeline", timing, Collections.emptyList());
+        flowNodes.add(flowStart);
+
+        // Each stage: stage start, node start, steps, node end, stage end
+        while (flowNodes.size() + STEPS_PER_BLOCK + 5 <= nodes) {
+            final StepStartNode stageStart = mock(StepStartNode.class, withSettings().stubOnly());
+            stub(stageStart, nextId++, "Stage : Start", timing, Collections.singletonList(flowStart));
+            flowNodes.add(stageStart);
+
+            final StepStartNode nodeStart = mock(StepStartNode.class, withSettings().stubOnly());
+            stub(nodeStart, nextId++, "Allocate node : Start", timing, Arrays.asList(stageStart, flowStart));
+            flowNodes.add(nodeStart);
+
+            final List<BlockStartNode> stepEnclosingBlocks = Arrays.asList(nodeStart, stageStart, flowStart);
+            for(int i = 0; i < STEPS_PER_BLOCK; i++) {
+                final StepAtomNode step = mock(StepAtomNode.class, withSettings().stubOnly());
+                stub(step, nextId++, "Shell Script", timing, stepEnclosingBlocks);
+                flowNodes.add(step);
+            }
+
+            flowNodes.add(blockEnd(nextId++, nodeStart, timing, Arrays.asList(stageStart, flowStart)));
+            flowNodes.add(blockEnd(nextId++, stageStart, timing, Collections.singletonList(flowStart)));
+        }
+
+        final FlowEndNode flowEnd = mock(FlowEndNode.class, withSettings().stubOnly());
+        stub(flowEnd, nextId, "End of Pipeline", timing, Collections.emptyList());
+        when(flowEnd.getStartNode()).thenReturn(flowStart);
+        flowNodes.add(flowEnd);
+    }
+
+    @Benchmark
+    public BuildPipeline add() {
+        final BuildPipeline pipeline = new BuildPipeline();
+        for(FlowNode flowNode : flowNodes) {
+            pipeline.add(flowNode);
+        }
+        return pipeline;
+    }
+
+    @Benchmark
+    public BuildPipelineNode addAndBuildTree() {
+        return add().buildTree();
+    }
+
+    private static StepEndNode blockEnd(final int id, final BlockStartNode startNode, final TimingAction timing, final List<BlockStartNode> enclosingBlocks) {
+        final StepEndNode endNode = mock(StepEndNode.class, withSettings().stubOnly());
+        stub(endNode, id, "Block : End", timing, enclosingBlocks);
+        when(endNode.getStartNode()).thenReturn(startNode);
+        return endNode;
+    }
+
+    private static void stub(final FlowNode node, final int id, final String displayName, final TimingAction timing, final List<BlockStartNode> enclosingBlocks) {
+        when(node.getId()).thenReturn(String.valueOf(id));
+        when(node.getDisplayName()).thenReturn(displayName);
+        when(node.getAction(TimingAction.class)).thenReturn(timing);
+        when(node.iterateEnclosingBlocks()).thenReturn(enclosingBlocks);
+    }
+}
@@ -0,0 +1,59 @@
+package org.datadog.jenkins.plugins.datadog.traces.mapper;
+
+import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a batch of spans, as sent by the trace transport (batches of up to 100 spans).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonTraceSpanMapperBenchmark {
+
+    @Param({"1", "100"})
+    public int spans;
+
+    private final JsonTraceSpanMapper mapper = new JsonTraceSpanMapper();
+    private List<TraceSpan> batch;
+
+    @Setup
+    public void setup() {
+        batch = new ArrayList<>(spans);
+        final TraceSpan.TraceSpanContext root = new TraceSpan.TraceSpanContext(1L, 0L, 1L);
+        for(int i = 0; i < spans; i++) {
+            final TraceSpan span = new TraceSpan("ci.job", 1_000_000L * i, new TraceSpan.TraceSpanContext(root.getTraceId(), root.getSpanId(), i + 2L));
+            span.setServiceName("jenkins");
+            span.setResourceName("folder/job/stage-" + i);
+            span.setType("ci");
+            for(int m = 0; m < 30; m++) {
+                span.putMeta("ci.meta." + m, "value-" + m);
+            }
+            span.putMetric("ci.queue_time", 1.5);
+            span.setEndNano(1_000_000L * i + 500_000L);
+            batch.add(span);
+        }
+    }
+
+    @Benchmark
+    public byte[] map() {
+        return mapper.map(batch);
+    }
+}
@@ -0,0 +1,68 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag handling done for every metric and event: merging the build tags
+ * into the global tags and converting them to the DogStatsD format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagsUtilBenchmark {
+
+    @Param({"5", "50"})
+    public int tagCount;
+
+    private Map<String, Set<String>> globalTags;
+    private Map<String, Set<String>> buildTags;
+
+    @Setup
+    public void setup() {
+        globalTags = tags("global", tagCount);
+        buildTags = tags("build", tagCount);
+        // Half of the build tags share the key with a global tag
+        for(int i = 0; i < tagCount / 2; i++) {
+            buildTags.put("global" + i, new HashSet<>(buildTags.remove("build" + i)));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> merge() {
+        return TagsUtil.merge(TagsUtil.merge(new HashMap<>(), globalTags), buildTags);
+    }
+
+    @Benchmark
+    public String[] convertTagsToArray() {
+        return TagsUtil.convertTagsToArray(buildTags);
+    }
+
+    private static Map<String, Set<String>> tags(final String prefix, final int count) {
+        final Map<String, Set<String>> tags = new HashMap<>();
+        for(int i = 0; i < count; i++) {
+            final Set<String> values = new HashSet<>();
+            values.add(prefix + "-value-" + i);
+            tags.put(prefix + i, values);
+        }
+        return tags;
+    }
+}
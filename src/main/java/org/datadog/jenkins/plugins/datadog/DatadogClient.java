@@ -28,9 +28,11 @@ package org.datadog.jenkins.plugins.datadog;
 import com.timgroup.statsd.ServiceCheck;
 import hudson.model.Run;
 import hudson.util.Secret;
+import org.datadog.jenkins.plugins.datadog.clients.GaugeMetric;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -109,6 +111,22 @@ public interface DatadogClient {
      */
     public boolean incrementCounter(String name, String hostname, Map<String, Set<String>> tags);
 
+    /**
+     * Increment a counter for the given metrics by several occurrences at once.
+     * @param name     - metric name
+     * @param hostname - metric hostname
+     * @param tags     - metric tags
+     * @param count    - number of occurrences
+     * @return a boolean to signify the success or failure of increment submission.
+     */
+    public default boolean incrementCounter(String name, String hostname, Map<String, Set<String>> tags, int count) {
+        boolean status = true;
+        for (int i = 0; i < count; i++) {
+            status &= incrementCounter(name, hostname, tags);
+        }
+        return status;
+    }
+
     /**
      * Submit all your counters as rate with 10 seconds intervals.
      */
@@ -125,6 +143,20 @@ public interface DatadogClient {
      */
     public boolean gauge(String name, long value, String hostname, Map<String, Set<String>> tags);
 
+    /**
+     * Sends several gauge metrics. Clients that can submit them in a single request override this method.
+     *
+     * @param gauges - A Collection with the gauge metrics to submit.
+     * @return a boolean to signify the success or failure of the submission of all the gauges.
+     */
+    public default boolean gauges(Collection<GaugeMetric> gauges) {
+        boolean status = true;
+        for (GaugeMetric gauge : gauges) {
+            status &= gauge(gauge.getMetricName(), gauge.getValue(), gauge.getHostname(), gauge.getTags());
+        }
+        return status;
+    }
+
     /**
      * Sends a service check to the Datadog API, including the check name, and status.
      *
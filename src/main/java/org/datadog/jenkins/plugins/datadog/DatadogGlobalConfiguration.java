@@ -51,6 +51,8 @@ import org.apache.commons.lang.math.NumberUtils;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogHttpClient;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogAgentClient;
+import org.datadog.jenkins.plugins.datadog.publishers.ComputerMetricsMode;
+import org.datadog.jenkins.plugins.datadog.telemetry.CallSiteTimer;
 import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
 import org.datadog.jenkins.plugins.datadog.util.config.DatadogAgentConfiguration;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -76,10 +78,13 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     public static final String DD_AGENT_PORT = "DD_AGENT_PORT";
     public static final String DD_TRACE_AGENT_PORT = "DD_TRACE_AGENT_PORT";
     public static final String DD_TRACE_AGENT_URL = "DD_TRACE_AGENT_URL";
+    public static final String DD_DOGSTATSD_URL = "DD_DOGSTATSD_URL";
     // Jenkins Agent EnvVars
     public static final String TARGET_HOST_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_HOST";
     public static final String TARGET_PORT_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_PORT";
     public static final String TARGET_TRACE_COLLECTION_PORT_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_TRACE_COLLECTION_PORT";
+    public static final String TARGET_DOGSTATSD_SOCKET_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_DOGSTATSD_SOCKET";
+    public static final String TARGET_TRACE_SOCKET_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_TRACE_SOCKET";
 
     private static final String REPORT_WITH_PROPERTY = "DATADOG_JENKINS_PLUGIN_REPORT_WITH";
     private static final String TARGET_API_URL_PROPERTY = "DATADOG_JENKINS_PLUGIN_TARGET_API_URL";
@@ -99,12 +104,30 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     private static final String GLOBAL_TAGS_PROPERTY = "DATADOG_JENKINS_PLUGIN_GLOBAL_TAGS";
     private static final String GLOBAL_JOB_TAGS_PROPERTY = "DATADOG_JENKINS_PLUGIN_GLOBAL_JOB_TAGS";
     private static final String EMIT_SECURITY_EVENTS_PROPERTY = "DATADOG_JENKINS_PLUGIN_EMIT_SECURITY_EVENTS";
+    private static final String SECURITY_EVENTS_WINDOW_PROPERTY = "DATADOG_JENKINS_PLUGIN_SECURITY_EVENTS_WINDOW";
     private static final String EMIT_SYSTEM_EVENTS_PROPERTY = "DATADOG_JENKINS_PLUGIN_EMIT_SYSTEM_EVENTS";
+    private static final String COMPUTER_EVENTS_WINDOW_PROPERTY = "DATADOG_JENKINS_PLUGIN_COMPUTER_EVENTS_WINDOW";
     private static final String EMIT_CONFIG_CHANGE_EVENTS_PROPERTY = "DATADOG_JENKINS_PLUGIN_EMIT_CONFIG_CHANGE_EVENTS";
     private static final String COLLECT_BUILD_LOGS_PROPERTY = "DATADOG_JENKINS_PLUGIN_COLLECT_BUILD_LOGS";
+    private static final String LOG_FILTER_RULES_PROPERTY = "DATADOG_JENKINS_PLUGIN_LOG_FILTER_RULES";
+    private static final String LOG_RATE_LIMIT_PROPERTY = "DATADOG_JENKINS_PLUGIN_LOG_RATE_LIMIT";
+    private static final String LOG_MULTI_LINE_PATTERN_PROPERTY = "DATADOG_JENKINS_PLUGIN_LOG_MULTI_LINE_PATTERN";
+    private static final String LOG_MULTI_LINE_TIMEOUT_PROPERTY = "DATADOG_JENKINS_PLUGIN_LOG_MULTI_LINE_TIMEOUT";
+    private static final String FORWARD_LOGS_FROM_AGENTS_PROPERTY = "DATADOG_JENKINS_PLUGIN_FORWARD_LOGS_FROM_AGENTS";
     private static final String RETRY_LOGS_PROPERTY = "DATADOG_JENKINS_PLUGIN_RETRY_LOGS";
     private static final String REFRESH_DOGSTATSD_CLIENT_PROPERTY = "DATADOG_REFRESH_STATSD_CLIENT";
     private static final String CACHE_BUILD_RUNS_PROPERTY = "DATADOG_CACHE_BUILD_RUNS";
+    private static final String JOURNAL_TRACE_DATA_PROPERTY = "DATADOG_JENKINS_PLUGIN_JOURNAL_TRACE_DATA";
+    private static final String PERSIST_GIT_METADATA_CACHE_PROPERTY = "DATADOG_JENKINS_PLUGIN_PERSIST_GIT_METADATA_CACHE";
+    private static final String EMIT_PIPELINE_SPANS_ON_COMPLETION_PROPERTY = "DATADOG_JENKINS_PLUGIN_EMIT_PIPELINE_SPANS_ON_COMPLETION";
+    private static final String TRACE_SAMPLING_RULES_PROPERTY = "DATADOG_JENKINS_PLUGIN_TRACE_SAMPLING_RULES";
+    private static final String TRACE_SAMPLING_SLOW_THRESHOLD_PROPERTY = "DATADOG_JENKINS_PLUGIN_TRACE_SAMPLING_SLOW_THRESHOLD";
+    private static final String SPAN_COLLAPSING_THRESHOLD_PROPERTY = "DATADOG_JENKINS_PLUGIN_SPAN_COLLAPSING_THRESHOLD";
+    private static final String COMPUTER_METRICS_MODE_PROPERTY = "DATADOG_JENKINS_PLUGIN_COMPUTER_METRICS_MODE";
+    private static final String QUEUE_METRICS_MAX_JOBS_PROPERTY = "DATADOG_JENKINS_PLUGIN_QUEUE_METRICS_MAX_JOBS";
+    private static final String QUEUE_METRICS_INTERVAL_PROPERTY = "DATADOG_JENKINS_PLUGIN_QUEUE_METRICS_INTERVAL";
+    private static final String EMIT_PLUGIN_TELEMETRY_PROPERTY = "DATADOG_JENKINS_PLUGIN_EMIT_PLUGIN_TELEMETRY";
+    private static final String COLLECT_CALL_SITE_TIMINGS_PROPERTY = "DATADOG_JENKINS_PLUGIN_COLLECT_CALL_SITE_TIMINGS";
 
     private static final String ENABLE_CI_VISIBILITY_PROPERTY = "DATADOG_JENKINS_PLUGIN_ENABLE_CI_VISIBILITY";
     private static final String CI_VISIBILITY_CI_INSTANCE_NAME_PROPERTY = "DATADOG_JENKINS_PLUGIN_CI_VISIBILITY_CI_INSTANCE_NAME";
@@ -119,13 +142,31 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     private static final String DEFAULT_CI_INSTANCE_NAME = "jenkins";
     private static final Integer DEFAULT_TARGET_LOG_COLLECTION_PORT_VALUE = null;
     private static final boolean DEFAULT_EMIT_SECURITY_EVENTS_VALUE = true;
+    private static final Integer DEFAULT_SECURITY_EVENTS_WINDOW_VALUE = 60;
     private static final boolean DEFAULT_EMIT_SYSTEM_EVENTS_VALUE = true;
+    private static final Integer DEFAULT_COMPUTER_EVENTS_WINDOW_VALUE = 60;
     private static final boolean DEFAULT_EMIT_CONFIG_CHANGE_EVENTS_VALUE = false;
     private static final boolean DEFAULT_COLLECT_BUILD_LOGS_VALUE = false;
+    private static final String DEFAULT_LOG_FILTER_RULES_VALUE = null;
+    private static final Integer DEFAULT_LOG_RATE_LIMIT_VALUE = 0;
+    private static final String DEFAULT_LOG_MULTI_LINE_PATTERN_VALUE = null;
+    private static final Integer DEFAULT_LOG_MULTI_LINE_TIMEOUT_VALUE = 1000;
+    private static final boolean DEFAULT_FORWARD_LOGS_FROM_AGENTS_VALUE = false;
     private static final boolean DEFAULT_COLLECT_BUILD_TRACES_VALUE = false;
     private static final boolean DEFAULT_RETRY_LOGS_VALUE = true;
     private static final boolean DEFAULT_REFRESH_DOGSTATSD_CLIENT_VALUE = false;
     private static final boolean DEFAULT_CACHE_BUILD_RUNS_VALUE = true;
+    private static final boolean DEFAULT_JOURNAL_TRACE_DATA_VALUE = false;
+    private static final boolean DEFAULT_PERSIST_GIT_METADATA_CACHE_VALUE = false;
+    private static final boolean DEFAULT_EMIT_PIPELINE_SPANS_ON_COMPLETION_VALUE = false;
+    private static final String DEFAULT_TRACE_SAMPLING_RULES_VALUE = null;
+    private static final Integer DEFAULT_TRACE_SAMPLING_SLOW_THRESHOLD_VALUE = 0;
+    private static final Integer DEFAULT_SPAN_COLLAPSING_THRESHOLD_VALUE = 0;
+    private static final String DEFAULT_COMPUTER_METRICS_MODE_VALUE = ComputerMetricsMode.ALL_NODES.name();
+    private static final Integer DEFAULT_QUEUE_METRICS_MAX_JOBS_VALUE = 0;
+    private static final Integer DEFAULT_QUEUE_METRICS_INTERVAL_VALUE = 60;
+    private static final boolean DEFAULT_EMIT_PLUGIN_TELEMETRY_VALUE = false;
+    private static final boolean DEFAULT_COLLECT_CALL_SITE_TIMINGS_VALUE = false;
 
     private String reportWith = DEFAULT_REPORT_WITH_VALUE;
     private String targetApiURL = DEFAULT_TARGET_API_URL_VALUE;
@@ -138,6 +179,8 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     private Integer targetPort = DEFAULT_TARGET_PORT_VALUE;
     private Integer targetLogCollectionPort = DEFAULT_TARGET_LOG_COLLECTION_PORT_VALUE;
     private Integer targetTraceCollectionPort = DEFAULT_TRACE_COLLECTION_PORT_VALUE;
+    private String targetDogStatsDSocket = null;
+    private String targetTraceSocket = null;
     private String traceServiceName = DEFAULT_CI_INSTANCE_NAME;
     private String hostname = null;
     private String blacklist = null;
@@ -146,18 +189,37 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     private String globalTags = null;
     private String globalJobTags = null;
     private boolean emitSecurityEvents = DEFAULT_EMIT_SECURITY_EVENTS_VALUE;
+    private Integer securityEventsWindow = DEFAULT_SECURITY_EVENTS_WINDOW_VALUE;
     private boolean emitSystemEvents = DEFAULT_EMIT_SYSTEM_EVENTS_VALUE;
+    private Integer computerEventsWindow = DEFAULT_COMPUTER_EVENTS_WINDOW_VALUE;
     private boolean emitConfigChangeEvents = DEFAULT_EMIT_CONFIG_CHANGE_EVENTS_VALUE;
     private boolean collectBuildLogs = DEFAULT_COLLECT_BUILD_LOGS_VALUE;
+    private String logFilterRules = DEFAULT_LOG_FILTER_RULES_VALUE;
+    private Integer logRateLimit = DEFAULT_LOG_RATE_LIMIT_VALUE;
+    private String logMultiLinePattern = DEFAULT_LOG_MULTI_LINE_PATTERN_VALUE;
+    private Integer logMultiLineTimeout = DEFAULT_LOG_MULTI_LINE_TIMEOUT_VALUE;
+    private boolean forwardLogsFromAgents = DEFAULT_FORWARD_LOGS_FROM_AGENTS_VALUE;
     private boolean collectBuildTraces = DEFAULT_COLLECT_BUILD_TRACES_VALUE;
     private boolean retryLogs = DEFAULT_RETRY_LOGS_VALUE;
     private boolean refreshDogstatsdClient = DEFAULT_REFRESH_DOGSTATSD_CLIENT_VALUE;
     private boolean cacheBuildRuns = DEFAULT_CACHE_BUILD_RUNS_VALUE;
+    private boolean journalTraceData = DEFAULT_JOURNAL_TRACE_DATA_VALUE;
+    private boolean persistGitMetadataCache = DEFAULT_PERSIST_GIT_METADATA_CACHE_VALUE;
+    private boolean emitPipelineSpansOnCompletion = DEFAULT_EMIT_PIPELINE_SPANS_ON_COMPLETION_VALUE;
+    private String traceSamplingRules = DEFAULT_TRACE_SAMPLING_RULES_VALUE;
+    private Integer traceSamplingSlowThreshold = DEFAULT_TRACE_SAMPLING_SLOW_THRESHOLD_VALUE;
+    private Integer spanCollapsingThreshold = DEFAULT_SPAN_COLLAPSING_THRESHOLD_VALUE;
+    private String computerMetricsMode = DEFAULT_COMPUTER_METRICS_MODE_VALUE;
+    private Integer queueMetricsMaxJobs = DEFAULT_QUEUE_METRICS_MAX_JOBS_VALUE;
+    private Integer queueMetricsInterval = DEFAULT_QUEUE_METRICS_INTERVAL_VALUE;
+    private boolean emitPluginTelemetry = DEFAULT_EMIT_PLUGIN_TELEMETRY_VALUE;
+    private boolean collectCallSiteTimings = DEFAULT_COLLECT_CALL_SITE_TIMINGS_VALUE;
 
     @DataBoundConstructor
     public DatadogGlobalConfiguration() {
         load(); // Load the persisted global configuration
         loadEnvVariables(); // Load environment variables after as they should take precedence.
+        CallSiteTimer.setEnabled(collectCallSiteTimings);
     }
 
     private void loadEnvVariables(){
@@ -201,6 +263,14 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             this.targetTraceCollectionPort = agentConfig.getTracesPort();
         }
 
+        if(StringUtils.isNotBlank(agentConfig.getDogStatsDSocketPath())) {
+            this.targetDogStatsDSocket = agentConfig.getDogStatsDSocketPath();
+        }
+
+        if(StringUtils.isNotBlank(agentConfig.getTraceSocketPath())) {
+            this.targetTraceSocket = agentConfig.getTraceSocketPath();
+        }
+
         String targetLogCollectionPortEnvVar = System.getenv(TARGET_LOG_COLLECTION_PORT_PROPERTY);
         if(StringUtils.isNotBlank(targetLogCollectionPortEnvVar) && StringUtils.isNumeric(targetLogCollectionPortEnvVar)){
             this.targetLogCollectionPort = Integer.valueOf(targetLogCollectionPortEnvVar);
@@ -258,11 +328,21 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             this.emitSecurityEvents = Boolean.valueOf(emitSecurityEventsEnvVar);
         }
 
+        String securityEventsWindowEnvVar = System.getenv(SECURITY_EVENTS_WINDOW_PROPERTY);
+        if(StringUtils.isNotBlank(securityEventsWindowEnvVar)){
+            this.securityEventsWindow = Integer.valueOf(securityEventsWindowEnvVar);
+        }
+
         String emitSystemEventsEnvVar = System.getenv(EMIT_SYSTEM_EVENTS_PROPERTY);
         if(StringUtils.isNotBlank(emitSystemEventsEnvVar)){
             this.emitSystemEvents = Boolean.valueOf(emitSystemEventsEnvVar);
         }
 
+        String computerEventsWindowEnvVar = System.getenv(COMPUTER_EVENTS_WINDOW_PROPERTY);
+        if(StringUtils.isNotBlank(computerEventsWindowEnvVar)){
+            this.computerEventsWindow = Integer.valueOf(computerEventsWindowEnvVar);
+        }
+
         String emitConfigChangeEventsEnvVar = System.getenv(EMIT_CONFIG_CHANGE_EVENTS_PROPERTY);
         if(StringUtils.isNotBlank(emitConfigChangeEventsEnvVar)){
             this.emitConfigChangeEvents = Boolean.valueOf(emitConfigChangeEventsEnvVar);
@@ -273,6 +353,31 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             this.collectBuildLogs = Boolean.valueOf(collectBuildLogsEnvVar);
         }
 
+        String logFilterRulesEnvVar = System.getenv(LOG_FILTER_RULES_PROPERTY);
+        if(StringUtils.isNotBlank(logFilterRulesEnvVar)){
+            this.logFilterRules = logFilterRulesEnvVar;
+        }
+
+        String logRateLimitEnvVar = System.getenv(LOG_RATE_LIMIT_PROPERTY);
+        if(StringUtils.isNotBlank(logRateLimitEnvVar)){
+            this.logRateLimit = Integer.valueOf(logRateLimitEnvVar);
+        }
+
+        String logMultiLinePatternEnvVar = System.getenv(LOG_MULTI_LINE_PATTERN_PROPERTY);
+        if(StringUtils.isNotBlank(logMultiLinePatternEnvVar)){
+            this.logMultiLinePattern = logMultiLinePatternEnvVar;
+        }
+
+        String logMultiLineTimeoutEnvVar = System.getenv(LOG_MULTI_LINE_TIMEOUT_PROPERTY);
+        if(StringUtils.isNotBlank(logMultiLineTimeoutEnvVar)){
+            this.logMultiLineTimeout = Integer.valueOf(logMultiLineTimeoutEnvVar);
+        }
+
+        String forwardLogsFromAgentsEnvVar = System.getenv(FORWARD_LOGS_FROM_AGENTS_PROPERTY);
+        if(StringUtils.isNotBlank(forwardLogsFromAgentsEnvVar)){
+            this.forwardLogsFromAgents = Boolean.valueOf(forwardLogsFromAgentsEnvVar);
+        }
+
         String retryLogsEnvVar = System.getenv(RETRY_LOGS_PROPERTY);
         if(StringUtils.isNotBlank(retryLogsEnvVar)){
             this.retryLogs = Boolean.valueOf(retryLogsEnvVar);
@@ -288,6 +393,61 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             this.cacheBuildRuns = Boolean.valueOf(cacheBuildRunsEnvVar);
         }
 
+        String journalTraceDataEnvVar = System.getenv(JOURNAL_TRACE_DATA_PROPERTY);
+        if(StringUtils.isNotBlank(journalTraceDataEnvVar)){
+            this.journalTraceData = Boolean.valueOf(journalTraceDataEnvVar);
+        }
+
+        String persistGitMetadataCacheEnvVar = System.getenv(PERSIST_GIT_METADATA_CACHE_PROPERTY);
+        if(StringUtils.isNotBlank(persistGitMetadataCacheEnvVar)){
+            this.persistGitMetadataCache = Boolean.valueOf(persistGitMetadataCacheEnvVar);
+        }
+
+        String emitPipelineSpansOnCompletionEnvVar = System.getenv(EMIT_PIPELINE_SPANS_ON_COMPLETION_PROPERTY);
+        if(StringUtils.isNotBlank(emitPipelineSpansOnCompletionEnvVar)){
+            this.emitPipelineSpansOnCompletion = Boolean.valueOf(emitPipelineSpansOnCompletionEnvVar);
+        }
+
+        String traceSamplingRulesEnvVar = System.getenv(TRACE_SAMPLING_RULES_PROPERTY);
+        if(StringUtils.isNotBlank(traceSamplingRulesEnvVar)){
+            this.traceSamplingRules = traceSamplingRulesEnvVar;
+        }
+
+        String traceSamplingSlowThresholdEnvVar = System.getenv(TRACE_SAMPLING_SLOW_THRESHOLD_PROPERTY);
+        if(StringUtils.isNotBlank(traceSamplingSlowThresholdEnvVar)){
+            this.traceSamplingSlowThreshold = Integer.valueOf(traceSamplingSlowThresholdEnvVar);
+        }
+
+        String spanCollapsingThresholdEnvVar = System.getenv(SPAN_COLLAPSING_THRESHOLD_PROPERTY);
+        if(StringUtils.isNotBlank(spanCollapsingThresholdEnvVar)){
+            this.spanCollapsingThreshold = Integer.valueOf(spanCollapsingThresholdEnvVar);
+        }
+
+        String computerMetricsModeEnvVar = System.getenv(COMPUTER_METRICS_MODE_PROPERTY);
+        if(StringUtils.isNotBlank(computerMetricsModeEnvVar)){
+            this.computerMetricsMode = computerMetricsModeEnvVar;
+        }
+
+        String queueMetricsMaxJobsEnvVar = System.getenv(QUEUE_METRICS_MAX_JOBS_PROPERTY);
+        if(StringUtils.isNotBlank(queueMetricsMaxJobsEnvVar)){
+            this.queueMetricsMaxJobs = Integer.valueOf(queueMetricsMaxJobsEnvVar);
+        }
+
+        String queueMetricsIntervalEnvVar = System.getenv(QUEUE_METRICS_INTERVAL_PROPERTY);
+        if(StringUtils.isNotBlank(queueMetricsIntervalEnvVar)){
+            this.queueMetricsInterval = Integer.valueOf(queueMetricsIntervalEnvVar);
+        }
+
+        String emitPluginTelemetryEnvVar = System.getenv(EMIT_PLUGIN_TELEMETRY_PROPERTY);
+        if(StringUtils.isNotBlank(emitPluginTelemetryEnvVar)){
+            this.emitPluginTelemetry = Boolean.valueOf(emitPluginTelemetryEnvVar);
+        }
+
+        String collectCallSiteTimingsEnvVar = System.getenv(COLLECT_CALL_SITE_TIMINGS_PROPERTY);
+        if(StringUtils.isNotBlank(collectCallSiteTimingsEnvVar)){
+            this.collectCallSiteTimings = Boolean.valueOf(collectCallSiteTimingsEnvVar);
+        }
+
         String enableCiVisibilityVar = System.getenv(ENABLE_CI_VISIBILITY_PROPERTY);
         if(StringUtils.isNotBlank(enableCiVisibilityVar)) {
             this.collectBuildTraces = Boolean.valueOf(enableCiVisibilityVar);
@@ -444,6 +604,19 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
     }
 
 
+    /**
+     * Populates the computerMetricsMode field from the configuration screen with all of the available modes.
+     *
+     * @return a ListBoxModel object used to display all of the available modes.
+     */
+    public ListBoxModel doFillComputerMetricsModeItems() {
+        ListBoxModel items = new ListBoxModel();
+        for (ComputerMetricsMode mode : ComputerMetricsMode.values()) {
+            items.add(mode.getDisplayName(), mode.name());
+        }
+        return items;
+    }
+
     /**
      * Tests the targetCredentialsApiKey field from the configuration screen, to check its' validity.
      *
@@ -693,6 +866,8 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             }else{
                 this.setTargetTraceCollectionPort(null);
             }
+            this.setTargetDogStatsDSocket(formData.optString("targetDogStatsDSocket"));
+            this.setTargetTraceSocket(formData.optString("targetTraceSocket"));
 
             try {
                 final JSONObject ciVisibilityData = formData.getJSONObject("ciVisibilityData");
@@ -739,10 +914,23 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
             this.setGlobalTags(formData.getString("globalTags"));
             this.setGlobalJobTags(formData.getString("globalJobTags"));
             this.setEmitSecurityEvents(formData.getBoolean("emitSecurityEvents"));
+            this.setSecurityEventsWindow(formData.optInt("securityEventsWindow", DEFAULT_SECURITY_EVENTS_WINDOW_VALUE));
             this.setRetryLogs(formData.getBoolean("retryLogs"));
             this.setRefreshDogstatsdClient(formData.getBoolean("refreshDogstatsdClient"));
             this.setCacheBuildRuns(formData.getBoolean("cacheBuildRuns"));
+            this.setJournalTraceData(formData.getBoolean("journalTraceData"));
+            this.setPersistGitMetadataCache(formData.getBoolean("persistGitMetadataCache"));
+            this.setEmitPipelineSpansOnCompletion(formData.getBoolean("emitPipelineSpansOnCompletion"));
+            this.setTraceSamplingRules(formData.getString("traceSamplingRules"));
+            this.setTraceSamplingSlowThreshold(formData.optInt("traceSamplingSlowThreshold", DEFAULT_TRACE_SAMPLING_SLOW_THRESHOLD_VALUE));
+            this.setSpanCollapsingThreshold(formData.optInt("spanCollapsingThreshold", DEFAULT_SPAN_COLLAPSING_THRESHOLD_VALUE));
+            this.setComputerMetricsMode(formData.getString("computerMetricsMode"));
+            this.setQueueMetricsMaxJobs(formData.optInt("queueMetricsMaxJobs", DEFAULT_QUEUE_METRICS_MAX_JOBS_VALUE));
+            this.setQueueMetricsInterval(formData.optInt("queueMetricsInterval", DEFAULT_QUEUE_METRICS_INTERVAL_VALUE));
+            this.setEmitPluginTelemetry(formData.getBoolean("emitPluginTelemetry"));
+            this.setCollectCallSiteTimings(formData.getBoolean("collectCallSiteTimings"));
             this.setEmitSystemEvents(formData.getBoolean("emitSystemEvents"));
+            this.setComputerEventsWindow(formData.optInt("computerEventsWindow", DEFAULT_COMPUTER_EVENTS_WINDOW_VALUE));
             this.setEmitConfigChangeEvents(formData.getBoolean("emitConfigChangeEvents"));
 
             boolean collectBuildLogs = formData.getBoolean("collectBuildLogs");
@@ -750,13 +938,19 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
                 throw new FormException("Logs Collection requires a valid Log Collection port", "collectBuildLogs");
             }
             this.setCollectBuildLogs(formData.getBoolean("collectBuildLogs"));
+            this.setLogFilterRules(formData.getString("logFilterRules"));
+            this.setLogRateLimit(formData.optInt("logRateLimit", DEFAULT_LOG_RATE_LIMIT_VALUE));
+            this.setLogMultiLinePattern(formData.getString("logMultiLinePattern"));
+            this.setLogMultiLineTimeout(formData.optInt("logMultiLineTimeout", DEFAULT_LOG_MULTI_LINE_TIMEOUT_VALUE));
+            this.setForwardLogsFromAgents(formData.getBoolean("forwardLogsFromAgents"));
 
             final Secret apiKeySecret = findSecret(formData.getString("targetApiKey"), formData.getString("targetCredentialsApiKey"));
             this.setUsedApiKey(apiKeySecret);
             //When form is saved....
             DatadogClient client = ClientFactory.getClient(DatadogClient.ClientType.valueOf(this.getReportWith()), this.getTargetApiURL(),
                 this.getTargetLogIntakeURL(), this.getTargetWebhookIntakeURL(), this.getUsedApiKey(), this.getTargetHost(),
-                this.getTargetPort(), this.getTargetLogCollectionPort(), this.getTargetTraceCollectionPort(), this.getCiInstanceName());
+                this.getTargetPort(), this.getTargetLogCollectionPort(), this.getTargetTraceCollectionPort(),
+                this.getTargetDogStatsDSocket(), this.getTargetTraceSocket(), this.getCiInstanceName());
                 // ...reinitialize the DatadogClient
             if(client == null) {
                 return false;
@@ -993,6 +1187,44 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
         this.targetTraceCollectionPort = targetTraceCollectionPort;
     }
 
+    /**
+     * Getter function for the targetDogStatsDSocket global configuration.
+     *
+     * @return a String containing the path of the DogStatsD Unix Domain Socket, or null to use the host and port.
+     */
+    public String getTargetDogStatsDSocket() {
+        return targetDogStatsDSocket;
+    }
+
+    /**
+     * Setter function for the targetDogStatsDSocket global configuration.
+     *
+     * @param targetDogStatsDSocket = A string containing the path of the DogStatsD Unix Domain Socket
+     */
+    @DataBoundSetter
+    public void setTargetDogStatsDSocket(String targetDogStatsDSocket) {
+        this.targetDogStatsDSocket = StringUtils.isNotBlank(targetDogStatsDSocket) ? targetDogStatsDSocket.trim() : null;
+    }
+
+    /**
+     * Getter function for the targetTraceSocket global configuration.
+     *
+     * @return a String containing the path of the trace Unix Domain Socket, or null to use the host and port.
+     */
+    public String getTargetTraceSocket() {
+        return targetTraceSocket;
+    }
+
+    /**
+     * Setter function for the targetTraceSocket global configuration.
+     *
+     * @param targetTraceSocket = A string containing the path of the trace Unix Domain Socket
+     */
+    @DataBoundSetter
+    public void setTargetTraceSocket(String targetTraceSocket) {
+        this.targetTraceSocket = StringUtils.isNotBlank(targetTraceSocket) ? targetTraceSocket.trim() : null;
+    }
+
     /**
      * Getter function for the traceServiceName global configuration.
      *
@@ -1212,6 +1444,23 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
         this.emitSecurityEvents = emitSecurityEvents;
     }
 
+    /**
+     * @return - An {@link Integer} with the number of seconds during which the security events of a user are coalesced (0 to send all of them).
+     */
+    public Integer getSecurityEventsWindow() {
+        return securityEventsWindow;
+    }
+
+    /**
+     * Setter function for the securityEventsWindow global configuration.
+     *
+     * @param securityEventsWindow - The number of seconds during which the security events of a user are coalesced (0 to send all of them)
+     */
+    @DataBoundSetter
+    public void setSecurityEventsWindow(Integer securityEventsWindow) {
+        this.securityEventsWindow = securityEventsWindow;
+    }
+
     /**
      * @return - A {@link Boolean} indicating if the user has configured Datadog to retry sending logs.
      */
@@ -1263,6 +1512,194 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
         this.cacheBuildRuns = cacheBuildRuns;
     }
 
+    /**
+     * @return - A {@link Boolean} indicating if the user has configured Datadog to journal the trace data of running builds to disk.
+     */
+    public boolean isJournalTraceData() {
+        return journalTraceData;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param journalTraceData - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setJournalTraceData(boolean journalTraceData) {
+        this.journalTraceData = journalTraceData;
+    }
+
+    /**
+     * @return - A {@link Boolean} indicating if the user has configured Datadog to persist the Git metadata cache in JENKINS_HOME.
+     */
+    public boolean isPersistGitMetadataCache() {
+        return persistGitMetadataCache;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param persistGitMetadataCache - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setPersistGitMetadataCache(boolean persistGitMetadataCache) {
+        this.persistGitMetadataCache = persistGitMetadataCache;
+    }
+
+    /**
+     * @return - A {@link Boolean} indicating if the user has configured Datadog to send the stage and step spans of a pipeline as soon as they complete.
+     */
+    public boolean isEmitPipelineSpansOnCompletion() {
+        return emitPipelineSpansOnCompletion;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param emitPipelineSpansOnCompletion - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setEmitPipelineSpansOnCompletion(boolean emitPipelineSpansOnCompletion) {
+        this.emitPipelineSpansOnCompletion = emitPipelineSpansOnCompletion;
+    }
+
+    /**
+     * @return - A {@link String} with the sampling rules of the successful pipelines, one rule per line.
+     */
+    public String getTraceSamplingRules() {
+        return traceSamplingRules;
+    }
+
+    /**
+     * Setter function for the traceSamplingRules global configuration.
+     *
+     * @param traceSamplingRules - The sampling rules of the successful pipelines: a job name regex, the percentage of runs to keep and, optionally, the maximum runs to keep per hour
+     */
+    @DataBoundSetter
+    public void setTraceSamplingRules(String traceSamplingRules) {
+        this.traceSamplingRules = traceSamplingRules;
+    }
+
+    /**
+     * @return - An {@link Integer} with the duration in seconds over which the runs are always kept by the trace sampling (0 to disable).
+     */
+    public Integer getTraceSamplingSlowThreshold() {
+        return traceSamplingSlowThreshold;
+    }
+
+    /**
+     * Setter function for the traceSamplingSlowThreshold global configuration.
+     *
+     * @param traceSamplingSlowThreshold - The duration in seconds over which the runs are always kept by the trace sampling (0 to disable)
+     */
+    @DataBoundSetter
+    public void setTraceSamplingSlowThreshold(Integer traceSamplingSlowThreshold) {
+        this.traceSamplingSlowThreshold = traceSamplingSlowThreshold;
+    }
+
+    /**
+     * @return - An {@link Integer} with the duration in milliseconds under which sibling steps with the same name are collapsed into a single span (0 to disable).
+     */
+    public Integer getSpanCollapsingThreshold() {
+        return spanCollapsingThreshold;
+    }
+
+    /**
+     * Setter function for the spanCollapsingThreshold global configuration.
+     *
+     * @param spanCollapsingThreshold - The duration in milliseconds under which sibling steps with the same name are collapsed into a single span (0 to disable)
+     */
+    @DataBoundSetter
+    public void setSpanCollapsingThreshold(Integer spanCollapsingThreshold) {
+        this.spanCollapsingThreshold = spanCollapsingThreshold;
+    }
+
+    /**
+     * @return - A {@link String} with the name of the {@link ComputerMetricsMode} used to submit node and executor metrics.
+     */
+    public String getComputerMetricsMode() {
+        return computerMetricsMode;
+    }
+
+    /**
+     * Setter function for the computerMetricsMode global configuration.
+     *
+     * @param computerMetricsMode - The name of a {@link ComputerMetricsMode}
+     */
+    @DataBoundSetter
+    public void setComputerMetricsMode(String computerMetricsMode) {
+        this.computerMetricsMode = computerMetricsMode;
+    }
+
+    /**
+     * @return - An {@link Integer} with the maximum number of jobs with their own jenkins.queue.job.* series (0 for no limit).
+     */
+    public Integer getQueueMetricsMaxJobs() {
+        return queueMetricsMaxJobs;
+    }
+
+    /**
+     * Setter function for the queueMetricsMaxJobs global configuration.
+     *
+     * @param queueMetricsMaxJobs - The maximum number of jobs with their own series, the rest are reported as job_name:other (0 for no limit)
+     */
+    @DataBoundSetter
+    public void setQueueMetricsMaxJobs(Integer queueMetricsMaxJobs) {
+        this.queueMetricsMaxJobs = queueMetricsMaxJobs;
+    }
+
+    /**
+     * @return - An {@link Integer} with the number of seconds between two submissions of the queue metrics.
+     */
+    public Integer getQueueMetricsInterval() {
+        return queueMetricsInterval;
+    }
+
+    /**
+     * Setter function for the queueMetricsInterval global configuration.
+     *
+     * @param queueMetricsInterval - The number of seconds between two submissions of the queue metrics
+     */
+    @DataBoundSetter
+    public void setQueueMetricsInterval(Integer queueMetricsInterval) {
+        this.queueMetricsInterval = queueMetricsInterval;
+    }
+
+    /**
+     * @return - A {@link Boolean} indicating if the plugin submits its own datadog.jenkins.plugin.* metrics.
+     */
+    public boolean isEmitPluginTelemetry() {
+        return emitPluginTelemetry;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param emitPluginTelemetry - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setEmitPluginTelemetry(boolean emitPluginTelemetry) {
+        this.emitPluginTelemetry = emitPluginTelemetry;
+    }
+
+    /**
+     * @return - A {@link Boolean} indicating if the execution time of the plugin hot paths is recorded.
+     */
+    public boolean isCollectCallSiteTimings() {
+        return collectCallSiteTimings;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param collectCallSiteTimings - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setCollectCallSiteTimings(boolean collectCallSiteTimings) {
+        this.collectCallSiteTimings = collectCallSiteTimings;
+        CallSiteTimer.setEnabled(collectCallSiteTimings);
+    }
+
     /**
      * @return - A {@link Boolean} indicating if the user has configured Datadog to emit System related events.
      */
@@ -1280,6 +1717,23 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
         this.emitSystemEvents = emitSystemEvents;
     }
 
+    /**
+     * @return - An {@link Integer} with the number of seconds during which the node events of a label are summarized (0 to send all of them).
+     */
+    public Integer getComputerEventsWindow() {
+        return computerEventsWindow;
+    }
+
+    /**
+     * Setter function for the computerEventsWindow global configuration.
+     *
+     * @param computerEventsWindow - The number of seconds during which the node events of a label are summarized (0 to send all of them)
+     */
+    @DataBoundSetter
+    public void setComputerEventsWindow(Integer computerEventsWindow) {
+        this.computerEventsWindow = computerEventsWindow;
+    }
+
     /**
      * @return - A {@link Boolean} indicating if the user has configured Datadog to emit Config Change events.
      */
@@ -1314,6 +1768,91 @@ public class DatadogGlobalConfiguration extends GlobalConfiguration {
         this.collectBuildLogs = collectBuildLogs;
     }
 
+    /**
+     * @return - A {@link String} with the rules filtering the collected log lines, one rule per line.
+     */
+    public String getLogFilterRules() {
+        return logFilterRules;
+    }
+
+    /**
+     * Setter function for the logFilterRules global configuration.
+     *
+     * @param logFilterRules - The rules filtering the collected log lines: keep, drop or sample:N followed by a regex
+     */
+    @DataBoundSetter
+    public void setLogFilterRules(String logFilterRules) {
+        this.logFilterRules = logFilterRules;
+    }
+
+    /**
+     * @return - An {@link Integer} with the maximum log lines per second collected from a build (0 to disable).
+     */
+    public Integer getLogRateLimit() {
+        return logRateLimit;
+    }
+
+    /**
+     * Setter function for the logRateLimit global configuration.
+     *
+     * @param logRateLimit - The maximum log lines per second collected from a build (0 to disable)
+     */
+    @DataBoundSetter
+    public void setLogRateLimit(Integer logRateLimit) {
+        this.logRateLimit = logRateLimit;
+    }
+
+    /**
+     * @return - A {@link String} with the regex matching the first line of a multi-line log record.
+     */
+    public String getLogMultiLinePattern() {
+        return logMultiLinePattern;
+    }
+
+    /**
+     * Setter function for the logMultiLinePattern global configuration.
+     *
+     * @param logMultiLinePattern - The regex matching the first line of a multi-line log record
+     */
+    @DataBoundSetter
+    public void setLogMultiLinePattern(String logMultiLinePattern) {
+        this.logMultiLinePattern = logMultiLinePattern;
+    }
+
+    /**
+     * @return - An {@link Integer} with the milliseconds without new lines after which a multi-line log record is sent.
+     */
+    public Integer getLogMultiLineTimeout() {
+        return logMultiLineTimeout;
+    }
+
+    /**
+     * Setter function for the logMultiLineTimeout global configuration.
+     *
+     * @param logMultiLineTimeout - The milliseconds without new lines after which a multi-line log record is sent
+     */
+    @DataBoundSetter
+    public void setLogMultiLineTimeout(Integer logMultiLineTimeout) {
+        this.logMultiLineTimeout = logMultiLineTimeout;
+    }
+
+    /**
+     * @return - A {@link Boolean} indicating if the user has configured Datadog to send the logs of the pipeline steps running on agents directly from the agents.
+     */
+    public boolean isForwardLogsFromAgents() {
+        return forwardLogsFromAgents;
+    }
+
+    /**
+     * Set the checkbox in the UI, used for Jenkins data binding
+     *
+     * @param forwardLogsFromAgents - The checkbox status (checked/unchecked)
+     */
+    @DataBoundSetter
+    public void setForwardLogsFromAgents(boolean forwardLogsFromAgents) {
+        this.forwardLogsFromAgents = forwardLogsFromAgents;
+    }
+
     /**
      * @return - A {@link Boolean} indicating if the user has configured Datadog to collect traces.
      * @deprecated Use isEnabledCiVisibility
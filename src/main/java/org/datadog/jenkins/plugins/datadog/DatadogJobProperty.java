@@ -28,10 +28,19 @@ package org.datadog.jenkins.plugins.datadog;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.model.*;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -41,6 +50,9 @@ public class DatadogJobProperty<T extends Job<?, ?>> extends JobProperty<T> {
 
     private static final Logger logger = Logger.getLogger(DatadogJobProperty.class.getName());
     private static final String DISPLAY_NAME = "Datadog Job Tagging";
+    // Contents of the tag files read by every run, keyed by the path of the file.
+    // Weak keys, so the contents are discarded with the run.
+    private static final Map<Run<?, ?>, Map<String, TagFileContent>> TAG_FILES_BY_RUN = new WeakHashMap<>();
 
     private boolean enableFile = false;
     private String tagFile = null;
@@ -147,13 +159,13 @@ public class DatadogJobProperty<T extends Job<?, ?>> extends JobProperty<T> {
 
     /**
      * Method to read the contents of the specified file in the {@link DatadogJobProperty}
+     * The contents are cached per run, and the file is only read again if its last modified time changes.
      *
      * @param r - Current build
      * @return - A String containing the contents of the scanned file. Returns null when
      * the file cannot be found.
      */
     public String readTagFile(Run<?, ?> r) {
-        String s = null;
         FilePath workspace;
 
         // Check if a tags file has been enabled before continuing
@@ -181,17 +193,95 @@ public class DatadogJobProperty<T extends Job<?, ?>> extends JobProperty<T> {
         }
 
         FilePath path = new FilePath(workspace, getTagFile());
+        final Map<String, TagFileContent> cachedTagFiles = getCachedTagFiles(r);
+        final String cacheKey = path.getRemote();
+        final TagFileContent cached = cachedTagFiles.get(cacheKey);
         try {
-            if (path.exists()) {
-                s = path.readToString();
-                logger.info(String.format("readTagFile successfully read tag file, tag count: %d", s.split("\n").length));
-            } else {
+            // The existence check, the last modified check and the read are done in a single call to the agent.
+            final TagFileContent tagFile = path.act(new ReadTagFileCallable(cached != null ? cached.getLastModified() : -1L));
+            if (!tagFile.exists()) {
+                cachedTagFiles.remove(cacheKey);
                 DatadogUtilities.severe(logger, null, String.format("Failed to read tag file: for run '%s', tags path not found: %s", r, path));
+                return null;
+            }
+
+            if (tagFile.isUnchanged() && cached != null) {
+                logger.fine(String.format("Tag file %s has not changed for run '%s'. Using cached content", path, r));
+                return cached.getContent();
             }
+
+            cachedTagFiles.put(cacheKey, tagFile);
+            logger.info(String.format("readTagFile successfully read tag file, tag count: %d", tagFile.getContent().split("\n").length));
+            return tagFile.getContent();
         } catch (IOException | InterruptedException e) {
             DatadogUtilities.severe(logger, e, "Failed to read tag file");
         }
-        return s;
+        return null;
+    }
+
+    private static Map<String, TagFileContent> getCachedTagFiles(final Run<?, ?> run) {
+        synchronized (TAG_FILES_BY_RUN) {
+            return TAG_FILES_BY_RUN.computeIfAbsent(run, k -> new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Reads the tag file in the node where the workspace lives, unless
+     * its last modified time is the one already known.
+     */
+    static final class ReadTagFileCallable extends MasterToSlaveFileCallable<TagFileContent> {
+        private static final long serialVersionUID = 1L;
+
+        private final long knownLastModified;
+
+        ReadTagFileCallable(final long knownLastModified) {
+            this.knownLastModified = knownLastModified;
+        }
+
+        @Override
+        public TagFileContent invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            if (!f.exists()) {
+                return new TagFileContent(false, false, -1L, null);
+            }
+
+            final long lastModified = f.lastModified();
+            if (knownLastModified != -1L && lastModified == knownLastModified) {
+                return new TagFileContent(true, true, lastModified, null);
+            }
+            return new TagFileContent(true, false, lastModified, new String(Files.readAllBytes(f.toPath()), Charset.defaultCharset()));
+        }
+    }
+
+    static final class TagFileContent implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean exists;
+        private final boolean unchanged;
+        private final long lastModified;
+        private final String content;
+
+        TagFileContent(final boolean exists, final boolean unchanged, final long lastModified, final String content) {
+            this.exists = exists;
+            this.unchanged = unchanged;
+            this.lastModified = lastModified;
+            this.content = content;
+        }
+
+        boolean exists() {
+            return exists;
+        }
+
+        boolean isUnchanged() {
+            return unchanged;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        String getContent() {
+            return content;
+        }
     }
 
     @Extension
@@ -40,7 +40,8 @@ public class ClientFactory {
 
     public static DatadogClient getClient(DatadogClient.ClientType type, String apiUrl, String logIntakeUrl,
                                           String webhookIntakeUrl, Secret apiKey, String host, Integer port,
-                                          Integer logCollectionPort, Integer traceCollectionPort, String traceServiceName) {
+                                          Integer logCollectionPort, Integer traceCollectionPort, String dogStatsDSocket,
+                                          String traceSocket, String traceServiceName) {
         if(testClient != null){
             // Only used for tests
             return testClient;
@@ -49,7 +50,7 @@ public class ClientFactory {
             case HTTP:
                 return DatadogHttpClient.getInstance(apiUrl, logIntakeUrl, webhookIntakeUrl, apiKey);
             case DSD:
-                return DatadogAgentClient.getInstance(host, port, logCollectionPort, traceCollectionPort);
+                return DatadogAgentClient.getInstance(host, port, logCollectionPort, traceCollectionPort, dogStatsDSocket, traceSocket);
             default:
                 return null;
         }
@@ -70,6 +71,8 @@ public class ClientFactory {
         Integer targetPort = null;
         Integer targetLogCollectionPort = null;
         Integer targetTraceCollectionPort = null;
+        String targetDogStatsDSocket = null;
+        String targetTraceSocket = null;
         String ciInstanceName = null;
         if(descriptor != null){
             reportWith = descriptor.getReportWith();
@@ -81,9 +84,12 @@ public class ClientFactory {
             targetPort = descriptor.getTargetPort();
             targetLogCollectionPort = descriptor.getTargetLogCollectionPort();
             targetTraceCollectionPort = descriptor.getTargetTraceCollectionPort();
+            targetDogStatsDSocket = descriptor.getTargetDogStatsDSocket();
+            targetTraceSocket = descriptor.getTargetTraceSocket();
             ciInstanceName = descriptor.getCiInstanceName();
         }
         return ClientFactory.getClient(DatadogClient.ClientType.valueOf(reportWith), targetApiURL, targetLogIntakeURL, targetWebhookIntakeURL,
-                targetApiKey, targetHost, targetPort, targetLogCollectionPort, targetTraceCollectionPort, ciInstanceName);
+                targetApiKey, targetHost, targetPort, targetLogCollectionPort, targetTraceCollectionPort,
+                targetDogStatsDSocket, targetTraceSocket, ciInstanceName);
     }
 }
@@ -72,25 +72,29 @@ public class ConcurrentMetricCounters {
         return counters;
     }
 
-    public synchronized void increment(String name, String hostname, Map<String, Set<String>> tags) {
+    public void increment(String name, String hostname, Map<String, Set<String>> tags) {
+        increment(name, hostname, tags, 1);
+    }
+
+    public synchronized void increment(String name, String hostname, Map<String, Set<String>> tags, int count) {
         ConcurrentMap<CounterMetric, Integer> counters = ConcurrentMetricCounters.get();
         CounterMetric counterMetric = new CounterMetric(tags, name, hostname);
-        Integer previousValue = counters.putIfAbsent(counterMetric, 1);
+        Integer previousValue = counters.putIfAbsent(counterMetric, count);
         if (previousValue != null){
-            boolean ok = counters.replace(counterMetric, previousValue, previousValue + 1);
+            boolean ok = counters.replace(counterMetric, previousValue, previousValue + count);
             // NOTE:
             // This while loop below should never be called since we are using a lock when flushing and
             // incrementing counters.
             while(!ok) {
-                logger.warning("Couldn't increment counter " + name + " with value " + (previousValue + 1) +
+                logger.warning("Couldn't increment counter " + name + " with value " + (previousValue + count) +
                         " previousValue = " + previousValue);
                 previousValue = counters.get(counterMetric);
-                ok = counters.replace(counterMetric, previousValue, previousValue + 1);
+                ok = counters.replace(counterMetric, previousValue, previousValue + count);
             }
         }
         previousValue = (previousValue == null) ? Integer.valueOf(0) : previousValue;
         logger.fine("Counter " + name + " updated from previousValue " + previousValue + " to "
-                + (previousValue + Integer.valueOf(1)));
+                + (previousValue + count));
     }
 
     public synchronized ConcurrentMap<CounterMetric, Integer> getAndReset(){
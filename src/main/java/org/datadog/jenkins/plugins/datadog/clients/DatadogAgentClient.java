@@ -52,8 +52,10 @@ import org.datadog.jenkins.plugins.datadog.transport.HttpMessage;
 import org.datadog.jenkins.plugins.datadog.transport.HttpMessageFactory;
 import org.datadog.jenkins.plugins.datadog.transport.NonBlockingHttpClient;
 import org.datadog.jenkins.plugins.datadog.transport.PayloadMessage;
+import org.datadog.jenkins.plugins.datadog.transport.UnixSocketHttpURLConnection;
 import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+import org.datadog.jenkins.plugins.datadog.util.config.DatadogAgentConfiguration;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jfree.util.Log;
 import org.json.JSONArray;
@@ -66,6 +68,7 @@ import java.io.OutputStreamWriter;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.InetAddress;
+import java.net.MalformedURLException;
 import java.net.Socket;
 import java.net.URL;
 import java.net.UnknownHostException;
@@ -108,6 +111,11 @@ public class DatadogAgentClient implements DatadogClient {
     private Integer port = null;
     private Integer logCollectionPort = null;
     private Integer traceCollectionPort = null;
+    private String dogStatsDSocket = null;
+    private String traceSocket = null;
+    // The sockets in use, detected when the client is initialized
+    private volatile String resolvedDogStatsDSocket = null;
+    private volatile String resolvedTraceSocket = null;
     private boolean isStoppedStatsDClient = true;
     private boolean isStoppedAgentHttpClient = true;
     private boolean evpProxySupported = false;
@@ -130,6 +138,12 @@ public class DatadogAgentClient implements DatadogClient {
      */
     private static final int HTTP_TIMEOUT_EVP_PROXY_MS = 60 * 1000;
 
+    /**
+     * Number of trace payloads (up to 100 spans each) waiting to be sent to the Agent.
+     * When the queue is full, the pipelines finishing wait for the payloads before them to be sent.
+     */
+    private static final int TRACES_QUEUE_SIZE = 16;
+
     /**
      * NOTE: Use ClientFactory.getClient method to instantiate the client in the Jenkins Plugin
      * This method is not recommended to be used because it misses some validations.
@@ -139,12 +153,28 @@ public class DatadogAgentClient implements DatadogClient {
      * @param traceCollectionPort - target trace collection port
      * @return an singleton instance of the DogStatsDClient.
      */
-    @SuppressFBWarnings(value={"DC_DOUBLECHECK", "RC_REF_COMPARISON"})
     public static DatadogClient getInstance(String hostname, Integer port, Integer logCollectionPort, Integer traceCollectionPort){
+        return getInstance(hostname, port, logCollectionPort, traceCollectionPort, null, null);
+    }
+
+    /**
+     * NOTE: Use ClientFactory.getClient method to instantiate the client in the Jenkins Plugin
+     * This method is not recommended to be used because it misses some validations.
+     * @param hostname - target hostname
+     * @param port - target port
+     * @param logCollectionPort - target log collection port
+     * @param traceCollectionPort - target trace collection port
+     * @param dogStatsDSocket - target DogStatsD Unix Domain Socket, or null to use the port or the standard socket
+     * @param traceSocket - target trace Unix Domain Socket, or null to use the port or the standard socket
+     * @return an singleton instance of the DogStatsDClient.
+     */
+    @SuppressFBWarnings(value={"DC_DOUBLECHECK", "RC_REF_COMPARISON"})
+    public static DatadogClient getInstance(String hostname, Integer port, Integer logCollectionPort, Integer traceCollectionPort,
+                                            String dogStatsDSocket, String traceSocket){
         // If the configuration has not changed, return the current instance without validation
         // since we've already validated and/or errored about the data
 
-        DatadogAgentClient newInstance = new DatadogAgentClient(hostname, port, logCollectionPort, traceCollectionPort);
+        DatadogAgentClient newInstance = new DatadogAgentClient(hostname, port, logCollectionPort, traceCollectionPort, dogStatsDSocket, traceSocket);
         if (instance != null && instance.equals(newInstance)) {
             if (DatadogAgentClient.failedLastValidation) {
                 return null;
@@ -166,6 +196,7 @@ public class DatadogAgentClient implements DatadogClient {
             }
         }
         if (instance != null){
+            instance.resolveUnixSockets();
             instance.reinitializeStatsDClient(true);
             instance.reinitializeLogger(true);
             instance.reinitializeAgentHttpClient(true);
@@ -174,10 +205,35 @@ public class DatadogAgentClient implements DatadogClient {
     }
 
     protected DatadogAgentClient(String hostname, Integer port, Integer logCollectionPort, Integer traceCollectionPort) {
+        this(hostname, port, logCollectionPort, traceCollectionPort, null, null);
+    }
+
+    protected DatadogAgentClient(String hostname, Integer port, Integer logCollectionPort, Integer traceCollectionPort,
+                                 String dogStatsDSocket, String traceSocket) {
         this.hostname = hostname;
         this.port = port;
         this.logCollectionPort = logCollectionPort;
         this.traceCollectionPort = traceCollectionPort;
+        this.dogStatsDSocket = dogStatsDSocket;
+        this.traceSocket = traceSocket;
+    }
+
+    /**
+     * Detects the Unix Domain Sockets to use, the configured ones or the standard sockets of a local Agent.
+     */
+    void resolveUnixSockets() {
+        this.resolvedDogStatsDSocket = DatadogAgentConfiguration.resolveSocketPath(
+                this.dogStatsDSocket, DatadogAgentConfiguration.DEFAULT_DOGSTATSD_SOCKET_PATH, this.hostname);
+        this.resolvedTraceSocket = DatadogAgentConfiguration.resolveSocketPath(
+                this.traceSocket, DatadogAgentConfiguration.DEFAULT_TRACE_SOCKET_PATH, this.hostname);
+    }
+
+    private URL buildTraceAgentURL(final String path) throws MalformedURLException {
+        final String socket = this.resolvedTraceSocket;
+        if (socket != null) {
+            return UnixSocketHttpURLConnection.buildURL(socket, path);
+        }
+        return buildHttpURL(this.hostname, this.traceCollectionPort, path);
     }
 
     public static ConnectivityResult checkConnectivity(final String host, final int port) {
@@ -193,14 +249,14 @@ public class DatadogAgentClient implements DatadogClient {
         if (hostname == null || hostname.isEmpty()) {
             throw new IllegalArgumentException("Datadog Target URL is not set properly");
         }
-        if (port == null) {
+        if (port == null && StringUtils.isBlank(dogStatsDSocket)) {
             throw new IllegalArgumentException("Datadog Target Port is not set properly");
         }
         if (DatadogUtilities.getDatadogGlobalDescriptor().isCollectBuildLogs()  && logCollectionPort == null) {
             logger.warning("Datadog Log Collection Port is not set properly");
         }
 
-        if (DatadogUtilities.getDatadogGlobalDescriptor().getEnableCiVisibility()  && traceCollectionPort == null) {
+        if (DatadogUtilities.getDatadogGlobalDescriptor().getEnableCiVisibility()  && traceCollectionPort == null && StringUtils.isBlank(traceSocket)) {
             logger.warning("Datadog Trace Collection Port is not set properly");
         }
         return;
@@ -221,6 +277,8 @@ public class DatadogAgentClient implements DatadogClient {
         && (((getPort() == null) && (newInstance.getPort() == null)) || (null != getPort() && port.equals(newInstance.getPort())))
         && (((getLogCollectionPort() == null) && (newInstance.getLogCollectionPort() == null)) || (null != getLogCollectionPort() && logCollectionPort.equals(newInstance.getLogCollectionPort())))
         && (((getTraceCollectionPort() == null) && (newInstance.getTraceCollectionPort() == null)) || (null != getTraceCollectionPort() && traceCollectionPort.equals(newInstance.getTraceCollectionPort())))
+        && StringUtils.equals(dogStatsDSocket, newInstance.dogStatsDSocket)
+        && StringUtils.equals(traceSocket, newInstance.traceSocket)
         )){
            return true;
         }
@@ -234,6 +292,8 @@ public class DatadogAgentClient implements DatadogClient {
         result = 47 * result + (port != null ? port.hashCode() : 0);
         result = 47 * result + (logCollectionPort != null ? logCollectionPort.hashCode() : 0);
         result = 47 * result + (traceCollectionPort != null ? traceCollectionPort.hashCode() : 0);
+        result = 47 * result + (dogStatsDSocket != null ? dogStatsDSocket.hashCode() : 0);
+        result = 47 * result + (traceSocket != null ? traceSocket.hashCode() : 0);
         return result;
     }
 
@@ -244,13 +304,20 @@ public class DatadogAgentClient implements DatadogClient {
      */
     private boolean reinitializeStatsDClient(boolean force) {
         try {
+            final String socket = this.resolvedDogStatsDSocket;
             boolean refreshClient = DatadogUtilities.getDatadogGlobalDescriptor().isRefreshDogstatsdClient();
-            if(!this.isStoppedStatsDClient && this.statsd != null && !force && (!refreshClient || !this.hasIpChanged())){
+            if(!this.isStoppedStatsDClient && this.statsd != null && !force && (!refreshClient || socket != null || !this.hasIpChanged())){
                 return true;
             }
             this.stopStatsDClient();
-            logger.info("Re/Initialize DogStatsD Client: hostname = " + this.hostname + ", port = " + this.port);
-            this.statsd = new NonBlockingStatsDClient(null, this.hostname, this.port);
+            if(socket != null) {
+                logger.info("Re/Initialize DogStatsD Client: socket = " + socket);
+                // A port of 0 makes the client use the hostname as the path of a Unix Domain Socket
+                this.statsd = new NonBlockingStatsDClient(null, socket, 0);
+            } else {
+                logger.info("Re/Initialize DogStatsD Client: hostname = " + this.hostname + ", port = " + this.port);
+                this.statsd = new NonBlockingStatsDClient(null, this.hostname, this.port);
+            }
             this.isStoppedStatsDClient = false;
         } catch (Exception e){
             DatadogUtilities.severe(logger, e, "Failed to reinitialize DogStatsD Client");
@@ -332,7 +399,7 @@ public class DatadogAgentClient implements DatadogClient {
         HttpURLConnection conn = null;
         try {
             logger.fine("Setting up HttpURLConnection...");
-            final URL traceAgentUrl = buildHttpURL(this.hostname, this.traceCollectionPort, "/info");
+            final URL traceAgentUrl = buildTraceAgentURL("/info");
             conn = getHttpURLConnection(traceAgentUrl, HTTP_TIMEOUT_INFO_MS);
             conn.setRequestProperty("Content-Type", "application/json");
             conn.setUseCaches(false);
@@ -391,7 +458,7 @@ public class DatadogAgentClient implements DatadogClient {
         try {
             logger.fine("Setting up HttpURLConnection...");
             String urlParameters = "?service=" + DatadogUtilities.getDatadogGlobalDescriptor().getCiInstanceName();
-            final URL traceAgentUrl = buildHttpURL(this.hostname, this.traceCollectionPort, "/evp_proxy/v1/api/v2/webhook/"+urlParameters);
+            final URL traceAgentUrl = buildTraceAgentURL("/evp_proxy/v1/api/v2/webhook/"+urlParameters);
             conn = getHttpURLConnection(traceAgentUrl, HTTP_TIMEOUT_EVP_PROXY_MS);
             conn.setRequestMethod("POST");
             conn.setRequestProperty("Content-Type", "application/json");
@@ -453,7 +520,8 @@ public class DatadogAgentClient implements DatadogClient {
             return true;
         }
 
-        if(!DatadogUtilities.getDatadogGlobalDescriptor().getEnableCiVisibility() || this.getHostname() == null || this.getTraceCollectionPort() == null) {
+        if(!DatadogUtilities.getDatadogGlobalDescriptor().getEnableCiVisibility()
+                || (this.resolvedTraceSocket == null && (this.getHostname() == null || this.getTraceCollectionPort() == null))) {
             return false;
         }
 
@@ -462,9 +530,10 @@ public class DatadogAgentClient implements DatadogClient {
             logger.info("Re/Initialize Datadog-Plugin Agent Http Client");
 
             // Build
-            final URL tracesURL = buildHttpURL(this.getHostname(), this.getTraceCollectionPort(), "/v0.3/traces");
+            final URL tracesURL = buildTraceAgentURL("/v0.3/traces");
             this.agentHttpClient = NonBlockingHttpClient.builder()
                     .errorHandler(LOGGER_HTTP_ERROR_HANDLER)
+                    .queueSize(TRACES_QUEUE_SIZE)
                     .messageRoute(PayloadMessage.Type.TRACE, HttpMessageFactory.builder()
                             .agentURL(tracesURL)
                             .httpMethod(HttpMessage.HttpMethod.PUT)
@@ -568,6 +637,14 @@ public class DatadogAgentClient implements DatadogClient {
         return traceCollectionPort;
     }
 
+    public String getDogStatsDSocket() {
+        return dogStatsDSocket;
+    }
+
+    public String getTraceSocket() {
+        return traceSocket;
+    }
+
     @Override
     public void setUrl(String url) {
         // noop
@@ -665,6 +742,23 @@ public class DatadogAgentClient implements DatadogClient {
         }
     }
 
+    @Override
+    public boolean incrementCounter(String name, String hostname, Map<String, Set<String>> tags, int count) {
+        try {
+            boolean status = reinitializeStatsDClient(false);
+            if(!status){
+                return false;
+            }
+            logger.fine("increment counter by " + count + " with dogStatD client");
+            this.statsd.count(name, count, TagsUtil.convertTagsToArray(tags));
+            return true;
+        } catch(Exception e){
+            DatadogUtilities.severe(logger, e, "Failed to increment counter with DogStatsD");
+            reinitializeStatsDClient(true);
+            return false;
+        }
+    }
+
     @Override
     public void flushCounters() {
         return; //noop
@@ -50,6 +50,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -339,21 +340,34 @@ public class DatadogHttpClient implements DatadogClient {
         return true;
     }
 
+    @Override
+    public boolean incrementCounter(String name, String hostname, Map<String, Set<String>> tags, int count) {
+        if(this.isDefaultIntakeConnectionBroken()){
+            logger.severe("Your client is not initialized properly");
+            return false;
+        }
+        ConcurrentMetricCounters.getInstance().increment(name, hostname, tags, count);
+        return true;
+    }
+
     @Override
     public void flushCounters() {
         ConcurrentMap<CounterMetric, Integer> counters = ConcurrentMetricCounters.getInstance().getAndReset();
 
         logger.fine("Run flushCounters method");
         // Submit all metrics as gauge
+        JSONArray series = new JSONArray();
         for(final Iterator<Map.Entry<CounterMetric, Integer>> iter = counters.entrySet().iterator(); iter.hasNext();){
             Map.Entry<CounterMetric, Integer> entry = iter.next();
             CounterMetric counterMetric = entry.getKey();
             int count = entry.getValue();
             logger.fine("Flushing: " + counterMetric.getMetricName() + " - " + count);
             // Since we submit a rate we need to divide the submitted value by the interval (10)
-            this.postMetric(counterMetric.getMetricName(), count, counterMetric.getHostname(),
-                    counterMetric.getTags(), "rate");
-
+            series.add(buildMetric(counterMetric.getMetricName(), count, counterMetric.getHostname(),
+                    counterMetric.getTags(), "rate"));
+        }
+        if(!series.isEmpty()) {
+            postSeries(series);
         }
     }
 
@@ -362,12 +376,29 @@ public class DatadogHttpClient implements DatadogClient {
         return postMetric(name, value, hostname, tags, "gauge");
     }
 
-    private boolean postMetric(String name, float value, String hostname, Map<String, Set<String>> tags, String type) {
-        if(this.isDefaultIntakeConnectionBroken()){
-            logger.severe("Your client is not initialized properly");
-            return false;
+    /**
+     * Sends all the gauges in a single series payload.
+     */
+    @Override
+    public boolean gauges(Collection<GaugeMetric> gauges) {
+        if(gauges.isEmpty()) {
+            return true;
+        }
+        JSONArray series = new JSONArray();
+        for(GaugeMetric gauge : gauges) {
+            series.add(buildMetric(gauge.getMetricName(), gauge.getValue(), gauge.getHostname(), gauge.getTags(), "gauge"));
         }
+        return postSeries(series);
+    }
+
+    private boolean postMetric(String name, float value, String hostname, Map<String, Set<String>> tags, String type) {
+        // Place metric as item of series list
+        JSONArray series = new JSONArray();
+        series.add(buildMetric(name, value, hostname, tags, type));
+        return postSeries(series);
+    }
 
+    private JSONObject buildMetric(String name, float value, String hostname, Map<String, Set<String>> tags, String type) {
         int INTERVAL = 10;
 
         logger.fine(String.format("Sending metric '%s' with value %s", name, String.valueOf(value)));
@@ -396,9 +427,14 @@ public class DatadogHttpClient implements DatadogClient {
             logger.fine(tags.toString());
             metric.put("tags", TagsUtil.convertTagsToJSONArray(tags));
         }
-        // Place metric as item of series list
-        JSONArray series = new JSONArray();
-        series.add(metric);
+        return metric;
+    }
+
+    private boolean postSeries(JSONArray series) {
+        if(this.isDefaultIntakeConnectionBroken()){
+            logger.severe("Your client is not initialized properly");
+            return false;
+        }
 
         // Add series to payload
         JSONObject payload = new JSONObject();
@@ -0,0 +1,373 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.clients;
+
+import hudson.init.Terminator;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogEvent;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Submits the events, metrics and service checks of the listeners from a worker thread,
+ * so the Jenkins threads running the listeners (executors, the CPS VM thread, HTTP request threads)
+ * never wait for the client I/O.
+ *
+ * Submitting only enqueues an immutable record. The worker drains the queue in batches and sends the
+ * records in submission order: consecutive gauges that target the same client are sent with a single
+ * {@link DatadogClient#gauges} call. If the queue is full, the record is dropped.
+ */
+public class DispatchBus {
+
+    private static final Logger logger = Logger.getLogger(DispatchBus.class.getName());
+
+    static final int QUEUE_CAPACITY = 10000;
+    static final int MAX_BATCH_SIZE = 500;
+    // A single worker, so the records are sent in submission order
+    private static final int WORKERS = 1;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final String ROUTE_TAG = "route:listeners";
+
+    // Only used for tests, to assert on the client right after the listener returns.
+    private static volatile boolean enableAsync = true;
+
+    private static final DispatchBus INSTANCE = new DispatchBus(QUEUE_CAPACITY, WORKERS);
+
+    private final BlockingQueue<Record> queue;
+    private final int workers;
+    private ExecutorService executor;
+    private volatile boolean started;
+    private volatile boolean shutdown;
+
+    DispatchBus(final int queueCapacity, final int workers) {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        PluginTelemetry.get().registerGauge(PluginTelemetry.TRANSPORT_QUEUE_DEPTH, queue::size, ROUTE_TAG);
+    }
+
+    public static DispatchBus get() {
+        return INSTANCE;
+    }
+
+    public static void setEnableAsync(final boolean enableAsync) {
+        // Only used for tests
+        DispatchBus.enableAsync = enableAsync;
+    }
+
+    public void event(final DatadogClient client, final DatadogEvent event) {
+        submit(new EventRecord(client, event));
+    }
+
+    public void gauge(final DatadogClient client, final String name, final long value, final String hostname, final Map<String, Set<String>> tags) {
+        submit(new GaugeRecord(client, new GaugeMetric(name, value, hostname, copy(tags))));
+    }
+
+    public void incrementCounter(final DatadogClient client, final String name, final String hostname, final Map<String, Set<String>> tags) {
+        incrementCounter(client, name, hostname, tags, 1);
+    }
+
+    public void incrementCounter(final DatadogClient client, final String name, final String hostname, final Map<String, Set<String>> tags, final int count) {
+        submit(new CounterRecord(client, name, hostname, copy(tags), count));
+    }
+
+    public void serviceCheck(final DatadogClient client, final String name, final DatadogClient.Status status, final String hostname, final Map<String, Set<String>> tags) {
+        submit(new ServiceCheckRecord(client, name, status, hostname, copy(tags)));
+    }
+
+    /**
+     * @return the number of records waiting to be dispatched.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void submit(final Record record) {
+        if (record.client == null) {
+            return;
+        }
+        if (!enableAsync || shutdown) {
+            dispatch(Collections.singletonList(record));
+            return;
+        }
+
+        start();
+        if (!queue.offer(record)) {
+            logger.fine("Dropping " + record + ": the dispatch queue is full");
+            PluginTelemetry.get().increment(PluginTelemetry.PAYLOADS_DROPPED, ROUTE_TAG);
+        }
+    }
+
+    private void start() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (started || shutdown) {
+                return;
+            }
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(workers, r -> {
+                final Thread thread = new Thread(r, "datadog-dispatch-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < workers; i++) {
+                executor.execute(this::work);
+            }
+            started = true;
+        }
+    }
+
+    private void work() {
+        final List<Record> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        // Consume till shutdown=true and queue is empty.
+        while (!shutdown || !queue.isEmpty()) {
+            try {
+                final Record first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                DatadogUtilities.severe(logger, e, "Failed to dispatch a batch of records");
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    static void dispatch(final List<Record> batch) {
+        final long start = System.nanoTime();
+        int sent = 0;
+        int failed = 0;
+        // Consecutive gauges of the same client are sent together
+        DatadogClient gaugesClient = null;
+        List<GaugeMetric> gauges = new ArrayList<>();
+        for (Record record : batch) {
+            final boolean gauge = record instanceof GaugeRecord;
+            if (!gauges.isEmpty() && (!gauge || record.client != gaugesClient)) {
+                if (sendGauges(gaugesClient, gauges)) {
+                    sent += gauges.size();
+                } else {
+                    failed += gauges.size();
+                }
+                // The client may keep the list
+                gauges = new ArrayList<>();
+            }
+            if (gauge) {
+                gaugesClient = record.client;
+                gauges.add(((GaugeRecord) record).gauge);
+            } else if (send(record)) {
+                sent++;
+            } else {
+                failed++;
+            }
+        }
+        if (!gauges.isEmpty()) {
+            if (sendGauges(gaugesClient, gauges)) {
+                sent += gauges.size();
+            } else {
+                failed += gauges.size();
+            }
+        }
+
+        final PluginTelemetry telemetry = PluginTelemetry.get();
+        telemetry.record(PluginTelemetry.TRANSPORT_SEND_DURATION, System.nanoTime() - start, ROUTE_TAG);
+        telemetry.add(PluginTelemetry.PAYLOADS_SENT, sent, ROUTE_TAG);
+        telemetry.add(PluginTelemetry.PAYLOADS_FAILED, failed, ROUTE_TAG);
+    }
+
+    private static boolean send(final Record record) {
+        try {
+            return record.send();
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to send " + record);
+            return false;
+        }
+    }
+
+    private static boolean sendGauges(final DatadogClient client, final List<GaugeMetric> gauges) {
+        try {
+            return client.gauges(gauges);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to send " + gauges.size() + " gauges");
+            return false;
+        }
+    }
+
+    /**
+     * Dispatches the records left in the queue before Jenkins stops.
+     */
+    @Terminator
+    public static void stop() {
+        INSTANCE.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    void shutdown(final long timeoutMillis) {
+        final ExecutorService workerExecutor;
+        synchronized (this) {
+            shutdown = true;
+            workerExecutor = executor;
+        }
+        if (workerExecutor != null) {
+            workerExecutor.shutdown();
+            try {
+                workerExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!queue.isEmpty()) {
+            logger.warning("Dropping " + queue.size() + " records that could not be dispatched before shutdown");
+        }
+    }
+
+    private static Map<String, Set<String>> copy(final Map<String, Set<String>> tags) {
+        // The listeners may keep using the tags after submitting them.
+        return tags != null ? TagsUtil.merge(null, tags) : null;
+    }
+
+    abstract static class Record {
+        final DatadogClient client;
+
+        Record(final DatadogClient client) {
+            this.client = client;
+        }
+
+        abstract boolean send();
+    }
+
+    private static final class EventRecord extends Record {
+        private final DatadogEvent event;
+
+        private EventRecord(final DatadogClient client, final DatadogEvent event) {
+            super(client);
+            this.event = event;
+        }
+
+        @Override
+        boolean send() {
+            return client.event(event);
+        }
+
+        @Override
+        public String toString() {
+            return "event '" + event.getTitle() + "'";
+        }
+    }
+
+    private static final class GaugeRecord extends Record {
+        private final GaugeMetric gauge;
+
+        private GaugeRecord(final DatadogClient client, final GaugeMetric gauge) {
+            super(client);
+            this.gauge = gauge;
+        }
+
+        @Override
+        boolean send() {
+            return client.gauge(gauge.getMetricName(), gauge.getValue(), gauge.getHostname(), gauge.getTags());
+        }
+
+        @Override
+        public String toString() {
+            return "gauge '" + gauge.getMetricName() + "'";
+        }
+    }
+
+    private static final class CounterRecord extends Record {
+        private final String name;
+        private final String hostname;
+        private final Map<String, Set<String>> tags;
+        private final int count;
+
+        private CounterRecord(final DatadogClient client, final String name, final String hostname, final Map<String, Set<String>> tags, final int count) {
+            super(client);
+            this.name = name;
+            this.hostname = hostname;
+            this.tags = tags;
+            this.count = count;
+        }
+
+        @Override
+        boolean send() {
+            if (count == 1) {
+                return client.incrementCounter(name, hostname, tags);
+            }
+            return client.incrementCounter(name, hostname, tags, count);
+        }
+
+        @Override
+        public String toString() {
+            return "counter '" + name + "'";
+        }
+    }
+
+    private static final class ServiceCheckRecord extends Record {
+        private final String name;
+        private final DatadogClient.Status status;
+        private final String hostname;
+        private final Map<String, Set<String>> tags;
+
+        private ServiceCheckRecord(final DatadogClient client, final String name, final DatadogClient.Status status, final String hostname, final Map<String, Set<String>> tags) {
+            super(client);
+            this.name = name;
+            this.status = status;
+            this.hostname = hostname;
+            this.tags = tags;
+        }
+
+        @Override
+        boolean send() {
+            return client.serviceCheck(name, status, hostname, tags);
+        }
+
+        @Override
+        public String toString() {
+            return "service check '" + name + "'";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.clients;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A gauge value waiting to be submitted.
+ */
+public final class GaugeMetric {
+
+    private final String metricName;
+    private final long value;
+    private final String hostname;
+    private final Map<String, Set<String>> tags;
+
+    public GaugeMetric(String metricName, long value, String hostname, Map<String, Set<String>> tags) {
+        this.metricName = metricName;
+        this.value = value;
+        this.hostname = hostname;
+        this.tags = tags;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public Map<String, Set<String>> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String toString() {
+        return "GaugeMetric{" +
+                "metricName='" + metricName + '\'' +
+                ", value=" + value +
+                ", hostname='" + hostname + '\'' +
+                ", tags=" + tags +
+                '}';
+    }
+}
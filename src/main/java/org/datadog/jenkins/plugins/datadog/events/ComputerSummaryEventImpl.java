@@ -0,0 +1,83 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.events;
+
+import org.datadog.jenkins.plugins.datadog.util.ComputerEventAggregator;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of the node transitions of a label that were not sent as individual events.
+ */
+public class ComputerSummaryEventImpl extends AbstractDatadogSimpleEvent {
+
+    public ComputerSummaryEventImpl(ComputerEventAggregator.Summary summary) {
+        super(summary.getTags());
+
+        String label = summary.getLabel() == null || summary.getLabel().isEmpty() ? "" : " on label " + summary.getLabel();
+        setAggregationKey(summary.getTransition().name().toLowerCase() + label);
+
+        int total = summary.getCount() + summary.getSent();
+        String title = total + " Jenkins " + (total == 1 ? "node " : "nodes ") + summary.getTransition().getDescription() +
+                label + " in the last " + TimeUnit.MILLISECONDS.toSeconds(summary.getWindowMillis()) + " seconds";
+        setTitle(title);
+
+        StringBuilder text = new StringBuilder("%%% \n").append(title).append(".");
+        if (summary.getSent() > 0) {
+            text.append("\n").append(summary.getSent()).append(" of them reported individually.");
+        }
+        appendNodeNames(text, "Nodes", summary.getNodeNames());
+        appendNodeNames(text, "Flapping nodes", summary.getFlappingNodeNames());
+        if (summary.isTruncated()) {
+            text.append("\n...");
+        }
+        text.append("\n").append(super.getLocationDetails()).append(" \n%%%");
+        setText(text.toString());
+
+        switch (summary.getTransition()) {
+            case ONLINE:
+            case TEMPORARILY_ONLINE:
+                setPriority(Priority.LOW);
+                setAlertType(AlertType.SUCCESS);
+                break;
+            case LAUNCH_FAILURE:
+                setPriority(Priority.NORMAL);
+                setAlertType(AlertType.ERROR);
+                break;
+            default:
+                setPriority(Priority.NORMAL);
+                setAlertType(AlertType.WARNING);
+                break;
+        }
+    }
+
+    private static void appendNodeNames(StringBuilder text, String title, Set<String> nodeNames) {
+        if (!nodeNames.isEmpty()) {
+            text.append("\n").append(title).append(": ").append(String.join(", ", nodeNames));
+        }
+    }
+}
@@ -47,13 +47,19 @@ import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.BuildAbortedEventImpl;
 import org.datadog.jenkins.plugins.datadog.events.BuildFinishedEventImpl;
 import org.datadog.jenkins.plugins.datadog.events.BuildStartedEventImpl;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 import org.datadog.jenkins.plugins.datadog.traces.BuildSpanAction;
+import org.datadog.jenkins.plugins.datadog.traces.TraceDataStore;
 
 import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
+import org.datadog.jenkins.plugins.datadog.util.JobCompletionStore;
+import org.datadog.jenkins.plugins.datadog.util.RunSerialExecutor;
+import org.datadog.jenkins.plugins.datadog.util.StageTimingStore;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import javax.annotation.Nonnull;
@@ -83,6 +89,7 @@ public class DatadogBuildListener extends RunListener<Run> {
      */
     @Override
     public void onInitialize(Run run) {
+        final long start = System.nanoTime();
         try {
             // Process only if job is NOT in excluded and is in included
             if (!DatadogUtilities.isJobTracked(run.getParent().getFullName())) {
@@ -110,6 +117,8 @@ public class DatadogBuildListener extends RunListener<Run> {
             logger.fine("End DatadogBuildListener#onInitialize");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process build initialization");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogBuildListener#onInitialize", start);
         }
     }
 
@@ -123,7 +132,7 @@ public class DatadogBuildListener extends RunListener<Run> {
             logger.fine("Start DatadogBuildListener#setUpEnvironment");
 
             final BuildSpanAction buildSpanAction = build.getAction(BuildSpanAction.class);
-            if(buildSpanAction == null || buildSpanAction.getBuildData() == null) {
+            if(buildSpanAction == null || buildSpanAction.getBuildData(build) == null) {
                 return new Environment() {
                 };
             }
@@ -158,6 +167,7 @@ public class DatadogBuildListener extends RunListener<Run> {
      */
     @Override
     public void onStarted(Run run, TaskListener listener) {
+        final long start = System.nanoTime();
         try {
             // Process only if job is NOT in excluded and is in included
             if (!DatadogUtilities.isJobTracked(run.getParent().getFullName())) {
@@ -182,7 +192,7 @@ public class DatadogBuildListener extends RunListener<Run> {
 
             // Send an event
             DatadogEvent event = new BuildStartedEventImpl(buildData);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Send a metric
             // item.getInQueueSince() may raise a NPE if a worker node is spinning up to run the job.
@@ -194,11 +204,11 @@ public class DatadogBuildListener extends RunListener<Run> {
             String hostname = buildData.getHostname("unknown");
             try {
                 long waitingMs = (DatadogUtilities.currentTimeMillis() - item.getInQueueSince());
-                client.gauge("jenkins.job.waiting", TimeUnit.MILLISECONDS.toSeconds(waitingMs), hostname, tags);
+                DispatchBus.get().gauge(client, "jenkins.job.waiting", TimeUnit.MILLISECONDS.toSeconds(waitingMs), hostname, tags);
 
                 final BuildSpanAction buildSpanAction = run.getAction(BuildSpanAction.class);
-                if(buildSpanAction != null && buildSpanAction.getBuildData() != null) {
-                    buildSpanAction.getBuildData().setMillisInQueue(waitingMs);
+                if(buildSpanAction != null && buildSpanAction.getBuildData(run) != null) {
+                    buildSpanAction.getBuildData(run).setMillisInQueue(waitingMs);
                 }
             } catch (NullPointerException e) {
                 logger.warning("Unable to compute 'waiting' metric. " +
@@ -206,11 +216,13 @@ public class DatadogBuildListener extends RunListener<Run> {
             }
 
             // Submit counter
-            client.incrementCounter("jenkins.job.started", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.job.started", hostname, tags);
 
             logger.fine("End DatadogBuildListener#onStarted");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process build start");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogBuildListener#onStarted", start);
         }
     }
 
@@ -224,6 +236,7 @@ public class DatadogBuildListener extends RunListener<Run> {
 
     @Override
     public void onCompleted(Run run, @Nonnull TaskListener listener) {
+        final long start = System.nanoTime();
         try {
             // Process only if job in NOT in excluded and is in included
             if (!DatadogUtilities.isJobTracked(run.getParent().getFullName())) {
@@ -248,30 +261,26 @@ public class DatadogBuildListener extends RunListener<Run> {
 
             // Send an event
             DatadogEvent event = new BuildFinishedEventImpl(buildData);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Send a metric
             Map<String, Set<String>> tags = buildData.getTags();
             String hostname = buildData.getHostname("unknown");
-            client.gauge("jenkins.job.duration", buildData.getDuration(0L) / 1000, hostname, tags);
+            DispatchBus.get().gauge(client, "jenkins.job.duration", buildData.getDuration(0L) / 1000, hostname, tags);
             logger.fine(String.format("[%s]: Duration: %s", buildData.getJobName(null), toTimeString(buildData.getDuration(0L))));
 
             if (run instanceof WorkflowRun) {
-                RunExt extRun = getRunExtForRun((WorkflowRun) run);
-                long pauseDuration = 0;
-                for (StageNodeExt stage : extRun.getStages()) {
-                    pauseDuration += stage.getPauseDurationMillis();
-                }
-                client.gauge("jenkins.job.pause_duration", pauseDuration / 1000, hostname, tags);
+                long pauseDuration = getPauseDurationMillis((WorkflowRun) run);
+                DispatchBus.get().gauge(client, "jenkins.job.pause_duration", pauseDuration / 1000, hostname, tags);
                 logger.fine(String.format("[%s]: Pause Duration: %s", buildData.getJobName(null), toTimeString(pauseDuration)));
                 long buildDuration = run.getDuration() - pauseDuration;
-                client.gauge("jenkins.job.build_duration", buildDuration / 1000, hostname, tags);
+                DispatchBus.get().gauge(client, "jenkins.job.build_duration", buildDuration / 1000, hostname, tags);
                 logger.fine(
                         String.format("[%s]: Build Duration (without pause): %s", buildData.getJobName(null), toTimeString(buildDuration)));
             }
 
             // Submit counter
-            client.incrementCounter("jenkins.job.completed", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.job.completed", hostname, tags);
 
             // Send a service check
             String buildResult = buildData.getResult(Result.NOT_BUILT.toString());
@@ -289,38 +298,43 @@ public class DatadogBuildListener extends RunListener<Run> {
             Map<String, Set<String>> serviceCheckTags = buildData.getTags();
             serviceCheckTags.remove("result");
 
-            client.serviceCheck("jenkins.job.status", status, hostname, serviceCheckTags);
+            DispatchBus.get().serviceCheck(client, "jenkins.job.status", status, hostname, serviceCheckTags);
 
+            JobCompletionStore.JobState jobState = JobCompletionStore.get().forRun(run);
+            long startTime = DatadogUtilities.getRunStartTimeInMillis(run);
             if (run.getResult() == Result.SUCCESS) {
-                long mttr = getMeanTimeToRecovery(run);
-                long cycleTime = getCycleTime(run);
+                long mttr = jobState.getMeanTimeToRecovery(startTime);
+                long cycleTime = jobState.getCycleTime(startTime + run.getDuration());
                 long leadTime = run.getDuration() + mttr;
 
-                client.gauge("jenkins.job.leadtime", leadTime / 1000, hostname, tags);
+                DispatchBus.get().gauge(client, "jenkins.job.leadtime", leadTime / 1000, hostname, tags);
                 logger.fine(String.format("[%s]: Lead time: %s", buildData.getJobName(null), toTimeString(leadTime)));
                 if (cycleTime > 0) {
-                    client.gauge("jenkins.job.cycletime", cycleTime / 1000, hostname, tags);
+                    DispatchBus.get().gauge(client, "jenkins.job.cycletime", cycleTime / 1000, hostname, tags);
                     logger.fine(String.format("[%s]: Cycle Time: %s", buildData.getJobName(null), toTimeString(cycleTime)));
                 }
                 if (mttr > 0) {
-                    client.gauge("jenkins.job.mttr", mttr / 1000, hostname, tags);
+                    DispatchBus.get().gauge(client, "jenkins.job.mttr", mttr / 1000, hostname, tags);
                     logger.fine(String.format("[%s]: MTTR: %s", buildData.getJobName(null), toTimeString(mttr)));
                 }
             } else {
                 long feedbackTime = run.getDuration();
-                long mtbf = getMeanTimeBetweenFailure(run);
+                long mtbf = jobState.getMeanTimeBetweenFailure(startTime);
 
-                client.gauge("jenkins.job.feedbacktime", feedbackTime / 1000, hostname, tags);
+                DispatchBus.get().gauge(client, "jenkins.job.feedbacktime", feedbackTime / 1000, hostname, tags);
                 logger.fine(String.format("[%s]: Feedback Time: %s", buildData.getJobName(null), toTimeString(feedbackTime)));
                 if (mtbf > 0) {
-                    client.gauge("jenkins.job.mtbf", mtbf / 1000, hostname, tags);
+                    DispatchBus.get().gauge(client, "jenkins.job.mtbf", mtbf / 1000, hostname, tags);
                     logger.fine(String.format("[%s]: MTBF: %s", buildData.getJobName(null), toTimeString(mtbf)));
                 }
             }
+            JobCompletionStore.get().complete(run);
 
             logger.fine("End DatadogBuildListener#onCompleted");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process build completion");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogBuildListener#onCompleted", start);
         }
     }
 
@@ -331,6 +345,8 @@ public class DatadogBuildListener extends RunListener<Run> {
      */
     @Override
     public void onFinalized(Run run) {
+        final long start = System.nanoTime();
+        boolean finishing = false;
         try {
             // Process only if job in NOT in excluded and is in included
             if (!DatadogUtilities.isJobTracked(run.getParent().getFullName())) {
@@ -353,26 +369,47 @@ public class DatadogBuildListener extends RunListener<Run> {
                 return;
             }
 
-            // APM Traces
-            client.finishBuildTrace(buildData, run);
+            // The pipeline nodes are processed off the CPS VM thread.
+            // The root span needs the data they propagate to the build (e.g. stages, Git info),
+            // so the build trace is finished after them, without blocking the thread finalizing the run.
+            RunSerialExecutor.get().submit(run, () -> {
+                try {
+                    // APM Traces
+                    client.finishBuildTrace(buildData, run);
+                } catch (Exception e) {
+                    DatadogUtilities.severe(logger, e, "Failed to process build finalization");
+                } finally {
+                    cleanUpFinalizedRun(run);
+                }
+            });
+            finishing = true;
             logger.fine("End DatadogBuildListener#onFinalized");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process build finalization");
         } finally {
-            // If the run belongs to a Jenkins pipeline (based on FlowNodes),
-            // the `onFinalized` method is executed before processing the last node.
-            // This means we cannot clean up trace actions at this point if the run is a Jenkins pipeline.
-            // The trace actions will be removed after last FlowNode has been processed.
-            // (See DatadogTracePipelineLogic.execute(...) method)
-            if(!isPipeline(run)) {
-                // Explicit removal of InvisibleActions used to collect Traces when the Run finishes.
-                cleanUpTraceActions(run);
+            PluginTelemetry.get().recordListener("DatadogBuildListener#onFinalized", start);
+            if (!finishing) {
+                cleanUpFinalizedRun(run);
             }
         }
     }
 
+    private static void cleanUpFinalizedRun(Run run) {
+        StageTimingStore.get().remove(run);
+        // If the run belongs to a Jenkins pipeline (based on FlowNodes),
+        // the `onFinalized` method is executed before processing the last node.
+        // This means we cannot clean up trace actions at this point if the run is a Jenkins pipeline.
+        // The trace actions will be removed after last FlowNode has been processed.
+        // (See DatadogTracePipelineLogic.execute(...) method)
+        if(!isPipeline(run)) {
+            // Explicit removal of InvisibleActions used to collect Traces when the Run finishes.
+            cleanUpTraceActions(run);
+        }
+    }
+
     @Override
     public void onDeleted(Run run) {
+        final long start = System.nanoTime();
         try {
             // Process only if job is NOT in excluded and is in included
             if (!DatadogUtilities.isJobTracked(run.getParent().getFullName())) {
@@ -415,16 +452,20 @@ public class DatadogBuildListener extends RunListener<Run> {
 
             // Send an event
             DatadogEvent event = new BuildAbortedEventImpl(buildData);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             Map<String, Set<String>> tags = buildData.getTags();
-            client.incrementCounter("jenkins.job.aborted", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.job.aborted", hostname, tags);
 
             logger.fine("End DatadogBuildListener#onDeleted");
         } catch (Exception e) {
             String text = "Failed to process build deletion: " + e;
             logger.fine(text);
+        } finally {
+            // The trace data of the run is no longer needed, whether the job is tracked or not
+            TraceDataStore.get().remove(run);
+            PluginTelemetry.get().recordListener("DatadogBuildListener#onDeleted", start);
         }
     }
 
@@ -435,43 +476,19 @@ public class DatadogBuildListener extends RunListener<Run> {
         return String.format("%d min, %d sec", minutes, seconds);
     }
 
-    private long getMeanTimeBetweenFailure(Run<?, ?> run) {
-        Run<?, ?> lastGreenRun = run.getPreviousNotFailedBuild();
-        if (lastGreenRun != null) {
-            return DatadogUtilities.getRunStartTimeInMillis(run) -
-                    DatadogUtilities.getRunStartTimeInMillis(lastGreenRun);
+    private long getPauseDurationMillis(WorkflowRun run) {
+        StageTimingStore.RunStageTimings timings = StageTimingStore.get().forRun(run);
+        if (timings != null) {
+            return timings.getPauseMillis();
         }
-        return 0;
-    }
 
-    private long getCycleTime(Run<?, ?> run) {
-        Run<?, ?> previousSuccessfulBuild = run.getPreviousSuccessfulBuild();
-        if (previousSuccessfulBuild != null) {
-            return (DatadogUtilities.getRunStartTimeInMillis(run) + run.getDuration()) -
-                    (DatadogUtilities.getRunStartTimeInMillis(previousSuccessfulBuild) +
-                            previousSuccessfulBuild.getDuration());
+        // The run was not tracked since it started (e.g. the controller was restarted)
+        RunExt extRun = getRunExtForRun(run);
+        long pauseDuration = 0;
+        for (StageNodeExt stage : extRun.getStages()) {
+            pauseDuration += stage.getPauseDurationMillis();
         }
-        return 0;
-    }
-
-    private long getMeanTimeToRecovery(Run<?, ?> run) {
-        if (isFailedBuild(run.getPreviousBuiltBuild())) {
-            Run<?, ?> firstFailedRun = run.getPreviousBuiltBuild();
-
-            while (firstFailedRun != null && isFailedBuild(firstFailedRun.getPreviousBuiltBuild())) {
-                firstFailedRun = firstFailedRun.getPreviousBuiltBuild();
-            }
-            if (firstFailedRun != null) {
-                return DatadogUtilities.getRunStartTimeInMillis(run) -
-                        DatadogUtilities.getRunStartTimeInMillis(firstFailedRun);
-            }
-        }
-        return 0;
-    }
-
-
-    private boolean isFailedBuild(Run<?, ?> run) {
-        return run != null && run.getResult() != Result.SUCCESS;
+        return pauseDuration;
     }
 
     public RunExt getRunExtForRun(WorkflowRun run) {
@@ -34,7 +34,11 @@ import org.datadog.jenkins.plugins.datadog.DatadogClient;
 import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.*;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.ComputerEventAggregator;
+import org.datadog.jenkins.plugins.datadog.util.ComputerTagsCache;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
 import javax.annotation.CheckForNull;
@@ -42,6 +46,8 @@ import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -51,6 +57,9 @@ import java.util.logging.Logger;
  * - When a computer gets temporarily online, the {@link #onTemporarilyOnline(Computer)} method will be invoked.
  * - When a computer gets temporarily offline, the {@link #onTemporarilyOffline(Computer, OfflineCause)} method will be invoked.
  * - When a computer failed to launch, the {@link #onLaunchFailure(Computer, TaskListener)} method will be invoked.
+ * - When the node configuration changes, the {@link #onConfigurationChange()} method will be invoked.
+ * Counters are submitted for every transition, but the events are summarized
+ * per label by the {@link ComputerEventAggregator}.
  */
 @Extension
 public class DatadogComputerListener extends ComputerListener {
@@ -59,7 +68,11 @@ public class DatadogComputerListener extends ComputerListener {
 
     @Override
     public void onOnline(Computer computer, TaskListener listener) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
         try {
+            // The hostname or the labels of the node may have changed while it was offline
+            ComputerTagsCache.get().invalidate(computer);
+
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
                 return;
@@ -75,24 +88,29 @@ public class DatadogComputerListener extends ComputerListener {
             // Get the list of tags to apply
             Map<String, Set<String>> tags = TagsUtil.merge(
                     DatadogUtilities.getTagsFromGlobalTags(),
-                    DatadogUtilities.getComputerTags(computer));
+                    ComputerTagsCache.get().getTags(computer));
 
-            // Send event
-            DatadogEvent event = new ComputerOnlineEventImpl(computer, listener, tags, false);
-            client.event(event);
+            // Send event, unless it is summarized with the other events of the label
+            if (shouldSendEvent(computer, tags, ComputerEventAggregator.Transition.ONLINE)) {
+                DatadogEvent event = new ComputerOnlineEventImpl(computer, listener, tags, false);
+                DispatchBus.get().event(client, event);
+            }
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.computer.online", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.computer.online", hostname, tags);
 
             logger.fine("End DatadogComputerListener#onOnline");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process computer online event");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogComputerListener#onOnline", start);
         }
     }
 
     @Override
     public void onOffline(@Nonnull Computer computer, @CheckForNull OfflineCause cause) {
+        final long start = System.nanoTime();
         try {
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
@@ -109,24 +127,29 @@ public class DatadogComputerListener extends ComputerListener {
             // Get the list of tags to apply
             Map<String, Set<String>> tags = TagsUtil.merge(
                     DatadogUtilities.getTagsFromGlobalTags(),
-                    DatadogUtilities.getComputerTags(computer));
+                    ComputerTagsCache.get().getTags(computer));
 
-            // Send event
-            DatadogEvent event = new ComputerOfflineEventImpl(computer, cause, tags, false);
-            client.event(event);
+            // Send event, unless it is summarized with the other events of the label
+            if (shouldSendEvent(computer, tags, ComputerEventAggregator.Transition.OFFLINE)) {
+                DatadogEvent event = new ComputerOfflineEventImpl(computer, cause, tags, false);
+                DispatchBus.get().event(client, event);
+            }
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.computer.offline", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.computer.offline", hostname, tags);
 
             logger.fine("End DatadogComputerListener#onOffline");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process computer offline event");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogComputerListener#onOffline", start);
         }
     }
 
     @Override
     public void onTemporarilyOnline(Computer computer) {
+        final long start = System.nanoTime();
         try {
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
@@ -143,24 +166,29 @@ public class DatadogComputerListener extends ComputerListener {
             // Get the list of tags to apply
             Map<String, Set<String>> tags = TagsUtil.merge(
                     DatadogUtilities.getTagsFromGlobalTags(),
-                    DatadogUtilities.getComputerTags(computer));
+                    ComputerTagsCache.get().getTags(computer));
 
-            // Send event
-            DatadogEvent event = new ComputerOnlineEventImpl(computer, null, tags, true);
-            client.event(event);
+            // Send event, unless it is summarized with the other events of the label
+            if (shouldSendEvent(computer, tags, ComputerEventAggregator.Transition.TEMPORARILY_ONLINE)) {
+                DatadogEvent event = new ComputerOnlineEventImpl(computer, null, tags, true);
+                DispatchBus.get().event(client, event);
+            }
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.computer.temporarily_online", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.computer.temporarily_online", hostname, tags);
 
             logger.fine("End DatadogComputerListener#onTemporarilyOnline");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process computer temporarily online event");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogComputerListener#onTemporarilyOnline", start);
         }
     }
 
     @Override
     public void onTemporarilyOffline(Computer computer, OfflineCause cause) {
+        final long start = System.nanoTime();
         try {
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
@@ -177,24 +205,29 @@ public class DatadogComputerListener extends ComputerListener {
             // Get the list of tags to apply
             Map<String, Set<String>> tags = TagsUtil.merge(
                     DatadogUtilities.getTagsFromGlobalTags(),
-                    DatadogUtilities.getComputerTags(computer));
+                    ComputerTagsCache.get().getTags(computer));
 
-            // Send event
-            DatadogEvent event = new ComputerOfflineEventImpl(computer, cause, tags, true);
-            client.event(event);
+            // Send event, unless it is summarized with the other events of the label
+            if (shouldSendEvent(computer, tags, ComputerEventAggregator.Transition.TEMPORARILY_OFFLINE)) {
+                DatadogEvent event = new ComputerOfflineEventImpl(computer, cause, tags, true);
+                DispatchBus.get().event(client, event);
+            }
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.computer.temporarily_offline", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.computer.temporarily_offline", hostname, tags);
 
             logger.fine("End DatadogComputerListener#onTemporarilyOffline");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process computer temporarily offline event");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogComputerListener#onTemporarilyOffline", start);
         }
     }
 
     @Override
     public void onLaunchFailure(Computer computer, TaskListener taskListener) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
         try {
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
@@ -211,20 +244,55 @@ public class DatadogComputerListener extends ComputerListener {
             // Get the list of tags to apply
             Map<String, Set<String>> tags = TagsUtil.merge(
                     DatadogUtilities.getTagsFromGlobalTags(),
-                    DatadogUtilities.getComputerTags(computer));
+                    ComputerTagsCache.get().getTags(computer));
 
-            // Send event
-            DatadogEvent event = new ComputerLaunchFailedEventImpl(computer, taskListener, tags);
-            client.event(event);
+            // Send event, unless it is summarized with the other events of the label
+            if (shouldSendEvent(computer, tags, ComputerEventAggregator.Transition.LAUNCH_FAILURE)) {
+                DatadogEvent event = new ComputerLaunchFailedEventImpl(computer, taskListener, tags);
+                DispatchBus.get().event(client, event);
+            }
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.computer.launch_failure", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.computer.launch_failure", hostname, tags);
 
             logger.fine("End DatadogComputerListener#onLaunchFailure");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process launch failure");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogComputerListener#onLaunchFailure", start);
         }
     }
 
+    private static boolean shouldSendEvent(final Computer computer, final Map<String, Set<String>> tags,
+                                           final ComputerEventAggregator.Transition transition) {
+        final Integer window = DatadogUtilities.getDatadogGlobalDescriptor().getComputerEventsWindow();
+        final String computerName = DatadogUtilities.getNodeName(computer);
+        if (window == null || window <= 0 || computerName == null) {
+            return true;
+        }
+
+        // The summary is about the label, so it does not get the tags of the computer
+        final Map<String, Set<String>> summaryTags = TagsUtil.merge(null, tags);
+        summaryTags.remove("node_name");
+        summaryTags.remove("node_hostname");
+        // Every node has a label with its own name, which would give a summary to each ephemeral agent
+        final Set<String> labels = summaryTags.get("node_label");
+        if (labels != null) {
+            labels.remove(computerName);
+            if (labels.isEmpty()) {
+                summaryTags.remove("node_label");
+            }
+        }
+        final String label = labels == null ? "" : String.join(" ", new TreeSet<>(labels));
+        return ComputerEventAggregator.get().record(computerName, label, transition, summaryTags,
+                System.currentTimeMillis(), TimeUnit.SECONDS.toMillis(window));
+    }
+
+    @Override
+    public void onConfigurationChange() {
+        // Nodes may have been added, removed or relabeled
+        ComputerTagsCache.get().clear();
+    }
+
 }
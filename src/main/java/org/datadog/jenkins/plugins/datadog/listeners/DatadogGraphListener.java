@@ -30,19 +30,28 @@ import hudson.Extension;
 import hudson.model.Queue;
 import hudson.model.Run;
 import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.traces.BuildSpanAction;
+import org.datadog.jenkins.plugins.datadog.traces.TraceDataStore;
+import org.datadog.jenkins.plugins.datadog.util.RunSerialExecutor;
+import org.datadog.jenkins.plugins.datadog.util.StageTimingStore;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 import org.jenkinsci.plugins.workflow.actions.ThreadNameAction;
 import org.jenkinsci.plugins.workflow.actions.TimingAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
 import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowGraphWalker;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graph.FlowStartNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import javax.annotation.CheckForNull;
@@ -64,19 +73,44 @@ public class DatadogGraphListener implements GraphListener {
 
     @Override
     public void onNewHead(FlowNode flowNode) {
+        final long start = System.nanoTime();
+        try {
+            processNewHead(flowNode);
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogGraphListener#onNewHead", start);
+        }
+    }
+
+    private void processNewHead(FlowNode flowNode) {
         //APM Traces
         DatadogClient client = ClientFactory.getClient();
         if (client == null){
             return;
         }
 
-        client.sendPipelineTrace(runFor(flowNode.getExecution()), flowNode);
+        // The ledgers of the run are updated on the CPS VM thread, so they capture the node
+        // when it is added to the graph. The rest of the work is done off the CPS VM thread,
+        // in the same order as the nodes were added.
+        final Run<?, ?> pipelineRun = runFor(flowNode.getExecution());
+        addToStageTimings(pipelineRun, flowNode);
+        addToPipelineTree(pipelineRun, flowNode);
+        final StageSnapshot stage = isMonitored(flowNode) ? captureStage((StepEndNode) flowNode) : null;
 
-        if (!isMonitored(flowNode)) {
-            return;
-        }
+        // The trace logic walks the flow graph from the node, so the node itself is kept.
+        // The nodes are not modified once they are added to the graph.
+        RunSerialExecutor.get().submit(pipelineRun, () -> {
+            client.sendPipelineTrace(pipelineRun, flowNode);
+            if (stage != null) {
+                submitStageMetrics(client, stage);
+            }
+        });
+    }
 
-        StepEndNode endNode = (StepEndNode) flowNode;
+    /**
+     * Captures the data of a completed stage that depends on the state of the pipeline
+     * when the stage ends.
+     */
+    private StageSnapshot captureStage(StepEndNode endNode) {
         StepStartNode startNode = endNode.getStartNode();
         int stageDepth = 0;
         String directParentName = null;
@@ -91,32 +125,88 @@ public class DatadogGraphListener implements GraphListener {
         if(directParentName == null){
             directParentName = "root";
         }
-        WorkflowRun run = getRun(flowNode);
+        WorkflowRun run = getRun(endNode);
         if(run == null){
-            return;
+            return null;
         }
 
+        final StageTimingStore.RunStageTimings timings = StageTimingStore.get().forRun(run);
+        final long pauseDuration = timings != null ? timings.getStagePauseMillis(startNode.getId()) : -1;
+        return new StageSnapshot(run, endNode.getExecution().getOwner(), getStageName(startNode), directParentName, stageDepth,
+                DatadogUtilities.getResultTag(endNode), getTime(startNode, endNode),
+                pauseDuration, pauseDuration >= 0 ? null : startNode);
+    }
+
+    private void submitStageMetrics(DatadogClient client, StageSnapshot stage) {
         try {
-            String result = DatadogUtilities.getResultTag(endNode);
-            BuildData buildData = new BuildData(run, flowNode.getExecution().getOwner().getListener());
+            BuildData buildData = new BuildData(stage.run, stage.owner.getListener());
             String hostname = buildData.getHostname("");
             Map<String, Set<String>> tags = buildData.getTags();
-            TagsUtil.addTagToTags(tags, "stage_name", getStageName(startNode));
-            TagsUtil.addTagToTags(tags, "parent_stage_name", directParentName);
-            TagsUtil.addTagToTags(tags, "stage_depth", String.valueOf(stageDepth));
+            TagsUtil.addTagToTags(tags, "stage_name", stage.stageName);
+            TagsUtil.addTagToTags(tags, "parent_stage_name", stage.parentStageName);
+            TagsUtil.addTagToTags(tags, "stage_depth", String.valueOf(stage.stageDepth));
             // Add custom result tag
-            TagsUtil.addTagToTags(tags, "result", result);
-            long pauseDuration = getPauseDurationMillis(startNode);
+            TagsUtil.addTagToTags(tags, "result", stage.result);
+            long pauseDuration = stage.pauseDuration >= 0 ? stage.pauseDuration : getPauseDurationMillis(stage.startNode);
 
-            client.gauge("jenkins.job.stage_duration", getTime(startNode, endNode), hostname, tags);
-            client.gauge("jenkins.job.stage_pause_duration", pauseDuration, hostname, tags);
-            client.incrementCounter("jenkins.job.stage_completed", hostname, tags);
+            DispatchBus.get().gauge(client, "jenkins.job.stage_duration", stage.duration, hostname, tags);
+            DispatchBus.get().gauge(client, "jenkins.job.stage_pause_duration", pauseDuration, hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.job.stage_completed", hostname, tags);
         } catch (IOException | InterruptedException e) {
-            DatadogUtilities.severe(logger, e, "Unable to submit the stage duration metric for " + getStageName(startNode));
+            DatadogUtilities.severe(logger, e, "Unable to submit the stage duration metric for " + stage.stageName);
+        }
+    }
+
+    /**
+     * Adds the FlowNode to the pipeline tree of the run, so the tree
+     * does not need to be built from the whole flow graph when the pipeline finishes.
+     * @param run the current run.
+     * @param flowNode the new FlowNode.
+     */
+    private void addToPipelineTree(@CheckForNull Run<?, ?> run, @Nonnull FlowNode flowNode) {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        if (run == null || cfg == null || !cfg.getEnableCiVisibility() || run.getAction(BuildSpanAction.class) == null) {
+            return;
+        }
+
+        try {
+            TraceDataStore.get().forRun(run).getPipeline().add(flowNode);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to add the flow node " + flowNode.getId() + " to the pipeline tree");
+        }
+    }
+
+    /**
+     * Accounts for the pause duration of the FlowNodes completed by the new FlowNode (its parents),
+     * so the pause duration of the stages does not need to be calculated from the whole flow graph.
+     * @param run the current run.
+     * @param flowNode the new FlowNode.
+     */
+    private void addToStageTimings(@CheckForNull Run<?, ?> run, @Nonnull FlowNode flowNode) {
+        if (run == null) {
+            return;
+        }
+
+        try {
+            if (flowNode instanceof FlowStartNode) {
+                StageTimingStore.get().start(run);
+                return;
+            }
+
+            final StageTimingStore.RunStageTimings timings = StageTimingStore.get().forRun(run);
+            if (timings == null) {
+                return;
+            }
+            for (FlowNode parent : flowNode.getParents()) {
+                timings.addPause(parent);
+            }
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to add the flow node " + flowNode.getId() + " to the stage timings");
         }
     }
 
     private long getPauseDurationMillis(@Nonnull FlowNode startNode) {
+        // The run was not tracked since it started (e.g. the controller was restarted)
         try {
             long pauseDuration = 0;
             FlowGraphWalker walker = new FlowGraphWalker(startNode.getExecution());
@@ -225,4 +315,34 @@ public class DatadogGraphListener implements GraphListener {
             return null;
         }
     }
+
+    /**
+     * The data of a stage, copied from the flow nodes on the CPS VM thread.
+     */
+    private static final class StageSnapshot {
+        private final WorkflowRun run;
+        private final FlowExecutionOwner owner;
+        private final String stageName;
+        private final String parentStageName;
+        private final int stageDepth;
+        private final String result;
+        private final long duration;
+        // -1 if the run was not tracked since it started
+        private final long pauseDuration;
+        // Only kept to compute the pause duration from the flow graph, when it is not known
+        private final StepStartNode startNode;
+
+        private StageSnapshot(WorkflowRun run, FlowExecutionOwner owner, String stageName, String parentStageName,
+                              int stageDepth, String result, long duration, long pauseDuration, StepStartNode startNode) {
+            this.run = run;
+            this.owner = owner;
+            this.stageName = stageName;
+            this.parentStageName = parentStageName;
+            this.stageDepth = stageDepth;
+            this.result = result;
+            this.duration = duration;
+            this.pauseDuration = pauseDuration;
+            this.startNode = startNode;
+        }
+    }
 }
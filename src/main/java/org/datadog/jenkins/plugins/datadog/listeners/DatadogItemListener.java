@@ -32,9 +32,11 @@ import org.datadog.jenkins.plugins.datadog.DatadogClient;
 import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.ItemCRUDEventImpl;
 import org.datadog.jenkins.plugins.datadog.events.ItemCopiedEventImpl;
 import org.datadog.jenkins.plugins.datadog.events.ItemLocationChangedEventImpl;
+import org.datadog.jenkins.plugins.datadog.util.JenkinsInventory;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
 import java.util.Map;
@@ -48,6 +50,7 @@ import java.util.logging.Logger;
  * - When an item gets deleted, the {@link #onDeleted(Item)} method will be invoked.
  * - When an item gets updated, the {@link #onUpdated(Item)} method will be invoked.
  * - When an item gets their location changed, the {@link #onLocationChanged(Item, String, String)} method will be invoked.
+ * Created, copied and deleted items also update the project count kept by the {@link JenkinsInventory}.
  */
 @Extension
 public class DatadogItemListener extends ItemListener {
@@ -56,11 +59,13 @@ public class DatadogItemListener extends ItemListener {
 
     @Override
     public void onCreated(Item item) {
+        JenkinsInventory.get().onItemCreated(item);
         onCRUD(item, ItemCRUDEventImpl.CREATED);
     }
 
     @Override
     public void onDeleted(Item item) {
+        JenkinsInventory.get().onItemDeleted(item);
         onCRUD(item, ItemCRUDEventImpl.DELETED);
     }
 
@@ -91,11 +96,11 @@ public class DatadogItemListener extends ItemListener {
 
             // Send event
             DatadogEvent event = new ItemCRUDEventImpl(item, action, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.item." + action.toLowerCase(), hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.item." + action.toLowerCase(), hostname, tags);
 
             logger.fine("End DatadogItemListener#on" + action);
         } catch (Exception e) {
@@ -105,6 +110,8 @@ public class DatadogItemListener extends ItemListener {
 
     @Override
     public void onCopied(Item src, Item item) {
+        // The default implementation calls onCreated, which is not the case when it is overridden
+        JenkinsInventory.get().onItemCreated(item);
         try {
             final boolean emitSystemEvents = DatadogUtilities.getDatadogGlobalDescriptor().isEmitSystemEvents();
             if (!emitSystemEvents) {
@@ -126,11 +133,11 @@ public class DatadogItemListener extends ItemListener {
 
             // Send event
             DatadogEvent event = new ItemCopiedEventImpl(src, item, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.item.copied", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.item.copied", hostname, tags);
 
             logger.fine("End DatadogItemListener#onCopied");
         } catch (Exception e) {
@@ -161,11 +168,11 @@ public class DatadogItemListener extends ItemListener {
 
             // Send event
             DatadogEvent event = new ItemLocationChangedEventImpl(item, oldFullName, newFullName, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.item.location_changed", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.item.location_changed", hostname, tags);
 
             logger.fine("End DatadogItemListener#onLocationChanged");
         } catch (Exception e) {
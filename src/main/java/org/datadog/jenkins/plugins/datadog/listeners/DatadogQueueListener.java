@@ -6,6 +6,7 @@ import hudson.model.Run;
 import hudson.model.queue.QueueListener;
 import org.datadog.jenkins.plugins.datadog.model.FlowNodeQueueData;
 import org.datadog.jenkins.plugins.datadog.model.PipelineQueueInfoAction;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
@@ -25,6 +26,7 @@ public class DatadogQueueListener extends QueueListener {
 
     @Override
     public void onEnterBuildable(Queue.BuildableItem item) {
+        final long start = System.nanoTime();
         try {
             final Queue.Task task = item.task;
             if(task == null) {
@@ -62,6 +64,8 @@ public class DatadogQueueListener extends QueueListener {
             final FlowNodeQueueData flowNodeData = queueAction.get(run, flowNode.getId());
             if(flowNodeData != null) {
                 flowNodeData.setEnterBuildableNanos(System.nanoTime());
+                // Put it back so the update is also recorded in the trace data journal.
+                queueAction.put(run, flowNode.getId(), flowNodeData);
             } else {
                 final FlowNodeQueueData data = new FlowNodeQueueData(flowNode.getId());
                 data.setEnterBuildableNanos(System.nanoTime());
@@ -70,11 +74,14 @@ public class DatadogQueueListener extends QueueListener {
 
         } catch (Exception e){
             logger.severe("Error onEnterBuildable: item:" + item + ", exception: " + e);
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogQueueListener#onEnterBuildable", start);
         }
     }
 
     @Override
     public void onLeaveBuildable(Queue.BuildableItem item) {
+        final long start = System.nanoTime();
         try {
             final Queue.Task task = item.task;
             if(task == null) {
@@ -111,9 +118,13 @@ public class DatadogQueueListener extends QueueListener {
             final FlowNodeQueueData flowNodeData = queueAction.get(run, flowNode.getId());
             if(flowNodeData != null) {
                 flowNodeData.setLeaveBuildableNanos(System.nanoTime());
+                // Put it back so the update is also recorded in the trace data journal.
+                queueAction.put(run, flowNode.getId(), flowNodeData);
             }
         } catch (Exception e){
             logger.severe("Error onLeaveBuildable: item:" + item + ", exception: " + e);
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogQueueListener#onLeaveBuildable", start);
         }
     }
 
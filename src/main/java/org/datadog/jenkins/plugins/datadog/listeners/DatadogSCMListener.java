@@ -37,8 +37,10 @@ import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogJobProperty;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.SCMCheckoutCompletedEventImpl;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 
 import java.io.File;
 import java.io.IOException;
@@ -70,6 +72,7 @@ public class DatadogSCMListener extends SCMListener {
     @Override
     public void onCheckout(Run<?, ?> build, SCM scm, FilePath workspace, TaskListener listener,
                            File changelogFile, SCMRevisionState pollingBaseline) throws Exception {
+        final long start = System.nanoTime();
         try {
             // Process only if job is NOT in excluded and is in included
             DatadogJobProperty prop = DatadogUtilities.getDatadogJobProperties(build);
@@ -96,16 +99,18 @@ public class DatadogSCMListener extends SCMListener {
 
             // Send event
             DatadogEvent event = new SCMCheckoutCompletedEventImpl(buildData);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
             Map<String, Set<String>> tags = buildData.getTags();
-            client.incrementCounter("jenkins.scm.checkout", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.scm.checkout", hostname, tags);
 
             logger.fine("End DatadogSCMListener#onCheckout");
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to process build checkout event");
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogSCMListener#onCheckout", start);
         }
     }
 
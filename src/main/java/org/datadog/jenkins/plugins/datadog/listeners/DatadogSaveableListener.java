@@ -33,6 +33,7 @@ import org.datadog.jenkins.plugins.datadog.DatadogClient;
 import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.ConfigChangedEventImpl;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
@@ -77,11 +78,11 @@ public class DatadogSaveableListener  extends SaveableListener {
 
             // Send event
             DatadogEvent event = new ConfigChangedEventImpl(config, file, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.config.changed", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.config.changed", hostname, tags);
 
             logger.fine("End DatadogSaveableListener#onChange");
         } catch (Exception e) {
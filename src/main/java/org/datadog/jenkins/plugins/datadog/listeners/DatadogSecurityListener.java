@@ -32,12 +32,15 @@ import org.datadog.jenkins.plugins.datadog.DatadogClient;
 import org.datadog.jenkins.plugins.datadog.DatadogEvent;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
 import org.datadog.jenkins.plugins.datadog.events.UserAuthenticationEventImpl;
+import org.datadog.jenkins.plugins.datadog.util.SecurityEventCoalescer;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
 import javax.annotation.Nonnull;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -45,6 +48,7 @@ import java.util.logging.Logger;
  * - When an user authenticates, the {@link #authenticated(UserDetails)} method will be invoked.
  * - When an user fails to authenticate, the {@link #failedToAuthenticate(String)} method will be invoked.
  * - When an user logout, the {@link #loggedOut(String)} method will be invoked.
+ * The events of a user are coalesced by the {@link SecurityEventCoalescer}.
  */
 @Extension
 public class DatadogSecurityListener extends SecurityListener {
@@ -66,6 +70,12 @@ public class DatadogSecurityListener extends SecurityListener {
                 return;
             }
 
+            // Only count the occurrence if the user already has an open window
+            final long now = System.currentTimeMillis();
+            if (SecurityEventCoalescer.get().coalesce(UserAuthenticationEventImpl.LOGIN, details.getUsername(), now)) {
+                return;
+            }
+
             // Get the list of global tags to apply
             Map<String, Set<String>> tags = DatadogUtilities.getTagsFromGlobalTags();
             // Add userId and JenkinsUrl Tags
@@ -75,11 +85,14 @@ public class DatadogSecurityListener extends SecurityListener {
             // Send event
             DatadogEvent event = new UserAuthenticationEventImpl(details.getUsername(),
                     UserAuthenticationEventImpl.LOGIN, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.user.authenticated", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.user.authenticated", hostname, tags);
+
+            // Coalesce the next occurrences
+            openWindow(UserAuthenticationEventImpl.LOGIN, details.getUsername(), "jenkins.user.authenticated", hostname, tags, now);
 
             logger.fine("End DatadogSecurityListener#authenticated");
         } catch (Exception e) {
@@ -102,6 +115,12 @@ public class DatadogSecurityListener extends SecurityListener {
                 return;
             }
 
+            // Only count the occurrence if the user already has an open window
+            final long now = System.currentTimeMillis();
+            if (SecurityEventCoalescer.get().coalesce(UserAuthenticationEventImpl.ACCESS_DENIED, username, now)) {
+                return;
+            }
+
             // Get the list of global tags to apply
             Map<String, Set<String>> tags = DatadogUtilities.getTagsFromGlobalTags();
             // Add userId and JenkinsUrl Tags
@@ -110,11 +129,14 @@ public class DatadogSecurityListener extends SecurityListener {
 
             // Send event
             DatadogEvent event = new UserAuthenticationEventImpl(username, UserAuthenticationEventImpl.ACCESS_DENIED, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.user.access_denied", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.user.access_denied", hostname, tags);
+
+            // Coalesce the next occurrences
+            openWindow(UserAuthenticationEventImpl.ACCESS_DENIED, username, "jenkins.user.access_denied", hostname, tags, now);
 
             logger.fine("End DatadogSecurityListener#failedToAuthenticate");
         } catch (Exception e) {
@@ -122,6 +144,14 @@ public class DatadogSecurityListener extends SecurityListener {
         }
     }
 
+    private static void openWindow(String action, String username, String metricName, String hostname,
+                                   Map<String, Set<String>> tags, long now) {
+        final Integer window = DatadogUtilities.getDatadogGlobalDescriptor().getSecurityEventsWindow();
+        if (window != null && window > 0) {
+            SecurityEventCoalescer.get().open(action, username, metricName, hostname, tags, now, TimeUnit.SECONDS.toMillis(window));
+        }
+    }
+
     @Override
     protected void loggedIn(@Nonnull String username) {
         //Covered by Authenticated
@@ -147,6 +177,12 @@ public class DatadogSecurityListener extends SecurityListener {
                 return;
             }
 
+            // Only count the occurrence if the user already has an open window
+            final long now = System.currentTimeMillis();
+            if (SecurityEventCoalescer.get().coalesce(UserAuthenticationEventImpl.LOGOUT, username, now)) {
+                return;
+            }
+
             // Get the list of global tags to apply
             Map<String, Set<String>> tags = DatadogUtilities.getTagsFromGlobalTags();
             // Add userId and JenkinsUrl Tags
@@ -155,11 +191,14 @@ public class DatadogSecurityListener extends SecurityListener {
 
             // Send event
             DatadogEvent event = new UserAuthenticationEventImpl(username, UserAuthenticationEventImpl.LOGOUT, tags);
-            client.event(event);
+            DispatchBus.get().event(client, event);
 
             // Submit counter
             String hostname = DatadogUtilities.getHostname(null);
-            client.incrementCounter("jenkins.user.logout", hostname, tags);
+            DispatchBus.get().incrementCounter(client, "jenkins.user.logout", hostname, tags);
+
+            // Coalesce the next occurrences
+            openWindow(UserAuthenticationEventImpl.LOGOUT, username, "jenkins.user.logout", hostname, tags, now);
 
             logger.fine("End DatadogSecurityListener#loggedOut");
         } catch (Exception e) {
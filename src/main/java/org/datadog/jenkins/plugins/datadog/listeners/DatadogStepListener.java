@@ -3,9 +3,10 @@ package org.datadog.jenkins.plugins.datadog.listeners;
 import hudson.Extension;
 import hudson.model.Run;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
-import org.datadog.jenkins.plugins.datadog.audit.DatadogAudit;
 import org.datadog.jenkins.plugins.datadog.model.PipelineNodeInfoAction;
 import org.datadog.jenkins.plugins.datadog.model.StepData;
+import org.datadog.jenkins.plugins.datadog.telemetry.CallSiteTimer;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 import org.datadog.jenkins.plugins.datadog.traces.StepDataAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.flow.StepListener;
@@ -23,12 +24,16 @@ public class DatadogStepListener implements StepListener {
 
     private static final Logger logger = Logger.getLogger(DatadogStepListener.class.getName());
 
+    private static final CallSiteTimer FIND_START_OF_PIPELINE_TIMER = CallSiteTimer.forCallSite("DatadogStepListener.findStartOfPipeline");
+    private static final CallSiteTimer FIND_FIRST_ALLOCATE_NODE_START_TIMER = CallSiteTimer.forCallSite("DatadogStepListener.findFirstAllocateNodeStart");
+
     @Override
     public void notifyOfNewStep(@Nonnull Step step, @Nonnull StepContext context) {
         if (!DatadogUtilities.getDatadogGlobalDescriptor().getEnableCiVisibility()) {
             return;
         }
 
+        final long start = System.nanoTime();
         try {
             final Run<?,?> run = context.get(Run.class);
             final StepDataAction stepDataAction = run.getAction(StepDataAction.class);
@@ -78,11 +83,13 @@ public class DatadogStepListener implements StepListener {
 
         } catch (Exception ex) {
             logger.severe("Unable to extract Run information of the StepContext. " + ex);
+        } finally {
+            PluginTelemetry.get().recordListener("DatadogStepListener#notifyOfNewStep", start);
         }
     }
 
     private void findStartOfPipeline(final Run<?,?> run, final StepData stepData, final FlowNode firstAllocateNodeStart) {
-        long start = System.currentTimeMillis();
+        final long start = FIND_START_OF_PIPELINE_TIMER.start();
         try {
             final Iterator<BlockStartNode> blockStartNodes = firstAllocateNodeStart.iterateEnclosingBlocks().iterator();
             if(blockStartNodes.hasNext()) {
@@ -92,13 +99,12 @@ public class DatadogStepListener implements StepListener {
                 }
             }
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogStepListener.findStartOfPipeline", start, end);
+            FIND_START_OF_PIPELINE_TIMER.stop(start);
         }
     }
 
     private FlowNode findFirstAllocateNodeStart(FlowNode current) {
-        long start = System.currentTimeMillis();
+        final long start = FIND_FIRST_ALLOCATE_NODE_START_TIMER.start();
         try {
             for(FlowNode block : current.iterateEnclosingBlocks()) {
                 if("Allocate node : Start".equalsIgnoreCase(block.getDisplayName())){
@@ -107,8 +113,7 @@ public class DatadogStepListener implements StepListener {
             }
             return null;
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogStepListener.findFirstAllocateNodeStart", start, end);
+            FIND_FIRST_ALLOCATE_NODE_START_TIMER.stop(start);
         }
     }
 }
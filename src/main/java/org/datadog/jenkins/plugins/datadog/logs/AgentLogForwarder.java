@@ -0,0 +1,151 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import jenkins.model.Jenkins;
+import net.sf.json.util.JSONUtils;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.model.BuildData;
+
+import java.io.Serializable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+/**
+ * Sends the logs of a build directly from the agent JVM the pipeline steps run on, instead of
+ * streaming them to the controller first.
+ *
+ * It is created on the controller, with the destination of the logs and a template of the log records
+ * of the build, and it is serialized to the agents along with the {@link DatadogTaskListenerDecorator}.
+ * The logs are only forwarded to the log collection port of a Datadog Agent, so no credential is sent to the agents.
+ * On the agents, a log line only costs the escaping of the message: the records are batched and sent
+ * by an {@link AgentLogSender}.
+ */
+public class AgentLogForwarder implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(AgentLogForwarder.class.getName());
+    // How long a log stream closing waits for its lines to be sent
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+    private final String host;
+    private final Integer logCollectionPort;
+    private final String multiLinePattern;
+    private final Integer multiLineTimeout;
+    // The JSON record without its closing brace, the message and the timestamp are appended to it.
+    private final String recordPrefix;
+
+    AgentLogForwarder(String host, Integer logCollectionPort, String multiLinePattern, Integer multiLineTimeout,
+                      String recordTemplate) {
+        this.host = host;
+        this.logCollectionPort = logCollectionPort;
+        this.multiLinePattern = multiLinePattern;
+        this.multiLineTimeout = multiLineTimeout;
+        final String prefix = recordTemplate.substring(0, recordTemplate.lastIndexOf('}'));
+        this.recordPrefix = prefix.trim().endsWith("{") ? prefix : prefix + ",";
+    }
+
+    /**
+     * Must be called on the controller.
+     * @param buildData - the data of the build
+     * @return the forwarder of the logs of the build, or null if the logs must be sent by the controller.
+     */
+    public static AgentLogForwarder create(BuildData buildData) {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        if(cfg == null || !cfg.isForwardLogsFromAgents()) {
+            return null;
+        }
+        try {
+            final DatadogClient.ClientType clientType = DatadogClient.ClientType.valueOf(cfg.getReportWith());
+            if(clientType != DatadogClient.ClientType.DSD) {
+                // The API key is never sent to the agents
+                logger.fine("The logs are only forwarded from the agents to a Datadog Agent, they are sent by the controller");
+                return null;
+            }
+            if(cfg.getTargetLogCollectionPort() == null) {
+                logger.fine("The Datadog Log Collection Port is not set, the logs are sent by the controller");
+                return null;
+            }
+            final String template = DatadogWriter.getRecordAttributes(buildData).toString();
+            return new AgentLogForwarder(cfg.getTargetHost(), cfg.getTargetLogCollectionPort(),
+                    cfg.getLogMultiLinePattern(), cfg.getLogMultiLineTimeout(), template);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to set up the forwarding of the logs from the agents");
+            return null;
+        }
+    }
+
+    /**
+     * @return true if running on an agent, where the logs must be sent by this forwarder.
+     */
+    public boolean isOnAgent() {
+        return Jenkins.getInstanceOrNull() == null;
+    }
+
+    public String getMultiLinePattern() {
+        return multiLinePattern;
+    }
+
+    public Integer getMultiLineTimeout() {
+        return multiLineTimeout;
+    }
+
+    /**
+     * Queues a log line, it is sent in the next batch.
+     * @param line - a non-empty log line
+     */
+    public void send(String line) {
+        getSender().add(toRecord(line, System.currentTimeMillis()));
+    }
+
+    /**
+     * Schedules the sending of the queued log lines, and waits for it up to {@link #FLUSH_TIMEOUT_MILLIS}.
+     * The lines not sent by then are still sent by the background thread.
+     */
+    public void flush() {
+        try {
+            getSender().scheduleFlush().get(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.fine("The log lines are still being sent in the background");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            DatadogUtilities.severe(logger, e.getCause(), "Failed to send the log lines");
+        }
+    }
+
+    String toRecord(String line, long timestamp) {
+        return recordPrefix + "\"message\":" + JSONUtils.quote(line) + ",\"timestamp\":" + timestamp + "}";
+    }
+
+    private AgentLogSender getSender() {
+        return AgentLogSender.get(host + ":" + logCollectionPort, () -> new AgentLogSender.TcpTransport(host, logCollectionPort));
+    }
+}
@@ -0,0 +1,252 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Batches the log records forwarded by the agents, and sends them from a background thread so the
+ * log streams of the builds never wait for the network.
+ *
+ * There is one sender in the JVM, for the current destination: when the destination changes, the previous
+ * sender sends its pending records and is dropped. A batch is sent every {@link #FLUSH_INTERVAL_MILLIS},
+ * as soon as it reaches {@link #MAX_BATCH_RECORDS} records, or when a log stream is closed (from the
+ * background thread too, see {@link #scheduleFlush()}). If the destination cannot keep up, the records
+ * over {@link #MAX_PENDING_RECORDS} are dropped.
+ */
+class AgentLogSender {
+
+    private static final Logger logger = Logger.getLogger(AgentLogSender.class.getName());
+
+    static final int MAX_BATCH_RECORDS = 1000;
+    // The log intake accepts payloads of up to 5MB
+    static final int MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    static final int MAX_PENDING_RECORDS = 10000;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final int TIMEOUT_MS = 60 * 1000;
+
+    private static ScheduledExecutorService scheduler;
+    private static String currentDestination;
+    private static AgentLogSender current;
+    private static ScheduledFuture<?> currentFlush;
+
+    interface Transport {
+        void send(List<String> records) throws IOException;
+
+        default void close() {
+        }
+    }
+
+    private final Transport transport;
+    private final Executor flushExecutor;
+    private final Deque<String> pending = new ArrayDeque<>();
+    private final Object sendLock = new Object();
+    private boolean flushScheduled;
+    private long dropped;
+
+    AgentLogSender(Transport transport, Executor flushExecutor) {
+        this.transport = transport;
+        this.flushExecutor = flushExecutor;
+    }
+
+    static synchronized AgentLogSender get(String destination, Supplier<Transport> transport) {
+        if(current != null && destination.equals(currentDestination)) {
+            return current;
+        }
+        if(scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "datadog-agent-log-forwarder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if(current != null) {
+            // The destination changed on the controller
+            currentFlush.cancel(false);
+            scheduler.execute(current::close);
+        }
+        current = new AgentLogSender(transport.get(), scheduler);
+        currentFlush = scheduler.scheduleWithFixedDelay(current::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        currentDestination = destination;
+        return current;
+    }
+
+    void add(String record) {
+        synchronized (this) {
+            if(pending.size() >= MAX_PENDING_RECORDS) {
+                dropped++;
+                return;
+            }
+            pending.add(record);
+            if(pending.size() < MAX_BATCH_RECORDS || flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        flushExecutor.execute(this::flush);
+    }
+
+    /**
+     * Sends the pending records from the background thread, so the caller does not wait for the network,
+     * nor for the records of the other log streams.
+     * @return a future completed once the records pending at this point were sent (or failed to).
+     */
+    CompletableFuture<Void> scheduleFlush() {
+        final CompletableFuture<Void> flushed = new CompletableFuture<>();
+        flushExecutor.execute(() -> {
+            try {
+                flush();
+            } finally {
+                flushed.complete(null);
+            }
+        });
+        return flushed;
+    }
+
+    /**
+     * Sends the pending records, in batches.
+     */
+    void flush() {
+        synchronized (sendLock) {
+            List<String> batch;
+            while(!(batch = takeBatch()).isEmpty()) {
+                send(batch);
+            }
+        }
+    }
+
+    /**
+     * Sends the pending records and closes the transport.
+     */
+    void close() {
+        synchronized (sendLock) {
+            flush();
+            transport.close();
+        }
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private synchronized List<String> takeBatch() {
+        flushScheduled = false;
+        if(dropped > 0) {
+            logger.warning("Dropped " + dropped + " log records that could not be sent in time");
+            dropped = 0;
+        }
+        final List<String> batch = new ArrayList<>();
+        int bytes = 0;
+        while(!pending.isEmpty() && batch.size() < MAX_BATCH_RECORDS) {
+            final int length = pending.peek().length() + 1;
+            if(!batch.isEmpty() && bytes + length > MAX_BATCH_BYTES) {
+                break;
+            }
+            batch.add(pending.poll());
+            bytes += length;
+        }
+        return batch;
+    }
+
+    private void send(List<String> batch) {
+        try {
+            transport.send(batch);
+        } catch (IOException e) {
+            // we try again in case a connection has to be re-established.
+            try {
+                transport.send(batch);
+            } catch (IOException ex) {
+                logger.warning("Failed to send " + batch.size() + " log records: " + ex);
+            }
+        }
+    }
+
+    /**
+     * Writes the batches as JSON lines to the TCP log collection port of the Datadog Agent.
+     */
+    static class TcpTransport implements Transport {
+        private final String host;
+        private final int port;
+        private Socket socket;
+        private Writer writer;
+
+        TcpTransport(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override
+        public void send(List<String> records) throws IOException {
+            try {
+                if(socket == null) {
+                    socket = new Socket();
+                    socket.connect(new InetSocketAddress(host, port), TIMEOUT_MS);
+                    writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                }
+                for(String record : records) {
+                    writer.write(record);
+                    writer.write('\n');
+                }
+                writer.flush();
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if(socket != null) {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                // ignored, the socket is reopened with the next batch
+            } finally {
+                socket = null;
+                writer = null;
+            }
+        }
+    }
+}
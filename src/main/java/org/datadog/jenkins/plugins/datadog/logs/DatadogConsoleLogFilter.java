@@ -60,10 +60,12 @@ public class DatadogConsoleLogFilter extends ConsoleLogFilter implements Seriali
             }
 
             if (build != null) {
-                DatadogWriter writer = new DatadogWriter(new BuildData(build, null), outputStream);
+                BuildData buildData = new BuildData(build, null);
+                DatadogWriter writer = new DatadogWriter(buildData, outputStream, LogLineFilter.forRun(build, buildData));
                 return new DatadogOutputStream(outputStream, writer);
             } else if (run != null) {
-                DatadogWriter writer = new DatadogWriter(new BuildData(run, null), outputStream);
+                BuildData buildData = new BuildData(run, null);
+                DatadogWriter writer = new DatadogWriter(buildData, outputStream, LogLineFilter.forRun(run, buildData));
                 return new DatadogOutputStream(outputStream, writer);
             } else {
                 return outputStream;
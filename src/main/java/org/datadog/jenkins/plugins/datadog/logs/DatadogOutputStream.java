@@ -34,12 +34,14 @@ import java.io.OutputStream;
 public class DatadogOutputStream extends LineTransformationOutputStream {
     private OutputStream delegate;
     private DatadogWriter writer;
+    private MultiLineLogAggregator aggregator;
 
 
     public DatadogOutputStream(OutputStream delegate, DatadogWriter writer) {
         super();
         this.delegate = delegate;
         this.writer = writer;
+        this.aggregator = MultiLineLogAggregator.create(writer);
     }
 
     @Override
@@ -48,8 +50,13 @@ public class DatadogOutputStream extends LineTransformationOutputStream {
         this.flush();
 
         String line = new String(b, 0, len, writer.getCharset());
-        line = ConsoleNote.removeNotes(line).trim();
-        writer.write(line);
+        line = ConsoleNote.removeNotes(line);
+        if (aggregator != null) {
+            // The leading whitespace tells the continuation lines apart, so it is kept.
+            aggregator.add(line);
+        } else {
+            writer.write(line.trim());
+        }
     }
 
     @Override
@@ -60,6 +67,11 @@ public class DatadogOutputStream extends LineTransformationOutputStream {
 
     @Override
     public void close() throws IOException {
+        if (aggregator != null) {
+            aggregator.close();
+        }
+        writer.writeSuppressedLines();
+        writer.flush();
         delegate.close();
         super.close();
     }
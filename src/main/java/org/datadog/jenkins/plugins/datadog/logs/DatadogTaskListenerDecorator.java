@@ -43,10 +43,14 @@ public class DatadogTaskListenerDecorator extends TaskListenerDecorator {
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = Logger.getLogger(DatadogTaskListenerDecorator.class.getName());
     private BuildData buildData;
+    private LogLineFilter logLineFilter;
+    private AgentLogForwarder agentLogForwarder;
 
     public DatadogTaskListenerDecorator(WorkflowRun run) {
         try {
             this.buildData = new BuildData(run, null);
+            this.logLineFilter = LogLineFilter.forRun(run, this.buildData);
+            this.agentLogForwarder = AgentLogForwarder.create(this.buildData);
         } catch (Exception e) {
             DatadogUtilities.severe(LOGGER, e, null);
         }
@@ -55,7 +59,10 @@ public class DatadogTaskListenerDecorator extends TaskListenerDecorator {
     @Nonnull
     @Override
     public OutputStream decorate(@Nonnull OutputStream outputStream) {
-        DatadogWriter writer = new DatadogWriter(this.buildData, outputStream);
+        // The decorator is serialized to the agents running the durable tasks of the build,
+        // where the logs are sent directly if the forwarding from the agents is enabled.
+        AgentLogForwarder forwarder = this.agentLogForwarder != null && this.agentLogForwarder.isOnAgent() ? this.agentLogForwarder : null;
+        DatadogWriter writer = new DatadogWriter(this.buildData, outputStream, this.logLineFilter, forwarder);
         return new DatadogOutputStream(outputStream, writer);
     }
 
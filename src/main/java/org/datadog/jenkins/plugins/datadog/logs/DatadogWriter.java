@@ -32,6 +32,7 @@ import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 import org.datadog.jenkins.plugins.datadog.traces.CITags;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
@@ -45,50 +46,131 @@ public class DatadogWriter {
 
     private static final Logger logger = Logger.getLogger(DatadogWriter.class.getName());
 
+    private static final String ROUTE_TAG = "route:logs";
+
     private OutputStream errorStream;
     private Charset charset;
     private BuildData buildData;
+    private LogLineFilter logLineFilter;
+    private AgentLogForwarder agentLogForwarder;
 
     public DatadogWriter(BuildData buildData, OutputStream error) {
+        this(buildData, error, null);
+    }
+
+    public DatadogWriter(BuildData buildData, OutputStream error, LogLineFilter logLineFilter) {
+        this(buildData, error, logLineFilter, null);
+    }
+
+    /**
+     * @param agentLogForwarder - the forwarder sending the logs from the agent, or null to send them from the controller
+     */
+    public DatadogWriter(BuildData buildData, OutputStream error, LogLineFilter logLineFilter, AgentLogForwarder agentLogForwarder) {
         this.errorStream = error != null ? error : System.err;
         this.charset = buildData.getCharset();
         this.buildData = buildData;
+        this.logLineFilter = logLineFilter != null ? logLineFilter : LogLineFilter.forRun(null, buildData);
+        this.agentLogForwarder = agentLogForwarder;
     }
 
     public Charset getCharset() {
         return charset;
     }
 
+    public AgentLogForwarder getAgentLogForwarder() {
+        return agentLogForwarder;
+    }
+
     public void write(String line) {
         try {
             if (!StringUtils.isNotEmpty(line)) {
                 return;
             }
 
-            JSONObject payload = buildData.addLogAttributes();
-
-            Map<String, Set<String>> ddtags = this.buildData.getTags();
-            TagsUtil.addTagToTags(ddtags, "datadog.product", "cipipeline");
-            payload.put("ddtags", String.join(",", TagsUtil.convertTagsToArray(ddtags)));
-            payload.put("message", line);
-            payload.put("ddsource", "jenkins");
-            payload.put("service", "jenkins");
-            payload.put("timestamp", System.currentTimeMillis());
-            payload.put(BuildPipelineNode.NodeType.PIPELINE.getTagName() + CITags._NAME, this.buildData.getBaseJobName(""));
-
-            // Get Datadog Client Instance
-            DatadogClient client = ClientFactory.getClient();
-            if(client == null){
+            // Filtered before the payload is built, so the dropped lines cost as little as possible.
+            if (!logLineFilter.accept(line)) {
                 return;
             }
-            boolean status = client.sendLogs(payload.toString());
-            if(!status){
-                // we try again in case a connection has to be re-established.
-                client.sendLogs(payload.toString());
+            writeSuppressedLines();
+            send(line);
+        } catch (Exception e){
+            DatadogUtilities.severe(logger, e, "Failed to send log payload");
+        }
+    }
+
+    /**
+     * Sends a summary line with the lines suppressed by the rate limit, if any.
+     */
+    public void writeSuppressedLines() {
+        try {
+            final long suppressed = logLineFilter.takeSuppressed();
+            if (suppressed > 0) {
+                send(suppressed + " log lines suppressed by the rate limit");
+            }
+        } catch (Exception e){
+            DatadogUtilities.severe(logger, e, "Failed to send log payload");
+        }
+    }
+
+    /**
+     * Schedules the sending of the log lines queued by the agent log forwarder, if any.
+     */
+    public void flush() {
+        try {
+            if (agentLogForwarder != null) {
+                agentLogForwarder.flush();
             }
         } catch (Exception e){
             DatadogUtilities.severe(logger, e, "Failed to send log payload");
         }
     }
 
+    /**
+     * @param buildData - the data of the build
+     * @return the attributes of the log records of the build, without the message and the timestamp.
+     */
+    static JSONObject getRecordAttributes(BuildData buildData) {
+        JSONObject payload = buildData.addLogAttributes();
+
+        Map<String, Set<String>> ddtags = buildData.getTags();
+        TagsUtil.addTagToTags(ddtags, "datadog.product", "cipipeline");
+        payload.put("ddtags", String.join(",", TagsUtil.convertTagsToArray(ddtags)));
+        payload.put("ddsource", "jenkins");
+        payload.put("service", "jenkins");
+        payload.put(BuildPipelineNode.NodeType.PIPELINE.getTagName() + CITags._NAME, buildData.getBaseJobName(""));
+        return payload;
+    }
+
+    private void send(String line) {
+        if (agentLogForwarder != null) {
+            agentLogForwarder.send(line);
+            return;
+        }
+
+        JSONObject payload = getRecordAttributes(this.buildData);
+        payload.put("message", line);
+        payload.put("timestamp", System.currentTimeMillis());
+
+        // Get Datadog Client Instance
+        DatadogClient client = ClientFactory.getClient();
+        if(client == null){
+            return;
+        }
+        final PluginTelemetry telemetry = PluginTelemetry.get();
+        final long start = System.nanoTime();
+        boolean status = client.sendLogs(payload.toString());
+        if(!status){
+            // we try again in case a connection has to be re-established.
+            telemetry.increment(PluginTelemetry.PAYLOADS_RETRIED, ROUTE_TAG);
+            status = client.sendLogs(payload.toString());
+        }
+        telemetry.record(PluginTelemetry.TRANSPORT_SEND_DURATION, System.nanoTime() - start, ROUTE_TAG);
+        if(status) {
+            telemetry.increment(PluginTelemetry.PAYLOADS_SENT, ROUTE_TAG);
+            telemetry.increment(PluginTelemetry.LOG_LINES);
+        } else {
+            telemetry.increment(PluginTelemetry.PAYLOADS_FAILED, ROUTE_TAG);
+        }
+    }
+
 }
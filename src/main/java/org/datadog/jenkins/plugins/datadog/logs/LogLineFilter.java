@@ -0,0 +1,259 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.steps.DatadogPipelineAction;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.LruMap;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides which log lines of a build are sent, before their payload is built.
+ *
+ * The lines are first matched against the log filter rules: the first matching rule keeps,
+ * drops or samples the line, and the lines without a matching rule are kept. The kept lines
+ * then go through a token bucket of the build, allowing the configured lines per second
+ * with bursts of {@link #BURST_SECONDS} seconds of lines. The lines over the limit are counted,
+ * so they can be reported in a single summary line.
+ *
+ * The filter only holds its configuration, so it can be serialized with the log decorators.
+ * The state of a build (sampling counters and token bucket) is shared by all the filters
+ * of the build in the same JVM.
+ */
+public class LogLineFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(LogLineFilter.class.getName());
+
+    static final int BURST_SECONDS = 10;
+    static final int MAX_BUILDS = 1000;
+
+    private static final Map<String, BuildState> statesByBuild = new LruMap<>(MAX_BUILDS);
+
+    private final String rules;
+    private final int linesPerSecond;
+    // The key includes the configuration, so a datadog step overriding it starts its own bucket.
+    private final String stateKey;
+    private transient volatile BuildState state;
+
+    public LogLineFilter(final String buildKey, final String rules, final int linesPerSecond) {
+        this.rules = rules;
+        this.linesPerSecond = linesPerSecond;
+        this.stateKey = buildKey + "\n" + linesPerSecond + "\n" + rules;
+    }
+
+    /**
+     * Creates the filter of a build, using the options of its datadog step (if any)
+     * over the global configuration.
+     * @param run - the run, or null to only use the global configuration
+     * @param buildData - the data of the run
+     * @return the filter of the build.
+     */
+    public static LogLineFilter forRun(final Run<?, ?> run, final BuildData buildData) {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        String rules = cfg != null ? cfg.getLogFilterRules() : null;
+        Integer linesPerSecond = cfg != null ? cfg.getLogRateLimit() : null;
+
+        final DatadogPipelineAction action = run != null ? run.getAction(DatadogPipelineAction.class) : null;
+        if(action != null) {
+            if(action.getLogFilterRules() != null) {
+                rules = action.getLogFilterRules();
+            }
+            if(action.getLogRateLimit() != null) {
+                linesPerSecond = action.getLogRateLimit();
+            }
+        }
+        return new LogLineFilter(buildData.getBuildTag(""), rules, linesPerSecond != null ? linesPerSecond : 0);
+    }
+
+    /**
+     * @return true if the filter has rules or a rate limit.
+     */
+    public boolean isEnabled() {
+        return (rules != null && !rules.trim().isEmpty()) || linesPerSecond > 0;
+    }
+
+    /**
+     * @param line - a non-empty log line
+     * @return true if the line must be sent.
+     */
+    public boolean accept(final String line) {
+        return !isEnabled() || accept(line, System.nanoTime());
+    }
+
+    boolean accept(final String line, final long nowNanos) {
+        final String reason = state().accept(line, nowNanos);
+        if(reason == null) {
+            return true;
+        }
+        PluginTelemetry.get().increment(PluginTelemetry.LOG_LINES_DROPPED, "reason:" + reason);
+        return false;
+    }
+
+    /**
+     * Returns the lines suppressed by the rate limit since the last call, and resets them.
+     * @return the number of suppressed lines.
+     */
+    public long takeSuppressed() {
+        return linesPerSecond > 0 ? state().takeSuppressed() : 0;
+    }
+
+    /**
+     * The state is looked up once per filter (and once more after deserialization),
+     * so the lines do not contend on the states of the other builds.
+     */
+    private BuildState state() {
+        BuildState current = state;
+        if(current == null) {
+            synchronized (statesByBuild) {
+                current = statesByBuild.get(stateKey);
+                if(current == null) {
+                    current = new BuildState(parse(rules), linesPerSecond);
+                    statesByBuild.put(stateKey, current);
+                }
+            }
+            state = current;
+        }
+        return current;
+    }
+
+    static void clear() {
+        synchronized (statesByBuild) {
+            statesByBuild.clear();
+        }
+    }
+
+    private static List<Rule> parse(final String source) {
+        final List<Rule> rules = new ArrayList<>();
+        for(final String line : DatadogUtilities.linesToList(source)) {
+            final String[] items = line.trim().split("\\s+", 2);
+            if(items.length < 2) {
+                logger.warning("Ignoring the log filter rule '" + line + "'. It must contain an action and a regex.");
+                continue;
+            }
+            try {
+                final Pattern pattern = Pattern.compile(items[1]);
+                final String action = items[0].toLowerCase();
+                if("keep".equals(action)) {
+                    rules.add(new Rule(pattern, 1));
+                } else if("drop".equals(action)) {
+                    rules.add(new Rule(pattern, 0));
+                } else if(action.startsWith("sample:")) {
+                    rules.add(new Rule(pattern, Math.max(Integer.parseInt(action.substring("sample:".length())), 1)));
+                } else {
+                    logger.warning("Ignoring the log filter rule '" + line + "'. The action must be keep, drop or sample:N.");
+                }
+            } catch (PatternSyntaxException | NumberFormatException e) {
+                logger.warning("Ignoring the log filter rule '" + line + "': " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(rules);
+    }
+
+    private static final class Rule {
+        private final Pattern pattern;
+        // Keeps one out of sampleEvery matching lines, 0 to drop them all.
+        private final int sampleEvery;
+
+        private Rule(Pattern pattern, int sampleEvery) {
+            this.pattern = pattern;
+            this.sampleEvery = sampleEvery;
+        }
+    }
+
+    private static final class BuildState {
+        private final List<Rule> rules;
+        private final long[] matchesByRule;
+        private final int linesPerSecond;
+        private final double maxTokens;
+        private double tokens;
+        private long updateNanos;
+        private boolean started;
+        private long suppressed;
+
+        private BuildState(List<Rule> rules, int linesPerSecond) {
+            this.rules = rules;
+            this.matchesByRule = new long[rules.size()];
+            this.linesPerSecond = linesPerSecond;
+            this.maxTokens = (double) linesPerSecond * BURST_SECONDS;
+            this.tokens = maxTokens;
+        }
+
+        /**
+         * @return null if the line is accepted, or the reason why it is dropped.
+         */
+        private synchronized String accept(final String line, final long nowNanos) {
+            for(int i = 0; i < rules.size(); i++) {
+                final Rule rule = rules.get(i);
+                if(rule.pattern.matcher(line).find()) {
+                    if(rule.sampleEvery == 0) {
+                        return "filtered";
+                    }
+                    if(matchesByRule[i]++ % rule.sampleEvery != 0) {
+                        return "sampled";
+                    }
+                    break;
+                }
+            }
+
+            if(linesPerSecond <= 0) {
+                return null;
+            }
+            if(started && nowNanos > updateNanos) {
+                tokens = Math.min(maxTokens, tokens + (double) linesPerSecond * (nowNanos - updateNanos) / TimeUnit.SECONDS.toNanos(1));
+            }
+            if(!started || nowNanos > updateNanos) {
+                updateNanos = nowNanos;
+                started = true;
+            }
+            if(tokens < 1) {
+                suppressed++;
+                return "rate_limited";
+            }
+            tokens--;
+            return null;
+        }
+
+        private synchronized long takeSuppressed() {
+            final long taken = suppressed;
+            suppressed = 0;
+            return taken;
+        }
+    }
+}
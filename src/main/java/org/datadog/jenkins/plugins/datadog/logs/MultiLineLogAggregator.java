@@ -0,0 +1,322 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Joins the lines of a log stream into multi-line records, so a stack trace is sent
+ * as a single log instead of one log per line.
+ *
+ * A record starts with a line matching the start pattern, and continues with the following
+ * lines that do not match it. It is sent when the next record starts, when it reaches
+ * {@link #MAX_RECORD_LINES} lines or {@link #MAX_RECORD_LENGTH} characters, when no line
+ * was added during the timeout, or when the stream is closed.
+ *
+ * A record is taken and sent while holding the send lock of the aggregator, so the records
+ * of a stream are sent in order, whether they are sent by the stream or after the timeout.
+ */
+public class MultiLineLogAggregator {
+
+    private static final Logger logger = Logger.getLogger(MultiLineLogAggregator.class.getName());
+
+    static final int MAX_RECORD_LINES = 500;
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final long TICK_MILLIS = 100;
+
+    // Aggregators with a pending record, checked for timeouts by a single thread.
+    private static final Set<MultiLineLogAggregator> pendingAggregators = ConcurrentHashMap.newKeySet();
+    private static volatile ScheduledExecutorService timeoutChecker;
+    private static volatile ExecutorService timeoutSender;
+    private static volatile CompiledPattern compiledPattern = new CompiledPattern(null);
+
+    private final Pattern startPattern;
+    private final long timeoutNanos;
+    private final Consumer<String> sink;
+    private final StringBuilder record = new StringBuilder();
+    // Held while a record is taken and sent, the state of the record is guarded by the aggregator itself.
+    private final Object sendLock = new Object();
+    private int lines;
+    private long updateNanos;
+    private boolean timeoutFlushScheduled;
+
+    MultiLineLogAggregator(final Pattern startPattern, final long timeoutMillis, final Consumer<String> sink) {
+        this.startPattern = startPattern;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.sink = sink;
+    }
+
+    /**
+     * @param writer - the writer of the records
+     * @return the aggregator of a log stream, or null if the multi-line log pattern is not set.
+     */
+    public static MultiLineLogAggregator create(final DatadogWriter writer) {
+        final String source;
+        final Integer timeout;
+        final AgentLogForwarder forwarder = writer.getAgentLogForwarder();
+        if(forwarder != null) {
+            // The global configuration is not available on the agents
+            source = forwarder.getMultiLinePattern();
+            timeout = forwarder.getMultiLineTimeout();
+        } else {
+            final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+            source = cfg != null ? cfg.getLogMultiLinePattern() : null;
+            timeout = cfg != null ? cfg.getLogMultiLineTimeout() : null;
+        }
+        if(source == null || source.isEmpty()) {
+            return null;
+        }
+
+        CompiledPattern current = compiledPattern;
+        if(!current.matches(source)) {
+            current = new CompiledPattern(source);
+            compiledPattern = current;
+        }
+        if(current.pattern == null) {
+            return null;
+        }
+        return new MultiLineLogAggregator(current.pattern, timeout != null ? timeout : 0, writer::write);
+    }
+
+    /**
+     * @param line - a log line, without the console notes
+     */
+    public void add(final String line) {
+        add(line, System.nanoTime());
+    }
+
+    void add(final String line, final long nowNanos) {
+        synchronized (sendLock) {
+            send(append(line, nowNanos));
+        }
+    }
+
+    /**
+     * @return the previous record if the line does not belong to it, so it can be sent outside of the lock of the aggregator.
+     */
+    private synchronized String append(final String line, final long nowNanos) {
+        final String content = trimTrailing(line);
+        if(content.trim().isEmpty()) {
+            return null;
+        }
+
+        String previous = null;
+        if(lines > 0 && (startPattern.matcher(content).find()
+                || lines >= MAX_RECORD_LINES
+                || record.length() + 1 + content.length() > MAX_RECORD_LENGTH)) {
+            previous = take();
+        }
+
+        if(lines == 0) {
+            // Same as the single line records
+            record.append(content.trim());
+            if(timeoutNanos > 0 && pendingAggregators.add(this)) {
+                startTimeoutChecker();
+            }
+        } else {
+            record.append('\n').append(content);
+        }
+        lines++;
+        updateNanos = nowNanos;
+        return previous;
+    }
+
+    /**
+     * Sends the pending record, if any.
+     */
+    public void flush() {
+        synchronized (sendLock) {
+            send(take());
+        }
+    }
+
+    /**
+     * Sends the pending record, and stops checking its timeout.
+     * A record taken after its timeout is sent before this method returns.
+     */
+    public void close() {
+        synchronized (sendLock) {
+            final String pending;
+            synchronized (this) {
+                pending = take();
+                pendingAggregators.remove(this);
+            }
+            send(pending);
+        }
+    }
+
+    /**
+     * Sends the pending record if no line was added during the timeout.
+     * @return true if there is no pending record anymore.
+     */
+    boolean flushIfIdle(final long nowNanos) {
+        synchronized (sendLock) {
+            send(takeIfIdle(nowNanos));
+        }
+        return !isPending();
+    }
+
+    /**
+     * @return true if the pending record timed out and its flush was not scheduled yet.
+     */
+    private synchronized boolean scheduleTimeoutFlush(final long nowNanos) {
+        if(lines == 0) {
+            pendingAggregators.remove(this);
+            return false;
+        }
+        if(timeoutFlushScheduled || nowNanos - updateNanos < timeoutNanos) {
+            return false;
+        }
+        timeoutFlushScheduled = true;
+        return true;
+    }
+
+    private synchronized void timeoutFlushDone() {
+        timeoutFlushScheduled = false;
+    }
+
+    /**
+     * @return the pending record if no line was added during the timeout, or null.
+     */
+    private synchronized String takeIfIdle(final long nowNanos) {
+        final String pending = lines > 0 && nowNanos - updateNanos >= timeoutNanos ? take() : null;
+        if(lines == 0) {
+            pendingAggregators.remove(this);
+        }
+        return pending;
+    }
+
+    private synchronized boolean isPending() {
+        return lines > 0;
+    }
+
+    private synchronized String take() {
+        if(lines == 0) {
+            return null;
+        }
+        final String pending = record.toString();
+        record.setLength(0);
+        lines = 0;
+        return pending;
+    }
+
+    /**
+     * The records are sent without holding the lock of the aggregator,
+     * so the timeout checker is not blocked by a slow sink.
+     */
+    private void send(final String pending) {
+        if(pending != null) {
+            sink.accept(pending);
+        }
+    }
+
+    private static void startTimeoutChecker() {
+        if(timeoutChecker != null) {
+            return;
+        }
+        synchronized (pendingAggregators) {
+            if(timeoutChecker != null) {
+                return;
+            }
+            timeoutSender = Executors.newSingleThreadExecutor(r -> {
+                final Thread thread = new Thread(r, "datadog-log-aggregator-sender");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "datadog-log-aggregator");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(MultiLineLogAggregator::checkTimeouts, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+            timeoutChecker = executor;
+        }
+    }
+
+    /**
+     * Hands the idle aggregators to the sender thread, so a slow sink does not delay the timeouts
+     * of the other aggregators. The sender takes the record under the send lock of the aggregator,
+     * so it is not sent after the records that the stream adds meanwhile.
+     */
+    private static void checkTimeouts() {
+        final long nowNanos = System.nanoTime();
+        for(final MultiLineLogAggregator aggregator : pendingAggregators) {
+            if(aggregator.scheduleTimeoutFlush(nowNanos)) {
+                timeoutSender.execute(() -> {
+                    try {
+                        aggregator.flushIfIdle(System.nanoTime());
+                    } catch (Exception e) {
+                        DatadogUtilities.severe(logger, e, "Failed to send multi-line log record");
+                    } finally {
+                        aggregator.timeoutFlushDone();
+                    }
+                });
+            }
+        }
+    }
+
+    private static String trimTrailing(final String line) {
+        int end = line.length();
+        while(end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private static final class CompiledPattern {
+        private final String source;
+        private final Pattern pattern;
+
+        private CompiledPattern(final String source) {
+            this.source = source;
+            Pattern compiled = null;
+            if(source != null) {
+                try {
+                    compiled = Pattern.compile(source);
+                } catch (PatternSyntaxException e) {
+                    logger.warning("Ignoring the multi-line log pattern '" + source + "': " + e.getMessage());
+                }
+            }
+            this.pattern = compiled;
+        }
+
+        private boolean matches(final String source) {
+            return this.source == null ? source == null : this.source.equals(source);
+        }
+    }
+}
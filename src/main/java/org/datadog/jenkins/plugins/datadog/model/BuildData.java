@@ -314,6 +314,8 @@ public class BuildData implements Serializable {
         // First we obtain the actions to check if the Git information was already calculated.
         // If so, we want to use this information to avoid creating a new Git client instance
         // to calculate the same information.
+        // The information calculated by other runs for the same repository and commit is reused as well.
+        GitUtils.attachCachedGitInfo(run, this.gitUrl, this.gitCommit, envVars);
 
         boolean commitInfoAlreadyCreated = isCommitInfoAlreadyCreated(run, this.gitCommit);
         boolean repositoryInfoAlreadyCreated = isRepositoryInfoAlreadyCreated(run, this.gitUrl);
@@ -344,7 +346,7 @@ public class BuildData implements Serializable {
 
         final GitClient gitClient = GitUtils.newGitClient(run, listener, envVars, this.nodeName, this.workspace);
         if(isValidCommit(this.gitCommit)){
-            populateCommitInfo(GitUtils.buildGitCommitAction(run, gitClient, this.gitCommit));
+            populateCommitInfo(GitUtils.buildGitCommitAction(run, gitClient, this.gitUrl, this.gitCommit));
         }
 
         if(isValidRepositoryURL(this.gitUrl)){
@@ -6,41 +6,108 @@ import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
 import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graph.FlowStartNode;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a Jenkins Pipeline.
  * The stages are represented using an n-ary tree.
+ *
+ * The tree is built incrementally: every added node is attached to the node of its
+ * enclosing block (created on demand), so nodes can be added in any order
+ * (e.g. as they are created in the {@code DatadogGraphListener}) and {@link #buildTree()}
+ * only has to populate the data of the completed nodes and finalize the timings.
  */
 public class BuildPipeline {
 
-    private final Map<List<BuildPipelineNodeKey>, BuildPipelineNode> stagesByPath;
+    // Tree nodes indexed by the id of the FlowNode (the start node id in case of blocks).
+    private final Map<String, BuildPipelineNode> nodesById;
+    // FlowNodes holding the data of the tree nodes (BlockEndNode or StepAtomNode) indexed by the id of their tree node.
+    private final Map<String, FlowNode> flowNodesById;
     private BuildPipelineNode root;
+    private volatile boolean startNodeAdded;
 
     public BuildPipeline() {
-        this.stagesByPath = new HashMap<>();
+        this.nodesById = new HashMap<>();
+        this.flowNodesById = new LinkedHashMap<>();
         this.root = new BuildPipelineNode("initial", "initial");
     }
 
-    public BuildPipelineNode add(final FlowNode node) {
-        final BuildPipelineNode buildNode = buildPipelineNode(node);
-        if(buildNode == null) {
+    /**
+     * Adds a FlowNode to the pipeline tree.
+     * Only BlockEndNode and StepAtomNode instances hold data to be represented in the tree.
+     * Their enclosing blocks are added as empty nodes until their BlockEndNode is added.
+     * @param node the flow node
+     * @return the tree node that represents the flow node, or null if the flow node is not represented.
+     */
+    public synchronized BuildPipelineNode add(final FlowNode node) {
+        if(node instanceof FlowStartNode) {
+            startNodeAdded = true;
+        }
+
+        final BuildPipelineNodeKey key = buildPipelineNodeKey(node);
+        if(key == null) {
             return null;
         }
 
-        final List<BuildPipelineNodeKey> buildNodeRelations = new ArrayList<>();
-        buildNodeRelations.add(buildNode.getKey());
-        for (final BlockStartNode startNode : node.iterateEnclosingBlocks()) {
-            buildNodeRelations.add(new BuildPipelineNodeKey(startNode.getId(), startNode.getDisplayName()));
+        final BlockStartNode startNode = (node instanceof BlockEndNode) ? ((BlockEndNode) node).getStartNode() : null;
+        final BuildPipelineNode treeNode = getOrCreateChild(getOrCreateEnclosingNode(node), key, startNode);
+        flowNodesById.put(key.getId(), node);
+        return treeNode;
+    }
+
+    /**
+     * @return true if the FlowStartNode was added to this pipeline, meaning
+     * the pipeline has seen every node since the beginning of the execution.
+     */
+    public boolean isStartNodeAdded() {
+        return startNodeAdded;
+    }
+
+    private BuildPipelineNode getOrCreateEnclosingNode(final FlowNode node) {
+        // Enclosing blocks, from the innermost one, that are not in the tree yet.
+        // Usually the innermost enclosing block is already there, so the iteration stops immediately.
+        final List<BlockStartNode> missingBlocks = new ArrayList<>();
+        BuildPipelineNode enclosingNode = root;
+        for(final BlockStartNode enclosingBlock : node.iterateEnclosingBlocks()) {
+            final BuildPipelineNode found = nodesById.get(enclosingBlock.getId());
+            if(found != null) {
+                enclosingNode = found;
+                break;
+            }
+            missingBlocks.add(enclosingBlock);
+        }
+
+        for(int i = missingBlocks.size() - 1; i >= 0; i--) {
+            final BlockStartNode missingBlock = missingBlocks.get(i);
+            enclosingNode = getOrCreateChild(enclosingNode, new BuildPipelineNodeKey(missingBlock.getId(), missingBlock.getDisplayName()), missingBlock);
         }
+        return enclosingNode;
+    }
 
-        Collections.reverse(buildNodeRelations);
-        return stagesByPath.put(buildNodeRelations, buildNode);
+    private BuildPipelineNode getOrCreateChild(final BuildPipelineNode parent, final BuildPipelineNodeKey key, final BlockStartNode startNode) {
+        BuildPipelineNode child = parent.getChild(key);
+        if(child == null) {
+            child = (startNode != null) ? new BuildPipelineNode(startNode) : new BuildPipelineNode(key);
+            parent.addChild(child);
+            nodesById.put(key.getId(), child);
+        }
+        return child;
+    }
+
+    private BuildPipelineNodeKey buildPipelineNodeKey(final FlowNode node) {
+        if(node instanceof BlockEndNode) {
+            final BlockStartNode startNode = ((BlockEndNode) node).getStartNode();
+            return new BuildPipelineNodeKey(startNode.getId(), startNode.getDisplayName());
+        } else if(node instanceof StepAtomNode) {
+            return new BuildPipelineNodeKey(node.getId(), node.getDisplayName());
+        }
+        return null;
     }
 
     private BuildPipelineNode buildPipelineNode(FlowNode node) {
@@ -53,12 +120,14 @@ public class BuildPipeline {
     }
 
     /**
-     * Reconstruct a Jenkins pipeline tree from the info gathered in the {@code DatadogGraphListener}.
+     * Completes the Jenkins pipeline tree built from the added nodes.
+     * The data of the completed nodes is read at this point, because some of it
+     * (e.g. errors or step data) is attached to the FlowNode after it is created.
      * Example:
-     * Starting from the stagesByPath:
-     *   Key: (Stage1, Stage2) - Value: (Stage2)
-     *   Key: (Stage1, Stage2, Stage3) - Value: (Stage3)
-     *   Key: (Stage1) - Value: (Stage1)
+     * Starting from the added nodes:
+     *   Stage3 (enclosing blocks: Stage2, Stage1)
+     *   Stage2 (enclosing blocks: Stage1)
+     *   Stage1
      * it will be returned the following tree:
      *   root
      *     -- stage1
@@ -66,11 +135,13 @@ public class BuildPipeline {
      *               -- stage3
      * @return the build pipeline tree.
      **/
-    public BuildPipelineNode buildTree() {
-        for(Map.Entry<List<BuildPipelineNodeKey>, BuildPipelineNode> entry : stagesByPath.entrySet()){
-            final List<BuildPipelineNodeKey> pathStages = entry.getKey();
-            final BuildPipelineNode stage = entry.getValue();
-            buildTree(pathStages, root, stage);
+    public synchronized BuildPipelineNode buildTree() {
+        for(Map.Entry<String, FlowNode> entry : flowNodesById.entrySet()) {
+            final BuildPipelineNode treeNode = nodesById.get(entry.getKey());
+            final BuildPipelineNode buildNode = buildPipelineNode(entry.getValue());
+            if(treeNode != null && buildNode != null) {
+                treeNode.updateData(buildNode);
+            }
         }
 
         sortSiblingsByStartTime(root.getChildren());
@@ -79,6 +150,50 @@ public class BuildPipeline {
         return root;
     }
 
+    /**
+     * Completes a single node of the tree while the pipeline is still running.
+     * The node must be finished: a BlockEndNode, or a StepAtomNode that already has a following node.
+     * Its enclosing blocks are still running, so they keep the errors propagated from this node
+     * when they are completed later.
+     * @param node the finished flow node
+     * @param endTimeMillis the end time of the node if the flow node has no end time information
+     *                      (StepAtomNode), or -1.
+     * @return the completed tree node, or null if the flow node is not represented or was already completed.
+     */
+    public synchronized BuildPipelineNode complete(final FlowNode node, final long endTimeMillis) {
+        final BuildPipelineNodeKey key = buildPipelineNodeKey(node);
+        if(key == null) {
+            return null;
+        }
+
+        final BuildPipelineNode treeNode = nodesById.get(key.getId());
+        final BuildPipelineNode buildNode = buildPipelineNode(node);
+        if(treeNode == null || buildNode == null || treeNode.isEmitted()) {
+            return null;
+        }
+
+        final boolean propagatedError = treeNode.isError();
+        treeNode.updateData(buildNode);
+        if(propagatedError) {
+            treeNode.setError(true);
+        }
+        if(treeNode.getEndTime() == -1L) {
+            treeNode.setEndTime(endTimeMillis);
+        }
+
+        completeNodeInformation(treeNode, getParent(treeNode));
+        return treeNode;
+    }
+
+    /**
+     * @param node a node of the tree
+     * @return the parent of the node in the tree. The root of the tree if the node has no parent.
+     */
+    public BuildPipelineNode getParent(final BuildPipelineNode node) {
+        final List<BuildPipelineNode> parents = node.getParents();
+        return parents.isEmpty() ? root : parents.get(0);
+    }
+
     private void assignPipelineToRootNode(BuildPipelineNode root) {
         final List<BuildPipelineNode> children = root.getChildren();
         if(children.size() == 1) {
@@ -106,45 +221,7 @@ public class BuildPipeline {
                 }
             }
 
-            // Propagate Stage Name to its children
-            if(!BuildPipelineNode.NodeType.STAGE.equals(node.getType())) {
-                if(BuildPipelineNode.NodeType.STAGE.equals(parent.getType())) {
-                    node.setStageName(parent.getName());
-                    node.setStageId(parent.getId());
-                } else if(parent.getStageName() != null){
-                    node.setStageName(parent.getStageName());
-                    node.setStageId(parent.getStageId());
-                }
-            }
-
-            // Propagate queue time from "Allocate node" child:
-            // If the node is the initial (Start of Pipeline) or is a Stage,
-            // we need to propagate the queue time stored in its child node ("Allocate node").
-            // This is necessary because the stage/pipeline node does not have the queue time itself,
-            // but it's stored in the "Allocate node" which is its child.
-            if((node.isInitial() || BuildPipelineNode.NodeType.STAGE.equals(node.getType())) && node.getChildren().size() == 1){
-                BuildPipelineNode child = node.getChildren().get(0);
-                if(child.getName().contains("Allocate node")) {
-                    node.setPropagatedNanosInQueue(child.getNanosInQueue());
-                }
-            }
-
-
-            // Propagate worker node name from the executable child node
-            // (where the worker node info is available) to its stage.
-            if(BuildPipelineNode.NodeType.STAGE.equals(node.getType())) {
-                final BuildPipelineNode executableChildNode = searchExecutableChildNode(node);
-                if(executableChildNode != null) {
-                    node.setPropagatedNodeName(executableChildNode.getNodeName());
-                    node.setPropagatedNodeLabels(executableChildNode.getNodeLabels());
-                    node.setPropagatedNodeHostname(executableChildNode.getNodeHostname());
-                }
-            }
-
-            // Propagate error to all parent stages
-            if(node.isError() && !parent.isError()) {
-                propagateErrorToAllParents(node);
-            }
+            completeNodeInformation(node, parent);
 
             // Notice we cannot propagate the worker node info
             // to the root span at this point, because this method is executed
@@ -156,6 +233,48 @@ public class BuildPipeline {
         }
     }
 
+    private void completeNodeInformation(final BuildPipelineNode node, final BuildPipelineNode parent) {
+        // Propagate Stage Name to its children
+        if(!BuildPipelineNode.NodeType.STAGE.equals(node.getType())) {
+            if(BuildPipelineNode.NodeType.STAGE.equals(parent.getType())) {
+                node.setStageName(parent.getName());
+                node.setStageId(parent.getId());
+            } else if(parent.getStageName() != null){
+                node.setStageName(parent.getStageName());
+                node.setStageId(parent.getStageId());
+            }
+        }
+
+        // Propagate queue time from "Allocate node" child:
+        // If the node is the initial (Start of Pipeline) or is a Stage,
+        // we need to propagate the queue time stored in its child node ("Allocate node").
+        // This is necessary because the stage/pipeline node does not have the queue time itself,
+        // but it's stored in the "Allocate node" which is its child.
+        if((node.isInitial() || BuildPipelineNode.NodeType.STAGE.equals(node.getType())) && node.getChildren().size() == 1){
+            BuildPipelineNode child = node.getChildren().get(0);
+            if(child.getName().contains("Allocate node")) {
+                node.setPropagatedNanosInQueue(child.getNanosInQueue());
+            }
+        }
+
+
+        // Propagate worker node name from the executable child node
+        // (where the worker node info is available) to its stage.
+        if(BuildPipelineNode.NodeType.STAGE.equals(node.getType())) {
+            final BuildPipelineNode executableChildNode = searchExecutableChildNode(node);
+            if(executableChildNode != null) {
+                node.setPropagatedNodeName(executableChildNode.getNodeName());
+                node.setPropagatedNodeLabels(executableChildNode.getNodeLabels());
+                node.setPropagatedNodeHostname(executableChildNode.getNodeHostname());
+            }
+        }
+
+        // Propagate error to all parent stages
+        if(node.isError() && !parent.isError()) {
+            propagateErrorToAllParents(node);
+        }
+    }
+
     private void propagateErrorToAllParents(BuildPipelineNode node) {
         for(BuildPipelineNode parent : node.getParents()) {
             propagateErrorToAllParents(parent);
@@ -182,28 +301,4 @@ public class BuildPipeline {
         }
         return null;
     }
-
-    private void buildTree(List<BuildPipelineNodeKey> pathStages, BuildPipelineNode parent, BuildPipelineNode stage) {
-        if(pathStages.isEmpty()) {
-            return;
-        }
-
-        final BuildPipelineNodeKey buildNodeKey = pathStages.get(0);
-        if(pathStages.size() == 1){
-            final BuildPipelineNode child = parent.getChild(buildNodeKey);
-            if (child == null) {
-                parent.addChild(stage);
-            } else {
-                child.updateData(stage);
-            }
-
-        } else {
-            BuildPipelineNode child = parent.getChild(buildNodeKey);
-            if(child == null) {
-                child = new BuildPipelineNode(buildNodeKey);
-                parent.addChild(child);
-            }
-            buildTree(pathStages.subList(1, pathStages.size()), child, stage);
-        }
-    }
 }
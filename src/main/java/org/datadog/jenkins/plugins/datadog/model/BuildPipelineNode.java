@@ -3,6 +3,7 @@ package org.datadog.jenkins.plugins.datadog.model;
 import hudson.console.AnnotatedLargeText;
 import hudson.model.Run;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.traces.IdGenerator;
 import org.datadog.jenkins.plugins.datadog.traces.StepDataAction;
 import org.datadog.jenkins.plugins.datadog.traces.StepTraceDataAction;
 import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
@@ -14,6 +15,7 @@ import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
 import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graph.FlowStartNode;
 import org.jenkinsci.plugins.workflow.graph.StepNode;
 
 import java.io.Serializable;
@@ -59,6 +61,8 @@ public class BuildPipelineNode {
     private final BuildPipelineNodeKey key;
     private final List<BuildPipelineNode> parents;
     private final List<BuildPipelineNode> children;
+    // Index of the children by key, so the tree can be built without scanning the siblings.
+    private final Map<BuildPipelineNodeKey, BuildPipelineNode> childrenByKey = new HashMap<>();
     private final String id;
     private final String name;
     private String stageId;
@@ -93,6 +97,8 @@ public class BuildPipelineNode {
 
     //Tracing
     private long spanId = -1L;
+    // Flag that indicates if the span of the node was already sent before the pipeline finished.
+    private boolean emitted;
 
     public BuildPipelineNode(final String id, final String name) {
         this(new BuildPipelineNodeKey(id, name));
@@ -106,6 +112,27 @@ public class BuildPipelineNode {
         this.name = key.name;
     }
 
+    /**
+     * Creates the node of a block that has not finished yet.
+     * The span id is assigned upfront, so the spans of its children can reference it
+     * before the block finishes.
+     */
+    public BuildPipelineNode(final BlockStartNode startNode) {
+        this(new BuildPipelineNodeKey(startNode.getId(), startNode.getDisplayName()));
+        if(startNode instanceof FlowStartNode) {
+            this.type = NodeType.STEP;
+            this.internal = true;
+            this.initial = true;
+        } else if(DatadogUtilities.isStageNode(startNode)) {
+            this.type = NodeType.STAGE;
+            this.internal = false;
+        } else {
+            this.type = NodeType.STEP;
+            this.internal = true;
+        }
+        this.spanId = IdGenerator.generate();
+    }
+
     public BuildPipelineNode(final BlockEndNode endNode) {
         final BlockStartNode startNode = endNode.getStartNode();
         this.key = new BuildPipelineNodeKey(startNode.getId(), startNode.getDisplayName());
@@ -351,6 +378,14 @@ public class BuildPipelineNode {
         return spanId;
     }
 
+    public boolean isEmitted() {
+        return emitted;
+    }
+
+    public void setEmitted(boolean emitted) {
+        this.emitted = emitted;
+    }
+
     public List<BuildPipelineNode> getParents(){ return parents; }
 
     public List<BuildPipelineNode> getChildren() {
@@ -358,17 +393,7 @@ public class BuildPipelineNode {
     }
 
     public BuildPipelineNode getChild(final BuildPipelineNodeKey id) {
-        if(children.isEmpty()) {
-            return null;
-        }
-
-        for(final BuildPipelineNode child : children) {
-            if(id.equals(child.getKey())){
-                return child;
-            }
-        }
-
-        return null;
+        return childrenByKey.get(id);
     }
 
     public NodeType getType() {
@@ -397,11 +422,14 @@ public class BuildPipelineNode {
         this.error = buildNode.error;
         this.errorObj = buildNode.errorObj;
         this.parents.addAll(buildNode.parents);
-        this.spanId = buildNode.spanId;
+        if(buildNode.spanId != -1L) {
+            this.spanId = buildNode.spanId;
+        }
     }
 
     public void addChild(final BuildPipelineNode child) {
         children.add(child);
+        childrenByKey.put(child.getKey(), child);
         child.parents.add(this);
     }
 
@@ -2,38 +2,40 @@ package org.datadog.jenkins.plugins.datadog.model;
 
 import hudson.model.InvisibleAction;
 import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.traces.TraceDataStore;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Keeps the Queue Info related to the FlowNode scheduled to be executed.
+ * The queue data is kept in the {@link TraceDataStore}; only the number of
+ * collected entries is serialized with the Run.
  */
 public class PipelineQueueInfoAction extends InvisibleAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final ConcurrentMap<String, FlowNodeQueueData> queueDataByFlowNode;
-
-    public PipelineQueueInfoAction() {
-        this.queueDataByFlowNode = new ConcurrentHashMap<>();
-    }
+    private volatile int queueDataCount;
 
     public FlowNodeQueueData get(final Run<?,?> run, String flowNodeId) {
-        return this.queueDataByFlowNode.get(flowNodeId);
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        return traceData != null ? traceData.getQueueData(flowNodeId) : null;
     }
 
     public void put(final Run<?,?> run, String flowNodeId, FlowNodeQueueData data) {
-        this.queueDataByFlowNode.put(flowNodeId, data);
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().forRun(run);
+        traceData.putQueueData(flowNodeId, data);
+        this.queueDataCount = traceData.getQueueDataCount();
+    }
+
+    public int getQueueDataCount() {
+        return queueDataCount;
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("PipelineQueueInfoAction{");
-        sb.append("queueDataByFlowNode=").append(queueDataByFlowNode);
+        sb.append("queueDataCount=").append(queueDataCount);
         sb.append('}');
         return sb.toString();
     }
@@ -1,29 +1,36 @@
 package org.datadog.jenkins.plugins.datadog.model;
 
 import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.traces.TraceDataStore;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 
 /**
  * Keeps the Stage breakdown related information.
+ * The stage data is kept in the {@link TraceDataStore}; only the number of
+ * stages is serialized with the Run.
  */
 public class StageBreakdownAction extends InvisibleAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final Map<String, StageData> stageDataByName;
+    private volatile int stageCount;
 
-    public StageBreakdownAction() {
-        this.stageDataByName = new HashMap<>();
+    public Map<String, StageData> getStageDataByName(final Run<?,?> run) {
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        return traceData != null ? traceData.getStageDataByName() : Collections.emptyMap();
     }
 
-    public Map<String, StageData> getStageDataByName() {
-        return stageDataByName;
+    public void put(final Run<?,?> run, String name, StageData stageData) {
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().forRun(run);
+        traceData.putStageData(name, stageData);
+        this.stageCount = traceData.getStageDataByName().size();
     }
 
-    public void put(String name, StageData stageData) {
-        this.stageDataByName.put(name, stageData);
+    public int getStageCount() {
+        return stageCount;
     }
 }
@@ -4,7 +4,7 @@ import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.model.Computer;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
-import org.datadog.jenkins.plugins.datadog.audit.DatadogAudit;
+import org.datadog.jenkins.plugins.datadog.telemetry.CallSiteTimer;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 
 import java.io.Serializable;
@@ -23,6 +23,8 @@ public class StepData implements Serializable {
 
     private static transient final Logger logger = Logger.getLogger(StepData.class.getName());
 
+    private static final CallSiteTimer TIMER = CallSiteTimer.forCallSite("StepData.ctor");
+
     private final Map<String, String> envVars;
     private final String nodeName;
     private final String nodeHostname;
@@ -30,7 +32,7 @@ public class StepData implements Serializable {
     private final Set<String> nodeLabels;
 
     public StepData(final StepContext stepContext){
-        long start = System.currentTimeMillis();
+        final long start = TIMER.start();
         try {
             this.envVars = getEnvVars(stepContext);
             this.nodeName = getNodeName(stepContext);
@@ -38,8 +40,7 @@ public class StepData implements Serializable {
             this.workspace = getNodeWorkspace(stepContext);
             this.nodeLabels = getNodeLabels(stepContext);
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("StepData.ctor", start, end);
+            TIMER.stop(start);
         }
     }
 
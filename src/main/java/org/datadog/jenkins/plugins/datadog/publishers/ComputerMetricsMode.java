@@ -0,0 +1,36 @@
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+/**
+ * Cardinality of the node and executor metrics submitted by the {@link DatadogComputerPublisher}.
+ */
+public enum ComputerMetricsMode {
+    // One series per computer, submitted every minute.
+    ALL_NODES("One series per node"),
+    // One series per computer, only submitted when its value changes (or every 10 minutes).
+    CHANGED_NODES("One series per node, only submitted when it changes"),
+    // One series per node label, aggregating the computers with that label.
+    LABELS("One series per node label"),
+    // Only the jenkins.node.* totals.
+    TOTALS("Totals only");
+
+    private final String displayName;
+
+    ComputerMetricsMode(final String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static ComputerMetricsMode fromName(final String name) {
+        if(name != null) {
+            for(ComputerMetricsMode mode : values()) {
+                if(mode.name().equalsIgnoreCase(name.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return ALL_NODES;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
+import org.datadog.jenkins.plugins.datadog.events.ComputerSummaryEventImpl;
+import org.datadog.jenkins.plugins.datadog.util.ComputerEventAggregator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
+ * us to submit the node events summarized by the {@link ComputerEventAggregator} once their window ends.
+ */
+@Extension
+public class DatadogComputerEventsPublisher extends PeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(DatadogComputerEventsPublisher.class.getName());
+
+    private static final long RECURRENCE_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        try {
+            logger.fine("doRun called: Submitting summarized node events");
+
+            final List<ComputerEventAggregator.Summary> summaries = ComputerEventAggregator.get().expire(System.currentTimeMillis());
+            if (summaries.isEmpty()) {
+                return;
+            }
+
+            // Get Datadog Client Instance
+            DatadogClient client = ClientFactory.getClient();
+            if (client == null) {
+                return;
+            }
+
+            publish(client, summaries);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to submit summarized node events");
+        }
+    }
+
+    static void publish(final DatadogClient client, final List<ComputerEventAggregator.Summary> summaries) {
+        for (ComputerEventAggregator.Summary summary : summaries) {
+            DispatchBus.get().event(client, new ComputerSummaryEventImpl(summary));
+        }
+    }
+}
@@ -30,10 +30,14 @@ import hudson.model.Computer;
 import hudson.model.PeriodicWork;
 import jenkins.model.Jenkins;
 import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.util.ComputerTagsCache;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +46,10 @@ import java.util.logging.Logger;
 /**
  * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
  * us to compute metrics related to nodes and executors.
+ *
+ * The series submitted per computer depend on the configured {@link ComputerMetricsMode}.
+ * The tags of every computer are kept in the {@link ComputerTagsCache}, so they are
+ * not recalculated (which requires a call to the agent to get its hostname) every minute.
  */
 @Extension
 public class DatadogComputerPublisher extends PeriodicWork {
@@ -49,6 +57,10 @@ public class DatadogComputerPublisher extends PeriodicWork {
     private static final Logger logger = Logger.getLogger(DatadogComputerPublisher.class.getName());
 
     private static final long RECURRENCE_PERIOD = TimeUnit.MINUTES.toMillis(1);
+    // Unchanged series are submitted again after this period in the CHANGED_NODES mode.
+    static final long HEARTBEAT_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    private final GaugeChangeFilter changeFilter = new GaugeChangeFilter(HEARTBEAT_PERIOD);
 
     @Override
     public long getRecurrencePeriod() {
@@ -67,6 +79,10 @@ public class DatadogComputerPublisher extends PeriodicWork {
                 return;
             }
 
+            DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+            ComputerMetricsMode mode = ComputerMetricsMode.fromName(cfg != null ? cfg.getComputerMetricsMode() : null);
+            long now = System.currentTimeMillis();
+
             long nodeCount = 0;
             long nodeOffline = 0;
             long nodeOnline = 0;
@@ -78,36 +94,108 @@ public class DatadogComputerPublisher extends PeriodicWork {
             Map<String, Set<String>> globalTags = DatadogUtilities.getTagsFromGlobalTags();
             // Add JenkinsUrl Tag
             globalTags = TagsUtil.addTagToTags(globalTags, "jenkins_url", DatadogUtilities.getJenkinsUrl());
+            Map<String, NodeCounts> countsByLabel = new HashMap<>();
+            Set<String> computerNames = new HashSet<>();
             for (Computer computer : computers) {
-                Map<String, Set<String>> tags = TagsUtil.merge(
-                        DatadogUtilities.getComputerTags(computer), globalTags);
+                NodeCounts counts = new NodeCounts();
+                counts.count = 1;
+                counts.up = computer.isOnline() ? 1 : 0;
+                counts.executors = computer.countExecutors();
+                counts.inUse = computer.countBusy();
+                counts.free = computer.countIdle();
+
                 nodeCount++;
                 if (computer.isOffline()) {
                     nodeOffline++;
-                    client.gauge("jenkins.node_status.up", 0, hostname, tags);
-                }   
+                }
                 if (computer.isOnline()) {
                     nodeOnline++;
-                    client.gauge("jenkins.node_status.up", 1, hostname, tags);
                 }
-                int executorCount = computer.countExecutors();
-                int inUse = computer.countBusy();
-                int free = computer.countIdle();
-                
-                client.gauge("jenkins.node_status.count", 1, hostname, tags);
-                
-                client.gauge("jenkins.executor.count", executorCount, hostname, tags);
-                client.gauge("jenkins.executor.in_use", inUse, hostname, tags);
-                client.gauge("jenkins.executor.free", free, hostname, tags);
+
+                String computerName = DatadogUtilities.getNodeName(computer);
+                if(computerName != null) {
+                    computerNames.add(computerName);
+                }
+                if(mode == ComputerMetricsMode.TOTALS) {
+                    continue;
+                }
+
+                Map<String, Set<String>> computerTags = ComputerTagsCache.get().getTags(computer);
+                if(mode == ComputerMetricsMode.LABELS) {
+                    Set<String> labels = computerTags.get("node_label");
+                    if(labels != null) {
+                        for(String label : labels) {
+                            // Every node has a label with its own name, which would add one series per node.
+                            if(label == null || label.equals(computerName)) {
+                                continue;
+                            }
+                            NodeCounts labelCounts = countsByLabel.get(label);
+                            if(labelCounts == null) {
+                                labelCounts = new NodeCounts();
+                                countsByLabel.put(label, labelCounts);
+                            }
+                            labelCounts.add(counts);
+                        }
+                    }
+                    continue;
+                }
+
+                Map<String, Set<String>> tags = TagsUtil.merge(computerTags, globalTags);
+                if (computer.isOffline()) {
+                    submit(client, mode, "jenkins.node_status.up", 0, hostname, tags, now);
+                }
+                if (computer.isOnline()) {
+                    submit(client, mode, "jenkins.node_status.up", 1, hostname, tags, now);
+                }
+                submitCounts(client, mode, counts, hostname, tags, now);
+            }
+
+            for(Map.Entry<String, NodeCounts> entry : countsByLabel.entrySet()) {
+                Map<String, Set<String>> tags = TagsUtil.addTagToTags(TagsUtil.merge(new HashMap<>(), globalTags), "node_label", entry.getKey());
+                submit(client, mode, "jenkins.node_status.up", entry.getValue().up, hostname, tags, now);
+                submitCounts(client, mode, entry.getValue(), hostname, tags, now);
             }
+
             client.gauge("jenkins.node.count", nodeCount, hostname, globalTags);
             client.gauge("jenkins.node.offline", nodeOffline, hostname, globalTags);
             client.gauge("jenkins.node.online", nodeOnline, hostname, globalTags);
 
+            changeFilter.prune();
+            ComputerTagsCache.get().retain(computerNames);
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to compute and send node metrics");
         }
         
     }
 
+    private void submitCounts(DatadogClient client, ComputerMetricsMode mode, NodeCounts counts, String hostname, Map<String, Set<String>> tags, long now) {
+        submit(client, mode, "jenkins.node_status.count", counts.count, hostname, tags, now);
+        submit(client, mode, "jenkins.executor.count", counts.executors, hostname, tags, now);
+        submit(client, mode, "jenkins.executor.in_use", counts.inUse, hostname, tags, now);
+        submit(client, mode, "jenkins.executor.free", counts.free, hostname, tags, now);
+    }
+
+    private void submit(DatadogClient client, ComputerMetricsMode mode, String name, long value, String hostname, Map<String, Set<String>> tags, long now) {
+        if(mode == ComputerMetricsMode.CHANGED_NODES && !changeFilter.shouldSubmit(name, value, tags, now)) {
+            return;
+        }
+        client.gauge(name, value, hostname, tags);
+    }
+
+    private static class NodeCounts {
+        private long up;
+        private long count;
+        private long executors;
+        private long inUse;
+        private long free;
+
+        private void add(NodeCounts other) {
+            up += other.up;
+            count += other.count;
+            executors += other.executors;
+            inUse += other.inUse;
+            free += other.free;
+        }
+    }
+
 }
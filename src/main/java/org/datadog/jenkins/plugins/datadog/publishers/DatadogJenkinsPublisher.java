@@ -26,18 +26,15 @@ THE SOFTWARE.
 package org.datadog.jenkins.plugins.datadog.publishers;
 
 import hudson.Extension;
-import hudson.PluginManager;
-import hudson.PluginWrapper;
 import hudson.model.PeriodicWork;
-import hudson.model.Project;
 import jenkins.model.Jenkins;
 import org.datadog.jenkins.plugins.datadog.DatadogClient;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.model.PluginData;
+import org.datadog.jenkins.plugins.datadog.util.JenkinsInventory;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +43,7 @@ import java.util.logging.Logger;
 /**
  * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
  * us to compute metrics related to Jenkins level metrics.
+ * The project count and the plugin inventory are kept up to date by the {@link JenkinsInventory}.
  */
 @Extension
 public class DatadogJenkinsPublisher extends PeriodicWork {
@@ -76,14 +74,15 @@ public class DatadogJenkinsPublisher extends PeriodicWork {
             tags = TagsUtil.addTagToTags(tags, "jenkins_url", DatadogUtilities.getJenkinsUrl());
 
             long projectCount = 0;
+            PluginData pluginData = PluginData.newBuilder().build();
             Jenkins instance = Jenkins.getInstanceOrNull();
             if (instance == null) {
-                logger.fine("Could not retrieve projects");
+                logger.fine("Could not retrieve projects and plugins");
             } else {
-                projectCount = instance.getAllItems(Project.class).size();
+                projectCount = JenkinsInventory.get().getProjectCount(instance);
+                pluginData = JenkinsInventory.get().getPluginData(instance);
             }
 
-            PluginData pluginData = collectPluginData(instance);
             client.gauge("jenkins.project.count", projectCount, hostname, tags);
             client.gauge("jenkins.plugin.count", pluginData.getCount(), hostname, tags);
             client.gauge("jenkins.plugin.active", pluginData.getActive(), hostname, tags);
@@ -94,30 +93,4 @@ public class DatadogJenkinsPublisher extends PeriodicWork {
             DatadogUtilities.severe(logger, e, "Failed to compute and send Jenkins metrics");
         }
     }
-
-    private PluginData collectPluginData(Jenkins instance) {
-        PluginData.Builder pluginData = PluginData.newBuilder();
-
-        if (instance == null) {
-            logger.fine("Could not retrieve plugins");
-            return pluginData.build();
-        }
-
-        PluginManager pluginManager = instance.getPluginManager();
-        List<PluginWrapper> plugins = pluginManager.getPlugins();
-        pluginData.withCount(plugins.size())
-                .withFailed(pluginManager.getFailedPlugins().size());
-        for (PluginWrapper w : plugins) {
-            if (w.hasUpdate()) {
-                pluginData.incrementUpdatable();
-            }
-            if (w.isActive()) {
-                pluginData.incrementActive();
-            } else {
-                pluginData.incrementInactive();
-            }
-        }
-
-        return pluginData.build();
-    }
 }
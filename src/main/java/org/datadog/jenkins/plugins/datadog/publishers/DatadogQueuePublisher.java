@@ -33,11 +33,16 @@ import hudson.model.Queue.Task;
 import hudson.model.Run;
 
 import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 
 import org.jenkinsci.plugins.workflow.support.steps.ExecutorStepExecution;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -46,15 +51,29 @@ import java.util.logging.Logger;
 /**
  * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
  * us to compute metrics related to the Jenkins queue.
+ *
+ * The queue is walked once per snapshot, aggregating the items by job, so one series is
+ * submitted per job and state regardless of the number of queued items. Only the jobs with
+ * the most queued items get their own series if a limit is configured; the rest are
+ * reported under {@link #OTHER_JOB_NAME}.
  */
 @Extension
 public class DatadogQueuePublisher extends PeriodicWork {
 
     private static final Logger logger = Logger.getLogger(DatadogQueuePublisher.class.getName());
 
-    private static final long RECURRENCE_PERIOD = TimeUnit.MINUTES.toMillis(1);
+    // The recurrence period of a PeriodicWork cannot change after it is registered,
+    // so it runs on a short tick and only publishes once the configured interval has elapsed.
+    private static final long RECURRENCE_PERIOD = TimeUnit.SECONDS.toMillis(5);
+    static final long MIN_PUBLISH_INTERVAL = RECURRENCE_PERIOD;
+    static final String OTHER_JOB_NAME = "other";
+    static final String UNKNOWN_JOB_NAME = "unknown";
+
     private final Queue queue = Queue.getInstance();
-    
+    // Resolving the job of a pipeline placeholder task loads its run, so it is only done once per queued item.
+    private final Map<Long, String> jobNamesByItemId = new HashMap<>();
+    private long lastPublishMillis = 0;
+
     @Override
     public long getRecurrencePeriod() {
         return RECURRENCE_PERIOD;
@@ -62,6 +81,13 @@ public class DatadogQueuePublisher extends PeriodicWork {
 
     @Override
     protected void doRun() throws Exception {
+        final long now = System.currentTimeMillis();
+        // Half a tick of tolerance, so the scheduling jitter does not delay the snapshot a whole tick.
+        if(now - lastPublishMillis < getPublishInterval() - RECURRENCE_PERIOD / 2) {
+            return;
+        }
+        lastPublishMillis = now;
+
         try {
             logger.fine("doRun called: Computing queue metrics");
 
@@ -74,70 +100,145 @@ public class DatadogQueuePublisher extends PeriodicWork {
             Map<String, Set<String>> tags = DatadogUtilities.getTagsFromGlobalTags();
             // Add JenkinsUrl Tag
             tags = TagsUtil.addTagToTags(tags, "jenkins_url", DatadogUtilities.getJenkinsUrl());
-            long size = 0;
-            long buildable = 0;
-            long pending = 0;
-            long stuck = 0;
-            long blocked = 0;
             String hostname = DatadogUtilities.getHostname(null);
+
+            final QueueCounts totals = new QueueCounts();
+            final Map<String, QueueCounts> countsByJob = new HashMap<>();
+            final Set<Long> itemIds = new HashSet<>();
             final Queue.Item[] items = queue.getItems();
             for (Queue.Item item : items) {
-                Map<String, Set<String>> job_tags = DatadogUtilities.getTagsFromGlobalTags();
-                job_tags = TagsUtil.addTagToTags(job_tags, "jenkins_url", DatadogUtilities.getJenkinsUrl());
-                
-                String job_name;
-                Task task = item.task;
-                if (task instanceof FreeStyleProject) {
-                    job_name = task.getFullDisplayName();
-                } else if (task instanceof ExecutorStepExecution.PlaceholderTask) {
-                    Run<?, ?> run = ((ExecutorStepExecution.PlaceholderTask) task).runForDisplay();
-                    if (run != null) {
-                        job_name = run.getParent().getFullName();
-                    } else {
-                        job_name = "unknown";
-                    }
-                } else {
-                    job_name = "unknown";
+                itemIds.add(item.getId());
+                final String jobName = getJobName(item);
+                QueueCounts jobCounts = countsByJob.get(jobName);
+                if(jobCounts == null) {
+                    jobCounts = new QueueCounts();
+                    countsByJob.put(jobName, jobCounts);
                 }
-                TagsUtil.addTagToTags(job_tags, "job_name", job_name);
-                boolean isStuck = false;
-                boolean isBuildable = false;
-                boolean isBlocked = false;
-                boolean isPending = false;
-                
-                size++;
+
+                jobCounts.inQueue++;
                 if(item.isStuck()){
-                    isStuck = true;
-                    stuck++;
+                    jobCounts.stuck++;
                 }
                 if (item.isBuildable()){
-                    isBuildable = true;
-                    buildable++;
+                    jobCounts.buildable++;
                 }
                 if(item.isBlocked()){
-                    isBlocked = true;
-                    blocked++;
+                    jobCounts.blocked++;
                 }
-                if(queue.isPending(task)){
-                    isPending = true;
-                    pending++;
+                if(queue.isPending(item.task)){
+                    jobCounts.pending++;
                 }
-                
-                client.gauge("jenkins.queue.job.in_queue", 1, hostname, job_tags);
-                client.gauge("jenkins.queue.job.buildable", DatadogUtilities.toInt(isBuildable), hostname, job_tags);
-                client.gauge("jenkins.queue.job.pending", DatadogUtilities.toInt(isPending), hostname, job_tags);
-                client.gauge("jenkins.queue.job.stuck", DatadogUtilities.toInt(isStuck), hostname, job_tags);
-                client.gauge("jenkins.queue.job.blocked", DatadogUtilities.toInt(isBlocked), hostname, job_tags);
+            }
+            jobNamesByItemId.keySet().retainAll(itemIds);
+
+            for (Map.Entry<String, QueueCounts> entry : limitJobs(countsByJob, getMaxJobs()).entrySet()) {
+                QueueCounts jobCounts = entry.getValue();
+                totals.add(jobCounts);
+
+                Map<String, Set<String>> job_tags = TagsUtil.merge(new HashMap<>(), tags);
+                TagsUtil.addTagToTags(job_tags, "job_name", entry.getKey());
+                client.gauge("jenkins.queue.job.in_queue", jobCounts.inQueue, hostname, job_tags);
+                client.gauge("jenkins.queue.job.buildable", jobCounts.buildable, hostname, job_tags);
+                client.gauge("jenkins.queue.job.pending", jobCounts.pending, hostname, job_tags);
+                client.gauge("jenkins.queue.job.stuck", jobCounts.stuck, hostname, job_tags);
+                client.gauge("jenkins.queue.job.blocked", jobCounts.blocked, hostname, job_tags);
             }
 
-            client.gauge("jenkins.queue.size", size, hostname, tags);
-            client.gauge("jenkins.queue.buildable", buildable, hostname, tags);
-            client.gauge("jenkins.queue.pending", pending, hostname, tags);
-            client.gauge("jenkins.queue.stuck", stuck, hostname, tags);
-            client.gauge("jenkins.queue.blocked", blocked, hostname, tags);
+            client.gauge("jenkins.queue.size", totals.inQueue, hostname, tags);
+            client.gauge("jenkins.queue.buildable", totals.buildable, hostname, tags);
+            client.gauge("jenkins.queue.pending", totals.pending, hostname, tags);
+            client.gauge("jenkins.queue.stuck", totals.stuck, hostname, tags);
+            client.gauge("jenkins.queue.blocked", totals.blocked, hostname, tags);
 
         } catch (Exception e) {
             DatadogUtilities.severe(logger, e, "Failed to compute and send queue metrics");
         }
     }
+
+    private String getJobName(final Queue.Item item) {
+        final Task task = item.task;
+        if (task instanceof FreeStyleProject) {
+            return task.getFullDisplayName();
+        } else if (task instanceof ExecutorStepExecution.PlaceholderTask) {
+            String jobName = jobNamesByItemId.get(item.getId());
+            if(jobName == null) {
+                Run<?, ?> run = ((ExecutorStepExecution.PlaceholderTask) task).runForDisplay();
+                if (run == null) {
+                    // Not cached, the run may not be loaded yet
+                    return UNKNOWN_JOB_NAME;
+                }
+                jobName = run.getParent().getFullName();
+                jobNamesByItemId.put(item.getId(), jobName);
+            }
+            return jobName;
+        }
+        return UNKNOWN_JOB_NAME;
+    }
+
+    /**
+     * Keeps the maxJobs jobs with the most queued items and aggregates the rest under {@link #OTHER_JOB_NAME}.
+     * @param countsByJob the queue counts of every job
+     * @param maxJobs the maximum number of jobs to keep, or 0 for no limit
+     * @return the queue counts to submit
+     */
+    static Map<String, QueueCounts> limitJobs(final Map<String, QueueCounts> countsByJob, final int maxJobs) {
+        if(maxJobs <= 0 || countsByJob.size() <= maxJobs) {
+            return countsByJob;
+        }
+
+        final List<Map.Entry<String, QueueCounts>> entries = new ArrayList<>(countsByJob.entrySet());
+        entries.sort((e1, e2) -> {
+            int result = Long.compare(e2.getValue().inQueue, e1.getValue().inQueue);
+            return result != 0 ? result : e1.getKey().compareTo(e2.getKey());
+        });
+
+        final Map<String, QueueCounts> limited = new HashMap<>();
+        final QueueCounts other = new QueueCounts();
+        for(int i = 0; i < entries.size(); i++) {
+            final Map.Entry<String, QueueCounts> entry = entries.get(i);
+            if(i < maxJobs) {
+                limited.put(entry.getKey(), entry.getValue());
+            } else {
+                other.add(entry.getValue());
+            }
+        }
+        final QueueCounts existing = limited.get(OTHER_JOB_NAME);
+        if(existing != null) {
+            other.add(existing);
+        }
+        limited.put(OTHER_JOB_NAME, other);
+        return limited;
+    }
+
+    private static long getPublishInterval() {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        if(cfg == null || cfg.getQueueMetricsInterval() == null) {
+            return TimeUnit.MINUTES.toMillis(1);
+        }
+        return Math.max(MIN_PUBLISH_INTERVAL, TimeUnit.SECONDS.toMillis(cfg.getQueueMetricsInterval()));
+    }
+
+    private static int getMaxJobs() {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        if(cfg == null || cfg.getQueueMetricsMaxJobs() == null) {
+            return 0;
+        }
+        return cfg.getQueueMetricsMaxJobs();
+    }
+
+    static class QueueCounts {
+        long inQueue;
+        long buildable;
+        long pending;
+        long stuck;
+        long blocked;
+
+        void add(final QueueCounts other) {
+            inQueue += other.inQueue;
+            buildable += other.buildable;
+            pending += other.pending;
+            stuck += other.stuck;
+            blocked += other.blocked;
+        }
+    }
 }
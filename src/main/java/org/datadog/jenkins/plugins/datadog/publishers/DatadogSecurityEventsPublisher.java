@@ -0,0 +1,87 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DispatchBus;
+import org.datadog.jenkins.plugins.datadog.events.UserAuthenticationSummaryEventImpl;
+import org.datadog.jenkins.plugins.datadog.util.SecurityEventCoalescer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
+ * us to submit the security events coalesced by the {@link SecurityEventCoalescer} once their window ends.
+ */
+@Extension
+public class DatadogSecurityEventsPublisher extends PeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(DatadogSecurityEventsPublisher.class.getName());
+
+    private static final long RECURRENCE_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        try {
+            logger.fine("doRun called: Submitting coalesced security events");
+
+            final List<SecurityEventCoalescer.Window> windows = SecurityEventCoalescer.get().expire(System.currentTimeMillis());
+            if (windows.isEmpty()) {
+                return;
+            }
+
+            // Get Datadog Client Instance
+            DatadogClient client = ClientFactory.getClient();
+            if (client == null) {
+                return;
+            }
+
+            publish(client, windows);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to submit coalesced security events");
+        }
+    }
+
+    static void publish(final DatadogClient client, final List<SecurityEventCoalescer.Window> windows) {
+        for (SecurityEventCoalescer.Window window : windows) {
+            DispatchBus.get().event(client, new UserAuthenticationSummaryEventImpl(window.getUsername(),
+                    window.getAction(), window.getCoalesced(), window.getWindowMillis(), window.getTags()));
+            DispatchBus.get().incrementCounter(client, window.getMetricName(), window.getHostname(),
+                    window.getTags(), window.getCoalesced());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import org.datadog.jenkins.plugins.datadog.DatadogClient;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.telemetry.Histogram;
+import org.datadog.jenkins.plugins.datadog.telemetry.MetricKey;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class registers a {@link PeriodicWork} with Jenkins to run periodically in order to enable
+ * us to submit the {@link PluginTelemetry} as datadog.jenkins.plugin.* metrics.
+ * Counters and histograms are submitted as the values recorded since the previous run.
+ */
+@Extension
+public class DatadogTelemetryPublisher extends PeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(DatadogTelemetryPublisher.class.getName());
+
+    private static final long RECURRENCE_PERIOD = TimeUnit.MINUTES.toMillis(1);
+
+    private Map<MetricKey, Long> previousCounters = new HashMap<>();
+    private Map<MetricKey, Histogram.Snapshot> previousHistograms = new HashMap<>();
+    private long lastRunMillis = System.currentTimeMillis();
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        try {
+            logger.fine("doRun called: Computing plugin telemetry metrics");
+
+            // The interval values are always computed, so enabling the telemetry
+            // does not submit everything recorded since the controller started.
+            final long now = System.currentTimeMillis();
+            final Map<MetricKey, Long> counters = intervalCounters();
+            final Map<MetricKey, Histogram.Snapshot> histograms = intervalHistograms();
+            final long elapsedMillis = now - lastRunMillis;
+            lastRunMillis = now;
+
+            DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+            if(cfg == null || !cfg.isEmitPluginTelemetry()){
+                return;
+            }
+
+            // Get Datadog Client Instance
+            DatadogClient client = ClientFactory.getClient();
+            if(client == null){
+                return;
+            }
+
+            String hostname = DatadogUtilities.getHostname(null);
+            Map<String, Set<String>> tags = DatadogUtilities.getTagsFromGlobalTags();
+            // Add JenkinsUrl Tag
+            tags = TagsUtil.addTagToTags(tags, "jenkins_url", DatadogUtilities.getJenkinsUrl());
+
+            publish(client, hostname, tags, counters, histograms, PluginTelemetry.get().getGauges(), elapsedMillis);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to compute and send plugin telemetry metrics");
+        }
+    }
+
+    Map<MetricKey, Long> intervalCounters() {
+        final Map<MetricKey, Long> current = PluginTelemetry.get().getCounters();
+        final Map<MetricKey, Long> result = new HashMap<>();
+        for(Map.Entry<MetricKey, Long> entry : current.entrySet()) {
+            final Long previous = previousCounters.get(entry.getKey());
+            result.put(entry.getKey(), Math.max(entry.getValue() - (previous != null ? previous : 0L), 0L));
+        }
+        previousCounters = current;
+        return result;
+    }
+
+    Map<MetricKey, Histogram.Snapshot> intervalHistograms() {
+        final Map<MetricKey, Histogram.Snapshot> current = PluginTelemetry.get().getHistograms();
+        final Map<MetricKey, Histogram.Snapshot> result = new HashMap<>();
+        for(Map.Entry<MetricKey, Histogram.Snapshot> entry : current.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().minus(previousHistograms.get(entry.getKey())));
+        }
+        previousHistograms = current;
+        return result;
+    }
+
+    static void publish(DatadogClient client, String hostname, Map<String, Set<String>> tags,
+                        Map<MetricKey, Long> counters, Map<MetricKey, Histogram.Snapshot> histograms,
+                        Map<MetricKey, Long> gauges, long elapsedMillis) {
+        for(Map.Entry<MetricKey, Long> entry : counters.entrySet()) {
+            final MetricKey key = entry.getKey();
+            final long value = entry.getValue();
+            client.gauge(PluginTelemetry.METRIC_PREFIX + key.getName(), value, hostname, tagsFor(tags, key));
+
+            if(PluginTelemetry.LOG_LINES.equals(key.getName()) && elapsedMillis > 0) {
+                client.gauge(PluginTelemetry.METRIC_PREFIX + "logs.lines_per_second", value * 1000 / elapsedMillis, hostname, tagsFor(tags, key));
+            } else if(PluginTelemetry.CACHE_HITS.equals(key.getName())) {
+                final Long misses = counters.get(key.withName(PluginTelemetry.CACHE_MISSES));
+                final long lookups = value + (misses != null ? misses : 0L);
+                if(lookups > 0) {
+                    client.gauge(PluginTelemetry.METRIC_PREFIX + "cache.hit_rate", value * 100 / lookups, hostname, tagsFor(tags, key));
+                }
+            }
+        }
+
+        // Durations are submitted in microseconds
+        for(Map.Entry<MetricKey, Histogram.Snapshot> entry : histograms.entrySet()) {
+            final Histogram.Snapshot snapshot = entry.getValue();
+            if(snapshot.getCount() == 0) {
+                continue;
+            }
+            final String name = PluginTelemetry.METRIC_PREFIX + entry.getKey().getName();
+            final Map<String, Set<String>> histogramTags = tagsFor(tags, entry.getKey());
+            client.gauge(name + ".count", snapshot.getCount(), hostname, histogramTags);
+            client.gauge(name + ".avg", TimeUnit.NANOSECONDS.toMicros(snapshot.getMeanNanos()), hostname, histogramTags);
+            client.gauge(name + ".p50", TimeUnit.NANOSECONDS.toMicros(snapshot.getPercentileNanos(50)), hostname, histogramTags);
+            client.gauge(name + ".p95", TimeUnit.NANOSECONDS.toMicros(snapshot.getPercentileNanos(95)), hostname, histogramTags);
+            client.gauge(name + ".p99", TimeUnit.NANOSECONDS.toMicros(snapshot.getPercentileNanos(99)), hostname, histogramTags);
+            client.gauge(name + ".max", TimeUnit.NANOSECONDS.toMicros(snapshot.getMaxNanos()), hostname, histogramTags);
+        }
+
+        for(Map.Entry<MetricKey, Long> entry : gauges.entrySet()) {
+            client.gauge(PluginTelemetry.METRIC_PREFIX + entry.getKey().getName(), entry.getValue(), hostname, tagsFor(tags, entry.getKey()));
+        }
+    }
+
+    private static Map<String, Set<String>> tagsFor(Map<String, Set<String>> tags, MetricKey key) {
+        return TagsUtil.merge(key.getTagsMap(), tags);
+    }
+}
@@ -0,0 +1,95 @@
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the last value submitted for every gauge series of a periodic publisher,
+ * so only the series whose value changed are submitted.
+ * Unchanged series are submitted again once the heartbeat period has elapsed,
+ * so they do not disappear from the graphs.
+ *
+ * The publisher must call {@link #prune()} after every run to forget the series
+ * that were not reported in that run (e.g. computers that were removed).
+ */
+public class GaugeChangeFilter {
+
+    private final long heartbeatMillis;
+    private final Map<String, SubmittedValue> submittedValues = new HashMap<>();
+
+    public GaugeChangeFilter(final long heartbeatMillis) {
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * @param name the gauge name
+     * @param value the gauge value
+     * @param tags the gauge tags
+     * @param nowMillis the current time
+     * @return true if the gauge must be submitted.
+     */
+    public synchronized boolean shouldSubmit(final String name, final long value, final Map<String, Set<String>> tags, final long nowMillis) {
+        final String seriesKey = seriesKey(name, tags);
+        final SubmittedValue submitted = submittedValues.get(seriesKey);
+        if(submitted != null) {
+            submitted.reported = true;
+            if(submitted.value == value && nowMillis - submitted.timestampMillis < heartbeatMillis) {
+                return false;
+            }
+        }
+
+        submittedValues.put(seriesKey, new SubmittedValue(value, nowMillis));
+        return true;
+    }
+
+    public synchronized void prune() {
+        for(final Iterator<SubmittedValue> it = submittedValues.values().iterator(); it.hasNext();) {
+            final SubmittedValue submitted = it.next();
+            if(!submitted.reported) {
+                it.remove();
+            } else {
+                submitted.reported = false;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return submittedValues.size();
+    }
+
+    private static String seriesKey(final String name, final Map<String, Set<String>> tags) {
+        final StringBuilder sb = new StringBuilder(name);
+        if(tags != null) {
+            for(Map.Entry<String, Set<String>> tag : new TreeMap<>(tags).entrySet()) {
+                if(tag.getValue() == null) {
+                    continue;
+                }
+                final Set<String> sortedValues = new TreeSet<>();
+                for(String value : tag.getValue()) {
+                    if(value != null) {
+                        sortedValues.add(value);
+                    }
+                }
+                for(String value : sortedValues) {
+                    sb.append('|').append(tag.getKey()).append(':').append(value);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class SubmittedValue {
+        private final long value;
+        private final long timestampMillis;
+        private boolean reported = true;
+
+        private SubmittedValue(final long value, final long timestampMillis) {
+            this.value = value;
+            this.timestampMillis = timestampMillis;
+        }
+    }
+}
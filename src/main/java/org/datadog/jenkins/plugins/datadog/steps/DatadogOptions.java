@@ -32,6 +32,8 @@ public class DatadogOptions extends Step implements Serializable {
     private static final long serialVersionUID = 1L;
     private boolean collectLogs = false;
     private List<String> tags = new ArrayList<String>();
+    private String logFilterRules;
+    private Integer logRateLimit;
 
     /** Constructor. */
     @DataBoundConstructor
@@ -56,9 +58,27 @@ public class DatadogOptions extends Step implements Serializable {
         this.tags = tags;
     }
 
+    public String getLogFilterRules() {
+        return logFilterRules;
+    }
+
+    @DataBoundSetter
+    public void setLogFilterRules(String logFilterRules) {
+        this.logFilterRules = logFilterRules;
+    }
+
+    public Integer getLogRateLimit() {
+        return logRateLimit;
+    }
+
+    @DataBoundSetter
+    public void setLogRateLimit(Integer logRateLimit) {
+        this.logRateLimit = logRateLimit;
+    }
+
     @Override
     public StepExecution start(StepContext context) {
-        DatadogPipelineAction action = new DatadogPipelineAction(this.collectLogs, this.tags);
+        DatadogPipelineAction action = new DatadogPipelineAction(this.collectLogs, this.tags, this.logFilterRules, this.logRateLimit);
         return new ExecutionImpl(context, action);
     }
 
@@ -10,10 +10,18 @@ public class DatadogPipelineAction implements Action, Serializable {
 
     private boolean collectLogs;
     private List<String> tags;
+    private String logFilterRules;
+    private Integer logRateLimit;
 
     public DatadogPipelineAction(boolean collectLogs, List<String> tags) {
+        this(collectLogs, tags, null, null);
+    }
+
+    public DatadogPipelineAction(boolean collectLogs, List<String> tags, String logFilterRules, Integer logRateLimit) {
         this.collectLogs = collectLogs;
         this.tags = tags;
+        this.logFilterRules = logFilterRules;
+        this.logRateLimit = logRateLimit;
     }
 
     public List<String> getTags() {
@@ -24,6 +32,20 @@ public class DatadogPipelineAction implements Action, Serializable {
         return collectLogs;
     }
 
+    /**
+     * @return the log filter rules of the pipeline, or null to use the global ones.
+     */
+    public String getLogFilterRules() {
+        return logFilterRules;
+    }
+
+    /**
+     * @return the log rate limit of the pipeline, or null to use the global one.
+     */
+    public Integer getLogRateLimit() {
+        return logRateLimit;
+    }
+
     @CheckForNull
     @Override
     public String getIconFileName() {
@@ -0,0 +1,58 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+/**
+ * Measures the execution time of a hot path of the plugin (e.g. building the Git metadata)
+ * into a {@link Histogram} of the {@link PluginTelemetry}, tagged by call site.
+ *
+ * Timers are created once per call site and kept in a static field:
+ * <pre>
+ * final long start = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ * When the timings are disabled (the default), {@link #start()} and {@link #stop(long)}
+ * only read a volatile flag and do not call {@link System#nanoTime()}.
+ */
+public final class CallSiteTimer {
+
+    public static final String CALL_SITE_DURATION = "call_site.duration";
+
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled;
+
+    private final Histogram histogram;
+
+    private CallSiteTimer(final Histogram histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * @param callSite the name of the call site, e.g. "GitUtils.buildGitCommitAction".
+     * @return the timer of the call site.
+     */
+    public static CallSiteTimer forCallSite(final String callSite) {
+        return new CallSiteTimer(PluginTelemetry.get().histogram(CALL_SITE_DURATION, "call_site:" + callSite));
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(final boolean enabled) {
+        CallSiteTimer.enabled = enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    public void stop(final long start) {
+        if(start != DISABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style (log-linear) buckets, in nanoseconds.
+ * Values below {@link #SUB_BUCKET_COUNT} are recorded exactly. Every power of two above that
+ * is split in {@link #SUB_BUCKET_COUNT} buckets, so the relative error is below 1/16 (6.25%)
+ * across the whole range. Values above 2^{@link #MAX_EXPONENT} ns (~18 minutes) go to the last bucket.
+ *
+ * Recording a value is a few bit operations and three atomic updates.
+ * Percentiles are reported as the upper bound of the bucket they fall in, capped by the max.
+ */
+public class Histogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucketOf(value));
+        sumNanos.add(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKET_COUNT];
+        for(int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sumNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Resets the recorded values. Values recorded concurrently may be partially lost.
+     */
+    void reset() {
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        sumNanos.reset();
+        maxNanos.set(0L);
+    }
+
+    static int bucketOf(final long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if(exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        // The SUB_BUCKET_BITS + 1 most significant bits select the bucket
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * @param bucket the bucket index.
+     * @return the highest value recorded in the bucket.
+     */
+    static long upperBound(final int bucket) {
+        if(bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+
+        final int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        final long mantissa = (bucket & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of the histogram values.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sumNanos;
+        private final long maxNanos;
+
+        Snapshot(final long[] counts, final long sumNanos, final long maxNanos) {
+            this.counts = counts;
+            this.sumNanos = sumNanos;
+            this.maxNanos = maxNanos;
+            long total = 0;
+            for(long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+
+        /**
+         * @param previous an earlier snapshot of the same histogram.
+         * @return the values recorded since the previous snapshot. The max is the
+         * upper bound of the highest non-empty bucket, capped by the overall max.
+         */
+        public Snapshot minus(final Snapshot previous) {
+            if(previous == null) {
+                return this;
+            }
+
+            final long[] delta = new long[counts.length];
+            int highest = -1;
+            for(int i = 0; i < counts.length; i++) {
+                delta[i] = Math.max(counts[i] - previous.counts[i], 0L);
+                if(delta[i] > 0) {
+                    highest = i;
+                }
+            }
+            final long max = highest < 0 ? 0L : Math.min(upperBound(highest), maxNanos);
+            return new Snapshot(delta, Math.max(sumNanos - previous.sumNanos, 0L), max);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSumNanos() {
+            return sumNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0L : sumNanos / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100.
+         * @return the upper bound of the bucket containing the percentile, capped by the max.
+         */
+        public long getPercentileNanos(final double percentile) {
+            if(count == 0) {
+                return 0L;
+            }
+
+            final long rank = Math.max((long) Math.ceil(count * percentile / 100.0), 1L);
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if(seen >= rank) {
+                    return Math.min(upperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Name and tags ("key:value") of a plugin telemetry metric.
+ * The name does not include the {@link PluginTelemetry#METRIC_PREFIX}.
+ */
+public final class MetricKey implements Comparable<MetricKey> {
+
+    private final String name;
+    private final List<String> tags;
+
+    MetricKey(final String name, final String... tags) {
+        this.name = name;
+        this.tags = tags == null || tags.length == 0
+                ? Collections.<String>emptyList()
+                : Collections.unmodifiableList(Arrays.asList(tags.clone()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @param otherName the name of the sibling metric.
+     * @return a key with the same tags and a different name.
+     */
+    MetricKey withName(final String otherName) {
+        return new MetricKey(otherName, tags.toArray(new String[0]));
+    }
+
+    public Map<String, Set<String>> getTagsMap() {
+        final Map<String, Set<String>> result = new HashMap<>();
+        for(String tag : tags) {
+            final int separator = tag.indexOf(':');
+            final String key = separator < 0 ? tag : tag.substring(0, separator);
+            final String value = separator < 0 ? "" : tag.substring(separator + 1);
+            result.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MetricKey that = (MetricKey) o;
+        return name.equals(that.name) && tags.equals(that.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + tags.hashCode();
+    }
+
+    @Override
+    public int compareTo(MetricKey o) {
+        final int byName = name.compareTo(o.name);
+        return byName != 0 ? byName : tags.toString().compareTo(o.tags.toString());
+    }
+
+    @Override
+    public String toString() {
+        return tags.isEmpty() ? name : name + tags;
+    }
+}
@@ -0,0 +1,137 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the metrics about the overhead of the plugin itself: how long the listener callbacks take,
+ * the state of the transports and the caches.
+ *
+ * Recording a value only touches a {@link LongAdder} or a {@link Histogram}, so it can be done from
+ * the listener callbacks. The values are submitted as {@code datadog.jenkins.plugin.*} metrics by the
+ * {@code DatadogTelemetryPublisher} and shown in the {@link PluginTelemetryLink} management page.
+ */
+public class PluginTelemetry {
+
+    private static final Logger logger = Logger.getLogger(PluginTelemetry.class.getName());
+
+    public static final String METRIC_PREFIX = "datadog.jenkins.plugin.";
+
+    public static final String LISTENER_DURATION = "listener.duration";
+    public static final String TRANSPORT_SEND_DURATION = "transport.send.duration";
+    public static final String TRANSPORT_QUEUE_DEPTH = "transport.queue.depth";
+    public static final String TRANSPORT_BYTES_IN_FLIGHT = "transport.bytes_in_flight";
+    public static final String PAYLOADS_SENT = "transport.payloads.sent";
+    public static final String PAYLOADS_DROPPED = "transport.payloads.dropped";
+    public static final String PAYLOADS_RETRIED = "transport.payloads.retried";
+    public static final String PAYLOADS_FAILED = "transport.payloads.failed";
+    public static final String LOG_LINES = "logs.lines";
+    public static final String LOG_LINES_DROPPED = "logs.lines.dropped";
+    public static final String CACHE_HITS = "cache.hits";
+    public static final String CACHE_MISSES = "cache.misses";
+    public static final String CACHE_SIZE = "cache.size";
+    public static final String TRACES_SAMPLED = "traces.sampled";
+    public static final String GRAPH_LISTENER_QUEUE_DEPTH = "graph_listener.queue.depth";
+    public static final String GRAPH_LISTENER_LAG = "graph_listener.lag";
+    public static final String GRAPH_LISTENER_BACKPRESSURE_TIMEOUTS = "graph_listener.backpressure.timeouts";
+
+    private static final PluginTelemetry INSTANCE = new PluginTelemetry();
+
+    private final ConcurrentMap<MetricKey, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public static PluginTelemetry get() {
+        return INSTANCE;
+    }
+
+    public void increment(final String name, final String... tags) {
+        add(name, 1L, tags);
+    }
+
+    public void add(final String name, final long delta, final String... tags) {
+        counters.computeIfAbsent(new MetricKey(name, tags), k -> new LongAdder()).add(delta);
+    }
+
+    public void record(final String name, final long durationNanos, final String... tags) {
+        histogram(name, tags).record(durationNanos);
+    }
+
+    /**
+     * @return the histogram with the given name and tags, which can be kept by the caller
+     * to record values without looking it up again.
+     */
+    public Histogram histogram(final String name, final String... tags) {
+        return histograms.computeIfAbsent(new MetricKey(name, tags), k -> new Histogram());
+    }
+
+    /**
+     * Records the execution time of a listener callback.
+     * @param callback the callback name, e.g. "DatadogBuildListener#onStarted".
+     * @param startNanos the {@link System#nanoTime()} when the callback started.
+     */
+    public void recordListener(final String callback, final long startNanos) {
+        record(LISTENER_DURATION, System.nanoTime() - startNanos, "callback:" + callback);
+    }
+
+    /**
+     * Registers a gauge whose value is read when the telemetry is published.
+     * A gauge registered with the same name and tags replaces the previous one.
+     */
+    public void registerGauge(final String name, final LongSupplier supplier, final String... tags) {
+        gauges.put(new MetricKey(name, tags), supplier);
+    }
+
+    /**
+     * @return the current value of every counter, sorted by name.
+     */
+    public Map<MetricKey, Long> getCounters() {
+        final Map<MetricKey, Long> result = new TreeMap<>();
+        for(Map.Entry<MetricKey, LongAdder> entry : counters.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot of every histogram, sorted by name.
+     */
+    public Map<MetricKey, Histogram.Snapshot> getHistograms() {
+        final Map<MetricKey, Histogram.Snapshot> result = new TreeMap<>();
+        for(Map.Entry<MetricKey, Histogram> entry : histograms.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * @return the current value of every gauge, sorted by name.
+     */
+    public Map<MetricKey, Long> getGauges() {
+        final Map<MetricKey, Long> result = new TreeMap<>();
+        for(Map.Entry<MetricKey, LongSupplier> entry : gauges.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().getAsLong());
+            } catch (Exception e) {
+                logger.fine("Unable to read the plugin telemetry gauge " + entry.getKey() + ": " + e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resets the counters and histograms. The histograms are reset in place,
+     * as they may be kept by a {@link CallSiteTimer}. The registered gauges are kept.
+     */
+    public void clear() {
+        counters.clear();
+        for(Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Management page (Manage Jenkins - Datadog Plugin Telemetry) showing the {@link PluginTelemetry}
+ * values recorded since the controller started. Only visible to administrators.
+ */
+@Extension
+public class PluginTelemetryLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "monitor.png";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Datadog Plugin Telemetry";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Overhead of the Datadog plugin: listener execution times, transport queues and caches.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "datadog-telemetry";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public Map<MetricKey, Long> getCounters() {
+        return PluginTelemetry.get().getCounters();
+    }
+
+    public Map<MetricKey, Long> getGauges() {
+        return PluginTelemetry.get().getGauges();
+    }
+
+    public Map<MetricKey, Histogram.Snapshot> getHistograms() {
+        return PluginTelemetry.get().getHistograms();
+    }
+
+    public String toMillis(long nanos) {
+        return String.format("%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
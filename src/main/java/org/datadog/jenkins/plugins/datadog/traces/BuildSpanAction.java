@@ -1,28 +1,31 @@
 package org.datadog.jenkins.plugins.datadog.traces;
 
 import hudson.model.InvisibleAction;
+import hudson.model.Run;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
 
 import java.io.Serializable;
 
 /**
- * Keeps build span propagation
+ * Keeps build span propagation.
+ * Only the build span context is serialized with the Run.
+ * The BuildData is kept in the {@link TraceDataStore}.
  */
 public class BuildSpanAction extends InvisibleAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final BuildData buildData;
     private final TraceSpan.TraceSpanContext buildSpanContext;
 
-    public BuildSpanAction(final BuildData buildData, final TraceSpan.TraceSpanContext buildSpanContext){
-       this.buildData = buildData;
+    public BuildSpanAction(final Run<?,?> run, final BuildData buildData, final TraceSpan.TraceSpanContext buildSpanContext){
+       TraceDataStore.get().forRun(run).setBuildData(buildData);
        this.buildSpanContext = buildSpanContext;
     }
 
-    public BuildData getBuildData() {
-        return buildData;
+    public BuildData getBuildData(final Run<?,?> run) {
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        return traceData != null ? traceData.getBuildData() : null;
     }
 
     public TraceSpan.TraceSpanContext getBuildSpanContext() {
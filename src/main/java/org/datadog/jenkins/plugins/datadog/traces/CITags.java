@@ -13,6 +13,10 @@ public class CITags {
     public static final String NODE_NAME = "ci.node.name";
     public static final String NODE_LABELS = "ci.node.labels";
     public static final String QUEUE_TIME = "ci.queue_time";
+    public static final String COLLAPSED_COUNT = "ci.collapsed.count";
+    public static final String COLLAPSED_DURATION_TOTAL = "ci.collapsed.duration.total";
+    public static final String COLLAPSED_DURATION_MIN = "ci.collapsed.duration.min";
+    public static final String COLLAPSED_DURATION_MAX = "ci.collapsed.duration.max";
     public static final String _DD_HOSTNAME = "_dd.hostname";
     public static final String _DD_CI_INTERNAL = "_dd.ci.internal";
     public static final String _DD_CI_LEVEL = "_dd.ci.level";
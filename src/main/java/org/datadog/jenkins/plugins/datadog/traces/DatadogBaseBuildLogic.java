@@ -100,7 +100,7 @@ public abstract class DatadogBaseBuildLogic {
             return null;
         }
 
-        final Map<String, StageData> stageDataByName = stageBreakdownAction.getStageDataByName();
+        final Map<String, StageData> stageDataByName = stageBreakdownAction.getStageDataByName(run);
         final List<StageData> stages = new ArrayList<>(stageDataByName.values());
         Collections.sort(stages);
 
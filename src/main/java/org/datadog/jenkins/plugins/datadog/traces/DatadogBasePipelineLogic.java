@@ -13,6 +13,7 @@ import static org.datadog.jenkins.plugins.datadog.util.git.GitUtils.isRepository
 import static org.datadog.jenkins.plugins.datadog.util.git.GitUtils.isValidCommit;
 import static org.datadog.jenkins.plugins.datadog.util.git.GitUtils.isValidRepositoryURL;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -21,8 +22,8 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
-import org.datadog.jenkins.plugins.datadog.audit.DatadogAudit;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipeline;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
@@ -32,10 +33,13 @@ import org.datadog.jenkins.plugins.datadog.model.GitRepositoryAction;
 import org.datadog.jenkins.plugins.datadog.model.PipelineNodeInfoAction;
 import org.datadog.jenkins.plugins.datadog.model.StageBreakdownAction;
 import org.datadog.jenkins.plugins.datadog.model.StageData;
+import org.datadog.jenkins.plugins.datadog.telemetry.CallSiteTimer;
+import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
 import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
 import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
 import org.datadog.jenkins.plugins.datadog.util.git.GitUtils;
 import org.jenkinsci.plugins.gitclient.GitClient;
+import org.jenkinsci.plugins.workflow.actions.TimingAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepAtomNode;
 import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
 import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
@@ -43,6 +47,7 @@ import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
 
 import hudson.EnvVars;
+import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 
@@ -55,10 +60,26 @@ public abstract class DatadogBasePipelineLogic {
     protected static final String HOSTNAME_NONE = "none";
     private static final Logger logger = Logger.getLogger(DatadogBasePipelineLogic.class.getName());
 
+    private static final CallSiteTimer UPDATE_BUILD_DATA_TIMER = CallSiteTimer.forCallSite("DatadogBasePipelineLogic.updateBuildData");
+    private static final CallSiteTimer BUILD_PIPELINE_NODE_TIMER = CallSiteTimer.forCallSite("DatadogBasePipelineLogic.buildPipelineNode");
+    private static final CallSiteTimer UPDATE_CI_GLOBAL_TAGS_TIMER = CallSiteTimer.forCallSite("DatadogBasePipelineLogic.updateCIGlobalTags");
+    private static final CallSiteTimer UPDATE_STAGE_BREAKDOWN_TIMER = CallSiteTimer.forCallSite("DatadogBasePipelineLogic.updateStageBreakdown");
+
     public abstract void execute(Run run, FlowNode flowNode);
 
-    protected BuildPipelineNode buildPipelineTree(FlowEndNode flowEndNode) {
+    protected BuildPipelineNode buildPipelineTree(Run<?, ?> run, FlowEndNode flowEndNode) {
+
+        // The DatadogGraphListener adds every FlowNode to the pipeline of the run as it is created,
+        // so the tree is already built at this point, and only needs to be completed.
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        final BuildPipeline trackedPipeline = traceData != null ? traceData.getPipeline() : null;
+        if(trackedPipeline != null && trackedPipeline.isStartNodeAdded()) {
+            trackedPipeline.add(flowEndNode);
+            return trackedPipeline.buildTree();
+        }
 
+        // If the pipeline was not tracked since its beginning (e.g. the controller was restarted),
+        // the tree is built from the whole flow graph.
         final BuildPipeline pipeline = new BuildPipeline();
 
         // As this logic is evaluated in the last node of the graph,
@@ -77,7 +98,7 @@ public abstract class DatadogBasePipelineLogic {
     }
 
     protected void updateBuildData(BuildData buildData, Run<?, ?> run, BuildPipelineNode pipelineNode, FlowNode node) {
-        long start = System.currentTimeMillis();
+        final long start = UPDATE_BUILD_DATA_TIMER.start();
         try {
             if(pipelineNode == null){
                 return;
@@ -150,45 +171,43 @@ public abstract class DatadogBasePipelineLogic {
             // because creating a Git client is a very expensive operation.
             final GitClient gitClient = getGitClient(run, pipelineNode, node, gitUrl, gitCommit);
 
-            if(gitClient != null) {
-                final GitCommitAction commitAction = buildGitCommitAction(run, gitClient, pipelineNode);
-                if(commitAction != null) {
-                    if(buildData.getGitMessage("").isEmpty()){
-                        buildData.setGitMessage(commitAction.getMessage());
-                    }
+            // The Git client is null if the Git information was already calculated
+            // (or reused from other runs), so the actions below are taken from the run.
+            final GitCommitAction commitAction = buildGitCommitAction(run, gitClient, pipelineNode);
+            if(commitAction != null) {
+                if(buildData.getGitMessage("").isEmpty()){
+                    buildData.setGitMessage(commitAction.getMessage());
+                }
 
-                    if(buildData.getGitAuthorName("").isEmpty()) {
-                        buildData.setGitAuthorName(commitAction.getAuthorName());
-                    }
+                if(buildData.getGitAuthorName("").isEmpty()) {
+                    buildData.setGitAuthorName(commitAction.getAuthorName());
+                }
 
-                    if(buildData.getGitAuthorEmail("").isEmpty()){
-                        buildData.setGitAuthorEmail(commitAction.getAuthorEmail());
-                    }
+                if(buildData.getGitAuthorEmail("").isEmpty()){
+                    buildData.setGitAuthorEmail(commitAction.getAuthorEmail());
+                }
 
-                    if(buildData.getGitAuthorDate("").isEmpty()){
-                        buildData.setGitAuthorDate(commitAction.getAuthorDate());
-                    }
+                if(buildData.getGitAuthorDate("").isEmpty()){
+                    buildData.setGitAuthorDate(commitAction.getAuthorDate());
+                }
 
-                    if(buildData.getGitCommitterName("").isEmpty()){
-                        buildData.setGitCommitterName(commitAction.getCommitterName());
-                    }
+                if(buildData.getGitCommitterName("").isEmpty()){
+                    buildData.setGitCommitterName(commitAction.getCommitterName());
+                }
 
-                    if(buildData.getGitCommitterEmail("").isEmpty()){
-                        buildData.setGitCommitterEmail(commitAction.getCommitterEmail());
-                    }
+                if(buildData.getGitCommitterEmail("").isEmpty()){
+                    buildData.setGitCommitterEmail(commitAction.getCommitterEmail());
+                }
 
-                    if(buildData.getGitCommitterDate("").isEmpty()){
-                        buildData.setGitCommitterDate(commitAction.getCommitterDate());
-                    }
+                if(buildData.getGitCommitterDate("").isEmpty()){
+                    buildData.setGitCommitterDate(commitAction.getCommitterDate());
                 }
             }
 
-            if(gitClient != null) {
-                final GitRepositoryAction repositoryAction = buildGitRepositoryAction(run, gitClient, pipelineNode);
-                if(repositoryAction != null) {
-                    if(buildData.getGitDefaultBranch("").isEmpty()) {
-                        buildData.setGitDefaultBranch(repositoryAction.getDefaultBranch());
-                    }
+            final GitRepositoryAction repositoryAction = buildGitRepositoryAction(run, gitClient, pipelineNode);
+            if(repositoryAction != null) {
+                if(buildData.getGitDefaultBranch("").isEmpty()) {
+                    buildData.setGitDefaultBranch(repositoryAction.getDefaultBranch());
                 }
             }
 
@@ -207,8 +226,7 @@ public abstract class DatadogBasePipelineLogic {
                 buildData.setHostname(nodeHostname);
             }
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogTracePipelineLogic.updateBuildData", start, end);
+            UPDATE_BUILD_DATA_TIMER.stop(start);
         }
     }
 
@@ -277,6 +295,103 @@ public abstract class DatadogBasePipelineLogic {
         return null;
     }
 
+    /**
+     * If the pipeline spans are sent as they complete, returns the nodes of the pipeline tree
+     * that finished with the creation of a certain FlowNode:
+     * - the StepAtomNodes that precede the FlowNode, as a StepAtomNode finishes when the next node starts.
+     * - the block of the FlowNode, if it is a BlockEndNode (other than the FlowEndNode).
+     * @param run the current run.
+     * @param flowNode the new FlowNode.
+     * @return the completed nodes, or an empty list.
+     */
+    protected List<BuildPipelineNode> completePipelineNodes(final Run<?, ?> run, final FlowNode flowNode) {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        if(cfg == null || !cfg.isEmitPipelineSpansOnCompletion()) {
+            return Collections.emptyList();
+        }
+
+        // The spans cannot be sent before the sampling decision is taken at the end of the run.
+        if(TraceSampler.isEnabled()) {
+            return Collections.emptyList();
+        }
+
+        // The parents of a node are only known if the pipeline was tracked since its beginning.
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        final BuildPipeline pipeline = traceData != null ? traceData.getPipeline() : null;
+        if(pipeline == null || !pipeline.isStartNodeAdded()) {
+            return Collections.emptyList();
+        }
+
+        final List<BuildPipelineNode> completedNodes = new ArrayList<>();
+        final TimingAction timingAction = flowNode.getAction(TimingAction.class);
+        final long startTimeMillis = (timingAction != null) ? timingAction.getStartTime() : -1L;
+        for(final FlowNode parent : flowNode.getParents()) {
+            if(parent instanceof StepAtomNode) {
+                final BuildPipelineNode completed = pipeline.complete(parent, startTimeMillis);
+                if(completed != null) {
+                    completedNodes.add(completed);
+                }
+            }
+        }
+
+        if(flowNode instanceof BlockEndNode && !isLastNode(flowNode)) {
+            final BuildPipelineNode completed = pipeline.complete(flowNode, -1L);
+            if(completed != null) {
+                completedNodes.add(completed);
+            }
+        }
+        return completedNodes;
+    }
+
+    /**
+     * Returns the sampling decision of the run the last node belongs to.
+     * It is usually taken when the build span is finished, which happens before the last node is processed.
+     * @param run the current run.
+     * @param buildData the data of the run.
+     * @param flowEndNode the last node of the pipeline.
+     * @param buildSpanContext the span context of the build.
+     * @return the sampling decision.
+     */
+    protected TraceSampler.Decision getSamplingDecision(final Run<?, ?> run, final BuildData buildData, final FlowNode flowEndNode, final TraceSpan.TraceSpanContext buildSpanContext) {
+        final Result runResult = run.getResult();
+        final String result;
+        if(runResult != null) {
+            result = runResult.toString();
+        } else {
+            result = flowEndNode.getError() != null ? Result.FAILURE.toString() : Result.SUCCESS.toString();
+        }
+        final long durationMillis = System.currentTimeMillis() - buildData.getStartTime(0L);
+        return TraceSampler.get().decide(run, buildData, buildSpanContext.getTraceId(), result, durationMillis);
+    }
+
+    /**
+     * Returns the span context the span of a node must be child of, before the whole pipeline tree is available.
+     * That is the span of the closest enclosing stage, or the build span if there is none.
+     * @param pipelineNode the node.
+     * @param buildSpanContext the span context of the build.
+     * @return the parent span context.
+     */
+    protected TraceSpan.TraceSpanContext getParentSpanContext(final BuildPipelineNode pipelineNode, final TraceSpan.TraceSpanContext buildSpanContext) {
+        final BuildPipelineNode traceableParent = getTraceableParent(pipelineNode);
+        if(traceableParent == null) {
+            return buildSpanContext;
+        }
+        return new TraceSpan.TraceSpanContext(buildSpanContext.getTraceId(), buildSpanContext.getSpanId(), traceableParent.getSpanId());
+    }
+
+    protected BuildPipelineNode getTraceableParent(final BuildPipelineNode pipelineNode) {
+        List<BuildPipelineNode> parents = pipelineNode.getParents();
+        while(!parents.isEmpty()) {
+            final BuildPipelineNode parent = parents.get(0);
+            // The root of the tree has no type.
+            if(parent.getType() != null && !parent.isInternal()) {
+                return parent;
+            }
+            parents = parent.getParents();
+        }
+        return null;
+    }
+
     protected boolean isTraceable(BuildPipelineNode node) {
         if (node.getStartTimeMicros() == -1L) {
             logger.severe("Unable to send trace of node: " + node.getName() + ". Start Time is not set");
@@ -312,7 +427,8 @@ public abstract class DatadogBasePipelineLogic {
                 return null;
             }
 
-            return GitUtils.buildGitCommitAction(run, gitClient, gitCommit);
+            final String gitRepositoryURL = GitUtils.resolveGitRepositoryUrl(pipelineNode.getEnvVars(), null);
+            return GitUtils.buildGitCommitAction(run, gitClient, gitRepositoryURL, gitCommit);
         } catch (Exception e) {
             logger.fine("Unable to build GitCommitAction. Error: " + e);
             return null;
@@ -335,7 +451,7 @@ public abstract class DatadogBasePipelineLogic {
     }
 
     protected BuildPipelineNode buildPipelineNode(FlowNode flowNode) {
-        long start = System.currentTimeMillis();
+        final long start = BUILD_PIPELINE_NODE_TIMER.start();
         try {
             BuildPipelineNode pipelineNode = null;
             if(flowNode instanceof BlockEndNode) {
@@ -345,13 +461,12 @@ public abstract class DatadogBasePipelineLogic {
             }
             return pipelineNode;
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogTracePipelineLogic.buildPipelineNode", start, end);
+            BUILD_PIPELINE_NODE_TIMER.stop(start);
         }
     }
 
     protected void updateCIGlobalTags(Run run) {
-        long start = System.currentTimeMillis();
+        final long start = UPDATE_CI_GLOBAL_TAGS_TIMER.start();
         try {
             final CIGlobalTagsAction ciGlobalTagsAction = run.getAction(CIGlobalTagsAction.class);
             if(ciGlobalTagsAction == null) {
@@ -361,8 +476,7 @@ public abstract class DatadogBasePipelineLogic {
             final Map<String, String> tags = TagsUtil.convertTagsToMapSingleValues(DatadogUtilities.getTagsFromPipelineAction(run));
             ciGlobalTagsAction.putAll(tags);
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogTracePipelineLogic.updateCIGlobalTags", start, end);
+            UPDATE_CI_GLOBAL_TAGS_TIMER.stop(start);
         }
     }
 
@@ -387,6 +501,9 @@ public abstract class DatadogBasePipelineLogic {
                 return null;
             }
 
+            // Reuse the Git information calculated by other runs for the same repository and commit.
+            GitUtils.attachCachedGitInfo(run, gitUrl, gitCommit, pipelineNode.getEnvVars());
+
             final boolean commitInfoAlreadyCreated = isCommitInfoAlreadyCreated(run, gitCommit);
             final boolean repoInfoAlreadyCreated = isRepositoryInfoAlreadyCreated(run, gitUrl);
 
@@ -406,7 +523,7 @@ public abstract class DatadogBasePipelineLogic {
     }
 
     protected void updateStageBreakdown(final Run<?,?> run, BuildPipelineNode pipelineNode) {
-        long start = System.currentTimeMillis();
+        final long start = UPDATE_STAGE_BREAKDOWN_TIMER.start();
         try {
             final StageBreakdownAction stageBreakdownAction = run.getAction(StageBreakdownAction.class);
             if(stageBreakdownAction == null){
@@ -427,10 +544,9 @@ public abstract class DatadogBasePipelineLogic {
                     .withEndTimeInMicros(pipelineNode.getEndTimeMicros())
                     .build();
 
-            stageBreakdownAction.put(stageData.getName(), stageData);
+            stageBreakdownAction.put(run, stageData.getName(), stageData);
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("DatadogTracePipelineLogic.updateStageBreakdown", start, end);
+            UPDATE_STAGE_BREAKDOWN_TIMER.stop(start);
         }
     }
 
@@ -62,7 +62,7 @@ public class DatadogTraceBuildLogic extends DatadogBaseBuildLogic {
         // Jenkins Pipelines, there are many information that is missing when the
         // root span is created, such as Git info (this is calculated in an inner step
         // of the pipeline)
-        final BuildSpanAction buildSpanAction = new BuildSpanAction(buildData, buildSpan.context());
+        final BuildSpanAction buildSpanAction = new BuildSpanAction(run, buildData, buildSpan.context());
         run.addAction(buildSpanAction);
 
         final StepDataAction stepDataAction = new StepDataAction();
@@ -101,7 +101,14 @@ public class DatadogTraceBuildLogic extends DatadogBaseBuildLogic {
         // BuildSpanAction has been updated by the information available
         // inside the Pipeline steps. (Only applicable if the build is
         // based on Jenkins Pipelines).
-        final BuildData updatedBuildData = buildSpanAction.getBuildData();
+        final BuildData updatedBuildData = buildSpanAction.getBuildData(run);
+
+        // Dropped runs are not serialized at all.
+        final TraceSampler.Decision samplingDecision = TraceSampler.get().decide(run, buildData, buildSpan.context().getTraceId(),
+                buildData.getResult(""), buildData.getDuration(0L));
+        if(!samplingDecision.isKeep()) {
+            return;
+        }
 
         final String prefix = BuildPipelineNode.NodeType.PIPELINE.getTagName();
         final String buildLevel = BuildPipelineNode.NodeType.PIPELINE.getBuildLevel();
@@ -275,6 +282,11 @@ public class DatadogTraceBuildLogic extends DatadogBaseBuildLogic {
         // When the root span starts, we don't have the propagated queue time yet. We need to wait till the
         // end of the pipeline execution and do it in the endTime, adjusting all child spans if needed.
         buildSpan.setEndNano(TimeUnit.MICROSECONDS.toNanos(endTimeMicros - TimeUnit.MILLISECONDS.toMicros(propagatedMillisInQueue)));
+
+        buildSpan.putMetric(TraceSpan.PRIORITY_SAMPLING_KEY, samplingDecision.getPriority());
+        if(samplingDecision.getRuleRate() >= 0) {
+            buildSpan.putMetric(TraceSampler.RULE_SAMPLE_RATE_KEY, samplingDecision.getRuleRate());
+        }
         agentHttpClient.send(Collections.singletonList(buildSpan));
     }
 
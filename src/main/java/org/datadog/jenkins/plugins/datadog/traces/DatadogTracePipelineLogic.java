@@ -11,16 +11,19 @@ import static org.datadog.jenkins.plugins.datadog.traces.GitInfoUtils.normalizeT
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
-import org.datadog.jenkins.plugins.datadog.audit.DatadogAudit;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
 import org.datadog.jenkins.plugins.datadog.model.CIGlobalTagsAction;
@@ -70,25 +73,27 @@ public class DatadogTracePipelineLogic extends DatadogBasePipelineLogic {
             return;
         }
 
-        final BuildData buildData = buildSpanAction.getBuildData();
+        final BuildData buildData = buildSpanAction.getBuildData(run);
         if(!isLastNode(flowNode)){
             final BuildPipelineNode pipelineNode = buildPipelineNode(flowNode);
             updateStageBreakdown(run, pipelineNode);
             updateBuildData(buildData, run, pipelineNode, flowNode);
             updateCIGlobalTags(run);
+            sendCompletedTraces(run, buildData, completePipelineNodes(run, flowNode), buildSpanAction.getBuildSpanContext());
             return;
         }
 
         final TraceSpan.TraceSpanContext traceSpanContext = buildSpanAction.getBuildSpanContext();
-        final BuildPipelineNode root = buildPipelineTree((FlowEndNode) flowNode);
-
-        final List<PayloadMessage> spanBuffer = new ArrayList<>();
-        collectTraces(run, spanBuffer, buildData, root, traceSpanContext);
-
         try {
-            if(!spanBuffer.isEmpty()) {
-                this.agentHttpClient.send(spanBuffer);
+            // Dropped runs are not serialized at all.
+            if(!getSamplingDecision(run, buildData, flowNode, traceSpanContext).isKeep()) {
+                return;
             }
+
+            // The last StepAtomNodes of the pipeline finish with the FlowEndNode.
+            sendCompletedTraces(run, buildData, completePipelineNodes(run, flowNode), traceSpanContext);
+            final BuildPipelineNode root = buildPipelineTree(run, (FlowEndNode) flowNode);
+            sendTraces(run, buildData, root, traceSpanContext);
         } catch (Exception e){
             logger.severe("Unable to send traces. Exception:" + e);
         } finally {
@@ -97,23 +102,179 @@ public class DatadogTracePipelineLogic extends DatadogBasePipelineLogic {
         }
     }
 
-    private void collectTraces(final Run run, final List<PayloadMessage> spanBuffer, final BuildData buildData, final BuildPipelineNode current, final TraceSpan.TraceSpanContext parentSpanContext) {
-        if(!isTraceable(current)) {
+    /**
+     * Sends the spans of the pipeline nodes that completed before the pipeline finished.
+     * Their parent spans are the enclosing stages, whose span ids are assigned when the stages start.
+     */
+    private void sendCompletedTraces(final Run run, final BuildData buildData, final List<BuildPipelineNode> completedNodes, final TraceSpan.TraceSpanContext buildSpanContext) {
+        if(completedNodes.isEmpty()) {
+            return;
+        }
+
+        try {
+            final List<PayloadMessage> spans = new ArrayList<>(completedNodes.size());
+            for(final BuildPipelineNode completedNode : completedNodes) {
+                completedNode.setEmitted(true);
+                if(isTraceable(completedNode)) {
+                    spans.add(buildSpan(run, buildData, completedNode, getParentSpanContext(completedNode, buildSpanContext)));
+                }
+            }
+
+            if(!spans.isEmpty()) {
+                this.agentHttpClient.send(spans);
+            }
+        } catch (Exception e) {
+            logger.severe("Unable to send traces. Exception:" + e);
+        }
+    }
+
+    /**
+     * Walks the pipeline tree iteratively (parents before children), building the spans
+     * as the HTTP client consumes them (see {@link SpanIterator}). The client sends them in chunks
+     * and waits while its queue is full, so neither the call stack nor the number of spans
+     * held in memory grow with the size of the pipeline.
+     */
+    private void sendTraces(final Run run, final BuildData buildData, final BuildPipelineNode root, final TraceSpan.TraceSpanContext rootSpanContext) {
+        this.agentHttpClient.send(new SpanIterator(run, buildData, root, rootSpanContext));
+    }
+
+    /**
+     * Builds the spans of the pipeline tree one at a time.
+     * If a span collapsing threshold is set, the short sibling steps with the same name
+     * are built as a single span (see {@link StepCollapser}).
+     */
+    private class SpanIterator implements Iterator<TraceSpan> {
+        private final Run run;
+        private final BuildData buildData;
+        private final TraceSpan.TraceSpanContext rootSpanContext;
+        private final long collapsingThresholdMicros = getSpanCollapsingThresholdMicros();
+        private final Deque<PendingNode> pendingNodes = new ArrayDeque<>();
+        private TraceSpan nextSpan;
+
+        private SpanIterator(final Run run, final BuildData buildData, final BuildPipelineNode root, final TraceSpan.TraceSpanContext rootSpanContext) {
+            this.run = run;
+            this.buildData = buildData;
+            this.rootSpanContext = rootSpanContext;
+            this.pendingNodes.push(new PendingNode(root, rootSpanContext));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while(nextSpan == null && !pendingNodes.isEmpty()) {
+                nextSpan = visit(pendingNodes.pop());
+            }
+            return nextSpan != null;
+        }
+
+        @Override
+        public TraceSpan next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final TraceSpan span = nextSpan;
+            nextSpan = null;
+            return span;
+        }
+
+        /**
+         * @return the span of the pending node, or null if it is not traceable or was already sent.
+         */
+        private TraceSpan visit(final PendingNode pendingNode) {
+            if(pendingNode.collapsedSteps != null) {
+                // The collapsed steps have no children.
+                return buildCollapsedSpan(run, buildData, pendingNode.collapsedSteps, pendingNode.parentSpanContext);
+            }
+            final BuildPipelineNode current = pendingNode.node;
+
             // If the current node is not traceable, we continue with its children
-            for(final BuildPipelineNode child : current.getChildren()) {
-                collectTraces(run, spanBuffer, buildData, child, parentSpanContext);
+            // using the same parent span context.
+            TraceSpan span = null;
+            TraceSpan.TraceSpanContext childrenParentSpanContext = pendingNode.parentSpanContext;
+            if(current.isEmitted()) {
+                // The span was sent when the node completed. Its span id was assigned upfront.
+                if(!current.isInternal()) {
+                    childrenParentSpanContext = new TraceSpan.TraceSpanContext(rootSpanContext.getTraceId(), pendingNode.parentSpanContext.getSpanId(), current.getSpanId());
+                }
+            } else if(isTraceable(current)) {
+                span = buildSpan(run, buildData, current, pendingNode.parentSpanContext);
+                childrenParentSpanContext = span.context();
             }
-            return;
+
+            // Children are pushed in reverse order, so they are visited in order.
+            final List<BuildPipelineNode> children = current.getChildren();
+            if(collapsingThresholdMicros > 0 && children.size() > 1) {
+                final List<StepCollapser.Group> groups = StepCollapser.collapse(children, child -> isCollapsible(child, collapsingThresholdMicros));
+                for(int i = groups.size() - 1; i >= 0; i--) {
+                    final StepCollapser.Group group = groups.get(i);
+                    pendingNodes.push(group.isCollapsed() ? new PendingNode(group, childrenParentSpanContext) : new PendingNode(group.getFirst(), childrenParentSpanContext));
+                }
+            } else {
+                for(int i = children.size() - 1; i >= 0; i--) {
+                    pendingNodes.push(new PendingNode(children.get(i), childrenParentSpanContext));
+                }
+            }
+            return span;
         }
+    }
+
+    private long getSpanCollapsingThresholdMicros() {
+        final Integer threshold = DatadogUtilities.getDatadogGlobalDescriptor().getSpanCollapsingThreshold();
+        return threshold != null ? TimeUnit.MILLISECONDS.toMicros(threshold) : 0;
+    }
+
+    /**
+     * Only the successful leaf steps shorter than the threshold are collapsed,
+     * so the failures and the slow outliers keep their own spans.
+     */
+    private boolean isCollapsible(final BuildPipelineNode node, final long thresholdMicros) {
+        return BuildPipelineNode.NodeType.STEP.equals(node.getType())
+                && !node.isInternal()
+                && !node.isEmitted()
+                && !node.isError()
+                && node.getChildren().isEmpty()
+                && node.getStartTimeMicros() != -1L
+                && node.getEndTimeMicros() != -1L
+                && node.getEndTimeMicros() - node.getStartTimeMicros() < thresholdMicros
+                && "SUCCESS".equalsIgnoreCase(getResult(node));
+    }
+
+    /**
+     * Builds a single span for the collapsed steps, with the tags of the first step
+     * (without the ones that only apply to that step) and the aggregated durations.
+     */
+    private TraceSpan buildCollapsedSpan(final Run run, final BuildData buildData, final StepCollapser.Group collapsedSteps, final TraceSpan.TraceSpanContext parentSpanContext) {
+        final BuildPipelineNode first = collapsedSteps.getFirst();
+        final TraceSpan span = buildSpan(run, buildData, first, parentSpanContext, IdGenerator.generate(),
+                collapsedSteps.getStartTimeMicros(), collapsedSteps.getEndTimeMicros());
+
+        final String prefix = first.getType().getTagName();
+        final String argsPrefix = CI_PROVIDER + "." + first.getType().name().toLowerCase() + ".args.";
+        span.getMeta().keySet().removeIf(key -> key.startsWith(argsPrefix));
+        span.getMeta().remove(prefix + ".script");
+        span.getMeta().remove(prefix + CITags._URL);
+        span.getMeta().remove(prefix + CITags._NUMBER);
+
+        span.putMetric(CITags.COLLAPSED_COUNT, collapsedSteps.getNodes().size());
+        span.putMetric(CITags.COLLAPSED_DURATION_TOTAL, TimeUnit.MICROSECONDS.toNanos(collapsedSteps.getTotalDurationMicros()));
+        span.putMetric(CITags.COLLAPSED_DURATION_MIN, TimeUnit.MICROSECONDS.toNanos(collapsedSteps.getMinDurationMicros()));
+        span.putMetric(CITags.COLLAPSED_DURATION_MAX, TimeUnit.MICROSECONDS.toNanos(collapsedSteps.getMaxDurationMicros()));
+        return span;
+    }
+
+    private TraceSpan buildSpan(final Run run, final BuildData buildData, final BuildPipelineNode current, final TraceSpan.TraceSpanContext parentSpanContext) {
+        return buildSpan(run, buildData, current, parentSpanContext, current.getSpanId(), current.getStartTimeMicros(), current.getEndTimeMicros());
+    }
 
+    private TraceSpan buildSpan(final Run run, final BuildData buildData, final BuildPipelineNode current, final TraceSpan.TraceSpanContext parentSpanContext,
+                                final long spanId, final long startTimeMicros, final long endTimeMicros) {
         // If the root span has propagated queue time, we need to adjust all startTime and endTime from Jenkins pipelines spans
         // because this time will be subtracted in the root span. See DatadogTraceBuildLogic#finishBuildTrace method.
         final long propagatedMillisInQueue = Math.max(buildData.getPropagatedMillisInQueue(-1L), 0);
-        final long fixedStartTimeNanos = TimeUnit.MICROSECONDS.toNanos(current.getStartTimeMicros() - TimeUnit.MILLISECONDS.toMicros(propagatedMillisInQueue));
-        final long fixedEndTimeNanos = TimeUnit.MICROSECONDS.toNanos(current.getEndTimeMicros() - TimeUnit.MILLISECONDS.toMicros(propagatedMillisInQueue));
+        final long fixedStartTimeNanos = TimeUnit.MICROSECONDS.toNanos(startTimeMicros - TimeUnit.MILLISECONDS.toMicros(propagatedMillisInQueue));
+        final long fixedEndTimeNanos = TimeUnit.MICROSECONDS.toNanos(endTimeMicros - TimeUnit.MILLISECONDS.toMicros(propagatedMillisInQueue));
 
         // At this point, the current node is traceable.
-        final TraceSpan.TraceSpanContext spanContext = new TraceSpan.TraceSpanContext(parentSpanContext.getTraceId(), parentSpanContext.getSpanId(), current.getSpanId());
+        final TraceSpan.TraceSpanContext spanContext = new TraceSpan.TraceSpanContext(parentSpanContext.getTraceId(), parentSpanContext.getSpanId(), spanId);
         final TraceSpan span = new TraceSpan(buildOperationName(current), fixedStartTimeNanos + getNanosInQueue(current), spanContext);
         span.setServiceName(DatadogUtilities.getDatadogGlobalDescriptor().getCiInstanceName());
         span.setResourceName(current.getName());
@@ -141,16 +302,11 @@ public class DatadogTracePipelineLogic extends DatadogBasePipelineLogic {
             }
         }
 
-        for(final BuildPipelineNode child : current.getChildren()) {
-            collectTraces(run, spanBuffer, buildData, child, span.context());
-        }
-
         //Logs
         //NOTE: Implement sendNodeLogs
 
         span.setEndNano(fixedEndTimeNanos);
-
-        spanBuffer.add(span);
+        return span;
     }
 
     private Map<String, Long> buildTraceMetrics(BuildPipelineNode current) {
@@ -299,4 +455,22 @@ public class DatadogTracePipelineLogic extends DatadogBasePipelineLogic {
         return tags;
     }
 
+
+    private static class PendingNode {
+        private final BuildPipelineNode node;
+        private final StepCollapser.Group collapsedSteps;
+        private final TraceSpan.TraceSpanContext parentSpanContext;
+
+        private PendingNode(final BuildPipelineNode node, final TraceSpan.TraceSpanContext parentSpanContext) {
+            this.node = node;
+            this.collapsedSteps = null;
+            this.parentSpanContext = parentSpanContext;
+        }
+
+        private PendingNode(final StepCollapser.Group collapsedSteps, final TraceSpan.TraceSpanContext parentSpanContext) {
+            this.node = null;
+            this.collapsedSteps = collapsedSteps;
+            this.parentSpanContext = parentSpanContext;
+        }
+    }
 }
@@ -53,7 +53,7 @@ public class DatadogWebhookBuildLogic extends DatadogBaseBuildLogic {
         final TraceSpan buildSpan = new TraceSpan("jenkins.build", TimeUnit.MILLISECONDS.toNanos(buildData.getStartTime(0L)));
         BuildSpanManager.get().put(buildData.getBuildTag(""), buildSpan);
 
-        final BuildSpanAction buildSpanAction = new BuildSpanAction(buildData, buildSpan.context());
+        final BuildSpanAction buildSpanAction = new BuildSpanAction(run, buildData, buildSpan.context());
         run.addAction(buildSpanAction);
 
         final StepDataAction stepDataAction = new StepDataAction();
@@ -92,7 +92,13 @@ public class DatadogWebhookBuildLogic extends DatadogBaseBuildLogic {
         // BuildSpanAction has been updated by the information available
         // inside the Pipeline steps by DatadogWebhookPipelineLogic.
         // (Only applicable if the build is based on Jenkins Pipelines).
-        final BuildData updatedBuildData = buildSpanAction.getBuildData();
+        final BuildData updatedBuildData = buildSpanAction.getBuildData(run);
+
+        // Dropped runs are not serialized at all.
+        if(!TraceSampler.get().decide(run, buildData, buildSpan.context().getTraceId(),
+                buildData.getResult(""), buildData.getDuration(0L)).isKeep()) {
+            return;
+        }
 
         final long startTimeMillis = buildData.getStartTime(0L);
         // If the build is a Jenkins Pipeline, the queue time is included in the root duration.
@@ -9,10 +9,14 @@ import static org.datadog.jenkins.plugins.datadog.traces.GitInfoUtils.normalizeT
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 import org.datadog.jenkins.plugins.datadog.DatadogClient;
@@ -35,6 +39,8 @@ import net.sf.json.JSONObject;
  */
 public class DatadogWebhookPipelineLogic extends DatadogBasePipelineLogic {
 
+    private static final Logger logger = Logger.getLogger(DatadogWebhookPipelineLogic.class.getName());
+
     private final DatadogClient client;
 
     public DatadogWebhookPipelineLogic(final DatadogClient client) {
@@ -58,32 +64,84 @@ public class DatadogWebhookPipelineLogic extends DatadogBasePipelineLogic {
             return;
         }
 
-        final BuildData buildData = buildSpanAction.getBuildData();
+        final BuildData buildData = buildSpanAction.getBuildData(run);
         if(!isLastNode(flowNode)){
             final BuildPipelineNode pipelineNode = buildPipelineNode(flowNode);
             updateStageBreakdown(run, pipelineNode);
             updateBuildData(buildData, run, pipelineNode, flowNode);
             updateCIGlobalTags(run);
+            sendCompletedTraces(run, buildData, completePipelineNodes(run, flowNode), buildSpanAction.getBuildSpanContext());
             return;
         }
 
         final TraceSpan.TraceSpanContext traceSpanContext = buildSpanAction.getBuildSpanContext();
-        final BuildPipelineNode root = buildPipelineTree((FlowEndNode) flowNode);
-        collectTraces(run, buildData, root, null, traceSpanContext);
+        // Dropped runs are not serialized at all.
+        if(getSamplingDecision(run, buildData, flowNode, traceSpanContext).isKeep()) {
+            // The last StepAtomNodes of the pipeline finish with the FlowEndNode.
+            sendCompletedTraces(run, buildData, completePipelineNodes(run, flowNode), traceSpanContext);
+            final BuildPipelineNode root = buildPipelineTree(run, (FlowEndNode) flowNode);
+            sendTraces(run, buildData, root, traceSpanContext);
+        }
 
         // Explicit removal of InvisibleActions used to collect Traces when the Run finishes.
         cleanUpTraceActions(run);
     }
 
-    private void collectTraces(final Run run, final BuildData buildData, final BuildPipelineNode current, final BuildPipelineNode parent, final TraceSpan.TraceSpanContext parentSpanContext) {
+    /**
+     * Posts the webhooks of the pipeline nodes that completed before the pipeline finished.
+     * Their parent spans are the enclosing stages, whose span ids are assigned when the stages start.
+     */
+    private void sendCompletedTraces(final Run run, final BuildData buildData, final List<BuildPipelineNode> completedNodes, final TraceSpan.TraceSpanContext buildSpanContext) {
+        for(final BuildPipelineNode completedNode : completedNodes) {
+            completedNode.setEmitted(true);
+            if(!isTraceable(completedNode)) {
+                continue;
+            }
+
+            try {
+                sendTrace(run, buildData, completedNode, getTraceableParent(completedNode), getParentSpanContext(completedNode, buildSpanContext));
+            } catch (Exception e) {
+                DatadogUtilities.severe(logger, e, "Unable to send the webhook of the pipeline node " + completedNode.getName());
+            }
+        }
+    }
+
+    /**
+     * Walks the pipeline tree iteratively (parents before children), posting
+     * a webhook for every traceable node, so the call stack does not grow with the depth of the pipeline.
+     */
+    private void sendTraces(final Run run, final BuildData buildData, final BuildPipelineNode root, final TraceSpan.TraceSpanContext rootSpanContext) {
+        final Deque<PendingNode> pendingNodes = new ArrayDeque<>();
+        pendingNodes.push(new PendingNode(root, null, rootSpanContext));
+
+        while(!pendingNodes.isEmpty()) {
+            final PendingNode pendingNode = pendingNodes.pop();
+            final BuildPipelineNode current = pendingNode.node;
 
-        if(!isTraceable(current)) {
             // If the current node is not traceable, we continue with its children
-            for(final BuildPipelineNode child : current.getChildren()) {
-                collectTraces(run, buildData, child, parent, parentSpanContext);
+            // using the same parent.
+            BuildPipelineNode childrenParent = pendingNode.parent;
+            TraceSpan.TraceSpanContext childrenParentSpanContext = pendingNode.parentSpanContext;
+            if(current.isEmitted()) {
+                // The webhook was posted when the node completed. Its span id was assigned upfront.
+                if(!current.isInternal()) {
+                    childrenParent = current;
+                    childrenParentSpanContext = new TraceSpan.TraceSpanContext(rootSpanContext.getTraceId(), pendingNode.parentSpanContext.getSpanId(), current.getSpanId());
+                }
+            } else if(isTraceable(current)) {
+                childrenParent = current;
+                childrenParentSpanContext = sendTrace(run, buildData, current, pendingNode.parent, pendingNode.parentSpanContext);
+            }
+
+            // Children are pushed in reverse order, so they are visited in order.
+            final List<BuildPipelineNode> children = current.getChildren();
+            for(int i = children.size() - 1; i >= 0; i--) {
+                pendingNodes.push(new PendingNode(children.get(i), childrenParent, childrenParentSpanContext));
             }
-            return;
         }
+    }
+
+    private TraceSpan.TraceSpanContext sendTrace(final Run run, final BuildData buildData, final BuildPipelineNode current, final BuildPipelineNode parent, final TraceSpan.TraceSpanContext parentSpanContext) {
         // If the root has propagated queue time, we need to adjust all startTime and endTime from Jenkins pipelines
         // because this time will be subtracted in the root. See DatadogTraceBuildLogic#finishBuildTrace method.
         final long propagatedMillisInQueue = Math.max(buildData.getPropagatedMillisInQueue(-1L), 0);
@@ -301,12 +359,19 @@ public class DatadogWebhookPipelineLogic extends DatadogBasePipelineLogic {
             payload.put("tags", tagsPayload);
         }
 
-
-        for(final BuildPipelineNode child : current.getChildren()) {
-            collectTraces(run, buildData, child, current, span.context());
-        }
-
         client.postWebhook(payload.toString());
+        return span.context();
     }
 
+    private static class PendingNode {
+        private final BuildPipelineNode node;
+        private final BuildPipelineNode parent;
+        private final TraceSpan.TraceSpanContext parentSpanContext;
+
+        private PendingNode(final BuildPipelineNode node, final BuildPipelineNode parent, final TraceSpan.TraceSpanContext parentSpanContext) {
+            this.node = node;
+            this.parent = parent;
+            this.parentSpanContext = parentSpanContext;
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Groups the trivial sibling steps of a pipeline node (e.g. hundreds of echo or sh steps in a loop),
+ * so they can be sent as a single aggregate span instead of one span per step.
+ *
+ * Only the collapsible siblings with the same name are grouped. The other siblings,
+ * e.g. the failed steps or the slow outliers, are kept as individual nodes.
+ */
+class StepCollapser {
+
+    private StepCollapser() {
+    }
+
+    /**
+     * Groups the siblings, keeping their order. Every group is placed where its first node was.
+     * @param siblings - the children of a pipeline node
+     * @param collapsible - the siblings that can be collapsed
+     * @return the groups. The groups of a single node are sent as individual spans.
+     */
+    static List<Group> collapse(final List<BuildPipelineNode> siblings, final Predicate<BuildPipelineNode> collapsible) {
+        final List<Group> groups = new ArrayList<>(siblings.size());
+        final Map<String, Group> groupsByName = new LinkedHashMap<>();
+        for(final BuildPipelineNode sibling : siblings) {
+            if(!collapsible.test(sibling)) {
+                groups.add(new Group(sibling));
+                continue;
+            }
+
+            final Group group = groupsByName.get(sibling.getName());
+            if(group != null) {
+                group.add(sibling);
+            } else {
+                final Group newGroup = new Group(sibling);
+                groupsByName.put(sibling.getName(), newGroup);
+                groups.add(newGroup);
+            }
+        }
+        return groups;
+    }
+
+    static final class Group {
+        private final List<BuildPipelineNode> nodes = new ArrayList<>(1);
+        private long startTimeMicros;
+        private long endTimeMicros;
+        private long totalDurationMicros;
+        private long minDurationMicros;
+        private long maxDurationMicros;
+
+        private Group(final BuildPipelineNode node) {
+            nodes.add(node);
+            startTimeMicros = node.getStartTimeMicros();
+            endTimeMicros = node.getEndTimeMicros();
+            totalDurationMicros = minDurationMicros = maxDurationMicros = duration(node);
+        }
+
+        private void add(final BuildPipelineNode node) {
+            nodes.add(node);
+            startTimeMicros = Math.min(startTimeMicros, node.getStartTimeMicros());
+            endTimeMicros = Math.max(endTimeMicros, node.getEndTimeMicros());
+            final long duration = duration(node);
+            totalDurationMicros += duration;
+            minDurationMicros = Math.min(minDurationMicros, duration);
+            maxDurationMicros = Math.max(maxDurationMicros, duration);
+        }
+
+        private static long duration(final BuildPipelineNode node) {
+            return Math.max(node.getEndTimeMicros() - node.getStartTimeMicros(), 0);
+        }
+
+        boolean isCollapsed() {
+            return nodes.size() > 1;
+        }
+
+        BuildPipelineNode getFirst() {
+            return nodes.get(0);
+        }
+
+        List<BuildPipelineNode> getNodes() {
+            return Collections.unmodifiableList(nodes);
+        }
+
+        long getStartTimeMicros() {
+            return startTimeMicros;
+        }
+
+        long getEndTimeMicros() {
+            return endTimeMicros;
+        }
+
+        long getTotalDurationMicros() {
+            return totalDurationMicros;
+        }
+
+        long getMinDurationMicros() {
+            return minDurationMicros;
+        }
+
+        long getMaxDurationMicros() {
+            return maxDurationMicros;
+        }
+    }
+}
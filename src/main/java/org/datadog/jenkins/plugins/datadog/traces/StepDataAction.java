@@ -6,24 +6,32 @@ import org.datadog.jenkins.plugins.datadog.model.StepData;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 
 import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Keeps the Step data during a certain Run.
+ * The Step data is kept in the {@link TraceDataStore}; only the number of
+ * collected entries is serialized with the Run.
  */
 public class StepDataAction extends InvisibleAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final ConcurrentMap<String, StepData> stepDataByDescriptor = new ConcurrentHashMap<>();
+    private volatile int stepDataCount;
 
     public StepData put(final Run<?,?> run, final FlowNode flowNode, final StepData stepData) {
-        return stepDataByDescriptor.put(flowNode.getId(), stepData);
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().forRun(run);
+        final StepData previous = traceData.putStepData(flowNode.getId(), stepData);
+        this.stepDataCount = traceData.getStepDataCount();
+        return previous;
     }
 
     public StepData get(final Run<?,?> run, final FlowNode flowNode) {
-        return stepDataByDescriptor.get(flowNode.getId());
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        return traceData != null ? traceData.getStepData(flowNode.getId()) : null;
+    }
+
+    public int getStepDataCount() {
+        return stepDataCount;
     }
 
 }
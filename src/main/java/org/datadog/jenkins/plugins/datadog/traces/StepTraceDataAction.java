@@ -6,21 +6,32 @@ import org.datadog.jenkins.plugins.datadog.model.StepTraceData;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 
 import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Keeps the Step trace data during a certain Run.
+ * The Step trace data is kept in the {@link TraceDataStore}; only the number of
+ * collected entries is serialized with the Run.
+ */
 public class StepTraceDataAction extends InvisibleAction implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final ConcurrentMap<String, StepTraceData> stepTraceDataByDescriptor = new ConcurrentHashMap<>();
+    private volatile int stepTraceDataCount;
 
     public StepTraceData put(final Run<?,?> run, final FlowNode flowNode, final StepTraceData stepTraceData) {
-        return stepTraceDataByDescriptor.put(flowNode.getId(), stepTraceData);
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().forRun(run);
+        final StepTraceData previous = traceData.putStepTraceData(flowNode.getId(), stepTraceData);
+        this.stepTraceDataCount = traceData.getStepTraceDataCount();
+        return previous;
     }
 
     public StepTraceData get(final Run<?,?> run, final FlowNode flowNode) {
-        return stepTraceDataByDescriptor.get(flowNode.getId());
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        return traceData != null ? traceData.getStepTraceData(flowNode.getId()) : null;
+    }
+
+    public int getStepTraceDataCount() {
+        return stepTraceDataCount;
     }
 
 }
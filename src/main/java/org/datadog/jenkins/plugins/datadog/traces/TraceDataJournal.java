@@ -0,0 +1,175 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import hudson.util.XStream2;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of the trace bookkeeping data of a Run.
+ * Each record is written as: type (byte), key (UTF), payload length (int), payload (the object as XStream XML).
+ * The records are buffered, and only written to the file at stage boundaries, when the journal is flushed or closed.
+ * A truncated record at the end of the file (e.g. the controller was killed while writing it) is ignored on replay.
+ */
+public class TraceDataJournal {
+
+    private static final Logger logger = Logger.getLogger(TraceDataJournal.class.getName());
+
+    public static final String FILE_NAME = "datadog-trace-data.journal";
+
+    private static final XStream2 XSTREAM = new XStream2();
+
+    public enum RecordType {
+        STEP_DATA(1),
+        STEP_TRACE_DATA(2),
+        QUEUE_DATA(3),
+        STAGE_DATA(4),
+        BUILD_DATA(5);
+
+        private final byte code;
+
+        RecordType(int code) {
+            this.code = (byte) code;
+        }
+
+        static RecordType fromCode(byte code) {
+            for(RecordType type : values()) {
+                if(type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    public interface RecordVisitor {
+        void visit(RecordType type, String key, Object value);
+    }
+
+    private final File file;
+    private DataOutputStream out;
+
+    public TraceDataJournal(final File file) {
+        this.file = file;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    public synchronized void append(final RecordType type, final String key, final Object value) {
+        try {
+            final byte[] payload = serialize(value);
+            if(out == null) {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            }
+            out.writeByte(type.code);
+            out.writeUTF(key);
+            out.writeInt(payload.length);
+            out.write(payload);
+            if(type == RecordType.STAGE_DATA || type == RecordType.BUILD_DATA) {
+                out.flush();
+            }
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to append record to the trace data journal " + file);
+        }
+    }
+
+    public synchronized void replay(final RecordVisitor visitor) {
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                final RecordType type;
+                final String key;
+                final byte[] payload;
+                try {
+                    type = RecordType.fromCode(in.readByte());
+                    key = in.readUTF();
+                    payload = new byte[in.readInt()];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if(type == null) {
+                    logger.fine("Unknown record found in the trace data journal " + file + ". Stopping replay.");
+                    break;
+                }
+                final Object value;
+                try {
+                    value = deserialize(payload);
+                } catch (Exception e) {
+                    logger.fine("Ignoring unreadable record '" + key + "' of the trace data journal " + file + ": " + e);
+                    continue;
+                }
+                visitor.visit(type, key, value);
+                records++;
+            }
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to replay the trace data journal " + file);
+        }
+        logger.fine("Replayed " + records + " records from the trace data journal " + file);
+    }
+
+    public synchronized void flush() {
+        if(out == null) {
+            return;
+        }
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            logger.fine("Failed to flush the trace data journal " + file + ": " + e);
+        }
+    }
+
+    public synchronized void close() {
+        if(out == null) {
+            return;
+        }
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.fine("Failed to close the trace data journal " + file + ": " + e);
+        } finally {
+            out = null;
+        }
+    }
+
+    public synchronized void delete() {
+        close();
+        if(file.exists() && !file.delete()) {
+            logger.fine("Unable to delete the trace data journal " + file);
+        }
+    }
+
+    private static byte[] serialize(final Object value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            XSTREAM.toXML(value, writer);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(final byte[] payload) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8)) {
+            return XSTREAM.fromXML(reader);
+        }
+    }
+}
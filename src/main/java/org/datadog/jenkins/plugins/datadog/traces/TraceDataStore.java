@@ -0,0 +1,315 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import hudson.init.Terminator;
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.model.BuildPipeline;
+import org.datadog.jenkins.plugins.datadog.model.FlowNodeQueueData;
+import org.datadog.jenkins.plugins.datadog.model.StageData;
+import org.datadog.jenkins.plugins.datadog.model.StepData;
+import org.datadog.jenkins.plugins.datadog.model.StepTraceData;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the per-step trace bookkeeping of the running builds outside the Run.
+ * The actions attached to the Run (StepDataAction, StepTraceDataAction, PipelineQueueInfoAction,
+ * StageBreakdownAction and BuildSpanAction) only keep a summary, so this data is not
+ * rewritten into build.xml every time the Run is saved.
+ *
+ * If the trace data journal is enabled, every update is also appended to a journal file
+ * in the build directory, which is replayed when the data of a Run is requested after a restart.
+ *
+ * The data of a Run is removed when its trace is sent, when the Run is deleted, or by
+ * {@link #sweep(long)} once the Run is no longer building, for the Runs whose trace was never sent
+ * (e.g. CI Visibility disabled during the build).
+ */
+public class TraceDataStore {
+
+    private static final Logger logger = Logger.getLogger(TraceDataStore.class.getName());
+
+    // The last FlowNode of a pipeline is processed after the Run is finalized
+    static final long SWEEP_GRACE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final TraceDataStore INSTANCE = new TraceDataStore();
+    private final ConcurrentMap<String, RunTraceData> traceDataByRun = new ConcurrentHashMap<>();
+
+    private TraceDataStore() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:trace_data");
+    }
+
+    public static TraceDataStore get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the trace data of a certain Run, replaying its journal if the data
+     * is not in memory (e.g. after a controller restart). Only used to update the data.
+     * @param run the current run.
+     * @return the trace data of the run.
+     */
+    public RunTraceData forRun(final Run<?,?> run) {
+        final RunTraceData data = traceDataByRun.computeIfAbsent(run.getExternalizableId(), key -> {
+            final RunTraceData created = new RunTraceData(run, journalFor(run));
+            created.replayJournal();
+            return created;
+        });
+        data.touch();
+        return data;
+    }
+
+    /**
+     * Returns the trace data of a certain Run, without creating it once the Run is no longer building,
+     * so reading the data after it was removed does not bring it back.
+     * @param run the current run.
+     * @return the trace data of the run, or null.
+     */
+    public RunTraceData get(final Run<?,?> run) {
+        final RunTraceData data = traceDataByRun.get(run.getExternalizableId());
+        if(data == null) {
+            // A resumed Run replays its journal
+            return run.isBuilding() ? forRun(run) : null;
+        }
+        data.touch();
+        return data;
+    }
+
+    /**
+     * Removes the trace data of a certain Run and deletes its journal.
+     * @param run the current run.
+     */
+    public void remove(final Run<?,?> run) {
+        if(run == null) {
+            return;
+        }
+
+        final RunTraceData data = traceDataByRun.remove(run.getExternalizableId());
+        if(data != null) {
+            data.close();
+        } else {
+            final TraceDataJournal journal = journalFor(run);
+            if(journal != null) {
+                journal.delete();
+            }
+        }
+    }
+
+    /**
+     * Removes the data of the Runs no longer building that were not used during {@link #SWEEP_GRACE_MILLIS}.
+     * @param nowMillis the current time.
+     * @return the number of Runs removed.
+     */
+    public int sweep(final long nowMillis) {
+        int removed = 0;
+        for(final Iterator<RunTraceData> it = traceDataByRun.values().iterator(); it.hasNext(); ) {
+            final RunTraceData data = it.next();
+            if(data.isStale(nowMillis)) {
+                it.remove();
+                data.close();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Writes the buffered records of the trace data journals, so they can be replayed after the restart.
+     */
+    @Terminator
+    public static void flushJournals() {
+        for(final RunTraceData data : INSTANCE.traceDataByRun.values()) {
+            data.flushJournal();
+        }
+    }
+
+    public int size() {
+        return traceDataByRun.size();
+    }
+
+    private TraceDataJournal journalFor(final Run<?,?> run) {
+        try {
+            final File rootDir = run.getRootDir();
+            if(rootDir == null) {
+                return null;
+            }
+            return new TraceDataJournal(new File(rootDir, TraceDataJournal.FILE_NAME));
+        } catch (Exception e) {
+            logger.fine("Unable to locate the trace data journal for Run '" + run + "': " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Trace bookkeeping data of a single Run.
+     */
+    public static class RunTraceData {
+
+        private final ConcurrentMap<String, StepData> stepDataByFlowNode = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, StepTraceData> stepTraceDataByFlowNode = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, FlowNodeQueueData> queueDataByFlowNode = new ConcurrentHashMap<>();
+        private final Map<String, StageData> stageDataByName = new ConcurrentHashMap<>();
+        private volatile BuildData buildData;
+        // Taken once, when the run finishes. It is not journaled.
+        private volatile TraceSampler.Decision samplingDecision;
+        // Pipeline tree built as the FlowNodes are created. It is not journaled,
+        // so after a restart the tree is rebuilt by scanning the flow graph.
+        private final BuildPipeline pipeline = new BuildPipeline();
+
+        private final TraceDataJournal journal;
+        // The Run is not kept in memory by its trace data
+        private final WeakReference<Run<?,?>> run;
+        private volatile long accessMillis = System.currentTimeMillis();
+
+        RunTraceData(final Run<?,?> run, final TraceDataJournal journal) {
+            this.run = new WeakReference<>(run);
+            this.journal = journal;
+        }
+
+        private void touch() {
+            accessMillis = System.currentTimeMillis();
+        }
+
+        private boolean isStale(final long nowMillis) {
+            final Run<?,?> current = run.get();
+            if(current != null && current.isBuilding()) {
+                return false;
+            }
+            return nowMillis - accessMillis >= SWEEP_GRACE_MILLIS;
+        }
+
+        public StepData putStepData(final String flowNodeId, final StepData stepData) {
+            append(TraceDataJournal.RecordType.STEP_DATA, flowNodeId, stepData);
+            return stepDataByFlowNode.put(flowNodeId, stepData);
+        }
+
+        public StepData getStepData(final String flowNodeId) {
+            return stepDataByFlowNode.get(flowNodeId);
+        }
+
+        public StepTraceData putStepTraceData(final String flowNodeId, final StepTraceData stepTraceData) {
+            append(TraceDataJournal.RecordType.STEP_TRACE_DATA, flowNodeId, stepTraceData);
+            return stepTraceDataByFlowNode.put(flowNodeId, stepTraceData);
+        }
+
+        public StepTraceData getStepTraceData(final String flowNodeId) {
+            return stepTraceDataByFlowNode.get(flowNodeId);
+        }
+
+        public void putQueueData(final String flowNodeId, final FlowNodeQueueData queueData) {
+            append(TraceDataJournal.RecordType.QUEUE_DATA, flowNodeId, queueData);
+            queueDataByFlowNode.put(flowNodeId, queueData);
+        }
+
+        public FlowNodeQueueData getQueueData(final String flowNodeId) {
+            return queueDataByFlowNode.get(flowNodeId);
+        }
+
+        public void putStageData(final String name, final StageData stageData) {
+            append(TraceDataJournal.RecordType.STAGE_DATA, name, stageData);
+            stageDataByName.put(name, stageData);
+        }
+
+        public Map<String, StageData> getStageDataByName() {
+            return stageDataByName;
+        }
+
+        public void setBuildData(final BuildData buildData) {
+            append(TraceDataJournal.RecordType.BUILD_DATA, "", buildData);
+            this.buildData = buildData;
+        }
+
+        public BuildData getBuildData() {
+            return buildData;
+        }
+
+        public BuildPipeline getPipeline() {
+            return pipeline;
+        }
+
+        public TraceSampler.Decision getSamplingDecision() {
+            return samplingDecision;
+        }
+
+        public void setSamplingDecision(final TraceSampler.Decision samplingDecision) {
+            this.samplingDecision = samplingDecision;
+        }
+
+        public int getStepDataCount() {
+            return stepDataByFlowNode.size();
+        }
+
+        public int getStepTraceDataCount() {
+            return stepTraceDataByFlowNode.size();
+        }
+
+        public int getQueueDataCount() {
+            return queueDataByFlowNode.size();
+        }
+
+        private void append(final TraceDataJournal.RecordType type, final String key, final Object value) {
+            if(journal == null || value == null) {
+                return;
+            }
+
+            final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+            if(cfg == null || !cfg.isJournalTraceData()) {
+                return;
+            }
+            journal.append(type, key, value);
+        }
+
+        private void replayJournal() {
+            if(journal == null || !journal.exists()) {
+                return;
+            }
+
+            journal.replay(new TraceDataJournal.RecordVisitor() {
+                @Override
+                public void visit(TraceDataJournal.RecordType type, String key, Object value) {
+                    switch (type) {
+                        case STEP_DATA:
+                            stepDataByFlowNode.put(key, (StepData) value);
+                            break;
+                        case STEP_TRACE_DATA:
+                            stepTraceDataByFlowNode.put(key, (StepTraceData) value);
+                            break;
+                        case QUEUE_DATA:
+                            queueDataByFlowNode.put(key, (FlowNodeQueueData) value);
+                            break;
+                        case STAGE_DATA:
+                            stageDataByName.put(key, (StageData) value);
+                            break;
+                        case BUILD_DATA:
+                            buildData = (BuildData) value;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            });
+        }
+
+        private void flushJournal() {
+            if(journal != null) {
+                journal.flush();
+            }
+        }
+
+        private void close() {
+            if(journal != null) {
+                journal.close();
+                journal.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class registers a {@link PeriodicWork} with Jenkins to remove from the {@link TraceDataStore}
+ * the data of the runs that are no longer building and whose trace was never sent.
+ */
+@Extension
+public class TraceDataSweeper extends PeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(TraceDataSweeper.class.getName());
+
+    private static final long RECURRENCE_PERIOD = TimeUnit.MINUTES.toMillis(5);
+
+    @Override
+    public long getRecurrencePeriod() {
+        return RECURRENCE_PERIOD;
+    }
+
+    @Override
+    protected void doRun() throws Exception {
+        try {
+            final int removed = TraceDataStore.get().sweep(System.currentTimeMillis());
+            if (removed > 0) {
+                logger.fine("Removed the trace data of " + removed + " runs no longer building");
+            }
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to remove the trace data of the runs no longer building");
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import hudson.model.Result;
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.model.BuildData;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.LruMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Tail-based sampling of the CI Visibility traces, decided when the run finishes.
+ *
+ * Failed, unstable, aborted and slow runs are always kept. The successful runs of the jobs
+ * matching a trace sampling rule are kept with the percentage of the rule, deterministically
+ * from the trace id, and up to the maximum runs per hour of the rule for every job.
+ * Runs of jobs without a matching rule are always kept.
+ *
+ * The decision is taken once per run, and kept in the {@link TraceDataStore} until the run
+ * is cleaned up, so the build span and the pipeline spans are kept or dropped together.
+ */
+public class TraceSampler {
+
+    private static final Logger logger = Logger.getLogger(TraceSampler.class.getName());
+
+    // Same sampling priorities as the Datadog tracers
+    public static final double USER_KEEP = 2;
+    public static final double AUTO_KEEP = 1;
+    public static final double USER_DROP = -1;
+    // Sample rate of the matching rule, used by the backend to extrapolate the dropped runs
+    public static final String RULE_SAMPLE_RATE_KEY = "_dd.rule_psr";
+    // Same factor as the Datadog Agent, so the decision only depends on the trace id
+    private static final long KNUTH_FACTOR = 1111111111111111111L;
+    static final int MAX_RATE_LIMITED_JOBS = 10000;
+
+    private static final TraceSampler INSTANCE = new TraceSampler();
+
+    private volatile Rules rules = new Rules(null);
+    private final LruMap<String, RateLimiter> rateLimitersByJob = new LruMap<>(MAX_RATE_LIMITED_JOBS);
+
+    TraceSampler() {
+    }
+
+    public static TraceSampler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if sampling rules are configured.
+     */
+    public static boolean isEnabled() {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        return cfg != null && cfg.getTraceSamplingRules() != null && !cfg.getTraceSamplingRules().trim().isEmpty();
+    }
+
+    /**
+     * Returns the sampling decision of a run, taking it if it was not taken yet.
+     * @param run - the run
+     * @param buildData - the data of the run
+     * @param traceId - the trace id of the run
+     * @param result - the result of the run
+     * @param durationMillis - the duration of the run
+     * @return the sampling decision.
+     */
+    public Decision decide(final Run<?, ?> run, final BuildData buildData, final long traceId,
+                           final String result, final long durationMillis) {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        final String rules = cfg != null ? cfg.getTraceSamplingRules() : null;
+        if(rules == null || rules.trim().isEmpty()) {
+            return Decision.KEEP_UNMATCHED;
+        }
+
+        final TraceDataStore.RunTraceData traceData = TraceDataStore.get().get(run);
+        if(traceData == null) {
+            // The run is no longer building and has no trace data to keep the decision in
+            return sample(cfg, rules, run, buildData, traceId, result, durationMillis);
+        }
+
+        synchronized (traceData) {
+            Decision decision = traceData.getSamplingDecision();
+            if(decision == null) {
+                decision = sample(cfg, rules, run, buildData, traceId, result, durationMillis);
+                traceData.setSamplingDecision(decision);
+            }
+            return decision;
+        }
+    }
+
+    private Decision sample(final DatadogGlobalConfiguration cfg, final String rules, final Run<?, ?> run, final BuildData buildData,
+                            final long traceId, final String result, final long durationMillis) {
+        final Integer slowThreshold = cfg.getTraceSamplingSlowThreshold();
+        final Decision decision = sample(rules, slowThreshold != null ? TimeUnit.SECONDS.toMillis(slowThreshold) : 0,
+                buildData.getJobName(""), result, durationMillis, traceId, System.currentTimeMillis());
+        PluginTelemetry.get().increment(PluginTelemetry.TRACES_SAMPLED, "decision:" + (decision.isKeep() ? "keep" : "drop"), "reason:" + decision.getReason());
+        logger.fine("Sampling decision of " + run + ": " + decision);
+        return decision;
+    }
+
+    Decision sample(final String samplingRules, final long slowThresholdMillis, final String jobName,
+                    final String result, final long durationMillis, final long traceId, final long nowMillis) {
+        Rules current = this.rules;
+        if(!current.matches(samplingRules)) {
+            current = new Rules(samplingRules);
+            this.rules = current;
+        }
+
+        final Rule rule = current.find(jobName);
+        if(rule == null) {
+            return Decision.KEEP_UNMATCHED;
+        }
+        if(result != null && !result.isEmpty() && !Result.SUCCESS.toString().equalsIgnoreCase(result)) {
+            return Decision.KEEP_NOT_SUCCESSFUL;
+        }
+        if(slowThresholdMillis > 0 && durationMillis >= slowThresholdMillis) {
+            return Decision.KEEP_SLOW;
+        }
+        if(!isSampled(traceId, rule.rate)) {
+            return Decision.drop("sampled", rule.rate);
+        }
+        if(rule.maxPerHour >= 0 && !rateLimiter(jobName, rule.maxPerHour).tryAcquire(nowMillis)) {
+            return Decision.drop("rate_limited", rule.rate);
+        }
+        return Decision.keep("sampled", AUTO_KEEP, rule.rate);
+    }
+
+    static boolean isSampled(final long traceId, final double rate) {
+        if(rate >= 1) {
+            return true;
+        }
+        if(rate <= 0) {
+            return false;
+        }
+        // The 53 most significant bits of the hash are uniformly distributed in [0, 1)
+        return ((traceId * KNUTH_FACTOR) >>> 11) / (double) (1L << 53) < rate;
+    }
+
+    private RateLimiter rateLimiter(final String jobName, final int maxPerHour) {
+        synchronized (rateLimitersByJob) {
+            RateLimiter rateLimiter = rateLimitersByJob.get(jobName);
+            if(rateLimiter == null || rateLimiter.maxPerHour != maxPerHour) {
+                rateLimiter = new RateLimiter(maxPerHour);
+                rateLimitersByJob.put(jobName, rateLimiter);
+            }
+            return rateLimiter;
+        }
+    }
+
+    public static final class Decision {
+        static final Decision KEEP_UNMATCHED = new Decision(true, "no_rule", AUTO_KEEP, -1);
+        static final Decision KEEP_NOT_SUCCESSFUL = new Decision(true, "result", USER_KEEP, -1);
+        static final Decision KEEP_SLOW = new Decision(true, "slow", USER_KEEP, -1);
+
+        private final boolean keep;
+        private final String reason;
+        private final double priority;
+        private final double ruleRate;
+
+        private Decision(boolean keep, String reason, double priority, double ruleRate) {
+            this.keep = keep;
+            this.reason = reason;
+            this.priority = priority;
+            this.ruleRate = ruleRate;
+        }
+
+        private static Decision keep(String reason, double priority, double ruleRate) {
+            return new Decision(true, reason, priority, ruleRate);
+        }
+
+        private static Decision drop(String reason, double ruleRate) {
+            return new Decision(false, reason, USER_DROP, ruleRate);
+        }
+
+        public boolean isKeep() {
+            return keep;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * @return the sampling priority of the trace.
+         */
+        public double getPriority() {
+            return priority;
+        }
+
+        /**
+         * @return the sample rate of the rule applied to the run, or -1 if no rate was applied.
+         */
+        public double getRuleRate() {
+            return ruleRate;
+        }
+
+        @Override
+        public String toString() {
+            return (keep ? "keep" : "drop") + " (" + reason + ")";
+        }
+    }
+
+    private static final class Rules {
+        private final String source;
+        private final List<Rule> rules;
+
+        private Rules(final String source) {
+            this.source = source;
+            this.rules = parse(source);
+        }
+
+        private boolean matches(final String source) {
+            return this.source == null ? source == null : this.source.equals(source);
+        }
+
+        private Rule find(final String jobName) {
+            for(final Rule rule : rules) {
+                if(rule.jobNamePattern.matcher(jobName).matches()) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+
+        private static List<Rule> parse(final String source) {
+            final List<Rule> rules = new ArrayList<>();
+            for(final String line : DatadogUtilities.linesToList(source)) {
+                final List<String> items = DatadogUtilities.cstrToList(line);
+                if(items.size() < 2) {
+                    logger.warning("Ignoring the trace sampling rule '" + line + "'. It must contain a job name regex and a percentage.");
+                    continue;
+                }
+                try {
+                    final Pattern jobNamePattern = Pattern.compile(items.get(0).trim());
+                    final double percentage = Double.parseDouble(items.get(1).trim());
+                    final int maxPerHour = items.size() > 2 ? Integer.parseInt(items.get(2).trim()) : -1;
+                    rules.add(new Rule(jobNamePattern, Math.min(Math.max(percentage, 0), 100) / 100, maxPerHour));
+                } catch (PatternSyntaxException | NumberFormatException e) {
+                    logger.warning("Ignoring the trace sampling rule '" + line + "': " + e.getMessage());
+                }
+            }
+            return Collections.unmodifiableList(rules);
+        }
+    }
+
+    private static final class Rule {
+        private final Pattern jobNamePattern;
+        private final double rate;
+        private final int maxPerHour;
+
+        private Rule(Pattern jobNamePattern, double rate, int maxPerHour) {
+            this.jobNamePattern = jobNamePattern;
+            this.rate = rate;
+            this.maxPerHour = maxPerHour;
+        }
+    }
+
+    /**
+     * Token bucket allowing up to maxPerHour runs per hour, and bursts of maxPerHour runs.
+     */
+    private static final class RateLimiter {
+        private final int maxPerHour;
+        private double tokens;
+        private long updateMillis = -1;
+
+        private RateLimiter(int maxPerHour) {
+            this.maxPerHour = maxPerHour;
+            this.tokens = maxPerHour;
+        }
+
+        private synchronized boolean tryAcquire(final long nowMillis) {
+            if(updateMillis >= 0 && nowMillis > updateMillis) {
+                tokens = Math.min(maxPerHour, tokens + (double) maxPerHour * (nowMillis - updateMillis) / TimeUnit.HOURS.toMillis(1));
+            }
+            updateMillis = Math.max(updateMillis, nowMillis);
+            if(tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package org.datadog.jenkins.plugins.datadog.transport;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface HttpClient {
 
     void send(List<PayloadMessage> messages);
 
+    void send(Iterator<? extends PayloadMessage> messages);
+
     void stop();
 
     void close();
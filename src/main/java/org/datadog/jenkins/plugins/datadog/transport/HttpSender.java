@@ -2,7 +2,7 @@ package org.datadog.jenkins.plugins.datadog.transport;
 
 import static org.datadog.jenkins.plugins.datadog.DatadogUtilities.getHttpURLConnection;
 
-import org.datadog.jenkins.plugins.datadog.util.SuppressFBWarnings;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -10,32 +10,56 @@ import java.net.HttpURLConnection;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 public class HttpSender implements Runnable {
 
     private static final Logger logger = Logger.getLogger(HttpSender.class.getName());
 
+    // Only the traces are sent through this transport.
+    private static final String ROUTE_TAG = "route:traces";
+
     private final BlockingQueue<HttpMessage> queue;
     private final HttpErrorHandler errorHandler;
     private final int httpTimeoutMs;
+    private final long enqueueTimeoutMs;
+    // Bytes queued or being sent.
+    private final AtomicLong bytesInFlight = new AtomicLong();
 
     private volatile boolean shutdown;
 
-    HttpSender(final int queueSize, final HttpErrorHandler errorHandler, final int httpTimeoutMs) {
-        this(new LinkedBlockingQueue<HttpMessage>(queueSize), errorHandler, httpTimeoutMs);
+    HttpSender(final int queueSize, final HttpErrorHandler errorHandler, final int httpTimeoutMs, final long enqueueTimeoutMs) {
+        this(new LinkedBlockingQueue<HttpMessage>(queueSize), errorHandler, httpTimeoutMs, enqueueTimeoutMs);
     }
 
-    HttpSender(final BlockingQueue<HttpMessage> queue, final HttpErrorHandler errorHandler, final int httpTimeoutMs) {
+    HttpSender(final BlockingQueue<HttpMessage> queue, final HttpErrorHandler errorHandler, final int httpTimeoutMs, final long enqueueTimeoutMs) {
         this.queue = queue;
         this.errorHandler = errorHandler;
         this.httpTimeoutMs = httpTimeoutMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        PluginTelemetry.get().registerGauge(PluginTelemetry.TRANSPORT_QUEUE_DEPTH, queue::size, ROUTE_TAG);
+        PluginTelemetry.get().registerGauge(PluginTelemetry.TRANSPORT_BYTES_IN_FLIGHT, bytesInFlight::get, ROUTE_TAG);
     }
 
-    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    /**
+     * Queues the message, waiting for room in the queue when the consumer falls behind,
+     * so the producers are slowed down instead of piling up payloads in memory.
+     * The message is dropped if there is still no room after the enqueue timeout.
+     */
     boolean send(final HttpMessage message){
         if(!shutdown){
-            queue.offer(message);
+            boolean queued = false;
+            try {
+                queued = queue.offer(message, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if(queued) {
+                bytesInFlight.addAndGet(payloadLength(message));
+            } else {
+                PluginTelemetry.get().increment(PluginTelemetry.PAYLOADS_DROPPED, ROUTE_TAG);
+            }
             return true;
         }
         return false;
@@ -65,6 +89,8 @@ public class HttpSender implements Runnable {
     }
 
     protected void blockingSend(HttpMessage message) {
+        final long start = System.nanoTime();
+        boolean sent = false;
         HttpURLConnection conn = null;
         try {
             conn = getHttpURLConnection(message.getURL(), httpTimeoutMs);
@@ -82,6 +108,8 @@ public class HttpSender implements Runnable {
             logger.fine("HTTP/"+message.getMethod()+" " + message.getURL() + " ["+payload.length+" bytes] --> HTTP " + httpStatus);
             if(httpStatus >= 400) {
                 logger.severe("Failed to send HTTP request: "+message.getMethod()+" "+ message.getURL()+ " - Status: HTTP "+httpStatus);
+            } else {
+                sent = true;
             }
         } catch (Exception ex) {
             errorHandler.handle(ex);
@@ -96,10 +124,19 @@ public class HttpSender implements Runnable {
             if(conn != null) {
                 conn.disconnect();
             }
+            bytesInFlight.addAndGet(-payloadLength(message));
+            final PluginTelemetry telemetry = PluginTelemetry.get();
+            telemetry.record(PluginTelemetry.TRANSPORT_SEND_DURATION, System.nanoTime() - start, ROUTE_TAG);
+            telemetry.increment(sent ? PluginTelemetry.PAYLOADS_SENT : PluginTelemetry.PAYLOADS_FAILED, ROUTE_TAG);
         }
     }
 
 
+    private static int payloadLength(final HttpMessage message) {
+        final byte[] payload = message.getPayload();
+        return payload != null ? payload.length : 0;
+    }
+
 
     void shutdown() {
         shutdown = true;
@@ -3,6 +3,7 @@ package org.datadog.jenkins.plugins.datadog.transport;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -14,6 +15,8 @@ import java.util.logging.Logger;
 public class NonBlockingHttpClient implements HttpClient {
 
     private static final int DEFAULT_TIMEOUT_MS = 10 * 1000;
+    private static final int DEFAULT_QUEUE_SIZE = 16;
+    private static final int DEFAULT_ENQUEUE_TIMEOUT_MS = 10 * 1000;
     private static final int SIZE_SPANS_SEND_BUFFER = 100;
 
     private static final Logger logger = Logger.getLogger(NonBlockingHttpClient.class.getName());
@@ -37,11 +40,12 @@ public class NonBlockingHttpClient implements HttpClient {
     });
 
     private NonBlockingHttpClient(final Builder builder) {
-        final int queueSize = builder.queueSize != null ? builder.queueSize : Integer.MAX_VALUE;
+        final int queueSize = builder.queueSize != null ? builder.queueSize : DEFAULT_QUEUE_SIZE;
         final int httpTimeoutMs = builder.httpTimeoutMs != null ? builder.httpTimeoutMs : DEFAULT_TIMEOUT_MS;
+        final int enqueueTimeoutMs = builder.enqueueTimeoutMs != null ? builder.enqueueTimeoutMs : DEFAULT_ENQUEUE_TIMEOUT_MS;
         this.errorHandler = builder.errorHandler != null ? builder.errorHandler : NO_OP_HANDLER;
         this.messageFactoryByType = builder.messageFactoryByType;
-        this.sender = createSender(queueSize, errorHandler, httpTimeoutMs);
+        this.sender = createSender(queueSize, errorHandler, httpTimeoutMs, enqueueTimeoutMs);
         executor.submit(sender);
 
         if(this.messageFactoryByType != null) {
@@ -55,25 +59,33 @@ public class NonBlockingHttpClient implements HttpClient {
         return new Builder();
     }
 
-    private HttpSender createSender(final int queueSize, final HttpErrorHandler errorHandler, final int httpTimeoutMs) {
-        return new HttpSender(queueSize, errorHandler, httpTimeoutMs);
+    private HttpSender createSender(final int queueSize, final HttpErrorHandler errorHandler, final int httpTimeoutMs, final int enqueueTimeoutMs) {
+        return new HttpSender(queueSize, errorHandler, httpTimeoutMs, enqueueTimeoutMs);
     }
 
     public void send(List<PayloadMessage> messages) {
-        if(messages != null && !messages.isEmpty()) {
-            final List<PayloadMessage> spanSendBuffer = new ArrayList<>(SIZE_SPANS_SEND_BUFFER);
-            for(int i = 0; i < messages.size(); i++) {
-                spanSendBuffer.add(messages.get(i));
-
-                // Send every 100 spans or the last one.
-                if(spanSendBuffer.size() == SIZE_SPANS_SEND_BUFFER || i == (messages.size() - 1)) {
-                    final List<PayloadMessage> buffer = Collections.unmodifiableList(spanSendBuffer);
-                    // We assume all payload messages belong to the same message type for now.
-                    final PayloadMessage.Type type = buffer.get(0).getMessageType();
-                    final HttpMessage message = this.messageFactoryByType.get(type).create(buffer);
-                    this.sender.send(message);
-                    spanSendBuffer.clear();
-                }
+        if(messages != null) {
+            send(messages.iterator());
+        }
+    }
+
+    /**
+     * Consumes the messages as they are needed, so the caller can build them lazily.
+     * Since the queue of the sender is bounded, at most a few buffers are held in memory.
+     */
+    public void send(Iterator<? extends PayloadMessage> messages) {
+        final List<PayloadMessage> spanSendBuffer = new ArrayList<>(SIZE_SPANS_SEND_BUFFER);
+        while(messages.hasNext()) {
+            spanSendBuffer.add(messages.next());
+
+            // Send every 100 spans or the last one.
+            if(spanSendBuffer.size() == SIZE_SPANS_SEND_BUFFER || !messages.hasNext()) {
+                final List<PayloadMessage> buffer = Collections.unmodifiableList(spanSendBuffer);
+                // We assume all payload messages belong to the same message type for now.
+                final PayloadMessage.Type type = buffer.get(0).getMessageType();
+                final HttpMessage message = this.messageFactoryByType.get(type).create(buffer);
+                this.sender.send(message);
+                spanSendBuffer.clear();
             }
         }
     }
@@ -109,6 +121,7 @@ public class NonBlockingHttpClient implements HttpClient {
         private HttpErrorHandler errorHandler;
         private Integer queueSize;
         private Integer httpTimeoutMs;
+        private Integer enqueueTimeoutMs;
         private Map<PayloadMessage.Type, HttpMessageFactory> messageFactoryByType = new HashMap<>();
 
         public Builder errorHandler(final HttpErrorHandler errorHandler) {
@@ -131,6 +144,11 @@ public class NonBlockingHttpClient implements HttpClient {
             return this;
         }
 
+        public Builder enqueueTimeoutMs(final int enqueueTimeoutMs) {
+            this.enqueueTimeoutMs = enqueueTimeoutMs;
+            return this;
+        }
+
         public NonBlockingHttpClient build() {
             return new NonBlockingHttpClient(this);
         }
@@ -0,0 +1,323 @@
+package org.datadog.jenkins.plugins.datadog.transport;
+
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import jnr.unixsocket.UnixSocketOptions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal HTTP/1.1 client connection over a Unix Domain Socket, so the Datadog Agent can be reached
+ * without the network stack when it runs on the same host.
+ *
+ * The JDK cannot open Unix Domain Sockets before Java 16, so the URLs built by {@link #buildURL(String, String)}
+ * open this connection instead of the JDK one. The request is sent when the response is first read, with
+ * "Connection: close", and the response is read fully before it is returned.
+ */
+public class UnixSocketHttpURLConnection extends HttpURLConnection {
+
+    private static final String HOST = "localhost";
+    private static final int MAX_HEADER_LINE_LENGTH = 8 * 1024;
+
+    /**
+     * Opens the channel the HTTP requests are sent through.
+     */
+    public interface Connector {
+        /**
+         * @param writeTimeoutMs - the timeout of the writes, 0 for none
+         * @param readTimeoutMs - the timeout of the reads, 0 for none
+         * @return the channel of the connection.
+         * @throws IOException if the connection fails
+         */
+        ByteChannel connect(int writeTimeoutMs, int readTimeoutMs) throws IOException;
+    }
+
+    private final Connector connector;
+    private final Map<String, String> requestProperties = new LinkedHashMap<>();
+    private ByteArrayOutputStream requestBody;
+    private final List<String[]> responseHeaders = new ArrayList<>();
+    private byte[] responseBody;
+
+    UnixSocketHttpURLConnection(final URL url, final Connector connector) {
+        super(url);
+        this.connector = connector;
+    }
+
+    /**
+     * @param socketPath - the path of the Unix Domain Socket
+     * @param path - the path of the HTTP resource
+     * @return an HTTP URL opening its connections through the socket.
+     * @throws MalformedURLException if the path is not valid
+     */
+    public static URL buildURL(final String socketPath, final String path) throws MalformedURLException {
+        return buildURL(unixSocketConnector(socketPath), path);
+    }
+
+    static URL buildURL(final Connector connector, final String path) throws MalformedURLException {
+        return new URL("http", HOST, -1, path, new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(final URL u) {
+                return new UnixSocketHttpURLConnection(u, connector);
+            }
+
+            @Override
+            protected URLConnection openConnection(final URL u, final Proxy p) {
+                // There is no proxy for a local socket
+                return openConnection(u);
+            }
+        });
+    }
+
+    private static Connector unixSocketConnector(final String socketPath) {
+        return (writeTimeoutMs, readTimeoutMs) -> {
+            final UnixSocketChannel channel = UnixSocketChannel.open(new UnixSocketAddress(socketPath));
+            if(writeTimeoutMs > 0) {
+                channel.setOption(UnixSocketOptions.SO_SNDTIMEO, writeTimeoutMs);
+            }
+            if(readTimeoutMs > 0) {
+                channel.setOption(UnixSocketOptions.SO_RCVTIMEO, readTimeoutMs);
+            }
+            return channel;
+        };
+    }
+
+    @Override
+    public void setRequestProperty(final String key, final String value) {
+        requestProperties.put(key, value);
+    }
+
+    @Override
+    public void addRequestProperty(final String key, final String value) {
+        requestProperties.put(key, value);
+    }
+
+    @Override
+    public String getRequestProperty(final String key) {
+        return requestProperties.get(key);
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if(!getDoOutput()) {
+            throw new IOException("The connection does not allow output, see setDoOutput");
+        }
+        if(connected) {
+            throw new IOException("The request has already been sent");
+        }
+        if(requestBody == null) {
+            requestBody = new ByteArrayOutputStream();
+        }
+        return requestBody;
+    }
+
+    @Override
+    public void connect() throws IOException {
+        if(connected) {
+            return;
+        }
+        // A local socket connects at once, the connect timeout bounds the writes of the request instead
+        try (ByteChannel channel = connector.connect(getConnectTimeout(), getReadTimeout())) {
+            final byte[] body = requestBody != null ? requestBody.toByteArray() : null;
+            final StringBuilder request = new StringBuilder();
+            request.append(method).append(' ').append(url.getFile().isEmpty() ? "/" : url.getFile()).append(" HTTP/1.1\r\n");
+            request.append("Host: ").append(HOST).append("\r\n");
+            request.append("Connection: close\r\n");
+            for(Map.Entry<String, String> property : requestProperties.entrySet()) {
+                request.append(property.getKey()).append(": ").append(property.getValue()).append("\r\n");
+            }
+            if(body != null) {
+                request.append("Content-Length: ").append(body.length).append("\r\n");
+            }
+            request.append("\r\n");
+
+            final OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            out.write(request.toString().getBytes(StandardCharsets.ISO_8859_1));
+            if(body != null) {
+                out.write(body);
+            }
+            out.flush();
+
+            readResponse(new BufferedInputStream(Channels.newInputStream(channel)));
+            connected = true;
+        }
+    }
+
+    private void readResponse(final InputStream in) throws IOException {
+        final String statusLine = readLine(in);
+        final String[] status = statusLine != null ? statusLine.split(" ", 3) : new String[0];
+        if(status.length < 2 || !status[0].startsWith("HTTP/")) {
+            throw new IOException("Invalid HTTP response: " + statusLine);
+        }
+        try {
+            responseCode = Integer.parseInt(status[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP response: " + statusLine);
+        }
+        responseMessage = status.length > 2 ? status[2] : "";
+        responseHeaders.add(new String[]{null, statusLine});
+
+        String line;
+        while((line = readLine(in)) != null && !line.isEmpty()) {
+            final int colon = line.indexOf(':');
+            if(colon > 0) {
+                responseHeaders.add(new String[]{line.substring(0, colon).trim(), line.substring(colon + 1).trim()});
+            }
+        }
+
+        final String transferEncoding = getHeaderField("Transfer-Encoding");
+        final String contentLength = getHeaderField("Content-Length");
+        if(transferEncoding != null && transferEncoding.toLowerCase().contains("chunked")) {
+            responseBody = readChunked(in);
+        } else if(contentLength != null) {
+            responseBody = readFully(in, Integer.parseInt(contentLength));
+        } else {
+            // "Connection: close", the body ends with the stream
+            responseBody = readFully(in, -1);
+        }
+    }
+
+    private static byte[] readChunked(final InputStream in) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while(true) {
+            final String sizeLine = readLine(in);
+            if(sizeLine == null) {
+                throw new IOException("Unexpected end of a chunked HTTP response");
+            }
+            final int extension = sizeLine.indexOf(';');
+            final int size = Integer.parseInt((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+            if(size == 0) {
+                // The trailers are ignored
+                String trailer;
+                do {
+                    trailer = readLine(in);
+                } while(trailer != null && !trailer.isEmpty());
+                return body.toByteArray();
+            }
+            body.write(readFully(in, size));
+            readLine(in);
+        }
+    }
+
+    private static byte[] readFully(final InputStream in, final int length) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 ? length : 256);
+        final byte[] buffer = new byte[8192];
+        int remaining = length;
+        while(length < 0 || remaining > 0) {
+            final int read = in.read(buffer, 0, length < 0 ? buffer.length : Math.min(buffer.length, remaining));
+            if(read < 0) {
+                if(length >= 0) {
+                    throw new IOException("Unexpected end of the HTTP response");
+                }
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        return out.toByteArray();
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while((c = in.read()) != -1) {
+            if(c == '\n') {
+                final int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            if(line.length() >= MAX_HEADER_LINE_LENGTH) {
+                throw new IOException("HTTP response line too long");
+            }
+            line.append((char) c);
+        }
+        return line.length() > 0 ? line.toString() : null;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        connect();
+        return responseCode;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        connect();
+        if(responseCode >= 400) {
+            // Same as the JDK connection, the body of the errors is read with getErrorStream
+            if(responseCode == HTTP_NOT_FOUND || responseCode == HTTP_GONE) {
+                throw new FileNotFoundException(url.toString());
+            }
+            throw new IOException("Server returned HTTP response code: " + responseCode + " for URL: " + url);
+        }
+        return new ByteArrayInputStream(responseBody);
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return connected && responseCode >= 400 ? new ByteArrayInputStream(responseBody) : null;
+    }
+
+    @Override
+    public String getHeaderField(final String name) {
+        for(int i = responseHeaders.size() - 1; i > 0; i--) {
+            if(responseHeaders.get(i)[0].equalsIgnoreCase(name)) {
+                return responseHeaders.get(i)[1];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getHeaderFieldKey(final int n) {
+        return n >= 0 && n < responseHeaders.size() ? responseHeaders.get(n)[0] : null;
+    }
+
+    @Override
+    public String getHeaderField(final int n) {
+        return n >= 0 && n < responseHeaders.size() ? responseHeaders.get(n)[1] : null;
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        final Map<String, List<String>> fields = new LinkedHashMap<>();
+        for(String[] header : responseHeaders) {
+            List<String> values = fields.get(header[0]);
+            if(values == null) {
+                values = new ArrayList<>();
+                fields.put(header[0], values);
+            }
+            values.add(header[1]);
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+
+    @Override
+    public void disconnect() {
+        // The socket is closed as soon as the response is read.
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return false;
+    }
+}
@@ -0,0 +1,279 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reduces the volume of the node (computer) lifecycle events.
+ * Cloud agents (e.g. Kubernetes or EC2) usually live for a single build, so sending an event
+ * for every transition of every agent floods the event stream.
+ *
+ * Every computer has a state machine with flap damping: each state change adds a penalty
+ * that decays exponentially (its half-life is the summary window), and a computer whose penalty
+ * goes over {@link #SUPPRESS_PENALTY} is flapping until it decays under {@link #REUSE_PENALTY}.
+ *
+ * The transitions are grouped by (transition, label) in windows. The first transition of a window
+ * is sent as a full event, unless the computer is flapping or the transition does not change
+ * its state. The others are only counted, and are submitted by {@link #expire(long)} as a single
+ * summary event when the window ends.
+ */
+public class ComputerEventAggregator {
+
+    static final double PENALTY = 1000;
+    static final double SUPPRESS_PENALTY = 2500;
+    static final double REUSE_PENALTY = 750;
+    // States with a lower penalty carry no history, so they are removed
+    static final double IDLE_PENALTY = PENALTY / 8;
+    public static final int MAX_NODE_NAMES = 10;
+
+    private static final ComputerEventAggregator INSTANCE = new ComputerEventAggregator();
+
+    private final Map<String, ComputerState> states = new HashMap<>();
+    private final Map<String, Summary> summaries = new HashMap<>();
+    private final List<Summary> ended = new ArrayList<>();
+
+    ComputerEventAggregator() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:computer_events");
+    }
+
+    public static ComputerEventAggregator get() {
+        return INSTANCE;
+    }
+
+    public enum Transition {
+        ONLINE("came online", State.ONLINE),
+        OFFLINE("went offline", State.OFFLINE),
+        TEMPORARILY_ONLINE("came temporarily online", State.ONLINE),
+        TEMPORARILY_OFFLINE("went temporarily offline", State.TEMPORARILY_OFFLINE),
+        LAUNCH_FAILURE("failed to launch", State.OFFLINE);
+
+        private final String description;
+        private final State state;
+
+        Transition(String description, State state) {
+            this.description = description;
+            this.state = state;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private enum State {
+        UNKNOWN, ONLINE, OFFLINE, TEMPORARILY_OFFLINE
+    }
+
+    /**
+     * Records a transition of a computer.
+     * @param computerName - the name of the computer
+     * @param label - the labels of the computer, used to group the transitions
+     * @param transition - the transition
+     * @param tags - the tags of the summary, if the transition opens a window
+     * @param nowMillis - the current time
+     * @param windowMillis - the duration of the window
+     * @return true if the transition must be sent as a full event, false if it is summarized.
+     */
+    public synchronized boolean record(final String computerName, final String label, final Transition transition,
+                                       final Map<String, Set<String>> tags, final long nowMillis, final long windowMillis) {
+        ComputerState state = states.get(computerName);
+        if (state == null) {
+            state = new ComputerState();
+            states.put(computerName, state);
+        }
+        final boolean changed = state.update(transition, nowMillis, windowMillis);
+
+        final String key = transition.name() + "\n" + label;
+        Summary summary = summaries.get(key);
+        if (summary != null && !summary.isOpen(nowMillis)) {
+            summaries.remove(key);
+            if (summary.getCount() > 0) {
+                ended.add(summary);
+            }
+            summary = null;
+        }
+
+        if (summary == null) {
+            summary = new Summary(transition, label, tags, nowMillis, windowMillis);
+            summaries.put(key, summary);
+            if (changed && !state.flapping) {
+                summary.sent++;
+                return true;
+            }
+        }
+        summary.add(computerName, state.flapping);
+        return false;
+    }
+
+    /**
+     * Removes the windows that ended, and the computers without flapping history.
+     * @param nowMillis - the current time
+     * @return the ended windows with summarized transitions.
+     */
+    public synchronized List<Summary> expire(final long nowMillis) {
+        final List<Summary> expired = new ArrayList<>(ended);
+        ended.clear();
+        for (Iterator<Summary> it = summaries.values().iterator(); it.hasNext(); ) {
+            final Summary summary = it.next();
+            if (!summary.isOpen(nowMillis)) {
+                it.remove();
+                if (summary.getCount() > 0) {
+                    expired.add(summary);
+                }
+            }
+        }
+        for (Iterator<ComputerState> it = states.values().iterator(); it.hasNext(); ) {
+            if (it.next().isIdle(nowMillis)) {
+                it.remove();
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return states.size() + summaries.size();
+    }
+
+    public synchronized void clear() {
+        states.clear();
+        summaries.clear();
+        ended.clear();
+    }
+
+    private static class ComputerState {
+        private State state = State.UNKNOWN;
+        private double penalty;
+        private long updateMillis;
+        private long halfLifeMillis;
+        private boolean flapping;
+
+        /**
+         * @return true if the transition changes the state of the computer.
+         */
+        private boolean update(final Transition transition, final long nowMillis, final long windowMillis) {
+            decay(nowMillis);
+            halfLifeMillis = windowMillis;
+
+            // A launch failure is reported every time the agent is retried
+            final boolean changed = state != transition.state || transition == Transition.LAUNCH_FAILURE;
+            state = transition.state;
+            if (changed) {
+                penalty += PENALTY;
+                if (penalty >= SUPPRESS_PENALTY) {
+                    flapping = true;
+                }
+            }
+            return changed;
+        }
+
+        private void decay(final long nowMillis) {
+            if (halfLifeMillis > 0 && nowMillis > updateMillis) {
+                penalty *= Math.pow(0.5, (double) (nowMillis - updateMillis) / halfLifeMillis);
+            }
+            updateMillis = nowMillis;
+            if (penalty < REUSE_PENALTY) {
+                flapping = false;
+            }
+        }
+
+        private boolean isIdle(final long nowMillis) {
+            decay(nowMillis);
+            return !flapping && penalty < IDLE_PENALTY;
+        }
+    }
+
+    public static final class Summary {
+        private final Transition transition;
+        private final String label;
+        private final Map<String, Set<String>> tags;
+        private final long startMillis;
+        private final long windowMillis;
+        private final Set<String> nodeNames = new LinkedHashSet<>();
+        private final Set<String> flappingNodeNames = new LinkedHashSet<>();
+        private int sent;
+        private int count;
+        private boolean truncated;
+
+        private Summary(Transition transition, String label, Map<String, Set<String>> tags,
+                        long startMillis, long windowMillis) {
+            this.transition = transition;
+            this.label = label;
+            this.tags = tags;
+            this.startMillis = startMillis;
+            this.windowMillis = windowMillis;
+        }
+
+        private boolean isOpen(final long nowMillis) {
+            return nowMillis - startMillis < windowMillis;
+        }
+
+        private void add(final String computerName, final boolean flapping) {
+            count++;
+            final Set<String> names = flapping ? flappingNodeNames : nodeNames;
+            if (names.size() < MAX_NODE_NAMES) {
+                names.add(computerName);
+            } else if (!names.contains(computerName)) {
+                truncated = true;
+            }
+        }
+
+        public Transition getTransition() {
+            return transition;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Map<String, Set<String>> getTags() {
+            return tags;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        /**
+         * @return the summarized transitions, not sent as full events.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return the transitions of the window sent as full events.
+         */
+        public int getSent() {
+            return sent;
+        }
+
+        /**
+         * @return up to {@link #MAX_NODE_NAMES} of the summarized computers that were not flapping.
+         */
+        public Set<String> getNodeNames() {
+            return Collections.unmodifiableSet(nodeNames);
+        }
+
+        /**
+         * @return up to {@link #MAX_NODE_NAMES} of the summarized computers that were flapping.
+         */
+        public Set<String> getFlappingNodeNames() {
+            return Collections.unmodifiableSet(flappingNodeNames);
+        }
+
+        /**
+         * @return true if some of the summarized computers are not in the node names.
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import hudson.model.Computer;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the tags of every computer (node name, hostname and labels), so they are not
+ * calculated every time node metrics or events are submitted.
+ * Obtaining the hostname requires a call to the agent.
+ *
+ * The tags of a computer are invalidated by the {@code DatadogComputerListener}
+ * when the computer gets online, and all of them when the node configuration changes.
+ */
+public class ComputerTagsCache {
+
+    private static final ComputerTagsCache INSTANCE = new ComputerTagsCache();
+
+    private final ConcurrentMap<String, Map<String, Set<String>>> tagsByComputer = new ConcurrentHashMap<>();
+
+    private ComputerTagsCache() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:computer_tags");
+    }
+
+    public static ComputerTagsCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param computer the computer
+     * @return a copy of the tags of the computer, which can be modified by the caller.
+     */
+    public Map<String, Set<String>> getTags(final Computer computer) {
+        final String computerName = DatadogUtilities.getNodeName(computer);
+        if(computerName == null) {
+            return DatadogUtilities.getComputerTags(computer);
+        }
+
+        Map<String, Set<String>> tags = tagsByComputer.get(computerName);
+        PluginTelemetry.get().increment(tags != null ? PluginTelemetry.CACHE_HITS : PluginTelemetry.CACHE_MISSES, "cache:computer_tags");
+        if(tags == null) {
+            tags = DatadogUtilities.getComputerTags(computer);
+            tagsByComputer.put(computerName, tags);
+        }
+        return copy(tags);
+    }
+
+    public void invalidate(final Computer computer) {
+        final String computerName = DatadogUtilities.getNodeName(computer);
+        if(computerName != null) {
+            tagsByComputer.remove(computerName);
+        }
+    }
+
+    /**
+     * Removes the tags of the computers that are not in the provided list (e.g. removed cloud agents).
+     * @param computerNames the names of the existing computers.
+     */
+    public void retain(final Set<String> computerNames) {
+        tagsByComputer.keySet().retainAll(computerNames);
+    }
+
+    public void clear() {
+        tagsByComputer.clear();
+    }
+
+    public int size() {
+        return tagsByComputer.size();
+    }
+
+    private static Map<String, Set<String>> copy(final Map<String, Set<String>> tags) {
+        final Map<String, Set<String>> copy = new HashMap<>();
+        for(Map.Entry<String, Set<String>> entry : tags.entrySet()) {
+            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,131 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import hudson.PluginManager;
+import hudson.PluginWrapper;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Project;
+import hudson.model.UpdateCenter;
+import hudson.model.UpdateSite;
+import jenkins.model.Jenkins;
+import org.datadog.jenkins.plugins.datadog.model.PluginData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the number of projects and the plugin inventory reported by the {@code DatadogJenkinsPublisher},
+ * so they are not recalculated every minute.
+ *
+ * The project count is updated by the {@code DatadogItemListener} as items are created, copied and deleted,
+ * and reconciled with a full walk of the item tree every {@link #RECONCILE_PERIOD}, or sooner if a folder
+ * was created or deleted (its children do not always fire their own events).
+ *
+ * The plugin inventory is only recalculated when the plugin manager state changes: the number of
+ * installed or failed plugins, or the update site data used to find the plugins with updates.
+ */
+public class JenkinsInventory {
+
+    private static final Logger logger = Logger.getLogger(JenkinsInventory.class.getName());
+
+    static final long RECONCILE_PERIOD = TimeUnit.MINUTES.toMillis(30);
+
+    private static final JenkinsInventory INSTANCE = new JenkinsInventory();
+
+    private final AtomicLong projectCount = new AtomicLong();
+    private volatile long lastReconcileMillis = 0;
+    private volatile boolean reconcileRequested = true;
+
+    private PluginData pluginData;
+    private String pluginFingerprint;
+
+    public static JenkinsInventory get() {
+        return INSTANCE;
+    }
+
+    public void onItemCreated(final Item item) {
+        if(item instanceof Project) {
+            projectCount.incrementAndGet();
+        } else if(item instanceof ItemGroup) {
+            reconcileRequested = true;
+        }
+    }
+
+    public void onItemDeleted(final Item item) {
+        if(item instanceof Project) {
+            projectCount.decrementAndGet();
+        } else if(item instanceof ItemGroup) {
+            reconcileRequested = true;
+        }
+    }
+
+    /**
+     * @param jenkins the Jenkins instance
+     * @return the number of projects, walking the item tree if a reconciliation is due.
+     */
+    public long getProjectCount(final Jenkins jenkins) {
+        final long now = System.currentTimeMillis();
+        if(reconcileRequested || now - lastReconcileMillis >= RECONCILE_PERIOD) {
+            reconcileRequested = false;
+            lastReconcileMillis = now;
+            final long count = jenkins.getAllItems(Project.class).size();
+            final long previous = projectCount.getAndSet(count);
+            if(previous != count) {
+                logger.fine("Reconciled project count from " + previous + " to " + count);
+            }
+        }
+        return projectCount.get();
+    }
+
+    /**
+     * @param jenkins the Jenkins instance
+     * @return the plugin inventory, recalculated only if the plugin manager state changed.
+     */
+    public synchronized PluginData getPluginData(final Jenkins jenkins) {
+        final PluginManager pluginManager = jenkins.getPluginManager();
+        final List<PluginWrapper> plugins = pluginManager.getPlugins();
+        final String fingerprint = pluginFingerprint(jenkins, pluginManager, plugins);
+        if(pluginData != null && fingerprint.equals(pluginFingerprint)) {
+            return pluginData;
+        }
+
+        final PluginData.Builder builder = PluginData.newBuilder();
+        builder.withCount(plugins.size())
+                .withFailed(pluginManager.getFailedPlugins().size());
+        for (PluginWrapper w : plugins) {
+            if (w.hasUpdate()) {
+                builder.incrementUpdatable();
+            }
+            if (w.isActive()) {
+                builder.incrementActive();
+            } else {
+                builder.incrementInactive();
+            }
+        }
+        pluginData = builder.build();
+        pluginFingerprint = fingerprint;
+        return pluginData;
+    }
+
+    public synchronized void clear() {
+        projectCount.set(0);
+        lastReconcileMillis = 0;
+        reconcileRequested = true;
+        pluginData = null;
+        pluginFingerprint = null;
+    }
+
+    private static String pluginFingerprint(final Jenkins jenkins, final PluginManager pluginManager, final List<PluginWrapper> plugins) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(plugins.size()).append('/').append(pluginManager.getFailedPlugins().size());
+        final UpdateCenter updateCenter = jenkins.getUpdateCenter();
+        if(updateCenter != null) {
+            for(UpdateSite site : updateCenter.getSites()) {
+                sb.append('/').append(site.getId()).append(':').append(site.getDataTimestamp());
+            }
+        }
+        return sb.toString();
+    }
+}
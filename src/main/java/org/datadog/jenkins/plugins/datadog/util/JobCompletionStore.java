@@ -0,0 +1,198 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a small record per job with the state needed to calculate the lead time, cycle time,
+ * MTTR and MTBF of a completed run, so they do not require walking the build history
+ * (which loads the build.xml of every older run that is not in memory).
+ *
+ * The record is updated every time a run of the job completes, and written to an XML file
+ * in the job directory, so it survives restarts and moves with the job if it is renamed.
+ * The writes of a job are serialized, and each one atomically replaces the file.
+ * If a job has no record yet (e.g. it was created before the plugin was upgraded), it is
+ * initialized from the build history once.
+ */
+public class JobCompletionStore {
+
+    private static final Logger logger = Logger.getLogger(JobCompletionStore.class.getName());
+
+    static final String FILE_NAME = "datadog-job-state.xml";
+
+    private static final JobCompletionStore INSTANCE = new JobCompletionStore();
+
+    private final ConcurrentMap<String, JobState> stateByJob = new ConcurrentHashMap<>();
+
+    private JobCompletionStore() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:job_completion");
+    }
+
+    public static JobCompletionStore get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the state of the job of a certain run as it was before the run completed.
+     * The caller must call {@link #complete(Run)} once it has calculated its metrics.
+     * @param run the completed run.
+     * @return the state of the job of the run.
+     */
+    public JobState forRun(final Run<?,?> run) {
+        final Job<?,?> job = run.getParent();
+        return stateByJob.computeIfAbsent(job.getFullName(), key -> {
+            JobState state = read(getFile(job));
+            if(state == null) {
+                state = JobState.fromHistory(run);
+            }
+            return state;
+        });
+    }
+
+    /**
+     * Updates the state of the job of a certain run with its result.
+     * @param run the completed run.
+     */
+    public void complete(final Run<?,?> run) {
+        final JobState state = forRun(run);
+        final long startTime = DatadogUtilities.getRunStartTimeInMillis(run);
+        synchronized (state) {
+            state.update(run.getResult(), startTime, startTime + run.getDuration());
+            write(getFile(run.getParent()), state);
+        }
+    }
+
+    public void clear() {
+        stateByJob.clear();
+    }
+
+    public int size() {
+        return stateByJob.size();
+    }
+
+    private static XmlFile getFile(final Job<?,?> job) {
+        try {
+            final File rootDir = job.getRootDir();
+            return rootDir != null ? new XmlFile(new File(rootDir, FILE_NAME)) : null;
+        } catch (Exception e) {
+            logger.fine("Unable to locate the state file of job '" + job.getFullName() + "': " + e);
+            return null;
+        }
+    }
+
+    private static JobState read(final XmlFile file) {
+        if(file == null || !file.exists()) {
+            return null;
+        }
+
+        try {
+            final Object state = file.read();
+            return state instanceof JobState ? (JobState) state : null;
+        } catch (IOException | RuntimeException e) {
+            logger.fine("Unable to read the job state file " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Must be called while holding the lock of the state, so the writes of a job are serialized.
+     */
+    private static void write(final XmlFile file, final JobState state) {
+        if(file == null || file.getFile().getParentFile() == null || !file.getFile().getParentFile().exists()) {
+            return;
+        }
+
+        try {
+            // Written to a temporary file first, which then replaces the previous one
+            file.write(state);
+        } catch (IOException e) {
+            DatadogUtilities.severe(logger, e, "Failed to write the job state file " + file);
+        }
+    }
+
+    /**
+     * State of a job, as of its last completed run. A value of -1 means there is no such run.
+     */
+    public static class JobState {
+        // Start time of the first not successful run after the last successful run.
+        private long failureStreakStartMillis = -1;
+        // End time of the last successful run.
+        private long lastSuccessEndMillis = -1;
+        // Start time of the last run whose result is not a failure.
+        private long lastNotFailedStartMillis = -1;
+
+        static JobState fromHistory(final Run<?,?> run) {
+            final JobState state = new JobState();
+            if(isNotSuccessful(run.getPreviousBuiltBuild())) {
+                Run<?, ?> firstFailedRun = run.getPreviousBuiltBuild();
+                while (firstFailedRun != null && isNotSuccessful(firstFailedRun.getPreviousBuiltBuild())) {
+                    firstFailedRun = firstFailedRun.getPreviousBuiltBuild();
+                }
+                if(firstFailedRun != null) {
+                    state.failureStreakStartMillis = DatadogUtilities.getRunStartTimeInMillis(firstFailedRun);
+                }
+            }
+
+            final Run<?, ?> previousSuccessfulBuild = run.getPreviousSuccessfulBuild();
+            if(previousSuccessfulBuild != null) {
+                state.lastSuccessEndMillis = DatadogUtilities.getRunStartTimeInMillis(previousSuccessfulBuild) + previousSuccessfulBuild.getDuration();
+            }
+
+            final Run<?, ?> lastGreenRun = run.getPreviousNotFailedBuild();
+            if(lastGreenRun != null) {
+                state.lastNotFailedStartMillis = DatadogUtilities.getRunStartTimeInMillis(lastGreenRun);
+            }
+            return state;
+        }
+
+        /**
+         * @param startTimeMillis the start time of a successful run
+         * @return the time since the start of the first failed run before it, or 0 if the previous run succeeded.
+         */
+        public synchronized long getMeanTimeToRecovery(final long startTimeMillis) {
+            return failureStreakStartMillis >= 0 ? startTimeMillis - failureStreakStartMillis : 0;
+        }
+
+        /**
+         * @param endTimeMillis the end time of a successful run
+         * @return the time since the end of the previous successful run, or 0 if there is none.
+         */
+        public synchronized long getCycleTime(final long endTimeMillis) {
+            return lastSuccessEndMillis >= 0 ? endTimeMillis - lastSuccessEndMillis : 0;
+        }
+
+        /**
+         * @param startTimeMillis the start time of a failed run
+         * @return the time since the start of the previous run that did not fail, or 0 if there is none.
+         */
+        public synchronized long getMeanTimeBetweenFailure(final long startTimeMillis) {
+            return lastNotFailedStartMillis >= 0 ? startTimeMillis - lastNotFailedStartMillis : 0;
+        }
+
+        synchronized void update(final Result result, final long startTimeMillis, final long endTimeMillis) {
+            if(result == Result.SUCCESS) {
+                failureStreakStartMillis = -1;
+                lastSuccessEndMillis = endTimeMillis;
+            } else if(failureStreakStartMillis < 0) {
+                failureStreakStartMillis = startTimeMillis;
+            }
+            if(result != Result.FAILURE) {
+                lastNotFailedStartMillis = startTimeMillis;
+            }
+        }
+
+        private static boolean isNotSuccessful(final Run<?, ?> run) {
+            return run != null && run.getResult() != Result.SUCCESS;
+        }
+    }
+}
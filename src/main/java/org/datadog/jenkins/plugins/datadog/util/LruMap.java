@@ -0,0 +1,24 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map evicting its least recently accessed entry when it holds more than a maximum number of entries.
+ * It is not thread-safe, the callers synchronize on it.
+ */
+public class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+    private final int maxEntries;
+
+    public LruMap(int maxEntries) {
+        super(16, 0.75f, true);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+    }
+}
@@ -0,0 +1,228 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import hudson.init.Terminator;
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.telemetry.Histogram;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs the work of the {@code DatadogGraphListener} out of the CPS VM thread of the pipelines,
+ * so a slow client or Git lookup does not stall the Groovy interpreter of the build.
+ * The build trace of a run is finished by a task too, so it is sent after the pipeline nodes of the run.
+ *
+ * The tasks of a run are executed serially, in submission order, on a small pool of daemon threads
+ * shared by all the runs. A worker executes up to {@link #MAX_TASKS_PER_TURN} tasks of a run before
+ * it hands over to the other runs. If too many tasks are pending, the submitting thread waits for the
+ * pending tasks of its run (up to {@link #BACKPRESSURE_TIMEOUT_MILLIS}) before queuing its task, so a run
+ * flooding the workers is slowed down. The task is queued even if the wait times out, so the tasks
+ * of a run are never executed out of order.
+ */
+public class RunSerialExecutor {
+
+    private static final Logger logger = Logger.getLogger(RunSerialExecutor.class.getName());
+
+    static final int MAX_PENDING_TASKS = 10000;
+    static final int MAX_TASKS_PER_TURN = 100;
+    private static final int WORKERS = 2;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long BACKPRESSURE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    // Only used for tests, to assert on the client right after the listener returns.
+    private static volatile boolean enableAsync = true;
+
+    private static final RunSerialExecutor INSTANCE = new RunSerialExecutor(WORKERS);
+
+    private final ExecutorService workers;
+    private final int maxPendingTasks;
+    private final long backpressureTimeoutMillis;
+    private final Map<String, RunQueue> queuesByRun = new HashMap<>();
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final Histogram lag;
+
+    RunSerialExecutor(final int workers) {
+        this(workers, MAX_PENDING_TASKS, BACKPRESSURE_TIMEOUT_MILLIS);
+    }
+
+    RunSerialExecutor(final int workers, final int maxPendingTasks, final long backpressureTimeoutMillis) {
+        this.maxPendingTasks = maxPendingTasks;
+        this.backpressureTimeoutMillis = backpressureTimeoutMillis;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            final Thread thread = new Thread(r, "datadog-graph-listener-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lag = PluginTelemetry.get().histogram(PluginTelemetry.GRAPH_LISTENER_LAG);
+        PluginTelemetry.get().registerGauge(PluginTelemetry.GRAPH_LISTENER_QUEUE_DEPTH, pendingTasks::get);
+    }
+
+    public static RunSerialExecutor get() {
+        return INSTANCE;
+    }
+
+    public static void setEnableAsync(final boolean enableAsync) {
+        // Only used for tests
+        RunSerialExecutor.enableAsync = enableAsync;
+    }
+
+    /**
+     * Executes a task after the tasks previously submitted for the same run.
+     * @param run - the run, or null to execute the task on the calling thread
+     * @param task - the task
+     */
+    public void submit(final Run<?, ?> run, final Runnable task) {
+        submit(run != null ? run.getExternalizableId() : null, task);
+    }
+
+    void submit(final String runKey, final Runnable task) {
+        if (!enableAsync || runKey == null || workers.isShutdown()) {
+            execute(task);
+            return;
+        }
+        if (pendingTasks.get() >= maxPendingTasks && !awaitIdle(runKey, backpressureTimeoutMillis)) {
+            logger.fine("Too many pending graph listener tasks, queuing the task of " + runKey + " over the limit");
+            PluginTelemetry.get().increment(PluginTelemetry.GRAPH_LISTENER_BACKPRESSURE_TIMEOUTS);
+        }
+
+        synchronized (queuesByRun) {
+            RunQueue queue = queuesByRun.get(runKey);
+            if (queue == null) {
+                queue = new RunQueue(runKey);
+                queuesByRun.put(runKey, queue);
+            }
+            queue.tasks.add(new Task(task, System.nanoTime()));
+            pendingTasks.incrementAndGet();
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                schedule(queue);
+            }
+        }
+    }
+
+    /**
+     * Waits until the tasks submitted for a run are executed.
+     * @param runKey - the externalizable id of the run
+     * @param timeoutMillis - the maximum time to wait
+     * @return true if there are no pending tasks for the run.
+     */
+    boolean awaitIdle(final String runKey, final long timeoutMillis) {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (queuesByRun) {
+            while (queuesByRun.containsKey(runKey)) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    queuesByRun.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of tasks waiting to be executed.
+     */
+    public int size() {
+        return pendingTasks.get();
+    }
+
+    private void schedule(final RunQueue queue) {
+        try {
+            workers.execute(() -> drain(queue));
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the tasks are executed on the calling thread.
+            drain(queue);
+        }
+    }
+
+    private void drain(final RunQueue queue) {
+        for (int executed = 0; ; executed++) {
+            final Task task;
+            synchronized (queuesByRun) {
+                task = queue.tasks.poll();
+                if (task == null) {
+                    queue.scheduled = false;
+                    queuesByRun.remove(queue.runKey);
+                    queuesByRun.notifyAll();
+                    return;
+                }
+                if (executed == MAX_TASKS_PER_TURN) {
+                    // Let the workers execute the tasks of the other runs.
+                    queue.tasks.addFirst(task);
+                    schedule(queue);
+                    return;
+                }
+            }
+            lag.record(System.nanoTime() - task.submitNanos);
+            try {
+                execute(task.runnable);
+            } finally {
+                pendingTasks.decrementAndGet();
+            }
+        }
+    }
+
+    private static void execute(final Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to execute a graph listener task");
+        }
+    }
+
+    /**
+     * Executes the pending tasks before Jenkins stops.
+     */
+    @Terminator
+    public static void stop() {
+        INSTANCE.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    void shutdown(final long timeoutMillis) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warning("Dropping " + pendingTasks.get() + " graph listener tasks that could not be executed before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RunQueue {
+        private final String runKey;
+        private final Deque<Task> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+
+        private RunQueue(final String runKey) {
+            this.runKey = runKey;
+        }
+    }
+
+    private static final class Task {
+        private final Runnable runnable;
+        private final long submitNanos;
+
+        private Task(final Runnable runnable, final long submitNanos) {
+            this.runnable = runnable;
+            this.submitNanos = submitNanos;
+        }
+    }
+}
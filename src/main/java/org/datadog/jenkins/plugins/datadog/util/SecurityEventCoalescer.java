@@ -0,0 +1,189 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces the security events (authentication, access denied, logout) of a user.
+ * API token clients authenticate on every REST call, so sending all of them would produce
+ * hundreds of events per second.
+ *
+ * The first occurrence of an (action, user) pair opens a window, and is sent as a full event.
+ * The following occurrences in the window are only counted, and are submitted by
+ * {@link #expire(long)} as a single summary event and counter increment when the window ends.
+ */
+public class SecurityEventCoalescer {
+
+    private static final SecurityEventCoalescer INSTANCE = new SecurityEventCoalescer();
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    // Ended windows replaced by open() before expire() removed them
+    private final Queue<Window> replaced = new ConcurrentLinkedQueue<>();
+
+    SecurityEventCoalescer() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, windows::size, "cache:security_events");
+    }
+
+    public static SecurityEventCoalescer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Counts an occurrence in the open window of the (action, user) pair, if any.
+     * @param action - the security action
+     * @param username - the user
+     * @param nowMillis - the current time
+     * @return true if the occurrence was coalesced, false if it must be sent as a full event
+     * and a window opened with {@link #open}.
+     */
+    public boolean coalesce(final String action, final String username, final long nowMillis) {
+        final Window window = windows.get(key(action, username));
+        return window != null && window.increment(nowMillis);
+    }
+
+    /**
+     * Opens a window for the (action, user) pair after sending its first occurrence.
+     * @param action - the security action
+     * @param username - the user
+     * @param metricName - the counter incremented by the occurrences
+     * @param hostname - the hostname of the counter
+     * @param tags - the tags of the first occurrence, reused by the summary
+     * @param nowMillis - the current time
+     * @param windowMillis - the duration of the window
+     */
+    public void open(final String action, final String username, final String metricName, final String hostname,
+                     final Map<String, Set<String>> tags, final long nowMillis, final long windowMillis) {
+        final Window window = new Window(action, username, metricName, hostname, tags, nowMillis, windowMillis);
+        windows.merge(key(action, username), window, (existing, created) -> {
+            if (existing.isOpen(nowMillis)) {
+                return existing;
+            }
+            if (existing.close() > 0) {
+                replaced.add(existing);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Removes the windows that ended.
+     * @param nowMillis - the current time
+     * @return the ended windows with coalesced occurrences.
+     */
+    public List<Window> expire(final long nowMillis) {
+        final List<Window> expired = new ArrayList<>();
+        for (Window window; (window = replaced.poll()) != null; ) {
+            expired.add(window);
+        }
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            final Window window = entry.getValue();
+            if (!window.isOpen(nowMillis) && windows.remove(entry.getKey(), window) && window.close() > 0) {
+                expired.add(window);
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    public void clear() {
+        windows.clear();
+    }
+
+    private static String key(final String action, final String username) {
+        return action + "\n" + username;
+    }
+
+    public static final class Window {
+        private final String action;
+        private final String username;
+        private final String metricName;
+        private final String hostname;
+        private final Map<String, Set<String>> tags;
+        private final long startMillis;
+        private final long windowMillis;
+        // Occurrences after the first one, -1 once the window is closed
+        private final AtomicInteger coalesced = new AtomicInteger();
+        private volatile int closedCoalesced;
+
+        private Window(String action, String username, String metricName, String hostname,
+                       Map<String, Set<String>> tags, long startMillis, long windowMillis) {
+            this.action = action;
+            this.username = username;
+            this.metricName = metricName;
+            this.hostname = hostname;
+            this.tags = tags;
+            this.startMillis = startMillis;
+            this.windowMillis = windowMillis;
+        }
+
+        private boolean isOpen(final long nowMillis) {
+            return nowMillis - startMillis < windowMillis && coalesced.get() >= 0;
+        }
+
+        private boolean increment(final long nowMillis) {
+            if (nowMillis - startMillis >= windowMillis) {
+                return false;
+            }
+            int current;
+            do {
+                current = coalesced.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!coalesced.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private int close() {
+            final int previous = coalesced.getAndSet(-1);
+            if (previous > 0) {
+                closedCoalesced = previous;
+            }
+            return previous;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public String getHostname() {
+            return hostname;
+        }
+
+        public Map<String, Set<String>> getTags() {
+            return tags;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        /**
+         * @return the occurrences after the first one.
+         */
+        public int getCoalesced() {
+            final int current = coalesced.get();
+            return current >= 0 ? current : closedCoalesced;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import hudson.model.Run;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.support.actions.PauseAction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a ledger of the time the running pipelines spent paused (e.g. waiting for an input step),
+ * per stage and in total. The ledger is updated by the {@code DatadogGraphListener} as the FlowNodes complete,
+ * so the pause duration of a stage or a run is available without walking the flow graph
+ * (through pipeline-rest-api) when the stage or the run completes.
+ *
+ * The ledger of a run is only kept in memory. If the controller restarts while a pipeline is running,
+ * its ledger is missing and the callers must fall back to walking the flow graph.
+ */
+public class StageTimingStore {
+
+    private static final StageTimingStore INSTANCE = new StageTimingStore();
+
+    private final ConcurrentMap<String, RunStageTimings> timingsByRun = new ConcurrentHashMap<>();
+
+    private StageTimingStore() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:stage_timings");
+    }
+
+    public static StageTimingStore get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts the ledger of a run. Must be called when the pipeline starts.
+     * @param run the current run.
+     */
+    public void start(final Run<?,?> run) {
+        timingsByRun.put(run.getExternalizableId(), new RunStageTimings());
+    }
+
+    /**
+     * @param run the current run.
+     * @return the ledger of the run, or null if it was not tracked since the pipeline started.
+     */
+    public RunStageTimings forRun(final Run<?,?> run) {
+        return timingsByRun.get(run.getExternalizableId());
+    }
+
+    public void remove(final Run<?,?> run) {
+        if(run != null) {
+            timingsByRun.remove(run.getExternalizableId());
+        }
+    }
+
+    public int size() {
+        return timingsByRun.size();
+    }
+
+    /**
+     * Pause durations of a single Run.
+     */
+    public static class RunStageTimings {
+
+        // Paused nodes already accounted for (a node can be the parent of several nodes, e.g. parallel branches).
+        private final Set<String> accountedNodeIds = new HashSet<>();
+        private final Map<String, Long> pauseMillisByStage = new HashMap<>();
+        private long pauseMillis = 0;
+
+        /**
+         * Accounts for the pause duration of a completed FlowNode.
+         * @param node a FlowNode that is no longer running.
+         */
+        public void addPause(final FlowNode node) {
+            final long nodePauseMillis = PauseAction.getPauseDuration(node);
+            if(nodePauseMillis <= 0) {
+                return;
+            }
+
+            final List<String> stageIds = new ArrayList<>();
+            for(BlockStartNode enclosingNode : node.iterateEnclosingBlocks()) {
+                if(DatadogUtilities.isStageNode(enclosingNode)) {
+                    stageIds.add(enclosingNode.getId());
+                }
+            }
+            addPause(node.getId(), nodePauseMillis, stageIds);
+        }
+
+        synchronized void addPause(final String nodeId, final long nodePauseMillis, final List<String> stageIds) {
+            if(stageIds.isEmpty() || !accountedNodeIds.add(nodeId)) {
+                return;
+            }
+
+            for(String stageId : stageIds) {
+                final Long stagePauseMillis = pauseMillisByStage.get(stageId);
+                pauseMillisByStage.put(stageId, (stagePauseMillis != null ? stagePauseMillis : 0) + nodePauseMillis);
+            }
+            pauseMillis += nodePauseMillis;
+        }
+
+        /**
+         * @param stageStartNodeId the id of the start node of a stage.
+         * @return the time the nodes of the stage (including its sub-stages) were paused.
+         */
+        public synchronized long getStagePauseMillis(final String stageStartNodeId) {
+            final Long stagePauseMillis = pauseMillisByStage.get(stageStartNodeId);
+            return stagePauseMillis != null ? stagePauseMillis : 0;
+        }
+
+        /**
+         * @return the time the nodes in any stage of the run were paused.
+         */
+        public synchronized long getPauseMillis() {
+            return pauseMillis;
+        }
+    }
+}
@@ -2,32 +2,51 @@ package org.datadog.jenkins.plugins.datadog.util.config;
 
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_AGENT_HOST;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_AGENT_PORT;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_DOGSTATSD_URL;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_TRACE_AGENT_PORT;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_TRACE_AGENT_URL;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_DOGSTATSD_SOCKET_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_HOST_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_PORT_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_TRACE_COLLECTION_PORT_PROPERTY;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_TRACE_SOCKET_PROPERTY;
 
 import org.apache.commons.lang.StringUtils;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Map;
 
 public class DatadogAgentConfiguration {
 
+    public static final String DEFAULT_DOGSTATSD_SOCKET_PATH = "/var/run/datadog/dsd.socket";
+    public static final String DEFAULT_TRACE_SOCKET_PATH = "/var/run/datadog/apm.socket";
+    private static final String UNIX_SCHEME = "unix://";
+
     private final String host;
     private final Integer port;
     private final Integer tracesPort;
+    private final String dogStatsDSocketPath;
+    private final String traceSocketPath;
 
     public DatadogAgentConfiguration(final String host, final Integer port, final Integer tracesPort) {
+        this(host, port, tracesPort, null, null);
+    }
+
+    public DatadogAgentConfiguration(final String host, final Integer port, final Integer tracesPort,
+                                     final String dogStatsDSocketPath, final String traceSocketPath) {
         this.host = host;
         this.port = port;
         this.tracesPort = tracesPort;
+        this.dogStatsDSocketPath = dogStatsDSocketPath;
+        this.traceSocketPath = traceSocketPath;
     }
 
     public static DatadogAgentConfiguration resolve(final Map<String, String> envVars) {
-        final URL ddTraceAgentUrl = buildURL(envVars.get(DD_TRACE_AGENT_URL));
+        final String ddTraceAgentUrlEnvVar = envVars.get(DD_TRACE_AGENT_URL);
+        final boolean ddTraceAgentUrlIsSocket = isUnixSocketURL(ddTraceAgentUrlEnvVar);
+        final URL ddTraceAgentUrl = ddTraceAgentUrlIsSocket ? null : buildURL(ddTraceAgentUrlEnvVar);
 
         // Host resolution
         String host = null;
@@ -64,7 +83,52 @@ public class DatadogAgentConfiguration {
             tracesPort = Integer.parseInt(ddTraceAgentPortEnvVar);
         }
 
-        return new DatadogAgentConfiguration(host, port, tracesPort);
+        // Unix Domain Sockets resolution
+        String dogStatsDSocketPath = null;
+        final String targetDogStatsDSocketEnvVar = envVars.get(TARGET_DOGSTATSD_SOCKET_PROPERTY);
+        final String ddDogStatsDUrlEnvVar = envVars.get(DD_DOGSTATSD_URL);
+        if(StringUtils.isNotBlank(targetDogStatsDSocketEnvVar)) {
+            dogStatsDSocketPath = targetDogStatsDSocketEnvVar;
+        } else if(isUnixSocketURL(ddDogStatsDUrlEnvVar)) {
+            dogStatsDSocketPath = ddDogStatsDUrlEnvVar.substring(UNIX_SCHEME.length());
+        }
+
+        String traceSocketPath = null;
+        final String targetTraceSocketEnvVar = envVars.get(TARGET_TRACE_SOCKET_PROPERTY);
+        if(StringUtils.isNotBlank(targetTraceSocketEnvVar)) {
+            traceSocketPath = targetTraceSocketEnvVar;
+        } else if(ddTraceAgentUrlIsSocket) {
+            traceSocketPath = ddTraceAgentUrlEnvVar.substring(UNIX_SCHEME.length());
+        }
+
+        return new DatadogAgentConfiguration(host, port, tracesPort, dogStatsDSocketPath, traceSocketPath);
+    }
+
+    /**
+     * Returns the Unix Domain Socket to use to reach the Datadog Agent.
+     * If no socket is configured, the standard socket of the Agent is used if it exists
+     * and the Agent host is the local host, since it is then the same Agent.
+     * @param configuredPath - the configured socket path, if any
+     * @param defaultPath - the standard socket path of the Agent
+     * @param host - the configured Agent host
+     * @return the socket path, or null to use the host and port.
+     */
+    public static String resolveSocketPath(final String configuredPath, final String defaultPath, final String host) {
+        if(StringUtils.isNotBlank(configuredPath)) {
+            return configuredPath;
+        }
+        if(isLocalHost(host) && new File(defaultPath).exists()) {
+            return defaultPath;
+        }
+        return null;
+    }
+
+    private static boolean isLocalHost(final String host) {
+        return "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host) || "::1".equals(host);
+    }
+
+    private static boolean isUnixSocketURL(final String urlStr) {
+        return StringUtils.isNotBlank(urlStr) && urlStr.startsWith(UNIX_SCHEME) && urlStr.length() > UNIX_SCHEME.length();
     }
 
     private static URL buildURL(final String urlStr) {
@@ -90,4 +154,12 @@ public class DatadogAgentConfiguration {
     public Integer getTracesPort() {
         return this.tracesPort;
     }
+
+    public String getDogStatsDSocketPath() {
+        return this.dogStatsDSocketPath;
+    }
+
+    public String getTraceSocketPath() {
+        return this.traceSocketPath;
+    }
 }
@@ -0,0 +1,265 @@
+package org.datadog.jenkins.plugins.datadog.util.git;
+
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import jenkins.model.Jenkins;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.model.GitCommitAction;
+import org.datadog.jenkins.plugins.datadog.model.GitRepositoryAction;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.datadog.jenkins.plugins.datadog.util.LruMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Controller-side LRU cache of the Git metadata calculated for the builds.
+ * Obtaining the commit or the repository information requires opening the repository
+ * in the node where the workspace lives, so builds that resolve the same
+ * (repository URL, commit) pair (e.g. multibranch or matrix builds) reuse it from here.
+ *
+ * Commit information is immutable, so it is kept until it is evicted.
+ * Repository information (default branch) expires after {@link #REPOSITORY_INFO_TTL_MILLIS}.
+ * If enabled, the cache is saved to an XML file in the Jenkins home when Jenkins stops, and loaded when it starts.
+ */
+public class GitMetadataCache {
+
+    private static final Logger logger = Logger.getLogger(GitMetadataCache.class.getName());
+
+    static final int MAX_COMMITS = 2000;
+    static final int MAX_REPOSITORIES = 500;
+    static final long REPOSITORY_INFO_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final String FILE_NAME = "datadog-git-metadata-cache.xml";
+
+    private static final GitMetadataCache INSTANCE = new GitMetadataCache();
+
+    private final LruMap<String, GitCommitAction> commitsByKey = new LruMap<>(MAX_COMMITS);
+    private final LruMap<String, TimestampedRepositoryAction> repositoriesByUrl = new LruMap<>(MAX_REPOSITORIES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private GitMetadataCache() {
+        PluginTelemetry.get().registerGauge(PluginTelemetry.CACHE_SIZE, this::size, "cache:git_metadata");
+    }
+
+    public static GitMetadataCache get() {
+        return INSTANCE;
+    }
+
+    public GitCommitAction getCommit(final String gitRepositoryURL, final String gitCommit) {
+        final GitCommitAction commitAction = lookupCommit(gitRepositoryURL, gitCommit);
+        record(commitAction != null);
+        return commitAction;
+    }
+
+    /**
+     * Same as {@link #getCommit(String, String)}, but a miss is not recorded,
+     * for the callers that look the commit up again with {@link #getCommit(String, String)} on a miss.
+     * @param gitRepositoryURL the git repository URL
+     * @param gitCommit the git commit SHA
+     * @return the cached commit information, or null.
+     */
+    public GitCommitAction findCommit(final String gitRepositoryURL, final String gitCommit) {
+        final GitCommitAction commitAction = lookupCommit(gitRepositoryURL, gitCommit);
+        if(commitAction != null) {
+            record(true);
+        }
+        return commitAction;
+    }
+
+    private GitCommitAction lookupCommit(final String gitRepositoryURL, final String gitCommit) {
+        if(gitRepositoryURL == null || gitCommit == null) {
+            return null;
+        }
+
+        synchronized (commitsByKey) {
+            return commitsByKey.get(commitKey(gitRepositoryURL, gitCommit));
+        }
+    }
+
+    public void putCommit(final String gitRepositoryURL, final GitCommitAction commitAction) {
+        if(gitRepositoryURL == null || commitAction == null || commitAction.getCommit() == null) {
+            return;
+        }
+
+        synchronized (commitsByKey) {
+            commitsByKey.put(commitKey(gitRepositoryURL, commitAction.getCommit()), commitAction);
+        }
+    }
+
+    public GitRepositoryAction getRepository(final String gitRepositoryURL) {
+        final GitRepositoryAction repositoryAction = lookupRepository(gitRepositoryURL);
+        record(repositoryAction != null);
+        return repositoryAction;
+    }
+
+    /**
+     * Same as {@link #getRepository(String)}, but a miss is not recorded,
+     * for the callers that look the repository up again with {@link #getRepository(String)} on a miss.
+     * @param gitRepositoryURL the git repository URL
+     * @return the cached repository information, or null.
+     */
+    public GitRepositoryAction findRepository(final String gitRepositoryURL) {
+        final GitRepositoryAction repositoryAction = lookupRepository(gitRepositoryURL);
+        if(repositoryAction != null) {
+            record(true);
+        }
+        return repositoryAction;
+    }
+
+    private GitRepositoryAction lookupRepository(final String gitRepositoryURL) {
+        if(gitRepositoryURL == null) {
+            return null;
+        }
+
+        synchronized (repositoriesByUrl) {
+            final TimestampedRepositoryAction entry = repositoriesByUrl.get(gitRepositoryURL);
+            if(entry == null) {
+                return null;
+            }
+            if(System.currentTimeMillis() - entry.timestampMillis > REPOSITORY_INFO_TTL_MILLIS) {
+                repositoriesByUrl.remove(gitRepositoryURL);
+                return null;
+            }
+            return entry.repositoryAction;
+        }
+    }
+
+    public void putRepository(final GitRepositoryAction repositoryAction) {
+        if(repositoryAction == null || repositoryAction.getRepositoryURL() == null) {
+            return;
+        }
+
+        synchronized (repositoriesByUrl) {
+            repositoriesByUrl.put(repositoryAction.getRepositoryURL(), new TimestampedRepositoryAction(repositoryAction, System.currentTimeMillis()));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (commitsByKey) {
+            synchronized (repositoriesByUrl) {
+                return commitsByKey.size() + repositoriesByUrl.size();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (commitsByKey) {
+            commitsByKey.clear();
+        }
+        synchronized (repositoriesByUrl) {
+            repositoriesByUrl.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    private void record(boolean hit) {
+        if(hit) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        PluginTelemetry.get().increment(hit ? PluginTelemetry.CACHE_HITS : PluginTelemetry.CACHE_MISSES, "cache:git_metadata");
+    }
+
+    private static String commitKey(final String gitRepositoryURL, final String gitCommit) {
+        return gitRepositoryURL + "@" + gitCommit;
+    }
+
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void load() {
+        if(!isPersistenceEnabled()) {
+            return;
+        }
+
+        final XmlFile file = getFile();
+        if(file == null || !file.exists()) {
+            return;
+        }
+
+        try {
+            final Snapshot snapshot = (Snapshot) file.read();
+            synchronized (INSTANCE.commitsByKey) {
+                INSTANCE.commitsByKey.putAll(snapshot.commitsByKey);
+            }
+            synchronized (INSTANCE.repositoriesByUrl) {
+                INSTANCE.repositoriesByUrl.putAll(snapshot.repositoriesByUrl);
+            }
+            logger.fine("Loaded " + snapshot.commitsByKey.size() + " commits and " + snapshot.repositoriesByUrl.size() + " repositories from " + file);
+        } catch (Exception e) {
+            DatadogUtilities.severe(logger, e, "Failed to load the Git metadata cache from " + file);
+        }
+    }
+
+    @Terminator
+    public static void save() {
+        if(!isPersistenceEnabled()) {
+            return;
+        }
+
+        final XmlFile file = getFile();
+        if(file == null) {
+            return;
+        }
+
+        final Snapshot snapshot = new Snapshot();
+        synchronized (INSTANCE.commitsByKey) {
+            snapshot.commitsByKey.putAll(INSTANCE.commitsByKey);
+        }
+        synchronized (INSTANCE.repositoriesByUrl) {
+            snapshot.repositoriesByUrl.putAll(INSTANCE.repositoriesByUrl);
+        }
+
+        try {
+            file.write(snapshot);
+        } catch (IOException e) {
+            DatadogUtilities.severe(logger, e, "Failed to save the Git metadata cache to " + file);
+        }
+    }
+
+    private static boolean isPersistenceEnabled() {
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        return cfg != null && cfg.isPersistGitMetadataCache();
+    }
+
+    private static XmlFile getFile() {
+        final Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if(jenkins == null) {
+            return null;
+        }
+        return new XmlFile(new File(jenkins.getRootDir(), FILE_NAME));
+    }
+
+    private static class Snapshot {
+        private final Map<String, GitCommitAction> commitsByKey = new LinkedHashMap<>();
+        private final Map<String, TimestampedRepositoryAction> repositoriesByUrl = new LinkedHashMap<>();
+    }
+
+    private static class TimestampedRepositoryAction {
+        private final GitRepositoryAction repositoryAction;
+        private final long timestampMillis;
+
+        private TimestampedRepositoryAction(GitRepositoryAction repositoryAction, long timestampMillis) {
+            this.repositoryAction = repositoryAction;
+            this.timestampMillis = timestampMillis;
+        }
+    }
+}
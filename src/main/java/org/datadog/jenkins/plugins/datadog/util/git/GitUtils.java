@@ -18,10 +18,10 @@ import hudson.model.Run;
 import hudson.model.TaskListener;
 import org.apache.commons.lang.StringUtils;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
-import org.datadog.jenkins.plugins.datadog.audit.DatadogAudit;
 import org.datadog.jenkins.plugins.datadog.model.BuildData;
 import org.datadog.jenkins.plugins.datadog.model.GitCommitAction;
 import org.datadog.jenkins.plugins.datadog.model.GitRepositoryAction;
+import org.datadog.jenkins.plugins.datadog.telemetry.CallSiteTimer;
 import org.datadog.jenkins.plugins.datadog.traces.GitInfoUtils;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -41,6 +41,11 @@ import java.util.regex.Pattern;
 public final class GitUtils {
 
     private static transient final Logger LOGGER = Logger.getLogger(GitUtils.class.getName());
+
+    private static final CallSiteTimer BUILD_GIT_COMMIT_ACTION_TIMER = CallSiteTimer.forCallSite("GitUtils.buildGitCommitAction");
+    private static final CallSiteTimer BUILD_GIT_REPOSITORY_ACTION_TIMER = CallSiteTimer.forCallSite("GitUtils.buildGitRepositoryAction");
+    private static final CallSiteTimer NEW_GIT_CLIENT_TIMER = CallSiteTimer.forCallSite("GitUtils.newGitClient");
+
     private static transient final Pattern SHA1_PATTERN = Pattern.compile("\\b[a-f0-9]{40}\\b");
     private static transient final Pattern SCP_REPO_URI_REGEX = Pattern.compile("^([\\w.~-]+@)?(?<host>[\\w.-]+):(?<path>[\\w./-]+)(?:\\?|$)(.*)$");
 
@@ -152,16 +157,25 @@ public final class GitUtils {
      * The GitCommit information is stored in an action because
      * it's fairly expensive to calculate. To avoid calculating
      * every time, it's store in the Run instance as an action.
+     * It is also kept in the {@link GitMetadataCache}, so other runs
+     * using the same repository and commit do not need to calculate it again.
      * @param run a particular execution of a Jenkins build
      * @param gitClient the Git client
+     * @param gitRepositoryURL the git repository URL to use (can be null)
      * @param gitCommit the git commit SHA to use
      * @return the GitCommitAction with the information about Git Commit.
      */
-    public static GitCommitAction buildGitCommitAction(final Run<?,?> run, final GitClient gitClient, String gitCommit) {
-        long start = System.currentTimeMillis();
+    public static GitCommitAction buildGitCommitAction(final Run<?,?> run, final GitClient gitClient, final String gitRepositoryURL, String gitCommit) {
+        final long start = BUILD_GIT_COMMIT_ACTION_TIMER.start();
         try {
             GitCommitAction commitAction = run.getAction(GitCommitAction.class);
             if(commitAction == null || !gitCommit.equals(commitAction.getCommit())) {
+                final GitCommitAction cachedCommitAction = GitMetadataCache.get().getCommit(gitRepositoryURL, gitCommit);
+                if(cachedCommitAction != null) {
+                    run.addOrReplaceAction(cachedCommitAction);
+                    return cachedCommitAction;
+                }
+
                 try {
                     if(gitClient == null){
                         LOGGER.fine("Unable to build GitCommitAction. GitClient is null");
@@ -201,14 +215,14 @@ public final class GitUtils {
 
                     commitAction = builder.build();
                     run.addOrReplaceAction(commitAction);
+                    GitMetadataCache.get().putCommit(gitRepositoryURL, commitAction);
                 } catch (Exception e) {
                     LOGGER.fine("Unable to build GitCommitAction. Error: " + e);
                 }
             }
             return commitAction;
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("GitUtils.buildGitCommitAction", start, end);
+            BUILD_GIT_COMMIT_ACTION_TIMER.stop(start);
         }
     }
 
@@ -221,6 +235,8 @@ public final class GitUtils {
      * The GitRepository information is stored in an action because
      * it's fairly expensive to calculate. To avoid calculating
      * every time, it's store in the Run instance as an action.
+     * It is also kept in the {@link GitMetadataCache}, so other runs
+     * using the same repository do not need to calculate it again.
      * @param run a particular execution of a Jenkins build
      * @param gitClient the Git client
      * @param envVars the env vars available
@@ -228,12 +244,20 @@ public final class GitUtils {
      * @return the GitRepositoryAction with the information about Git repository.
      */
     public static GitRepositoryAction buildGitRepositoryAction(Run<?, ?> run, GitClient gitClient, final EnvVars envVars, final String gitRepositoryURL) {
-        long start = System.currentTimeMillis();
+        final long start = BUILD_GIT_REPOSITORY_ACTION_TIMER.start();
         try {
             GitRepositoryAction repoAction = run.getAction(GitRepositoryAction.class);
             if(repoAction == null || !gitRepositoryURL.equals(repoAction.getRepositoryURL())) {
+                // The default branch configured by the user takes precedence over the cached one.
+                final boolean userSuppliedDefaultBranch = StringUtils.isNotEmpty(envVars.get(DD_GIT_DEFAULT_BRANCH, null));
+                final GitRepositoryAction cachedRepoAction = userSuppliedDefaultBranch ? null : GitMetadataCache.get().getRepository(gitRepositoryURL);
+                if(cachedRepoAction != null) {
+                    run.addOrReplaceAction(cachedRepoAction);
+                    return cachedRepoAction;
+                }
+
                 try {
-                    if(gitClient == null){
+                    if(gitClient == null && !userSuppliedDefaultBranch){
                         LOGGER.fine("Unable to build GitRepositoryAction. GitClient is null");
                         return null;
                     }
@@ -250,14 +274,16 @@ public final class GitUtils {
 
                     repoAction = builder.build();
                     run.addOrReplaceAction(repoAction);
+                    if(!userSuppliedDefaultBranch) {
+                        GitMetadataCache.get().putRepository(repoAction);
+                    }
                 } catch (Exception e) {
                     LOGGER.fine("Unable to build GitRepositoryAction. Error: " + e);
                 }
             }
             return repoAction;
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("GitUtils.buildGitRepositoryAction", start, end);
+            BUILD_GIT_REPOSITORY_ACTION_TIMER.stop(start);
         }
     }
 
@@ -271,7 +297,7 @@ public final class GitUtils {
      * @return gitClient
      */
     public static GitClient newGitClient(final Run<?,?> run, final TaskListener listener, final EnvVars envVars, final String nodeName, final String workspace) {
-        long start = System.currentTimeMillis();
+        final long start = NEW_GIT_CLIENT_TIMER.start();
 
         try {
             try {
@@ -291,8 +317,7 @@ public final class GitUtils {
                 return null;
             }
         } finally {
-            long end = System.currentTimeMillis();
-            DatadogAudit.log("GitUtils.newGitClient", start, end);
+            NEW_GIT_CLIENT_TIMER.stop(start);
         }
     }
 
@@ -331,6 +356,34 @@ public final class GitUtils {
         }
     }
 
+    /**
+     * Attaches the Git information available in the {@link GitMetadataCache} to the run,
+     * if the run does not have it yet. This allows the callers to skip creating a Git client
+     * when the information for the (repository URL, commit) pair was already calculated by other runs.
+     * @param run the current run
+     * @param gitRepositoryUrl the current git repository
+     * @param gitCommit the current git commit
+     * @param envVars the env vars available
+     */
+    public static void attachCachedGitInfo(final Run<?, ?> run, final String gitRepositoryUrl, final String gitCommit, final Map<String, String> envVars) {
+        if(isValidCommit(gitCommit) && isValidRepositoryURL(gitRepositoryUrl) && !isCommitInfoAlreadyCreated(run, gitCommit)) {
+            // A miss is recorded by buildGitCommitAction
+            final GitCommitAction commitAction = GitMetadataCache.get().findCommit(gitRepositoryUrl, gitCommit);
+            if(commitAction != null) {
+                run.addOrReplaceAction(commitAction);
+            }
+        }
+
+        final boolean userSuppliedDefaultBranch = envVars != null && StringUtils.isNotEmpty(envVars.get(DD_GIT_DEFAULT_BRANCH));
+        if(!userSuppliedDefaultBranch && isValidRepositoryURL(gitRepositoryUrl) && !isRepositoryInfoAlreadyCreated(run, gitRepositoryUrl)) {
+            // A miss is recorded by buildGitRepositoryAction
+            final GitRepositoryAction repositoryAction = GitMetadataCache.get().findRepository(gitRepositoryUrl);
+            if(repositoryAction != null) {
+                run.addOrReplaceAction(repositoryAction);
+            }
+        }
+    }
+
     /**
      * Check if the GitRepositoryAction has been already created and populated.
      * Typically this method is used to avoid calculating the action multiple times.
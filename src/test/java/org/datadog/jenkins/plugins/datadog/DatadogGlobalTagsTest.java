@@ -35,6 +35,7 @@ import hudson.model.labels.LabelAtom;
 import jenkins.model.Jenkins;
 import org.apache.commons.io.IOUtils;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogEventStub;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogMetric;
 import org.datadog.jenkins.plugins.datadog.listeners.DatadogBuildListener;
@@ -46,6 +47,7 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
@@ -58,6 +60,10 @@ public class DatadogGlobalTagsTest {
 
     @ClassRule
     public static JenkinsRule jenkinsRule = new JenkinsRule();
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private DatadogClientStub client;
     private DatadogBuildListener datadogBuildListener;
     EnvVars envVars;
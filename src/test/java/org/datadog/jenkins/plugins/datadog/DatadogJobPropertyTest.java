@@ -0,0 +1,56 @@
+package org.datadog.jenkins.plugins.datadog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import hudson.FilePath;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+public class DatadogJobPropertyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadTagFileCallableReadsFileWithUnknownLastModified() throws Exception {
+        final File tagFile = folder.newFile("tags.txt");
+        Files.write(tagFile.toPath(), "tag1:value1\ntag2:value2".getBytes(Charset.defaultCharset()));
+
+        final DatadogJobProperty.TagFileContent content = new FilePath(tagFile).act(new DatadogJobProperty.ReadTagFileCallable(-1L));
+
+        assertTrue(content.exists());
+        assertFalse(content.isUnchanged());
+        assertEquals(tagFile.lastModified(), content.getLastModified());
+        assertEquals("tag1:value1\ntag2:value2", content.getContent());
+    }
+
+    @Test
+    public void testReadTagFileCallableSkipsReadIfLastModifiedIsKnown() throws Exception {
+        final File tagFile = folder.newFile("tags.txt");
+        Files.write(tagFile.toPath(), "tag1:value1".getBytes(Charset.defaultCharset()));
+
+        final DatadogJobProperty.TagFileContent content = new FilePath(tagFile).act(new DatadogJobProperty.ReadTagFileCallable(tagFile.lastModified()));
+
+        assertTrue(content.exists());
+        assertTrue(content.isUnchanged());
+        assertNull(content.getContent());
+    }
+
+    @Test
+    public void testReadTagFileCallableMissingFile() throws Exception {
+        final File tagFile = new File(folder.getRoot(), "missing.txt");
+
+        final DatadogJobProperty.TagFileContent content = new FilePath(tagFile).act(new DatadogJobProperty.ReadTagFileCallable(-1L));
+
+        assertFalse(content.exists());
+        assertNull(content.getContent());
+    }
+}
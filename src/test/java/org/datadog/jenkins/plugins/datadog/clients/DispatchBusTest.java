@@ -0,0 +1,161 @@
+package org.datadog.jenkins.plugins.datadog.clients;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.datadog.jenkins.plugins.datadog.DatadogEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DispatchBusTest {
+
+    @After
+    public void tearDown() {
+        DispatchBus.setEnableAsync(true);
+    }
+
+    @Test
+    public void testSubmitDoesNotWaitForTheClient() throws Exception {
+        final BlockingClient client = new BlockingClient();
+        DispatchBus.setEnableAsync(true);
+        final DispatchBus bus = new DispatchBus(100, 1);
+
+        bus.event(client, mock(DatadogEvent.class));
+        bus.gauge(client, "jenkins.job.duration", 10, "hostname", new HashMap<>());
+        assertTrue(client.blocked.await(10, TimeUnit.SECONDS));
+        assertEquals(0, client.metrics.size());
+
+        client.release.countDown();
+        bus.shutdown(10000);
+        assertEquals(1, client.events.size());
+        client.assertMetric("jenkins.job.duration", 10, "hostname", new String[0]);
+    }
+
+    @Test
+    public void testGaugesAreBatched() throws Exception {
+        final BlockingClient client = new BlockingClient();
+        DispatchBus.setEnableAsync(true);
+        final DispatchBus bus = new DispatchBus(100, 1);
+
+        // The worker waits in the event, so the gauges are drained in the same batch
+        bus.event(client, mock(DatadogEvent.class));
+        assertTrue(client.blocked.await(10, TimeUnit.SECONDS));
+        bus.gauge(client, "jenkins.job.duration", 1, "hostname", new HashMap<>());
+        bus.gauge(client, "jenkins.job.pause_duration", 2, "hostname", new HashMap<>());
+        bus.gauge(client, "jenkins.job.build_duration", 3, "hostname", new HashMap<>());
+
+        client.release.countDown();
+        bus.shutdown(10000);
+        assertEquals(Collections.singletonList(3), client.batchSizes);
+        assertEquals(3, client.metrics.size());
+    }
+
+    @Test
+    public void testRecordsAreSentInOrder() throws Exception {
+        final BlockingClient client = new BlockingClient();
+        DispatchBus.setEnableAsync(true);
+        final DispatchBus bus = new DispatchBus(100, 1);
+
+        bus.event(client, mock(DatadogEvent.class));
+        assertTrue(client.blocked.await(10, TimeUnit.SECONDS));
+        bus.gauge(client, "jenkins.job.duration", 1, "hostname", new HashMap<>());
+        bus.incrementCounter(client, "jenkins.job.completed", "hostname", new HashMap<>());
+        bus.gauge(client, "jenkins.job.pause_duration", 2, "hostname", new HashMap<>());
+        bus.gauge(client, "jenkins.job.build_duration", 3, "hostname", new HashMap<>());
+
+        client.release.countDown();
+        bus.shutdown(10000);
+        assertEquals(Arrays.asList("jenkins.job.duration", "jenkins.job.completed", "jenkins.job.pause_duration", "jenkins.job.build_duration"), client.sent);
+        assertEquals(Arrays.asList(1, 2), client.batchSizes);
+    }
+
+    @Test
+    public void testTagsAreCopied() throws Exception {
+        final DatadogClientStub client = new DatadogClientStub();
+        DispatchBus.setEnableAsync(true);
+        final DispatchBus bus = new DispatchBus(100, 1);
+
+        final Map<String, Set<String>> tags = new HashMap<>();
+        tags.put("job", new HashSet<>(Collections.singletonList("myjob")));
+        bus.gauge(client, "jenkins.job.duration", 10, "hostname", tags);
+        tags.get("job").add("otherjob");
+        tags.put("result", new HashSet<>(Collections.singletonList("SUCCESS")));
+
+        bus.shutdown(10000);
+        client.assertMetric("jenkins.job.duration", 10, "hostname", new String[]{"job:myjob"});
+    }
+
+    @Test
+    public void testRecordsAreDroppedWhenTheQueueIsFull() throws Exception {
+        final BlockingClient client = new BlockingClient();
+        DispatchBus.setEnableAsync(true);
+        final DispatchBus bus = new DispatchBus(1, 1);
+
+        bus.event(client, mock(DatadogEvent.class));
+        assertTrue(client.blocked.await(10, TimeUnit.SECONDS));
+        bus.gauge(client, "jenkins.job.duration", 1, "hostname", new HashMap<>());
+        bus.gauge(client, "jenkins.job.pause_duration", 2, "hostname", new HashMap<>());
+        assertEquals(1, bus.size());
+
+        client.release.countDown();
+        bus.shutdown(10000);
+        client.assertMetric("jenkins.job.duration", 1, "hostname", new String[0]);
+        assertEquals(0, client.metrics.size());
+    }
+
+    @Test
+    public void testSynchronousDispatch() {
+        final DatadogClientStub client = new DatadogClientStub();
+        DispatchBus.setEnableAsync(false);
+        final DispatchBus bus = new DispatchBus(100, 1);
+
+        bus.gauge(client, "jenkins.job.duration", 10, "hostname", new HashMap<>());
+        client.assertMetric("jenkins.job.duration", 10, "hostname", new String[0]);
+    }
+
+    private static class BlockingClient extends DatadogClientStub {
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final List<String> sent = new ArrayList<>();
+
+        @Override
+        public boolean event(DatadogEvent event) {
+            blocked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.event(event);
+        }
+
+        @Override
+        public boolean gauges(Collection<GaugeMetric> gauges) {
+            batchSizes.add(gauges.size());
+            for (GaugeMetric gauge : gauges) {
+                sent.add(gauge.getMetricName());
+            }
+            return super.gauges(gauges);
+        }
+
+        @Override
+        public boolean incrementCounter(String name, String hostname, Map<String, Set<String>> tags) {
+            sent.add(name);
+            return super.incrementCounter(name, hostname, tags);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.datadog.jenkins.plugins.datadog.clients;
+
+import org.datadog.jenkins.plugins.datadog.util.RunSerialExecutor;
+import org.junit.rules.ExternalResource;
+
+/**
+ * Dispatches the events and metrics of the listeners, and runs the graph listener tasks, on the calling
+ * thread during a test, so the test can assert on the client right after the listener returns.
+ */
+public class SynchronousDispatchRule extends ExternalResource {
+
+    @Override
+    protected void before() {
+        DispatchBus.setEnableAsync(false);
+        RunSerialExecutor.setEnableAsync(false);
+    }
+
+    @Override
+    protected void after() {
+        DispatchBus.setEnableAsync(true);
+        RunSerialExecutor.setEnableAsync(true);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+The MIT License
+
+Copyright (c) 2015-Present Datadog, Inc <opensource@datadoghq.com>
+All rights reserved.
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+package org.datadog.jenkins.plugins.datadog.events;
+
+import org.datadog.jenkins.plugins.datadog.DatadogEvent;
+import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserAuthenticationSummaryEventTest {
+
+    @Test
+    public void testLoginSummary() {
+        DatadogEvent event = new UserAuthenticationSummaryEventImpl("alice", UserAuthenticationEventImpl.LOGIN, 5,
+                60000, TagsUtil.addTagToTags(null, "user_id", "alice"));
+
+        Assert.assertEquals("User alice authenticated 5 more times", event.getTitle());
+        Assert.assertTrue(event.getText().contains("User alice authenticated 5 more times in 60 seconds"));
+        Assert.assertTrue(event.getTags().get("event_type").contains(DatadogEvent.SECURITY_EVENT_TYPE));
+        Assert.assertTrue(event.getTags().get("user_id").contains("alice"));
+        Assert.assertEquals(DatadogEvent.Priority.LOW, event.getPriority());
+        Assert.assertEquals(DatadogEvent.AlertType.SUCCESS, event.getAlertType());
+    }
+
+    @Test
+    public void testAccessDeniedSummary() {
+        DatadogEvent event = new UserAuthenticationSummaryEventImpl(null, UserAuthenticationEventImpl.ACCESS_DENIED, 1,
+                60000, null);
+
+        Assert.assertEquals("User anonymous failed to authenticate 1 more time", event.getTitle());
+        Assert.assertEquals(DatadogEvent.Priority.NORMAL, event.getPriority());
+        Assert.assertEquals(DatadogEvent.AlertType.ERROR, event.getAlertType());
+    }
+}
@@ -34,12 +34,14 @@ import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
 import org.datadog.jenkins.plugins.datadog.traces.CITags;
 import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
 import org.datadog.jenkins.plugins.datadog.transport.FakeTracesHttpClient;
 import org.junit.Before;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.ExtractResourceSCM;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -53,6 +55,9 @@ import java.util.concurrent.TimeUnit;
 
 public class DatadogBuildListenerIT extends DatadogTraceAbstractTest {
 
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private static final String SAMPLE_SERVICE_NAME = "sampleServiceName";
 
     @ClassRule
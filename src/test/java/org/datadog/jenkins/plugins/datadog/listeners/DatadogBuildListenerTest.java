@@ -34,13 +34,16 @@ import org.datadog.jenkins.plugins.datadog.DatadogEvent.Priority;
 import org.datadog.jenkins.plugins.datadog.stubs.BuildStub;
 import org.datadog.jenkins.plugins.datadog.stubs.ProjectStub;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogMetric;
 import org.datadog.jenkins.plugins.datadog.stubs.QueueStub;
 import org.datadog.jenkins.plugins.datadog.stubs.RunExtStub;
+import org.datadog.jenkins.plugins.datadog.util.JobCompletionStore;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -50,6 +53,9 @@ import static org.mockito.Mockito.*;
 
 public class DatadogBuildListenerTest {
 
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private DatadogClientStub client;
     private DatadogBuildListener datadogBuildListener;
     private ProjectStub job;
@@ -59,6 +65,7 @@ public class DatadogBuildListenerTest {
     
     @Before
     public void setUpMocks() {
+        JobCompletionStore.get().clear();
         this.client = new DatadogClientStub();
 
         this.datadogBuildListener = new DatadogBuildListenerTestWrapper();
@@ -0,0 +1,80 @@
+package org.datadog.jenkins.plugins.datadog.listeners;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.model.labels.LabelAtom;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
+import org.datadog.jenkins.plugins.datadog.util.ComputerEventAggregator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class DatadogComputerListenerTest {
+
+    @ClassRule
+    public static JenkinsRule jenkins = new JenkinsRule();
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
+    private DatadogClientStub client;
+
+    @Before
+    public void setUp() {
+        DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        cfg.setEmitSystemEvents(true);
+        cfg.setComputerEventsWindow(60);
+        client = new DatadogClientStub();
+        ClientFactory.setTestClient(client);
+        ComputerEventAggregator.get().clear();
+    }
+
+    @After
+    public void tearDown() {
+        ComputerEventAggregator.get().clear();
+    }
+
+    @Test
+    public void testAgentsSharingALabelAreSummarizedTogether() throws Exception {
+        DatadogComputerListener listener = new DatadogComputerListener();
+        listener.onOnline(agent("k8s-agent-1", "k8s"), TaskListener.NULL);
+        listener.onOnline(agent("k8s-agent-2", "k8s"), TaskListener.NULL);
+
+        // The first transition of the label is sent, the second one is summarized
+        Assert.assertEquals(1, client.events.size());
+
+        List<ComputerEventAggregator.Summary> summaries = ComputerEventAggregator.get().expire(Long.MAX_VALUE);
+        Assert.assertEquals(1, summaries.size());
+        ComputerEventAggregator.Summary summary = summaries.get(0);
+        Assert.assertEquals("k8s", summary.getLabel());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("k8s")), summary.getTags().get("node_label"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("k8s-agent-2")), summary.getNodeNames());
+    }
+
+    private static Computer agent(String name, String label) {
+        Node node = mock(Node.class);
+        Set<LabelAtom> labels = new HashSet<>(Arrays.asList(new LabelAtom(name), new LabelAtom(label)));
+        when(node.getAssignedLabels()).thenReturn(labels);
+        Computer computer = mock(Computer.class);
+        when(computer.getName()).thenReturn(name);
+        when(computer.getNode()).thenReturn(node);
+        return computer;
+    }
+}
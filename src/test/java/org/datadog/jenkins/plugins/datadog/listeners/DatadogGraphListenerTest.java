@@ -34,6 +34,7 @@ import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
 import org.datadog.jenkins.plugins.datadog.traces.CITags;
 import org.datadog.jenkins.plugins.datadog.traces.message.TraceSpan;
@@ -51,6 +52,7 @@ import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.Before;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
@@ -65,6 +67,9 @@ import java.util.concurrent.TimeUnit;
 
 public class DatadogGraphListenerTest extends DatadogTraceAbstractTest {
 
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private static final String SAMPLE_SERVICE_NAME = "sampleServiceName";
 
     @ClassRule
@@ -0,0 +1,80 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DogStatsD UDP sink. Counts the received datagrams, bytes and metric lines
+ * (a DogStatsD datagram can contain several newline-separated metrics).
+ */
+public class DogStatsDSink extends StubEndpoint {
+
+    private final DatagramSocket socket;
+    private final AtomicLong packets = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong lines = new AtomicLong();
+
+    public DogStatsDSink() throws IOException {
+        this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        daemon("dogstatsd-sink", this::receive);
+    }
+
+    private void receive() {
+        final byte[] buffer = new byte[65535];
+        final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+            } catch (IOException e) {
+                // Closed
+                return;
+            }
+            packets.incrementAndGet();
+            bytes.addAndGet(packet.getLength());
+            lines.addAndGet(countLines(buffer, packet.getLength()));
+            markReceived();
+        }
+    }
+
+    static int countLines(final byte[] buffer, final int length) {
+        int count = 0;
+        boolean pending = false;
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                if (pending) {
+                    count++;
+                }
+                pending = false;
+            } else {
+                pending = true;
+            }
+        }
+        return pending ? count + 1 : count;
+    }
+
+    @Override
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("dogstatsd.packets", packets.get());
+        counts.put("dogstatsd.bytes", bytes.get());
+        counts.put("dogstatsd.metrics", lines.get());
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,111 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP stub answering both the Trace Agent endpoints (/info, /v0.3/traces) and the
+ * Datadog intake endpoints (validate, series, events, logs, webhooks).
+ * Counts the requests and the request bytes per path.
+ */
+public class HttpIntakeStub extends StubEndpoint {
+
+    // No EVP proxy, so the traces are sent to /v0.3/traces
+    private static final String INFO_RESPONSE = "{\"endpoints\":[\"/v0.3/traces\",\"/v0.4/traces\"]}";
+    private static final String VALIDATE_RESPONSE = "{\"valid\":true}";
+    private static final String DEFAULT_RESPONSE = "{}";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, AtomicLong> requestsByPath = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public HttpIntakeStub() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newFixedThreadPool(4, r -> {
+            final Thread thread = new Thread(r, "http-intake-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        long length = 0;
+        try (InputStream body = exchange.getRequestBody()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                length += read;
+            }
+        }
+
+        final String path = exchange.getRequestURI().getPath();
+        requests.incrementAndGet();
+        bytes.addAndGet(length);
+        requestsByPath.computeIfAbsent(path, p -> new AtomicLong()).incrementAndGet();
+        markReceived();
+
+        final String response;
+        if ("/info".equals(path)) {
+            response = INFO_RESPONSE;
+        } else if (path.endsWith("/validate")) {
+            response = VALIDATE_RESPONSE;
+        } else {
+            response = DEFAULT_RESPONSE;
+        }
+        final byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, responseBytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(responseBytes);
+        }
+    }
+
+    /**
+     * @param path the path of the URL
+     * @return the root URL of the stub for a certain path, e.g. http://127.0.0.1:1234/api/
+     */
+    public String getUrl(final String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort() + path;
+    }
+
+    @Override
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        counts.put("http.requests", requests.get());
+        counts.put("http.bytes", bytes.get());
+        for (Map.Entry<String, AtomicLong> entry : requestsByPath.entrySet()) {
+            counts.put("http.requests " + entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
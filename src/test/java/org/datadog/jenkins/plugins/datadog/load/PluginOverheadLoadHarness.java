@@ -0,0 +1,343 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+import hudson.util.Secret;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
+import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
+import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the overhead of the plugin on pipeline builds, with the plugin reporting
+ * to local stand-ins of the Agent: a DogStatsD UDP sink, an HTTP Trace Agent/intake stub
+ * and a TCP log sink.
+ *
+ * Every {@link SyntheticPipeline} is built with the plugin off (all jobs excluded, no CI Visibility
+ * and no log collection) and on, and the harness reports per build: wall-clock time,
+ * controller CPU time, bytes allocated and the payloads received by the stubs.
+ * The plugin extensions cannot be unloaded from a JenkinsRule, so "off" still includes
+ * the cost of the listeners returning early, and of the periodic publishers.
+ *
+ * It is not part of the unit tests. Run it with:
+ *   mvn -P load-harness test
+ * and size it with -Dload.builds, -Dload.warmupBuilds, -Dload.parallelBranches,
+ * -Dload.nestingDepth and -Dload.logLines. -Dload.reportWith=HTTP reports through the
+ * intake endpoints of the HTTP stub instead of the Agent ones.
+ * The results are also written to target/plugin-overhead.json.
+ */
+public class PluginOverheadLoadHarness {
+
+    private static final Logger logger = Logger.getLogger(PluginOverheadLoadHarness.class.getName());
+
+    private static final long QUIET_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long MAX_DRAIN_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @ClassRule
+    public static JenkinsRule jenkinsRule = new JenkinsRule();
+
+    static {
+        // A full run takes longer than the default timeout
+        jenkinsRule.timeout = 0;
+    }
+
+    private static DogStatsDSink dogStatsDSink;
+    private static HttpIntakeStub httpStub;
+    private static TcpLogSink logSink;
+
+    @BeforeClass
+    public static void startStubs() throws IOException {
+        dogStatsDSink = new DogStatsDSink();
+        httpStub = new HttpIntakeStub();
+        logSink = new TcpLogSink();
+    }
+
+    @AfterClass
+    public static void stopStubs() throws IOException {
+        for (StubEndpoint endpoint : endpoints()) {
+            if (endpoint != null) {
+                endpoint.close();
+            }
+        }
+    }
+
+    @Test
+    public void measurePluginOverhead() throws Exception {
+        final int builds = Integer.getInteger("load.builds", 5);
+        final int warmupBuilds = Integer.getInteger("load.warmupBuilds", 2);
+
+        ClientFactory.setTestClient(null);
+        final DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        configureTargets(cfg, System.getProperty("load.reportWith", "DSD"));
+        // Create the client with everything enabled, so the log and trace
+        // transports are initialized before the first measured build.
+        Mode.ON.apply(cfg);
+        assertNotNull("Unable to create the client", ClientFactory.getClient());
+
+        final JSONArray results = new JSONArray();
+        final StringBuilder report = new StringBuilder("Plugin overhead per build (" + builds + " builds per mode)\n");
+        for (SyntheticPipeline pipeline : SyntheticPipeline.values()) {
+            final WorkflowJob job = jenkinsRule.jenkins.createProject(WorkflowJob.class, pipeline.name().toLowerCase(Locale.ROOT));
+            job.setDefinition(new CpsFlowDefinition(pipeline.script(), true));
+
+            // Warm up the JIT and the caches in both modes before measuring
+            for (Mode mode : Mode.values()) {
+                mode.apply(cfg);
+                for (int i = 0; i < warmupBuilds; i++) {
+                    jenkinsRule.buildAndAssertSuccess(job);
+                }
+            }
+            awaitQuiet();
+
+            final Measurement off = measure(cfg, job, Mode.OFF, builds);
+            final Measurement on = measure(cfg, job, Mode.ON, builds);
+            appendReport(report, pipeline, off, on);
+
+            final JSONObject result = new JSONObject();
+            result.put("pipeline", pipeline.name());
+            result.put("off", off.toJson());
+            result.put("on", on.toJson());
+            results.add(result);
+        }
+        logger.info(report.toString());
+
+        final File output = new File("target", "plugin-overhead.json");
+        if (output.getParentFile().isDirectory()) {
+            Files.write(output.toPath(), results.toString(2).getBytes(StandardCharsets.UTF_8));
+            logger.info("Results written to " + output.getAbsolutePath());
+        }
+    }
+
+    private Measurement measure(final DatadogGlobalConfiguration cfg, final WorkflowJob job, final Mode mode, final int builds) throws Exception {
+        mode.apply(cfg);
+        final Map<String, Long> countsBefore = counts();
+        final ResourceUsage usageBefore = ResourceUsage.now();
+
+        final long[] wallNanos = new long[builds];
+        for (int i = 0; i < builds; i++) {
+            final long start = System.nanoTime();
+            jenkinsRule.buildAndAssertSuccess(job);
+            wallNanos[i] = System.nanoTime() - start;
+        }
+        // The payloads are sent asynchronously, so the CPU and allocations
+        // include the time until the stubs stop receiving data.
+        awaitQuiet();
+
+        final ResourceUsage usageAfter = ResourceUsage.now();
+        final Map<String, Long> countsAfter = counts();
+        final Map<String, Long> payloads = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : countsAfter.entrySet()) {
+            final Long before = countsBefore.get(entry.getKey());
+            payloads.put(entry.getKey(), entry.getValue() - (before != null ? before : 0L));
+        }
+        return new Measurement(builds, wallNanos,
+                usageAfter.cpuNanos - usageBefore.cpuNanos,
+                usageAfter.allocatedBytesSince(usageBefore),
+                payloads);
+    }
+
+    private static void configureTargets(final DatadogGlobalConfiguration cfg, final String reportWith) {
+        cfg.setReportWith(reportWith);
+        if ("HTTP".equals(reportWith)) {
+            cfg.setTargetApiURL(httpStub.getUrl("/api/"));
+            cfg.setTargetLogIntakeURL(httpStub.getUrl("/v1/input/"));
+            cfg.setTargetWebhookIntakeURL(httpStub.getUrl("/api/v2/webhook/"));
+            cfg.setTargetApiKey("load-harness");
+            cfg.setUsedApiKey(Secret.fromString("load-harness"));
+        } else {
+            cfg.setTargetHost("127.0.0.1");
+            cfg.setTargetPort(dogStatsDSink.getPort());
+            cfg.setTargetLogCollectionPort(logSink.getPort());
+            cfg.setTargetTraceCollectionPort(httpStub.getPort());
+        }
+    }
+
+    private static void awaitQuiet() throws InterruptedException {
+        final long deadline = System.nanoTime() + MAX_DRAIN_NANOS;
+        while (System.nanoTime() < deadline) {
+            long lastReceived = Long.MIN_VALUE;
+            for (StubEndpoint endpoint : endpoints()) {
+                lastReceived = Math.max(lastReceived, endpoint.getLastReceivedNanos());
+            }
+            if (System.nanoTime() - lastReceived > QUIET_PERIOD_NANOS) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        logger.warning("The stubs kept receiving data after " + TimeUnit.NANOSECONDS.toSeconds(MAX_DRAIN_NANOS) + " seconds");
+    }
+
+    private static List<StubEndpoint> endpoints() {
+        return Arrays.asList(dogStatsDSink, httpStub, logSink);
+    }
+
+    private static Map<String, Long> counts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        for (StubEndpoint endpoint : endpoints()) {
+            counts.putAll(endpoint.getCounts());
+        }
+        return counts;
+    }
+
+    private static void appendReport(final StringBuilder report, final SyntheticPipeline pipeline, final Measurement off, final Measurement on) {
+        report.append(String.format(Locale.ROOT, "%n%-40s %14s %14s %14s%n", pipeline.name(), "off", "on", "delta"));
+        appendRow(report, "wall ms (mean)", off.getMeanWallMillis(), on.getMeanWallMillis());
+        appendRow(report, "wall ms (p50)", off.getMedianWallMillis(), on.getMedianWallMillis());
+        appendRow(report, "cpu ms", off.getCpuMillisPerBuild(), on.getCpuMillisPerBuild());
+        appendRow(report, "allocated MB", off.getAllocatedMegabytesPerBuild(), on.getAllocatedMegabytesPerBuild());
+        final TreeSet<String> keys = new TreeSet<>(off.payloads.keySet());
+        keys.addAll(on.payloads.keySet());
+        for (String key : keys) {
+            appendRow(report, key, off.getPayloadsPerBuild(key), on.getPayloadsPerBuild(key));
+        }
+        // The stubs only receive data from the plugin, so "on" must have sent something.
+        assertTrue("No payloads received for " + pipeline, on.getPayloadsPerBuild("http.requests") > 0);
+    }
+
+    private static void appendRow(final StringBuilder report, final String name, final double off, final double on) {
+        report.append(String.format(Locale.ROOT, "  %-38s %14.2f %14.2f %+14.2f%n", name, off, on, on - off));
+    }
+
+    private enum Mode {
+        OFF {
+            @Override
+            void apply(final DatadogGlobalConfiguration cfg) {
+                cfg.setExcluded(".*");
+                cfg.setEnableCiVisibility(false);
+                cfg.setCollectBuildLogs(false);
+            }
+        },
+        ON {
+            @Override
+            void apply(final DatadogGlobalConfiguration cfg) {
+                cfg.setExcluded(null);
+                cfg.setEnableCiVisibility(true);
+                cfg.setCollectBuildLogs(true);
+            }
+        };
+
+        abstract void apply(DatadogGlobalConfiguration cfg);
+    }
+
+    private static final class Measurement {
+        private final int builds;
+        private final long[] wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+        private final Map<String, Long> payloads;
+
+        private Measurement(final int builds, final long[] wallNanos, final long cpuNanos, final long allocatedBytes, final Map<String, Long> payloads) {
+            this.builds = builds;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.payloads = payloads;
+        }
+
+        private double getMeanWallMillis() {
+            long total = 0;
+            for (long nanos : wallNanos) {
+                total += nanos;
+            }
+            return total / 1e6 / builds;
+        }
+
+        private double getMedianWallMillis() {
+            final long[] sorted = wallNanos.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2] / 1e6;
+        }
+
+        private double getCpuMillisPerBuild() {
+            return cpuNanos / 1e6 / builds;
+        }
+
+        private double getAllocatedMegabytesPerBuild() {
+            return allocatedBytes / (1024.0 * 1024.0) / builds;
+        }
+
+        private double getPayloadsPerBuild(final String key) {
+            final Long value = payloads.get(key);
+            return value != null ? (double) value / builds : 0;
+        }
+
+        private JSONObject toJson() {
+            final JSONObject json = new JSONObject();
+            json.put("builds", builds);
+            json.put("wallMillisMean", getMeanWallMillis());
+            json.put("wallMillisMedian", getMedianWallMillis());
+            json.put("cpuMillisPerBuild", getCpuMillisPerBuild());
+            json.put("allocatedMegabytesPerBuild", getAllocatedMegabytesPerBuild());
+            final JSONObject payloadsJson = new JSONObject();
+            for (String key : new TreeSet<>(payloads.keySet())) {
+                payloadsJson.put(key, payloads.get(key));
+            }
+            json.put("payloads", payloadsJson);
+            return json;
+        }
+    }
+
+    /**
+     * CPU time of the controller process and bytes allocated by each live thread.
+     * The allocations of the threads that finish between two snapshots are not counted.
+     */
+    private static final class ResourceUsage {
+        private final long cpuNanos;
+        private final Map<Long, Long> allocatedBytesByThread;
+
+        private ResourceUsage(final long cpuNanos, final Map<Long, Long> allocatedBytesByThread) {
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytesByThread = allocatedBytesByThread;
+        }
+
+        private static ResourceUsage now() {
+            final com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            final com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final long[] ids = threads.getAllThreadIds();
+            final long[] allocated = threads.getThreadAllocatedBytes(ids);
+            final Map<Long, Long> allocatedBytesByThread = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (allocated[i] >= 0) {
+                    allocatedBytesByThread.put(ids[i], allocated[i]);
+                }
+            }
+            return new ResourceUsage(os.getProcessCpuTime(), Collections.unmodifiableMap(allocatedBytesByThread));
+        }
+
+        private long allocatedBytesSince(final ResourceUsage start) {
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : allocatedBytesByThread.entrySet()) {
+                final Long before = start.allocatedBytesByThread.get(entry.getKey());
+                total += entry.getValue() - (before != null ? before : 0L);
+            }
+            return total;
+        }
+    }
+}
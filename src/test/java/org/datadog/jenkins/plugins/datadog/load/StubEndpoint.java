@@ -0,0 +1,35 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Local stand-in for one of the endpoints the plugin reports to.
+ * It accepts everything it receives and only counts it.
+ */
+public abstract class StubEndpoint implements Closeable {
+
+    private volatile long lastReceivedNanos = System.nanoTime();
+
+    public abstract int getPort();
+
+    /**
+     * @return the counters of the received payloads, keyed by name.
+     */
+    public abstract Map<String, Long> getCounts();
+
+    public long getLastReceivedNanos() {
+        return lastReceivedNanos;
+    }
+
+    protected void markReceived() {
+        lastReceivedNanos = System.nanoTime();
+    }
+
+    protected static Thread daemon(final String name, final Runnable runnable) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
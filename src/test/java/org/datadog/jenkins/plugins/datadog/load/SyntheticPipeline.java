@@ -0,0 +1,81 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+/**
+ * Scripted pipelines with synthetic flow graph shapes used by the load harness.
+ * The size of every shape can be changed with a system property.
+ */
+public enum SyntheticPipeline {
+
+    /**
+     * A stage with many parallel branches, each one with its own stage and a few steps.
+     */
+    PARALLEL_FAN_OUT {
+        @Override
+        String script() {
+            final int branches = Integer.getInteger("load.parallelBranches", 50);
+            return "def branches = [:]\n" +
+                    "for (int i = 0; i < " + branches + "; i++) {\n" +
+                    "    def index = i\n" +
+                    "    branches['branch-' + index] = {\n" +
+                    "        stage('branch-' + index) {\n" +
+                    "            for (int s = 0; s < 5; s++) {\n" +
+                    "                echo 'step ' + s\n" +
+                    "            }\n" +
+                    "        }\n" +
+                    "    }\n" +
+                    "}\n" +
+                    "stage('fan-out') {\n" +
+                    "    parallel branches\n" +
+                    "}\n";
+        }
+    },
+
+    /**
+     * Stages nested inside each other, with a step at every level.
+     */
+    DEEP_NESTING {
+        @Override
+        String script() {
+            final int depth = Integer.getInteger("load.nestingDepth", 25);
+            final StringBuilder script = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                script.append("stage('level-").append(i).append("') {\n");
+                script.append("echo 'level ").append(i).append("'\n");
+            }
+            for (int i = 0; i < depth; i++) {
+                script.append("}\n");
+            }
+            return script.toString();
+        }
+    },
+
+    /**
+     * A single stage writing many log lines, in chunks of {@link #LINES_PER_CHUNK} lines per step.
+     */
+    LOG_HEAVY {
+        @Override
+        String script() {
+            final int lines = Integer.getInteger("load.logLines", 20000);
+            final StringBuilder chunk = new StringBuilder();
+            for (int i = 0; i < LINES_PER_CHUNK; i++) {
+                if (i > 0) {
+                    chunk.append("\\n");
+                }
+                chunk.append("log line ").append(i).append(" of a log-heavy step, with some padding to look like real output");
+            }
+            return "def chunk = '" + chunk + "'\n" +
+                    "stage('logs') {\n" +
+                    "    for (int c = 0; c < " + Math.max(1, lines / LINES_PER_CHUNK) + "; c++) {\n" +
+                    "        echo chunk\n" +
+                    "    }\n" +
+                    "}\n";
+        }
+    };
+
+    static final int LINES_PER_CHUNK = 100;
+
+    /**
+     * @return the scripted pipeline definition of this shape.
+     */
+    abstract String script();
+}
@@ -0,0 +1,85 @@
+package org.datadog.jenkins.plugins.datadog.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP log sink, standing in for the Agent log collection port.
+ * Counts the received connections, log lines and bytes.
+ */
+public class TcpLogSink extends StubEndpoint {
+
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public TcpLogSink() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        daemon("tcp-log-sink", this::accept);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                // Closed
+                return;
+            }
+            accepted.incrementAndGet();
+            connections.add(socket);
+            daemon("tcp-log-sink-connection", () -> read(socket));
+        }
+    }
+
+    private void read(final Socket socket) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.incrementAndGet();
+                // The line terminator is not part of the line
+                bytes.addAndGet(line.getBytes(StandardCharsets.UTF_8).length + 1);
+                markReceived();
+            }
+        } catch (IOException e) {
+            // Closed
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    @Override
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("logs.connections", accepted.get());
+        counts.put("logs.lines", lines.get());
+        counts.put("logs.bytes", bytes.get());
+        return counts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+}
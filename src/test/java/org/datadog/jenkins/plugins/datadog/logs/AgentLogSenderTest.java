@@ -0,0 +1,136 @@
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class AgentLogSenderTest {
+
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @Test
+    public void testRecordsAreBuiltFromTheTemplate() {
+        AgentLogForwarder forwarder = new AgentLogForwarder("localhost", 10518, null, null,
+                "{\"ddsource\":\"jenkins\",\"service\":\"jenkins\"}");
+        assertEquals("{\"ddsource\":\"jenkins\",\"service\":\"jenkins\",\"message\":\"echo \\\"foo\\\"\",\"timestamp\":42}",
+                forwarder.toRecord("echo \"foo\"", 42));
+
+        AgentLogForwarder emptyTemplate = new AgentLogForwarder("localhost", 10518, null, null, "{}");
+        assertEquals("{\"message\":\"foo\",\"timestamp\":42}", emptyTemplate.toRecord("foo", 42));
+    }
+
+    @Test
+    public void testRecordsAreSentInBatches() {
+        AgentLogSender sender = new AgentLogSender(batches::add, Runnable::run);
+        for (int i = 0; i < AgentLogSender.MAX_BATCH_RECORDS + 1; i++) {
+            sender.add("record " + i);
+        }
+        assertEquals(1, batches.size());
+        assertEquals(AgentLogSender.MAX_BATCH_RECORDS, batches.get(0).size());
+        assertEquals("record 0", batches.get(0).get(0));
+        assertEquals(1, sender.size());
+
+        sender.flush();
+        assertEquals(2, batches.size());
+        assertEquals(Arrays.asList("record " + AgentLogSender.MAX_BATCH_RECORDS), batches.get(1));
+        assertEquals(0, sender.size());
+    }
+
+    @Test
+    public void testBatchesAreCutAtTheMaxBytes() {
+        AgentLogSender sender = new AgentLogSender(batches::add, r -> {});
+        char[] chars = new char[AgentLogSender.MAX_BATCH_BYTES / 3];
+        Arrays.fill(chars, 'a');
+        String record = new String(chars);
+        for (int i = 0; i < 4; i++) {
+            sender.add(record);
+        }
+        sender.flush();
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    public void testRecordsOverTheMaxPendingAreDropped() {
+        AgentLogSender sender = new AgentLogSender(batches::add, r -> {});
+        for (int i = 0; i < AgentLogSender.MAX_PENDING_RECORDS + 10; i++) {
+            sender.add("record " + i);
+        }
+        assertEquals(AgentLogSender.MAX_PENDING_RECORDS, sender.size());
+        sender.flush();
+        int sent = 0;
+        for (List<String> batch : batches) {
+            sent += batch.size();
+        }
+        assertEquals(AgentLogSender.MAX_PENDING_RECORDS, sent);
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedOnce() {
+        final int[] attempts = {0};
+        AgentLogSender sender = new AgentLogSender(records -> {
+            if (attempts[0]++ == 0) {
+                throw new IOException("connection reset");
+            }
+            batches.add(records);
+        }, r -> {});
+        sender.add("foo");
+        sender.flush();
+        assertEquals(2, attempts[0]);
+        assertEquals(Arrays.asList(Arrays.asList("foo")), batches);
+        assertEquals(0, sender.size());
+    }
+
+    @Test
+    public void testScheduledFlushIsRunByTheExecutor() {
+        final List<Runnable> tasks = new ArrayList<>();
+        AgentLogSender sender = new AgentLogSender(batches::add, tasks::add);
+        sender.add("foo");
+        CompletableFuture<Void> flushed = sender.scheduleFlush();
+        assertFalse(flushed.isDone());
+        assertTrue(batches.isEmpty());
+
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertTrue(flushed.isDone());
+        assertEquals(Arrays.asList(Arrays.asList("foo")), batches);
+    }
+
+    @Test
+    public void testChangingTheDestinationReplacesTheSender() throws Exception {
+        final boolean[] closed = {false};
+        AgentLogSender.Transport transport = new AgentLogSender.Transport() {
+            @Override
+            public void send(List<String> records) {
+                batches.add(records);
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        AgentLogSender previous = AgentLogSender.get("localhost:10518", () -> transport);
+        assertSame(previous, AgentLogSender.get("localhost:10518", () -> records -> {}));
+        previous.add("foo");
+
+        AgentLogSender sender = AgentLogSender.get("agent:10518", () -> records -> {});
+        assertNotSame(previous, sender);
+        // Run after the previous sender is closed, by the same thread
+        sender.scheduleFlush().get(10, TimeUnit.SECONDS);
+        assertTrue(closed[0]);
+        assertEquals(Arrays.asList(Arrays.asList("foo")), batches);
+    }
+}
@@ -0,0 +1,86 @@
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LogLineFilterTest {
+
+    @After
+    public void tearDown() {
+        LogLineFilter.clear();
+    }
+
+    @Test
+    public void testFilterWithoutRulesNorRateLimitIsDisabled() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", null, 0);
+        assertFalse(filter.isEnabled());
+        assertTrue(filter.accept("+ set -x"));
+        assertEquals(0, filter.takeSuppressed());
+    }
+
+    @Test
+    public void testFirstMatchingRuleIsApplied() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", "keep ERROR\ndrop ^\\+ \ndrop Downloading", 0);
+        assertTrue(filter.isEnabled());
+        assertFalse(filter.accept("+ set -x", 0));
+        assertFalse(filter.accept("Downloading foo.jar", 0));
+        assertTrue(filter.accept("+ ERROR while downloading", 0));
+        assertTrue(filter.accept("BUILD SUCCESS", 0));
+    }
+
+    @Test
+    public void testSampleRuleKeepsOneOutOfNLines() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", "sample:3 ^Progress", 0);
+        int kept = 0;
+        for (int i = 0; i < 9; i++) {
+            if (filter.accept("Progress " + i + "%", 0)) {
+                kept++;
+            }
+        }
+        assertEquals(3, kept);
+        assertTrue(filter.accept("Done", 0));
+    }
+
+    @Test
+    public void testInvalidRulesAreIgnored() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", "drop\nremove foo\nsample:x foo\ndrop [\ndrop bar", 0);
+        assertTrue(filter.accept("foo", 0));
+        assertFalse(filter.accept("bar", 0));
+    }
+
+    @Test
+    public void testRateLimitSuppressesLinesOverTheBurst() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", null, 1);
+        for (int i = 0; i < LogLineFilter.BURST_SECONDS; i++) {
+            assertTrue(filter.accept("line " + i, 0));
+        }
+        assertFalse(filter.accept("line", 0));
+        assertFalse(filter.accept("line", TimeUnit.MILLISECONDS.toNanos(500)));
+        assertEquals(2, filter.takeSuppressed());
+        assertEquals(0, filter.takeSuppressed());
+
+        // One token per second
+        assertTrue(filter.accept("line", TimeUnit.SECONDS.toNanos(1)));
+        assertFalse(filter.accept("line", TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(1, filter.takeSuppressed());
+    }
+
+    @Test
+    public void testRateLimitIsSharedByTheFiltersOfABuild() {
+        LogLineFilter filter = new LogLineFilter("jenkins-job-1", null, 1);
+        LogLineFilter otherStream = new LogLineFilter("jenkins-job-1", null, 1);
+        LogLineFilter otherBuild = new LogLineFilter("jenkins-job-2", null, 1);
+        for (int i = 0; i < LogLineFilter.BURST_SECONDS; i++) {
+            assertTrue(filter.accept("line " + i, 0));
+        }
+        assertFalse(otherStream.accept("line", 0));
+        assertTrue(otherBuild.accept("line", 0));
+        assertEquals(1, filter.takeSuppressed());
+    }
+}
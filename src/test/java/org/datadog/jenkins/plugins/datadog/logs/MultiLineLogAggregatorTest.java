@@ -0,0 +1,145 @@
+package org.datadog.jenkins.plugins.datadog.logs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class MultiLineLogAggregatorTest {
+
+    private static final Pattern JAVA_STACK_TRACE = Pattern.compile("^(?!\\s|Caused by:)");
+
+    private final List<String> records = new ArrayList<>();
+
+    @Test
+    public void testContinuationLinesAreJoined() {
+        MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, 0, records::add);
+        aggregator.add("  Exception in thread \"main\" java.lang.IllegalStateException: foo\n", 0);
+        aggregator.add("\tat Foo.bar(Foo.java:10)\n", 0);
+        aggregator.add("Caused by: java.io.IOException: bar\n", 0);
+        aggregator.add("\t... 1 more\r\n", 0);
+        aggregator.add("BUILD FAILED\n", 0);
+        assertEquals(Collections.singletonList(
+                "Exception in thread \"main\" java.lang.IllegalStateException: foo\n\tat Foo.bar(Foo.java:10)\nCaused by: java.io.IOException: bar\n\t... 1 more"),
+                records);
+
+        aggregator.close();
+        assertEquals("BUILD FAILED", records.get(1));
+    }
+
+    @Test
+    public void testEmptyLinesAreIgnored() {
+        MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, 0, records::add);
+        aggregator.add("\n", 0);
+        aggregator.add("foo\n", 0);
+        aggregator.add("   \n", 0);
+        aggregator.add("bar\n", 0);
+        aggregator.close();
+        assertEquals(Arrays.asList("foo", "bar"), records);
+    }
+
+    @Test
+    public void testRecordsAreCutAtTheMaxLines() {
+        MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, 0, records::add);
+        aggregator.add("Exception", 0);
+        for (int i = 1; i < MultiLineLogAggregator.MAX_RECORD_LINES + 10; i++) {
+            aggregator.add("\tat Foo.bar" + i, 0);
+        }
+        aggregator.close();
+        assertEquals(2, records.size());
+        assertEquals(MultiLineLogAggregator.MAX_RECORD_LINES, records.get(0).split("\n").length);
+        assertEquals("at Foo.bar" + MultiLineLogAggregator.MAX_RECORD_LINES, records.get(1).split("\n")[0]);
+    }
+
+    @Test
+    public void testRecordsAreCutAtTheMaxLength() {
+        MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, 0, records::add);
+        char[] chars = new char[MultiLineLogAggregator.MAX_RECORD_LENGTH / 2];
+        Arrays.fill(chars, 'a');
+        String longLine = new String(chars);
+        aggregator.add(longLine, 0);
+        aggregator.add(" " + longLine, 0);
+        aggregator.close();
+        assertEquals(Arrays.asList(longLine, longLine), records);
+    }
+
+    @Test
+    public void testPendingRecordIsSentAfterTheTimeout() {
+        MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, TimeUnit.MINUTES.toMillis(1), records::add);
+        long now = System.nanoTime();
+        aggregator.add("Exception", now);
+        aggregator.add("\tat Foo.bar", now);
+
+        assertFalse(aggregator.flushIfIdle(now + TimeUnit.SECONDS.toNanos(59)));
+        assertTrue(records.isEmpty());
+        assertTrue(aggregator.flushIfIdle(now + TimeUnit.SECONDS.toNanos(60)));
+        assertEquals(Collections.singletonList("Exception\n\tat Foo.bar"), records);
+        aggregator.close();
+    }
+
+    @Test
+    public void testRecordsAreSentOutsideOfTheLock() {
+        final MultiLineLogAggregator[] aggregator = new MultiLineLogAggregator[1];
+        aggregator[0] = new MultiLineLogAggregator(JAVA_STACK_TRACE, TimeUnit.MINUTES.toMillis(1), record -> {
+            assertFalse(Thread.holdsLock(aggregator[0]));
+            records.add(record);
+        });
+        long now = System.nanoTime();
+        aggregator[0].add("foo", now);
+        aggregator[0].add("bar", now);
+        aggregator[0].flush();
+        aggregator[0].add("baz", now);
+        assertTrue(aggregator[0].flushIfIdle(now + TimeUnit.MINUTES.toNanos(1)));
+        aggregator[0].add("qux", now);
+        aggregator[0].close();
+        assertEquals(Arrays.asList("foo", "bar", "baz", "qux"), records);
+    }
+
+    @Test
+    public void testIdleRecordIsSentBeforeTheNextRecords() throws Exception {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final MultiLineLogAggregator aggregator = new MultiLineLogAggregator(JAVA_STACK_TRACE, TimeUnit.MINUTES.toMillis(1), record -> {
+            if (record.equals("foo")) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(record);
+        });
+        final long now = System.nanoTime();
+        aggregator.add("foo", now);
+        Thread timeoutSender = new Thread(() -> aggregator.flushIfIdle(now + TimeUnit.MINUTES.toNanos(1)));
+        timeoutSender.start();
+        Thread stream = new Thread(() -> {
+            aggregator.add("bar", now);
+            aggregator.add("baz", now);
+            aggregator.close();
+        });
+        try {
+            assertTrue(sending.await(10, TimeUnit.SECONDS));
+            stream.start();
+            Thread.sleep(100);
+            assertTrue(sent.isEmpty());
+        } finally {
+            release.countDown();
+        }
+        timeoutSender.join(10000);
+        stream.join(10000);
+        assertEquals(Arrays.asList("foo", "bar", "baz"), sent);
+    }
+}
@@ -16,6 +16,9 @@ import static org.datadog.jenkins.plugins.datadog.traces.DatadogTracesUtilities.
 import static org.datadog.jenkins.plugins.datadog.traces.DatadogTracesUtilities.SAMPLE_TIME;
 import static org.datadog.jenkins.plugins.datadog.traces.DatadogTracesUtilities.getDummyPipeline;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.junit.Test;
@@ -57,6 +60,61 @@ public class BuildPipelineTest {
         assertNode(atomTwo, SAMPLE_STEP_ATOM_NODE_TWO_ID, SAMPLE_STEP_ATOM_NODE_TWO_NAME, (SAMPLE_TIME + 200) * 1000, SAMPLE_TIME * 1000, 0);
     }
 
+    @Test
+    public void testShouldBuildPipelineIncrementallyInCreationOrder() {
+        //Given
+        final Map<String, FlowNode> flowNodeById = getDummyPipeline();
+        final BuildPipeline pipeline = new BuildPipeline();
+        pipeline.add(flowNodeById.get(SAMPLE_FLOW_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_BLOCK_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_ONE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_TWO_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_END_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_BLOCK_END_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_FLOW_END_NODE_ID));
+
+        //When
+        final BuildPipelineNode pipelineRoot = pipeline.buildTree();
+
+        //Then
+        assertTrue(pipeline.isStartNodeAdded());
+        assertNode(pipelineRoot, SAMPLE_FLOW_START_NODE_ID, SAMPLE_FLOW_START_NODE_NAME, SAMPLE_TIME * 1000, SAMPLE_TIME * 1000, 1);
+
+        final BuildPipelineNode rootChild = pipelineRoot.getChildren().get(0);
+        assertNode(rootChild, SAMPLE_BLOCK_START_NODE_ID, SAMPLE_BLOCK_START_NODE_NAME, SAMPLE_TIME * 1000, SAMPLE_TIME * 1000, 1);
+
+        final BuildPipelineNode rootChildChild = rootChild.getChildren().get(0);
+        assertNode(rootChildChild, SAMPLE_STEP_START_NODE_ID, SAMPLE_STEP_START_NODE_NAME, SAMPLE_TIME * 1000, SAMPLE_TIME * 1000, 2);
+        assertEquals(rootChildChild.getChildren().get(0), rootChildChild.getChild(new BuildPipelineNode.BuildPipelineNodeKey(SAMPLE_STEP_ATOM_NODE_ONE_ID, SAMPLE_STEP_ATOM_NODE_ONE_NAME)));
+    }
+
+    @Test
+    public void testShouldCompleteNodesBeforeThePipelineFinishes() {
+        //Given
+        final Map<String, FlowNode> flowNodeById = getDummyPipeline();
+        final BuildPipeline pipeline = new BuildPipeline();
+        pipeline.add(flowNodeById.get(SAMPLE_FLOW_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_BLOCK_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_START_NODE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_ONE_ID));
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_TWO_ID));
+
+        //When
+        final BuildPipelineNode atomOne = pipeline.complete(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_ONE_ID), SAMPLE_TIME + 200);
+        atomOne.setEmitted(true);
+
+        pipeline.add(flowNodeById.get(SAMPLE_STEP_END_NODE_ID));
+        final BuildPipelineNode stepBlock = pipeline.complete(flowNodeById.get(SAMPLE_STEP_END_NODE_ID), -1L);
+
+        //Then
+        assertNode(atomOne, SAMPLE_STEP_ATOM_NODE_ONE_ID, SAMPLE_STEP_ATOM_NODE_ONE_NAME, (SAMPLE_TIME + 100) * 1000, (SAMPLE_TIME + 200) * 1000, 0);
+        assertEquals(stepBlock, pipeline.getParent(atomOne));
+        assertEquals(SAMPLE_BLOCK_START_NODE_ID, pipeline.getParent(stepBlock).getId());
+        assertNotEquals(-1L, stepBlock.getSpanId());
+        assertNull(pipeline.complete(flowNodeById.get(SAMPLE_STEP_ATOM_NODE_ONE_ID), SAMPLE_TIME + 200));
+    }
+
     private void assertNode(BuildPipelineNode node, String expectedId, String expectedName, long expectedStartTimeMicros, long expectedEndTimeMicros, int expectedChildrenSize) {
         assertEquals(expectedId, node.getId());
         assertEquals(expectedName, node.getName());
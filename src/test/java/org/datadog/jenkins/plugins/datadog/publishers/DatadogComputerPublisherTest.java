@@ -2,11 +2,14 @@ package org.datadog.jenkins.plugins.datadog.publishers;
 
 import java.util.Arrays;
 
+import org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
@@ -18,6 +21,10 @@ import hudson.slaves.OfflineCause;
 public class DatadogComputerPublisherTest {
     @ClassRule 
     public static JenkinsRule jenkins = new JenkinsRule();
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private static DatadogClientStub client = new DatadogClientStub();
     
     @BeforeClass
@@ -139,4 +146,31 @@ public class DatadogComputerPublisherTest {
         client.assertMetricValues("jenkins.node_status.up", 0, hostname, numComputersOffline);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testJenkinsNodeMetricsAggregatedByLabel() throws Exception {
+        DatadogGlobalConfiguration cfg = DatadogUtilities.getDatadogGlobalDescriptor();
+        cfg.setComputerMetricsMode(ComputerMetricsMode.LABELS.name());
+        try {
+            DatadogComputerPublisher computerPublisher = new DatadogComputerPublisher();
+            String url = jenkins.getURL().toString();
+
+            EnvVars envVars = new EnvVars();
+            jenkins.createSlave("labeled", "linux", envVars);
+            jenkins.createSlave("labeled1", "linux", envVars);
+
+            String[] expectedTags = new String[2];
+            expectedTags[0] = "node_label:linux";
+            expectedTags[1] = "jenkins_url:" + url;
+
+            String hostname = DatadogUtilities.getHostname(null);
+
+            computerPublisher.doRun();
+
+            client.assertMetric("jenkins.node_status.count", 2, hostname, expectedTags);
+            client.assertMetric("jenkins.node_status.up", 0, hostname, expectedTags);
+        } finally {
+            cfg.setComputerMetricsMode(ComputerMetricsMode.ALL_NODES.name());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.datadog.jenkins.plugins.datadog.publishers;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import hudson.PluginManager;
@@ -13,12 +15,18 @@ import jenkins.model.Jenkins;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
+import org.datadog.jenkins.plugins.datadog.util.JenkinsInventory;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 public class DatadogJenkinsPublisherTest {
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     private DatadogClientStub client;
     private DatadogJenkinsPublisher queuePublisher;
     private Jenkins jenkins;
@@ -28,6 +36,7 @@ public class DatadogJenkinsPublisherTest {
 
     @Before
     public void setup() {
+        JenkinsInventory.get().clear();
         client = new DatadogClientStub();
         queuePublisher = new DatadogJenkinsPublisher();
         ClientFactory.setTestClient(client);
@@ -81,4 +90,50 @@ public class DatadogJenkinsPublisherTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testProjectCountIsUpdatedIncrementally() throws Exception {
+        final String[] expectedTags = new String[1];
+        expectedTags[0] = "jenkins_url:dummy.hostname";
+        try(MockedStatic<Jenkins> jenkinsClass = Mockito.mockStatic(Jenkins.class)){
+            jenkinsClass.when(Jenkins::getInstanceOrNull).thenReturn(jenkins);
+            jenkinsClass.when(Jenkins::getInstance).thenReturn(jenkins);
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.project.count", 2, hostname, expectedTags);
+
+            JenkinsInventory.get().onItemCreated(mock(Project.class));
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.project.count", 3, hostname, expectedTags);
+
+            JenkinsInventory.get().onItemDeleted(mock(Project.class));
+            JenkinsInventory.get().onItemDeleted(mock(Project.class));
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.project.count", 1, hostname, expectedTags);
+        }
+        // The item tree is only walked once
+        verify(jenkins, times(1)).getAllItems(Project.class);
+    }
+
+    @Test
+    public void testPluginDataIsCachedUntilPluginsChange() throws Exception {
+        addPlugin(true, true, false);
+        final String[] expectedTags = new String[1];
+        expectedTags[0] = "jenkins_url:dummy.hostname";
+        try(MockedStatic<Jenkins> jenkinsClass = Mockito.mockStatic(Jenkins.class)){
+            jenkinsClass.when(Jenkins::getInstanceOrNull).thenReturn(jenkins);
+            jenkinsClass.when(Jenkins::getInstance).thenReturn(jenkins);
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.plugin.withUpdate", 1, hostname, expectedTags);
+
+            // Not recalculated while the plugin manager does not change
+            when(plugins.getFirst().hasUpdate()).thenReturn(false);
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.plugin.withUpdate", 1, hostname, expectedTags);
+
+            addPlugin(true, false, false);
+            queuePublisher.doRun();
+            client.assertMetric("jenkins.plugin.count", 2, hostname, expectedTags);
+            client.assertMetric("jenkins.plugin.withUpdate", 0, hostname, expectedTags);
+        }
+    }
+}
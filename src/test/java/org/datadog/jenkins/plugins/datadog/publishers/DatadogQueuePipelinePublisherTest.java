@@ -4,6 +4,7 @@ import hudson.model.Queue;
 import hudson.model.queue.QueueTaskFuture;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
@@ -12,6 +13,7 @@ import org.apache.commons.io.IOUtils;
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
 
@@ -20,6 +22,9 @@ public class DatadogQueuePipelinePublisherTest {
     @ClassRule
     public static JenkinsRule jenkins = new JenkinsRule();
 
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
 
     @Test
     public void testPipelineInQueue() throws Exception {
@@ -2,15 +2,21 @@ package org.datadog.jenkins.plugins.datadog.publishers;
 
 import org.junit.Before;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.SleepBuilder;
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.datadog.jenkins.plugins.datadog.DatadogUtilities;
 import org.datadog.jenkins.plugins.datadog.clients.ClientFactory;
 import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
 
 import hudson.model.Messages;
 import hudson.model.ParametersAction;
@@ -24,6 +30,10 @@ import hudson.slaves.OfflineCause;
 public class DatadogQueuePublisherTest {
     @ClassRule 
     public static JenkinsRule jenkins = new JenkinsRule();
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
     public DatadogClientStub client;
     DatadogQueuePublisher queuePublisher = new DatadogQueuePublisher();
     
@@ -78,10 +88,9 @@ public class DatadogQueuePublisherTest {
         expectedTags[1] = "job_name:" + displayName;
         queuePublisher.doRun();
         
-        // Since the same job is in the queue multiple times, then its metric should be submitted multiple times
-        client.assertMetric("jenkins.queue.job.in_queue", 1, hostname, expectedTags);
-        client.assertMetric("jenkins.queue.job.in_queue", 1, hostname, expectedTags);
-        client.assertMetric("jenkins.queue.job.in_queue", 1, hostname, expectedTags);
+        // Since the same job is in the queue multiple times, then its metric should count all of its items
+        int size = jenkins.jenkins.getQueue().getItems().length;
+        client.assertMetric("jenkins.queue.job.in_queue", size, hostname, expectedTags);
     }
     
     @Test
@@ -173,4 +182,25 @@ public class DatadogQueuePublisherTest {
         client.assertMetricValuesMin("jenkins.queue.job.pending", 0, hostname, size);
 
     }
+
+    @Test
+    public void testQueueMetricsLimitedJobs() throws Exception {
+        Map<String, DatadogQueuePublisher.QueueCounts> countsByJob = new HashMap<>();
+        for (int i = 1; i <= 4; i++) {
+            DatadogQueuePublisher.QueueCounts counts = new DatadogQueuePublisher.QueueCounts();
+            counts.inQueue = i;
+            counts.buildable = 1;
+            countsByJob.put("job" + i, counts);
+        }
+
+        Map<String, DatadogQueuePublisher.QueueCounts> limited = DatadogQueuePublisher.limitJobs(countsByJob, 2);
+        assertEquals(3, limited.size());
+        assertEquals(4, limited.get("job4").inQueue);
+        assertEquals(3, limited.get("job3").inQueue);
+        assertEquals(3, limited.get(DatadogQueuePublisher.OTHER_JOB_NAME).inQueue);
+        assertEquals(2, limited.get(DatadogQueuePublisher.OTHER_JOB_NAME).buildable);
+
+        assertEquals(countsByJob, DatadogQueuePublisher.limitJobs(countsByJob, 0));
+        assertEquals(countsByJob, DatadogQueuePublisher.limitJobs(countsByJob, 4));
+    }
 }
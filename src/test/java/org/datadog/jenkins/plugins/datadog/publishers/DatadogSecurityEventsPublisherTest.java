@@ -0,0 +1,41 @@
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
+import org.datadog.jenkins.plugins.datadog.util.SecurityEventCoalescer;
+import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DatadogSecurityEventsPublisherTest {
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
+    @Test
+    public void testPublishSubmitsSummaryEventAndCounter() {
+        DatadogClientStub client = new DatadogClientStub();
+        SecurityEventCoalescer coalescer = SecurityEventCoalescer.get();
+        coalescer.clear();
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "user_id", "alice");
+
+        coalescer.open("authenticated", "alice", "jenkins.user.authenticated", "hostname", tags, 0, 1000);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(coalescer.coalesce("authenticated", "alice", 100 + i));
+        }
+        List<SecurityEventCoalescer.Window> windows = coalescer.expire(1000);
+        assertEquals(1, windows.size());
+
+        DatadogSecurityEventsPublisher.publish(client, windows);
+
+        assertEquals(1, client.events.size());
+        client.assertMetric("jenkins.user.authenticated", 5, "hostname", new String[]{"user_id:alice"});
+    }
+}
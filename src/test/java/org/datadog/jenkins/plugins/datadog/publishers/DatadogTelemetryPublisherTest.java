@@ -0,0 +1,56 @@
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import org.datadog.jenkins.plugins.datadog.clients.DatadogClientStub;
+import org.datadog.jenkins.plugins.datadog.clients.SynchronousDispatchRule;
+import org.datadog.jenkins.plugins.datadog.telemetry.PluginTelemetry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+public class DatadogTelemetryPublisherTest {
+
+    @Rule
+    public SynchronousDispatchRule synchronousDispatch = new SynchronousDispatchRule();
+
+    private DatadogClientStub client;
+    private DatadogTelemetryPublisher publisher;
+
+    @Before
+    public void setup() {
+        PluginTelemetry.get().clear();
+        client = new DatadogClientStub();
+        publisher = new DatadogTelemetryPublisher();
+    }
+
+    @Test
+    public void testCountersAndHistogramsAreSubmittedPerInterval() {
+        PluginTelemetry telemetry = PluginTelemetry.get();
+        telemetry.increment(PluginTelemetry.PAYLOADS_SENT, "route:logs");
+        telemetry.record(PluginTelemetry.LISTENER_DURATION, TimeUnit.MILLISECONDS.toNanos(3), "callback:DatadogBuildListener#onStarted");
+        // Values recorded before the previous run are not submitted again
+        publisher.intervalCounters();
+        publisher.intervalHistograms();
+
+        telemetry.add(PluginTelemetry.LOG_LINES, 120);
+        telemetry.increment(PluginTelemetry.PAYLOADS_SENT, "route:logs");
+        telemetry.increment(PluginTelemetry.PAYLOADS_SENT, "route:logs");
+        telemetry.add(PluginTelemetry.CACHE_HITS, 3, "cache:git_metadata");
+        telemetry.increment(PluginTelemetry.CACHE_MISSES, "cache:git_metadata");
+        telemetry.record(PluginTelemetry.LISTENER_DURATION, TimeUnit.MILLISECONDS.toNanos(20), "callback:DatadogBuildListener#onStarted");
+
+        DatadogTelemetryPublisher.publish(client, "test-host", new HashMap<>(),
+                publisher.intervalCounters(), publisher.intervalHistograms(), new HashMap<>(), TimeUnit.MINUTES.toMillis(1));
+
+        client.assertMetric("datadog.jenkins.plugin.transport.payloads.sent", 2, "test-host", new String[]{"route:logs"});
+        client.assertMetric("datadog.jenkins.plugin.logs.lines", 120, "test-host", new String[]{});
+        client.assertMetric("datadog.jenkins.plugin.logs.lines_per_second", 2, "test-host", new String[]{});
+        client.assertMetric("datadog.jenkins.plugin.cache.hit_rate", 75, "test-host", new String[]{"cache:git_metadata"});
+        String[] listenerTags = new String[]{"callback:DatadogBuildListener#onStarted"};
+        client.assertMetric("datadog.jenkins.plugin.listener.duration.count", 1, "test-host", listenerTags);
+        client.assertMetric("datadog.jenkins.plugin.listener.duration.avg", 20000, "test-host", listenerTags);
+        client.assertMetric("datadog.jenkins.plugin.listener.duration.p99", 20000, "test-host", listenerTags);
+    }
+}
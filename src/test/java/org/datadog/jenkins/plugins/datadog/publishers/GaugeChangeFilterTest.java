@@ -0,0 +1,66 @@
+package org.datadog.jenkins.plugins.datadog.publishers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.datadog.jenkins.plugins.datadog.util.TagsUtil;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+public class GaugeChangeFilterTest {
+
+    @Test
+    public void testShouldOnlySubmitChangedValues() {
+        GaugeChangeFilter filter = new GaugeChangeFilter(1000);
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "node_name", "test");
+
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 0));
+        assertFalse(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 10));
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 2, tags, 20));
+        assertFalse(filter.shouldSubmit("jenkins.executor.in_use", 2, tags, 30));
+    }
+
+    @Test
+    public void testShouldSubmitUnchangedValuesAfterHeartbeat() {
+        GaugeChangeFilter filter = new GaugeChangeFilter(1000);
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "node_name", "test");
+
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 0));
+        assertFalse(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 999));
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 1000));
+    }
+
+    @Test
+    public void testShouldTrackSeriesByNameAndTags() {
+        GaugeChangeFilter filter = new GaugeChangeFilter(1000);
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "node_name", "test");
+        Map<String, Set<String>> otherTags = TagsUtil.addTagToTags(null, "node_name", "test1");
+
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 0));
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, otherTags, 0));
+        assertTrue(filter.shouldSubmit("jenkins.executor.free", 1, tags, 0));
+        assertEquals(3, filter.size());
+    }
+
+    @Test
+    public void testShouldForgetSeriesNotReportedSinceLastPrune() {
+        GaugeChangeFilter filter = new GaugeChangeFilter(1000);
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "node_name", "test");
+        Map<String, Set<String>> otherTags = TagsUtil.addTagToTags(null, "node_name", "test1");
+
+        filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 0);
+        filter.shouldSubmit("jenkins.executor.in_use", 1, otherTags, 0);
+        filter.prune();
+        assertEquals(2, filter.size());
+
+        assertFalse(filter.shouldSubmit("jenkins.executor.in_use", 1, tags, 10));
+        filter.prune();
+        assertEquals(1, filter.size());
+
+        // A removed series is submitted again if it comes back
+        assertTrue(filter.shouldSubmit("jenkins.executor.in_use", 1, otherTags, 20));
+    }
+}
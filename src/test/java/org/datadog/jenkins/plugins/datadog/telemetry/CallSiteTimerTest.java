@@ -0,0 +1,56 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CallSiteTimerTest {
+
+    private static final MetricKey KEY = new MetricKey(CallSiteTimer.CALL_SITE_DURATION, "call_site:CallSiteTimerTest.test");
+
+    private CallSiteTimer timer;
+
+    @Before
+    public void setup() {
+        PluginTelemetry.get().clear();
+        timer = CallSiteTimer.forCallSite("CallSiteTimerTest.test");
+    }
+
+    @After
+    public void tearDown() {
+        CallSiteTimer.setEnabled(false);
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() {
+        CallSiteTimer.setEnabled(false);
+        timer.stop(timer.start());
+
+        assertEquals(0, PluginTelemetry.get().getHistograms().get(KEY).getCount());
+    }
+
+    @Test
+    public void testDurationIsRecordedPerCallSite() throws InterruptedException {
+        CallSiteTimer.setEnabled(true);
+        long start = timer.start();
+        Thread.sleep(5);
+        timer.stop(start);
+
+        Histogram.Snapshot snapshot = PluginTelemetry.get().getHistograms().get(KEY);
+        assertEquals(1, snapshot.getCount());
+        assertTrue(snapshot.getMaxNanos() >= 5_000_000L);
+    }
+
+    @Test
+    public void testTimerStartedWhileDisabledIsIgnored() {
+        CallSiteTimer.setEnabled(false);
+        long start = timer.start();
+        CallSiteTimer.setEnabled(true);
+        timer.stop(start);
+
+        assertEquals(0, PluginTelemetry.get().getHistograms().get(KEY).getCount());
+    }
+}
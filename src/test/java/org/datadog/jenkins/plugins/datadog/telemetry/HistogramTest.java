@@ -0,0 +1,80 @@
+package org.datadog.jenkins.plugins.datadog.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class HistogramTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for(int bucket = 0; bucket < Histogram.BUCKET_COUNT - 1; bucket++) {
+            long upperBound = Histogram.upperBound(bucket);
+            assertEquals(bucket, Histogram.bucketOf(upperBound));
+            assertEquals(bucket + 1, Histogram.bucketOf(upperBound + 1));
+        }
+        assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRelativeErrorIsBounded() {
+        for(long value = 1; value < TimeUnit.MINUTES.toNanos(10); value = value * 3 + 7) {
+            long upperBound = Histogram.upperBound(Histogram.bucketOf(value));
+            assertTrue(upperBound >= value);
+            assertTrue("value " + value + " reported as " + upperBound, upperBound - value <= value / Histogram.SUB_BUCKET_COUNT);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram histogram = new Histogram();
+        for(int i = 0; i < 98; i++) {
+            histogram.record(MS / 2);
+        }
+        histogram.record(20 * MS);
+        histogram.record(3 * 1000 * MS);
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertClose(MS / 2, snapshot.getPercentileNanos(50));
+        assertClose(20 * MS, snapshot.getPercentileNanos(99));
+        // The last bucket is capped by the max
+        assertEquals(3 * 1000 * MS, snapshot.getPercentileNanos(100));
+        assertEquals(3 * 1000 * MS, snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void testMinusReturnsTheValuesOfTheInterval() {
+        Histogram histogram = new Histogram();
+        histogram.record(2 * 1000 * MS);
+        Histogram.Snapshot previous = histogram.snapshot();
+
+        histogram.record(3 * MS);
+        histogram.record(4 * MS);
+        Histogram.Snapshot interval = histogram.snapshot().minus(previous);
+
+        assertEquals(2, interval.getCount());
+        assertEquals(7 * MS, interval.getSumNanos());
+        assertClose(3 * MS, interval.getPercentileNanos(50));
+        assertClose(4 * MS, interval.getPercentileNanos(99));
+        assertClose(4 * MS, interval.getMaxNanos());
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanNanos());
+        assertEquals(0, snapshot.getPercentileNanos(95));
+    }
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual - expected <= expected / Histogram.SUB_BUCKET_COUNT);
+    }
+}
@@ -0,0 +1,75 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.datadog.jenkins.plugins.datadog.model.BuildPipelineNode;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class StepCollapserTest {
+
+    @Test
+    public void testCollapsibleSiblingsWithTheSameNameAreGrouped() {
+        BuildPipelineNode echo1 = node("1", "Print Message", 5);
+        BuildPipelineNode echo2 = node("2", "Print Message", 1);
+        BuildPipelineNode sh = node("3", "Shell Script", 2);
+        BuildPipelineNode echo3 = node("4", "Print Message", 3);
+
+        List<StepCollapser.Group> groups = StepCollapser.collapse(Arrays.asList(echo1, echo2, sh, echo3), node -> true);
+        assertEquals(2, groups.size());
+
+        StepCollapser.Group echoes = groups.get(0);
+        assertTrue(echoes.isCollapsed());
+        assertEquals(Arrays.asList(echo1, echo2, echo3), echoes.getNodes());
+        assertEquals(0, echoes.getStartTimeMicros());
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(5), echoes.getEndTimeMicros());
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(9), echoes.getTotalDurationMicros());
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(1), echoes.getMinDurationMicros());
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(5), echoes.getMaxDurationMicros());
+
+        assertFalse(groups.get(1).isCollapsed());
+        assertSame(sh, groups.get(1).getFirst());
+    }
+
+    @Test
+    public void testSiblingsThatAreNotCollapsibleKeepTheirOrder() {
+        BuildPipelineNode echo1 = node("1", "Print Message", 1);
+        BuildPipelineNode failed = node("2", "Print Message", 1);
+        BuildPipelineNode echo2 = node("3", "Print Message", 1);
+        BuildPipelineNode slow = node("4", "Print Message", 1000);
+        Set<BuildPipelineNode> notCollapsible = new HashSet<>(Arrays.asList(failed, slow));
+
+        List<StepCollapser.Group> groups = StepCollapser.collapse(Arrays.asList(echo1, failed, echo2, slow), node -> !notCollapsible.contains(node));
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList(echo1, echo2), groups.get(0).getNodes());
+        assertSame(failed, groups.get(1).getFirst());
+        assertFalse(groups.get(1).isCollapsed());
+        assertSame(slow, groups.get(2).getFirst());
+        assertFalse(groups.get(2).isCollapsed());
+    }
+
+    @Test
+    public void testSingleCollapsibleSiblingIsNotCollapsed() {
+        BuildPipelineNode echo = node("1", "Print Message", 1);
+        BuildPipelineNode sh = node("2", "Shell Script", 1);
+
+        List<StepCollapser.Group> groups = StepCollapser.collapse(Arrays.asList(echo, sh), node -> true);
+        assertEquals(2, groups.size());
+        assertFalse(groups.get(0).isCollapsed());
+        assertFalse(groups.get(1).isCollapsed());
+    }
+
+    private static BuildPipelineNode node(String id, String name, long durationMillis) {
+        BuildPipelineNode node = new BuildPipelineNode(id, name);
+        node.setEndTime(durationMillis);
+        return node;
+    }
+}
@@ -0,0 +1,104 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.datadog.jenkins.plugins.datadog.model.FlowNodeQueueData;
+import org.datadog.jenkins.plugins.datadog.model.StageData;
+import org.datadog.jenkins.plugins.datadog.model.StepTraceData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TraceDataJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReplayReturnsAppendedRecordsInOrder() throws Exception {
+        final File file = new File(folder.getRoot(), TraceDataJournal.FILE_NAME);
+        final TraceDataJournal journal = new TraceDataJournal(file);
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "3", new StepTraceData(10L));
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "4", new StepTraceData(20L));
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "3", new StepTraceData(30L));
+        journal.append(TraceDataJournal.RecordType.QUEUE_DATA, "5", new FlowNodeQueueData("5"));
+        journal.close();
+
+        final Map<String, Long> spanIds = new HashMap<>();
+        final Map<String, Object> queueData = new HashMap<>();
+        new TraceDataJournal(file).replay(new TraceDataJournal.RecordVisitor() {
+            @Override
+            public void visit(TraceDataJournal.RecordType type, String key, Object value) {
+                if(type == TraceDataJournal.RecordType.STEP_TRACE_DATA) {
+                    spanIds.put(key, ((StepTraceData) value).getSpanId());
+                } else {
+                    queueData.put(key, value);
+                }
+            }
+        });
+
+        assertEquals(2, spanIds.size());
+        assertEquals(Long.valueOf(30L), spanIds.get("3"));
+        assertEquals(Long.valueOf(20L), spanIds.get("4"));
+        assertTrue(queueData.get("5") instanceof FlowNodeQueueData);
+    }
+
+    @Test
+    public void testReplayIgnoresTruncatedRecord() throws Exception {
+        final File file = new File(folder.getRoot(), TraceDataJournal.FILE_NAME);
+        final TraceDataJournal journal = new TraceDataJournal(file);
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "3", new StepTraceData(10L));
+        journal.close();
+
+        // Simulate a partially written record.
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{2, 0, 1});
+        }
+
+        final Map<String, Object> records = new HashMap<>();
+        new TraceDataJournal(file).replay(new TraceDataJournal.RecordVisitor() {
+            @Override
+            public void visit(TraceDataJournal.RecordType type, String key, Object value) {
+                records.put(key, value);
+            }
+        });
+
+        assertEquals(1, records.size());
+    }
+
+    @Test
+    public void testRecordsAreWrittenAtStageBoundaries() {
+        final File file = new File(folder.getRoot(), TraceDataJournal.FILE_NAME);
+        final TraceDataJournal journal = new TraceDataJournal(file);
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "3", new StepTraceData(10L));
+        assertEquals(0, file.length());
+
+        journal.append(TraceDataJournal.RecordType.STAGE_DATA, "build", StageData.builder().withName("build").build());
+        final long length = file.length();
+        assertTrue(length > 0);
+
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "4", new StepTraceData(20L));
+        assertEquals(length, file.length());
+
+        journal.close();
+        assertTrue(file.length() > length);
+    }
+
+    @Test
+    public void testDeleteRemovesTheJournal() {
+        final File file = new File(folder.getRoot(), TraceDataJournal.FILE_NAME);
+        final TraceDataJournal journal = new TraceDataJournal(file);
+        journal.append(TraceDataJournal.RecordType.STEP_TRACE_DATA, "3", new StepTraceData(10L));
+        assertTrue(journal.exists());
+
+        journal.delete();
+        assertFalse(journal.exists());
+    }
+}
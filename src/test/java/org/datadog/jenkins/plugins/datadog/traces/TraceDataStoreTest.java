@@ -0,0 +1,60 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Run;
+import org.junit.After;
+import org.junit.Test;
+
+public class TraceDataStoreTest {
+
+    private final Run<?, ?> run = mockRun("job#1");
+
+    @After
+    public void tearDown() {
+        TraceDataStore.get().remove(run);
+    }
+
+    @Test
+    public void testGetDoesNotCreateTheDataOfARunNoLongerBuilding() {
+        when(run.isBuilding()).thenReturn(false);
+        assertNull(TraceDataStore.get().get(run));
+
+        final TraceDataStore.RunTraceData data = TraceDataStore.get().forRun(run);
+        assertSame(data, TraceDataStore.get().get(run));
+
+        TraceDataStore.get().remove(run);
+        assertNull(TraceDataStore.get().get(run));
+    }
+
+    @Test
+    public void testGetCreatesTheDataOfABuildingRun() {
+        when(run.isBuilding()).thenReturn(true);
+        assertNotNull(TraceDataStore.get().get(run));
+    }
+
+    @Test
+    public void testSweepOnlyRemovesTheIdleDataOfRunsNoLongerBuilding() {
+        when(run.isBuilding()).thenReturn(true);
+        TraceDataStore.get().forRun(run);
+        final long later = System.currentTimeMillis() + TraceDataStore.SWEEP_GRACE_MILLIS;
+
+        assertEquals(0, TraceDataStore.get().sweep(later));
+
+        when(run.isBuilding()).thenReturn(false);
+        assertEquals(0, TraceDataStore.get().sweep(System.currentTimeMillis()));
+        assertEquals(1, TraceDataStore.get().sweep(later));
+        assertNull(TraceDataStore.get().get(run));
+    }
+
+    private static Run<?, ?> mockRun(String externalizableId) {
+        final Run<?, ?> run = mock(Run.class);
+        when(run.getExternalizableId()).thenReturn(externalizableId);
+        return run;
+    }
+}
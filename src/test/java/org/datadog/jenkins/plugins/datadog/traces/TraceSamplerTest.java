@@ -0,0 +1,87 @@
+package org.datadog.jenkins.plugins.datadog.traces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TraceSamplerTest {
+
+    private static final String RULES = "release-.*, 100\n.*-pr-.*, 10, 2\nnightly, 0";
+
+    @Test
+    public void testRunsOfJobsWithoutRuleAreKept() {
+        TraceSampler sampler = new TraceSampler();
+        assertSame(TraceSampler.Decision.KEEP_UNMATCHED, sampler.sample(RULES, 0, "other", "SUCCESS", 1000, 1, 0));
+        assertSame(TraceSampler.Decision.KEEP_UNMATCHED, sampler.sample(null, 0, "nightly", "SUCCESS", 1000, 1, 0));
+    }
+
+    @Test
+    public void testNotSuccessfulRunsAreKept() {
+        TraceSampler sampler = new TraceSampler();
+        for (String result : new String[]{"FAILURE", "UNSTABLE", "ABORTED"}) {
+            TraceSampler.Decision decision = sampler.sample(RULES, 0, "nightly", result, 1000, 1, 0);
+            assertTrue(decision.isKeep());
+            assertEquals("result", decision.getReason());
+            assertEquals(TraceSampler.USER_KEEP, decision.getPriority(), 0);
+        }
+        assertFalse(sampler.sample(RULES, 0, "nightly", "SUCCESS", 1000, 1, 0).isKeep());
+    }
+
+    @Test
+    public void testSlowRunsAreKept() {
+        TraceSampler sampler = new TraceSampler();
+        long threshold = TimeUnit.MINUTES.toMillis(10);
+        assertSame(TraceSampler.Decision.KEEP_SLOW, sampler.sample(RULES, threshold, "nightly", "SUCCESS", threshold, 1, 0));
+        assertFalse(sampler.sample(RULES, threshold, "nightly", "SUCCESS", threshold - 1, 1, 0).isKeep());
+    }
+
+    @Test
+    public void testSuccessfulRunsAreSampledByTraceId() {
+        TraceSampler sampler = new TraceSampler();
+        int kept = 0;
+        for (int i = 0; i < 10000; i++) {
+            long traceId = IdGenerator.generate();
+            TraceSampler.Decision decision = sampler.sample(".*-pr-.*, 10", 0, "app-pr-" + i, "SUCCESS", 1000, traceId, 0);
+            assertEquals(decision.isKeep(), TraceSampler.isSampled(traceId, 0.1));
+            assertEquals(0.1, decision.getRuleRate(), 0);
+            if (decision.isKeep()) {
+                assertEquals(TraceSampler.AUTO_KEEP, decision.getPriority(), 0);
+                kept++;
+            }
+        }
+        assertTrue("kept " + kept, kept > 800 && kept < 1200);
+
+        assertTrue(sampler.sample(RULES, 0, "release-1", "SUCCESS", 1000, 1, 0).isKeep());
+    }
+
+    @Test
+    public void testSampledRunsAreRateLimitedPerJob() {
+        TraceSampler sampler = new TraceSampler();
+        String rules = "app-.*, 100, 2";
+        assertTrue(sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 1, 0).isKeep());
+        assertTrue(sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 2, 0).isKeep());
+        TraceSampler.Decision decision = sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 3, 0);
+        assertFalse(decision.isKeep());
+        assertEquals("rate_limited", decision.getReason());
+
+        // Other jobs have their own limit
+        assertTrue(sampler.sample(rules, 0, "app-2", "SUCCESS", 1000, 4, 0).isKeep());
+        // Failed runs are not limited
+        assertTrue(sampler.sample(rules, 0, "app-1", "FAILURE", 1000, 5, 0).isKeep());
+        // The limit is refilled over the hour
+        assertTrue(sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 6, TimeUnit.MINUTES.toMillis(30)).isKeep());
+        assertFalse(sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 7, TimeUnit.MINUTES.toMillis(30)).isKeep());
+    }
+
+    @Test
+    public void testInvalidRulesAreIgnored() {
+        TraceSampler sampler = new TraceSampler();
+        String rules = "app-.*\n[, 10\napp-.*, ten\napp-.*, 0";
+        assertFalse(sampler.sample(rules, 0, "app-1", "SUCCESS", 1000, 1, 0).isKeep());
+    }
+}
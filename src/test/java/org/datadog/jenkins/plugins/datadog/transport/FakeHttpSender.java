@@ -27,7 +27,7 @@ public class FakeHttpSender extends HttpSender {
     private final AtomicInteger messageCount = new AtomicInteger();
 
     FakeHttpSender(BlockingQueue<HttpMessage> queue) {
-        super(queue, NO_OP, 1000);
+        super(queue, NO_OP, 1000, 1000);
     }
 
     @Override
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
@@ -23,7 +24,13 @@ public class FakeTracesHttpClient implements HttpClient {
 
     @Override
     public void send(List<PayloadMessage> messages) {
-        for(PayloadMessage msg : messages){
+        send(messages.iterator());
+    }
+
+    @Override
+    public void send(Iterator<? extends PayloadMessage> messages) {
+        while(messages.hasNext()){
+            final PayloadMessage msg = messages.next();
             final TraceSpan span = (TraceSpan) msg;
             this.traceCount.incrementAndGet();
             synchronized (this.latches) {
@@ -33,6 +33,32 @@ public class HttpSenderTest {
         assertEquals(3, sender.getHttpMessages().size());
     }
 
+    @Test
+    public void testHttpSenderWaitsForRoomInTheQueue() throws TimeoutException, InterruptedException {
+        //Given
+        final BlockingQueue<HttpMessage> queue = new LinkedBlockingQueue<>(1);
+        final FakeHttpSender sender = new FakeHttpSender(queue);
+        sender.send(SAMPLE_MESSAGE);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            executor.submit(sender);
+        });
+        consumer.start();
+
+        //When
+        // The queue is full until the consumer starts
+        sender.send(SAMPLE_MESSAGE);
+
+        //Then
+        sender.waitForMessages(2);
+        assertEquals(2, sender.getHttpMessages().size());
+    }
+
 
     private static URL buildURL(final String urlStr) {
         try {
@@ -0,0 +1,189 @@
+package org.datadog.jenkins.plugins.datadog.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Unix Domain Socket is replaced by a local TCP socket, the HTTP exchange over the channel is the same.
+ */
+public class UnixSocketHttpURLConnectionTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile ServerSocket server;
+
+    @After
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testRequestIsSentThroughTheSocket() throws Exception {
+        Future<String> request = respond("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 2\r\n\r\n{}");
+
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/v0.3/traces?foo=bar").openConnection();
+        conn.setRequestMethod("PUT");
+        conn.setRequestProperty("Content-Type", "application/json");
+        conn.setDoOutput(true);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write("[[]]".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(200, conn.getResponseCode());
+        assertEquals("application/json", conn.getHeaderField("content-type"));
+        assertEquals("{}", read(conn.getInputStream()));
+        assertEquals("PUT /v0.3/traces?foo=bar HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Connection: close\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: 4\r\n"
+                + "\r\n"
+                + "[[]]", request.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testChunkedResponseIsDecoded() throws Exception {
+        respond("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "7\r\n{\"endpo\r\n"
+                + "10;ext=1\r\nints\":[\"/info\"]}\r\n"
+                + "0\r\n\r\n");
+
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/info").openConnection();
+        assertEquals("{\"endpoints\":[\"/info\"]}", read(conn.getInputStream()));
+    }
+
+    @Test
+    public void testResponseWithoutLengthEndsWithTheConnection() throws Exception {
+        respond("HTTP/1.0 202 Accepted\r\n\r\nOK");
+
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/evp_proxy/v1/api/v2/webhook/").openConnection();
+        assertEquals(202, conn.getResponseCode());
+        assertEquals("Accepted", conn.getResponseMessage());
+        assertEquals("OK", read(conn.getInputStream()));
+    }
+
+    @Test
+    public void testErrorResponseIsReadFromTheErrorStream() throws Exception {
+        respond("HTTP/1.1 404 Not Found\r\nContent-Length: 9\r\n\r\nnot found");
+
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/info").openConnection();
+        try {
+            conn.getInputStream();
+            fail("The input stream of an error response must not be readable");
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+        assertEquals(404, conn.getResponseCode());
+        assertEquals("not found", read(conn.getErrorStream()));
+    }
+
+    @Test
+    public void testInvalidResponseFails() throws Exception {
+        respond("SSH-2.0-OpenSSH\r\n");
+
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/info").openConnection();
+        try {
+            conn.getResponseCode();
+            fail("An invalid response must fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Invalid HTTP response"));
+        }
+    }
+
+    @Test
+    public void testConnectorGetsTheTimeouts() throws Exception {
+        respond("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n");
+
+        final int[] timeouts = new int[2];
+        HttpURLConnection conn = (HttpURLConnection) buildURL("/info", (writeTimeoutMs, readTimeoutMs) -> {
+            timeouts[0] = writeTimeoutMs;
+            timeouts[1] = readTimeoutMs;
+            return connectToServer();
+        }).openConnection();
+        conn.setConnectTimeout(1000);
+        conn.setReadTimeout(60000);
+        assertEquals(200, conn.getResponseCode());
+        assertEquals(1000, timeouts[0]);
+        assertEquals(60000, timeouts[1]);
+    }
+
+    private URL buildURL(final String path) throws IOException {
+        return buildURL(path, (writeTimeoutMs, readTimeoutMs) -> connectToServer());
+    }
+
+    private URL buildURL(final String path, final UnixSocketHttpURLConnection.Connector connector) throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        return UnixSocketHttpURLConnection.buildURL(connector, path);
+    }
+
+    private SocketChannel connectToServer() throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+    }
+
+    /**
+     * Accepts one connection, replies with the given response and returns the request.
+     */
+    private Future<String> respond(final String response) {
+        return executor.submit(() -> {
+            while (server == null) {
+                Thread.sleep(10);
+            }
+            try (Socket socket = server.accept()) {
+                final InputStream in = socket.getInputStream();
+                final ByteArrayOutputStream request = new ByteArrayOutputStream();
+                int contentLength = -1;
+                int headerEnd = -1;
+                while (headerEnd < 0 || request.size() < headerEnd + contentLength) {
+                    final int c = in.read();
+                    if (c < 0) {
+                        break;
+                    }
+                    request.write(c);
+                    final String head = request.toString("ISO-8859-1");
+                    if (headerEnd < 0 && head.endsWith("\r\n\r\n")) {
+                        headerEnd = head.length();
+                        final int index = head.indexOf("Content-Length: ");
+                        contentLength = index < 0 ? 0 : Integer.parseInt(head.substring(index + 16, head.indexOf("\r\n", index)));
+                    }
+                }
+                socket.getOutputStream().write(response.getBytes(StandardCharsets.ISO_8859_1));
+                socket.getOutputStream().flush();
+                return request.toString("UTF-8");
+            }
+        });
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.datadog.jenkins.plugins.datadog.util.ComputerEventAggregator.Transition;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ComputerEventAggregatorTest {
+
+    private static final long WINDOW = 60000;
+
+    @Test
+    public void testFirstTransitionOfALabelIsSent() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "node_label", "k8s");
+
+        assertTrue(aggregator.record("agent-1", "k8s", Transition.ONLINE, tags, 0, WINDOW));
+        for (int i = 2; i <= 37; i++) {
+            assertFalse(aggregator.record("agent-" + i, "k8s", Transition.ONLINE, tags, i, WINDOW));
+        }
+        // Other labels and transitions have their own window
+        assertTrue(aggregator.record("agent-x", "ec2", Transition.ONLINE, tags, 100, WINDOW));
+        assertTrue(aggregator.record("agent-1", "k8s", Transition.OFFLINE, tags, 100, WINDOW));
+
+        assertTrue(aggregator.expire(WINDOW - 1).isEmpty());
+        List<ComputerEventAggregator.Summary> summaries = aggregator.expire(WINDOW + 100);
+        assertEquals(1, summaries.size());
+        ComputerEventAggregator.Summary summary = summaries.get(0);
+        assertEquals(Transition.ONLINE, summary.getTransition());
+        assertEquals("k8s", summary.getLabel());
+        assertEquals(tags, summary.getTags());
+        assertEquals(36, summary.getCount());
+        assertEquals(1, summary.getSent());
+        assertEquals(ComputerEventAggregator.MAX_NODE_NAMES, summary.getNodeNames().size());
+        assertTrue(summary.isTruncated());
+        assertTrue(summary.getFlappingNodeNames().isEmpty());
+    }
+
+    @Test
+    public void testWindowsWithoutSummarizedTransitionsAreNotReturned() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        assertTrue(aggregator.record("agent-1", "k8s", Transition.ONLINE, null, 0, WINDOW));
+        assertTrue(aggregator.expire(WINDOW).isEmpty());
+
+        // The next transition opens a new window
+        assertTrue(aggregator.record("agent-2", "k8s", Transition.ONLINE, null, WINDOW + 1, WINDOW));
+    }
+
+    @Test
+    public void testEndedWindowsReplacedBeforeExpireAreReturned() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        assertTrue(aggregator.record("agent-1", "k8s", Transition.ONLINE, null, 0, WINDOW));
+        assertFalse(aggregator.record("agent-2", "k8s", Transition.ONLINE, null, 10, WINDOW));
+        assertTrue(aggregator.record("agent-3", "k8s", Transition.ONLINE, null, WINDOW, WINDOW));
+
+        List<ComputerEventAggregator.Summary> summaries = aggregator.expire(WINDOW + 10);
+        assertEquals(1, summaries.size());
+        assertEquals(new HashSet<>(Arrays.asList("agent-2")), summaries.get(0).getNodeNames());
+    }
+
+    @Test
+    public void testFlappingComputersAreOnlySummarized() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        assertTrue(aggregator.record("agent-1", "", Transition.ONLINE, null, 0, 1000));
+        assertTrue(aggregator.record("agent-1", "", Transition.OFFLINE, null, 1, 1000));
+        assertFalse(aggregator.record("agent-1", "", Transition.ONLINE, null, 2, 1000));
+        assertFalse(aggregator.record("agent-1", "", Transition.OFFLINE, null, 3, 1000));
+
+        List<ComputerEventAggregator.Summary> summaries = aggregator.expire(1003);
+        assertEquals(2, summaries.size());
+        for (ComputerEventAggregator.Summary summary : summaries) {
+            assertEquals(new HashSet<>(Arrays.asList("agent-1")), summary.getFlappingNodeNames());
+            assertTrue(summary.getNodeNames().isEmpty());
+        }
+
+        // Still flapping after the windows ended
+        assertFalse(aggregator.record("agent-1", "", Transition.ONLINE, null, 1010, 1000));
+        aggregator.expire(2010);
+
+        // Back to normal once the penalty decays
+        assertTrue(aggregator.record("agent-1", "", Transition.OFFLINE, null, 10000, 1000));
+    }
+
+    @Test
+    public void testTransitionsThatDoNotChangeTheStateAreSummarized() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        assertTrue(aggregator.record("agent-1", "", Transition.OFFLINE, null, 0, 10));
+        assertFalse(aggregator.record("agent-1", "", Transition.OFFLINE, null, 100, 10));
+
+        // Launch failures are reported on every retry
+        assertTrue(aggregator.record("agent-1", "", Transition.LAUNCH_FAILURE, null, 200, 10));
+    }
+
+    @Test
+    public void testIdleComputersAreRemoved() {
+        ComputerEventAggregator aggregator = new ComputerEventAggregator();
+        aggregator.record("agent-1", "k8s", Transition.ONLINE, null, 0, WINDOW);
+        aggregator.record("agent-1", "k8s", Transition.OFFLINE, null, 10, WINDOW);
+        assertEquals(3, aggregator.size());
+
+        aggregator.expire(WINDOW + 10);
+        assertEquals(1, aggregator.size());
+        aggregator.expire(5 * WINDOW);
+        assertEquals(0, aggregator.size());
+    }
+}
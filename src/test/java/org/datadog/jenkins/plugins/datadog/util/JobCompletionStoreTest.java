@@ -0,0 +1,101 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JobCompletionStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Job job;
+
+    @Before
+    public void setUp() throws Exception {
+        JobCompletionStore.get().clear();
+        job = mock(Job.class);
+        when(job.getFullName()).thenReturn("folder/job");
+        when(job.getRootDir()).thenReturn(folder.getRoot());
+    }
+
+    @Test
+    public void testShouldTrackFailureStreaksAndSuccesses() {
+        JobCompletionStore store = JobCompletionStore.get();
+
+        Run success = mockRun(Result.SUCCESS, 1000, 100);
+        assertEquals(0, store.forRun(success).getCycleTime(1100));
+        store.complete(success);
+
+        Run failure1 = mockRun(Result.FAILURE, 2000, 100);
+        assertEquals(1000, store.forRun(failure1).getMeanTimeBetweenFailure(2000));
+        store.complete(failure1);
+
+        Run failure2 = mockRun(Result.FAILURE, 3000, 100);
+        assertEquals(2000, store.forRun(failure2).getMeanTimeBetweenFailure(3000));
+        store.complete(failure2);
+
+        Run recovery = mockRun(Result.SUCCESS, 4000, 100);
+        JobCompletionStore.JobState state = store.forRun(recovery);
+        assertEquals(2000, state.getMeanTimeToRecovery(4000));
+        assertEquals(4100 - 1100, state.getCycleTime(4100));
+        store.complete(recovery);
+
+        assertEquals(0, store.forRun(mockRun(Result.SUCCESS, 5000, 100)).getMeanTimeToRecovery(5000));
+        // The history is never walked once the job has a state
+        verify(failure1, never()).getPreviousBuiltBuild();
+        verify(recovery, never()).getPreviousSuccessfulBuild();
+    }
+
+    @Test
+    public void testShouldReadTheStateFromTheJobDirectory() {
+        Run success = mockRun(Result.SUCCESS, 1000, 100);
+        JobCompletionStore.get().complete(success);
+        Run unstable = mockRun(Result.UNSTABLE, 2000, 100);
+        JobCompletionStore.get().complete(unstable);
+
+        // e.g. after a restart
+        JobCompletionStore.get().clear();
+
+        Run recovery = mockRun(Result.SUCCESS, 3000, 100);
+        JobCompletionStore.JobState state = JobCompletionStore.get().forRun(recovery);
+        assertEquals(1000, state.getMeanTimeToRecovery(3000));
+        assertEquals(3100 - 1100, state.getCycleTime(3100));
+        verify(recovery, never()).getPreviousBuiltBuild();
+    }
+
+    @Test
+    public void testShouldInitializeTheStateFromTheHistory() {
+        Run success = mockRun(Result.SUCCESS, 1000, 100);
+        Run failure = mockRun(Result.FAILURE, 2000, 100);
+        when(failure.getPreviousBuiltBuild()).thenReturn(success);
+        Run current = mockRun(Result.SUCCESS, 3000, 100);
+        when(current.getPreviousBuiltBuild()).thenReturn(failure);
+        when(current.getPreviousSuccessfulBuild()).thenReturn(success);
+        when(current.getPreviousNotFailedBuild()).thenReturn(success);
+
+        JobCompletionStore.JobState state = JobCompletionStore.get().forRun(current);
+        assertEquals(1000, state.getMeanTimeToRecovery(3000));
+        assertEquals(3100 - 1100, state.getCycleTime(3100));
+        assertEquals(2000, state.getMeanTimeBetweenFailure(3000));
+    }
+
+    private Run mockRun(Result result, long startTime, long duration) {
+        Run run = mock(Run.class);
+        when(run.getParent()).thenReturn(job);
+        when(run.getResult()).thenReturn(result);
+        when(run.getStartTimeInMillis()).thenReturn(startTime);
+        when(run.getDuration()).thenReturn(duration);
+        return run;
+    }
+}
@@ -0,0 +1,125 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class RunSerialExecutorTest {
+
+    private RunSerialExecutor executor;
+
+    @Before
+    public void setUp() {
+        RunSerialExecutor.setEnableAsync(true);
+        executor = new RunSerialExecutor(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown(10000);
+        RunSerialExecutor.setEnableAsync(true);
+    }
+
+    @Test
+    public void testTasksOfARunAreExecutedInOrder() {
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        final int tasks = RunSerialExecutor.MAX_TASKS_PER_TURN * 3;
+        for (int i = 0; i < tasks; i++) {
+            final int index = i;
+            executor.submit("job#1", () -> executed.add(index));
+        }
+
+        assertTrue(executor.awaitIdle("job#1", 10000));
+        assertEquals(tasks, executed.size());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+        assertEquals(0, executor.size());
+    }
+
+    @Test
+    public void testSubmitDoesNotWaitForTheTask() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.submit("job#1", () -> await(release));
+        executor.submit("job#1", executed::countDown);
+
+        assertEquals(2, executor.size());
+        assertFalse(executor.awaitIdle("job#1", 10));
+        release.countDown();
+        assertTrue(executed.await(10, TimeUnit.SECONDS));
+        assertTrue(executor.awaitIdle("job#1", 10000));
+    }
+
+    @Test
+    public void testSlowRunDoesNotBlockOtherRuns() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(1);
+        executor.submit("job#1", () -> await(release));
+        executor.submit("job#2", executed::countDown);
+
+        assertTrue(executed.await(10, TimeUnit.SECONDS));
+        assertTrue(executor.awaitIdle("job#2", 10000));
+        release.countDown();
+        assertTrue(executor.awaitIdle("job#1", 10000));
+    }
+
+    @Test
+    public void testFailedTaskDoesNotStopTheRun() {
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        executor.submit("job#1", () -> {
+            throw new IllegalStateException("expected");
+        });
+        executor.submit("job#1", () -> executed.add(1));
+
+        assertTrue(executor.awaitIdle("job#1", 10000));
+        assertEquals(Collections.singletonList(1), executed);
+    }
+
+    @Test
+    public void testTasksOverTheLimitAreQueuedInOrder() throws Exception {
+        executor.shutdown(10000);
+        executor = new RunSerialExecutor(1, 2, 50);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        executor.submit("job#1", () -> await(release));
+        executor.submit("job#1", () -> executed.add(1));
+
+        // The limit is reached: the submission waits for the run, then queues the task anyway
+        final Thread caller = Thread.currentThread();
+        executor.submit("job#1", () -> executed.add(Thread.currentThread() == caller ? -1 : 2));
+        assertTrue(executed.isEmpty());
+        assertEquals(3, executor.size());
+
+        release.countDown();
+        assertTrue(executor.awaitIdle("job#1", 10000));
+        assertEquals(Arrays.asList(1, 2), executed);
+    }
+
+    @Test
+    public void testSynchronousExecution() {
+        RunSerialExecutor.setEnableAsync(false);
+        final List<Integer> executed = new ArrayList<>();
+        executor.submit("job#1", () -> executed.add(1));
+        assertEquals(Collections.singletonList(1), executed);
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SecurityEventCoalescerTest {
+
+    private static final String METRIC = "jenkins.user.authenticated";
+
+    @Test
+    public void testFirstOccurrenceIsNotCoalesced() {
+        SecurityEventCoalescer coalescer = new SecurityEventCoalescer();
+        assertFalse(coalescer.coalesce("authenticated", "alice", 0));
+    }
+
+    @Test
+    public void testOccurrencesInTheWindowAreCoalesced() {
+        SecurityEventCoalescer coalescer = new SecurityEventCoalescer();
+        Map<String, Set<String>> tags = TagsUtil.addTagToTags(null, "user_id", "alice");
+
+        assertFalse(coalescer.coalesce("authenticated", "alice", 0));
+        coalescer.open("authenticated", "alice", METRIC, "hostname", tags, 0, 1000);
+        assertTrue(coalescer.coalesce("authenticated", "alice", 10));
+        assertTrue(coalescer.coalesce("authenticated", "alice", 999));
+        assertFalse(coalescer.coalesce("authenticated", "alice", 1000));
+
+        // Other users and actions are tracked separately
+        assertFalse(coalescer.coalesce("authenticated", "bob", 10));
+        assertFalse(coalescer.coalesce("access_denied", "alice", 10));
+
+        assertTrue(coalescer.expire(999).isEmpty());
+        List<SecurityEventCoalescer.Window> expired = coalescer.expire(1000);
+        assertEquals(1, expired.size());
+        SecurityEventCoalescer.Window window = expired.get(0);
+        assertEquals("authenticated", window.getAction());
+        assertEquals("alice", window.getUsername());
+        assertEquals(METRIC, window.getMetricName());
+        assertEquals("hostname", window.getHostname());
+        assertEquals(tags, window.getTags());
+        assertEquals(2, window.getCoalesced());
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    public void testWindowsWithoutOccurrencesAreNotReturned() {
+        SecurityEventCoalescer coalescer = new SecurityEventCoalescer();
+        coalescer.open("logout", "alice", "jenkins.user.logout", "hostname", null, 0, 1000);
+        assertEquals(1, coalescer.size());
+
+        assertTrue(coalescer.expire(1000).isEmpty());
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    public void testReplacedWindowsAreReturned() {
+        SecurityEventCoalescer coalescer = new SecurityEventCoalescer();
+        coalescer.open("authenticated", "alice", METRIC, "hostname", null, 0, 1000);
+        assertTrue(coalescer.coalesce("authenticated", "alice", 500));
+
+        // The window ended before expire() ran, so the next occurrence opens a new one
+        assertFalse(coalescer.coalesce("authenticated", "alice", 1500));
+        coalescer.open("authenticated", "alice", METRIC, "hostname", null, 1500, 1000);
+        assertTrue(coalescer.coalesce("authenticated", "alice", 1600));
+
+        List<SecurityEventCoalescer.Window> expired = coalescer.expire(1700);
+        assertEquals(1, expired.size());
+        assertEquals(1, expired.get(0).getCoalesced());
+        assertEquals(1, coalescer.size());
+
+        expired = coalescer.expire(2500);
+        assertEquals(1, expired.size());
+        assertEquals(1, expired.get(0).getCoalesced());
+    }
+
+    @Test
+    public void testOpenKeepsTheOpenWindow() {
+        SecurityEventCoalescer coalescer = new SecurityEventCoalescer();
+        coalescer.open("authenticated", "alice", METRIC, "hostname", null, 0, 1000);
+        assertTrue(coalescer.coalesce("authenticated", "alice", 10));
+        coalescer.open("authenticated", "alice", METRIC, "hostname", null, 20, 1000);
+        assertTrue(coalescer.coalesce("authenticated", "alice", 30));
+
+        List<SecurityEventCoalescer.Window> expired = coalescer.expire(1000);
+        assertEquals(1, expired.size());
+        assertEquals(2, expired.get(0).getCoalesced());
+    }
+}
@@ -0,0 +1,60 @@
+package org.datadog.jenkins.plugins.datadog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import hudson.model.Run;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StageTimingStoreTest {
+
+    @Test
+    public void testShouldAccumulatePausesPerStage() {
+        StageTimingStore.RunStageTimings timings = new StageTimingStore.RunStageTimings();
+        // Node 5 is in the stage 4, which is nested in the stage 2
+        timings.addPause("5", 1000, Arrays.asList("4", "2"));
+        timings.addPause("7", 500, Collections.singletonList("2"));
+
+        assertEquals(1000, timings.getStagePauseMillis("4"));
+        assertEquals(1500, timings.getStagePauseMillis("2"));
+        assertEquals(0, timings.getStagePauseMillis("3"));
+        assertEquals(1500, timings.getPauseMillis());
+    }
+
+    @Test
+    public void testShouldAccountForEveryNodeOnce() {
+        StageTimingStore.RunStageTimings timings = new StageTimingStore.RunStageTimings();
+        // e.g. the node is the parent of several parallel branches
+        timings.addPause("5", 1000, Collections.singletonList("2"));
+        timings.addPause("5", 1000, Collections.singletonList("2"));
+
+        assertEquals(1000, timings.getStagePauseMillis("2"));
+        assertEquals(1000, timings.getPauseMillis());
+    }
+
+    @Test
+    public void testShouldIgnorePausesOutsideStages() {
+        StageTimingStore.RunStageTimings timings = new StageTimingStore.RunStageTimings();
+        timings.addPause("5", 1000, Collections.emptyList());
+
+        assertEquals(0, timings.getPauseMillis());
+    }
+
+    @Test
+    public void testShouldOnlyTrackRunsSinceTheyStarted() {
+        Run run = mock(Run.class);
+        when(run.getExternalizableId()).thenReturn("job#1");
+
+        assertNull(StageTimingStore.get().forRun(run));
+        StageTimingStore.get().start(run);
+        assertNotNull(StageTimingStore.get().forRun(run));
+        StageTimingStore.get().remove(run);
+        assertNull(StageTimingStore.get().forRun(run));
+    }
+}
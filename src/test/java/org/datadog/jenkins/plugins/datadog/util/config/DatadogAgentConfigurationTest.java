@@ -2,16 +2,21 @@ package org.datadog.jenkins.plugins.datadog.util.config;
 
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_AGENT_HOST;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_AGENT_PORT;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_DOGSTATSD_URL;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_TRACE_AGENT_PORT;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.DD_TRACE_AGENT_URL;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_DOGSTATSD_SOCKET_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_HOST_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_PORT_PROPERTY;
 import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_TRACE_COLLECTION_PORT_PROPERTY;
+import static org.datadog.jenkins.plugins.datadog.DatadogGlobalConfiguration.TARGET_TRACE_SOCKET_PROPERTY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +28,8 @@ public class DatadogAgentConfigurationTest {
         assertNull(config.getHost());
         assertNull(config.getPort());
         assertNull(config.getTracesPort());
+        assertNull(config.getDogStatsDSocketPath());
+        assertNull(config.getTraceSocketPath());
     }
 
     @Test
@@ -91,4 +98,45 @@ public class DatadogAgentConfigurationTest {
         assertEquals(Integer.valueOf(8126), config.getTracesPort());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testResolveUnixSocketUrls() {
+        final Map<String, String> envVars = new HashMap<>();
+        envVars.put(DD_TRACE_AGENT_URL, "unix:///var/run/datadog/apm.socket");
+        envVars.put(DD_DOGSTATSD_URL, "unix:///var/run/datadog/dsd.socket");
+        envVars.put(DD_TRACE_AGENT_PORT, "8126");
+
+        final DatadogAgentConfiguration config = DatadogAgentConfiguration.resolve(envVars);
+        assertNull(config.getHost());
+        assertEquals(Integer.valueOf(8126), config.getTracesPort());
+        assertEquals("/var/run/datadog/apm.socket", config.getTraceSocketPath());
+        assertEquals("/var/run/datadog/dsd.socket", config.getDogStatsDSocketPath());
+    }
+
+    @Test
+    public void testPrevalenceSpecificSocketEnvVars() {
+        final Map<String, String> envVars = new HashMap<>();
+        envVars.put(DD_TRACE_AGENT_URL, "unix:///var/run/datadog/apm.socket");
+        envVars.put(DD_DOGSTATSD_URL, "udp://localhost:8125");
+        envVars.put(TARGET_TRACE_SOCKET_PROPERTY, "/tmp/apm.socket");
+        envVars.put(TARGET_DOGSTATSD_SOCKET_PROPERTY, "/tmp/dsd.socket");
+
+        final DatadogAgentConfiguration config = DatadogAgentConfiguration.resolve(envVars);
+        assertEquals("/tmp/apm.socket", config.getTraceSocketPath());
+        assertEquals("/tmp/dsd.socket", config.getDogStatsDSocketPath());
+    }
+
+    @Test
+    public void testStandardSocketIsOnlyDetectedForALocalAgent() throws IOException {
+        final File socket = File.createTempFile("apm", ".socket");
+        try {
+            final String standardPath = socket.getAbsolutePath();
+            assertEquals("/tmp/configured.socket", DatadogAgentConfiguration.resolveSocketPath("/tmp/configured.socket", standardPath, "some-host"));
+            assertEquals(standardPath, DatadogAgentConfiguration.resolveSocketPath(null, standardPath, "localhost"));
+            assertEquals(standardPath, DatadogAgentConfiguration.resolveSocketPath("", standardPath, "127.0.0.1"));
+            assertNull(DatadogAgentConfiguration.resolveSocketPath(null, standardPath, "some-host"));
+            assertNull(DatadogAgentConfiguration.resolveSocketPath(null, standardPath + ".missing", "localhost"));
+        } finally {
+            socket.delete();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.datadog.jenkins.plugins.datadog.util.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.datadog.jenkins.plugins.datadog.model.GitCommitAction;
+import org.datadog.jenkins.plugins.datadog.model.GitRepositoryAction;
+import org.junit.After;
+import org.junit.Test;
+
+public class GitMetadataCacheTest {
+
+    private static final String REPO_URL = "https://github.com/DataDog/datadog-plugin.git";
+    private static final String COMMIT = "5e784c0e61f728131f526892142083543e013db9";
+
+    @After
+    public void tearDown() {
+        GitMetadataCache.get().clear();
+    }
+
+    @Test
+    public void testCommitIsCachedByRepositoryAndCommit() {
+        final GitMetadataCache cache = GitMetadataCache.get();
+        assertNull(cache.getCommit(REPO_URL, COMMIT));
+
+        cache.putCommit(REPO_URL, GitCommitAction.newBuilder().withCommit(COMMIT).withMessage("message").build());
+
+        final GitCommitAction cached = cache.getCommit(REPO_URL, COMMIT);
+        assertNotNull(cached);
+        assertEquals("message", cached.getMessage());
+        assertNull(cache.getCommit("https://github.com/DataDog/other.git", COMMIT));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFindOnlyRecordsTheHits() {
+        final GitMetadataCache cache = GitMetadataCache.get();
+        assertNull(cache.findCommit(REPO_URL, COMMIT));
+        assertNull(cache.findRepository(REPO_URL));
+        assertEquals(0, cache.getMisses());
+
+        cache.putCommit(REPO_URL, GitCommitAction.newBuilder().withCommit(COMMIT).build());
+        cache.putRepository(GitRepositoryAction.newBuilder().withRepositoryURL(REPO_URL).withDefaultBranch("main").build());
+        assertNotNull(cache.findCommit(REPO_URL, COMMIT));
+        assertNotNull(cache.findRepository(REPO_URL));
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testRepositoryIsCachedByUrl() {
+        final GitMetadataCache cache = GitMetadataCache.get();
+        cache.putRepository(GitRepositoryAction.newBuilder().withRepositoryURL(REPO_URL).withDefaultBranch("main").build());
+
+        final GitRepositoryAction cached = cache.getRepository(REPO_URL);
+        assertNotNull(cached);
+        assertEquals("main", cached.getDefaultBranch());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedCommitsAreEvicted() {
+        final GitMetadataCache cache = GitMetadataCache.get();
+        for(int i = 0; i <= GitMetadataCache.MAX_COMMITS; i++) {
+            cache.putCommit(REPO_URL, GitCommitAction.newBuilder().withCommit(String.format("%040d", i)).build());
+        }
+
+        assertNull(cache.getCommit(REPO_URL, String.format("%040d", 0)));
+        assertNotNull(cache.getCommit(REPO_URL, String.format("%040d", GitMetadataCache.MAX_COMMITS)));
+    }
+}